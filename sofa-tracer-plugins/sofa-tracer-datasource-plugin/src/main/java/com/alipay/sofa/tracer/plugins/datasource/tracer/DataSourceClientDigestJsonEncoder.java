@@ -41,6 +41,8 @@ public class DataSourceClientDigestJsonEncoder extends AbstractDigestSpanEncoder
             tagWithStr.get(DataSourceTracerKeys.DATABASE_NAME));
         //sql
         jsb.append(DataSourceTracerKeys.SQL, tagWithStr.get(DataSourceTracerKeys.SQL));
+        jsb.append(DataSourceTracerKeys.SQL_FINGERPRINT,
+            tagWithStr.get(DataSourceTracerKeys.SQL_FINGERPRINT));
         //db connection established cost time
         jsb.append(DataSourceTracerKeys.CONNECTION_ESTABLISH_COST,
             tagsWithLong.get(DataSourceTracerKeys.CONNECTION_ESTABLISH_COST)
@@ -27,6 +27,8 @@ import com.alipay.common.tracer.core.reporter.stat.AbstractSofaTracerStatisticRe
 import com.alipay.common.tracer.core.span.CommonSpanTags;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
 import com.alipay.common.tracer.core.tracer.AbstractClientTracer;
+import com.alipay.sofa.tracer.plugins.datasource.utils.SqlFingerprint;
+import com.alipay.sofa.tracer.plugins.datasource.utils.SqlFingerprintCache;
 import com.alipay.sofa.tracer.plugins.datasource.utils.SqlUtils;
 
 /**
@@ -36,6 +38,22 @@ import com.alipay.sofa.tracer.plugins.datasource.utils.SqlUtils;
  */
 public class DataSourceClientTracer extends AbstractClientTracer {
 
+    /**
+     * Whether the digest and stat logs record the normalized statement instead of the raw one
+     */
+    public static final String                              SQL_FINGERPRINT_KEY    = "com.alipay.sofa.tracer.datasource.sqlFingerprint";
+
+    /**
+     * Max number of raw statements whose fingerprint is cached
+     */
+    public static final String                              SQL_CACHE_SIZE_KEY     = "com.alipay.sofa.tracer.datasource.sqlCacheSize";
+
+    /**
+     * Whether a backslash escapes the next character inside string literals when statements are
+     * normalized, false follows standard SQL where only '' is an escape
+     */
+    public static final String                              SQL_BACKSLASH_KEY      = "com.alipay.sofa.tracer.datasource.sqlBackslashEscapes";
+
     private static final ThreadLocal<DataSourceTracerState> traceState             = new ThreadLocal<DataSourceTracerState>() {
                                                                                        @Override
                                                                                        protected DataSourceTracerState initialValue() {
@@ -59,8 +77,23 @@ public class DataSourceClientTracer extends AbstractClientTracer {
         return dataSourceClientTracer;
     }
 
+    /**
+     * null when fingerprinting is disabled
+     */
+    private final SqlFingerprintCache                       sqlFingerprintCache;
+
     private DataSourceClientTracer() {
         super(ComponentNameConstants.DATA_SOURCE);
+        if (Boolean.parseBoolean(SofaTracerConfiguration.getProperty(SQL_FINGERPRINT_KEY,
+            Boolean.TRUE.toString()))) {
+            int cacheSize = SofaTracerConfiguration.getIntegerDefaultIfNull(SQL_CACHE_SIZE_KEY,
+                SqlFingerprintCache.DEFAULT_MAX_SIZE);
+            boolean backslashEscapes = Boolean.parseBoolean(SofaTracerConfiguration
+                .getProperty(SQL_BACKSLASH_KEY, Boolean.FALSE.toString()));
+            this.sqlFingerprintCache = new SqlFingerprintCache(cacheSize, backslashEscapes);
+        } else {
+            this.sqlFingerprintCache = null;
+        }
     }
 
     @Override
@@ -126,7 +159,14 @@ public class DataSourceClientTracer extends AbstractClientTracer {
                 (String) getStateValue(DataSourceTracerKeys.DATABASE_NAME));
             sofaTracerSpan.setTag(DataSourceTracerKeys.DATABASE_ENDPOINT,
                 (String) getStateValue(DataSourceTracerKeys.DATABASE_ENDPOINT));
-            sofaTracerSpan.setTag(DataSourceTracerKeys.SQL, SqlUtils.getSqlEscaped(sql));
+            if (sqlFingerprintCache != null) {
+                SqlFingerprint fingerprint = sqlFingerprintCache.get(sql);
+                sofaTracerSpan.setTag(DataSourceTracerKeys.SQL, fingerprint.getSql());
+                sofaTracerSpan.setTag(DataSourceTracerKeys.SQL_FINGERPRINT,
+                    fingerprint.getHashHex());
+            } else {
+                sofaTracerSpan.setTag(DataSourceTracerKeys.SQL, SqlUtils.getSqlEscaped(sql));
+            }
         }
     }
 
@@ -28,6 +28,8 @@ public class DataSourceTracerKeys {
 
     public static final String SQL                       = "sql";
 
+    public static final String SQL_FINGERPRINT           = "sql.fingerprint";
+
     public static final String DATABASE_TYPE             = "database.type";
 
     public static final String DATABASE_NAME             = "database.name";
@@ -19,6 +19,8 @@ package com.alipay.sofa.tracer.plugins.datasource.tracer;
 import com.alipay.common.tracer.core.constants.SofaTracerConstant;
 import com.alipay.sofa.tracer.plugins.datasource.Interceptor;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * @author shusong.yss
  * @author qilong.zql
@@ -34,7 +36,7 @@ public class StatementTracerInterceptor implements Interceptor {
 
     @Override
     public Object intercept(Chain chain) throws Exception {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         String resultCode = SofaTracerConstant.RESULT_SUCCESS;
         try {
             clientTracer.startTrace(chain.getOriginalSql());
@@ -43,7 +45,7 @@ public class StatementTracerInterceptor implements Interceptor {
             resultCode = SofaTracerConstant.RESULT_FAILED;
             throw e;
         } finally {
-            clientTracer.endTrace(System.currentTimeMillis() - start, resultCode);
+            clientTracer.endTrace(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), resultCode);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.datasource.utils;
+
+import java.util.regex.Pattern;
+
+/**
+ * SqlFingerprint
+ * <p>
+ * Normalized form of a statement: literals replaced by '?', comments dropped, whitespace
+ * collapsed, IN lists and multi row VALUES collapsed, so executions that only differ in their
+ * parameters share one fingerprint and one stat key.
+ * </p>
+ * @since 3.1.10
+ */
+public final class SqlFingerprint {
+
+    public static final SqlFingerprint EMPTY            = new SqlFingerprint("", "");
+
+    private static final Pattern       IN_LIST          = Pattern
+                                                            .compile("(?i)\\b(in) ?\\( ?\\?(?: ?, ?\\?)* ?\\)");
+
+    private static final Pattern       VALUES_ROWS      = Pattern
+                                                            .compile("(?i)\\b(values) ?(\\([?, ]*\\))(?: ?, ?\\([?, ]*\\))+");
+
+    private static final long          FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    private static final long          FNV_PRIME        = 0x100000001b3L;
+
+    private final String               sql;
+
+    private final long                 hash;
+
+    private final String               hashHex;
+
+    private SqlFingerprint(String normalized, String escaped) {
+        this.sql = escaped;
+        this.hash = hash(normalized);
+        this.hashHex = String.format("%016x", hash);
+    }
+
+    /**
+     * Fingerprint of a statement in standard SQL, where only '' escapes a quote in a literal
+     *
+     * @param sql raw statement, may be null
+     * @return fingerprint of the statement
+     */
+    public static SqlFingerprint of(String sql) {
+        return of(sql, false);
+    }
+
+    /**
+     * @param sql              raw statement, may be null
+     * @param backslashEscapes whether a backslash escapes the next character in a literal, as in
+     *                         MySQL by default
+     * @return fingerprint of the statement
+     */
+    public static SqlFingerprint of(String sql, boolean backslashEscapes) {
+        if (sql == null || sql.isEmpty()) {
+            return EMPTY;
+        }
+        String normalized = normalize(sql, backslashEscapes);
+        String limited = normalized;
+        if (limited.length() > SqlUtils.DIGEST_LOG_SQL_LIMIT) {
+            limited = limited.substring(0, SqlUtils.DIGEST_LOG_SQL_LIMIT) + " ...";
+        }
+        return new SqlFingerprint(normalized, SqlUtils.escapeSeparator(limited));
+    }
+
+    /**
+     * @return normalized statement, escaped for the digest log like {@link SqlUtils#getSqlEscaped}
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return 64-bit FNV-1a hash of the normalized statement, stable across processes
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    public String getHashHex() {
+        return hashHex;
+    }
+
+    static String normalize(String sql, boolean backslashEscapes) {
+        int length = sql.length();
+        StringBuilder sb = new StringBuilder(length);
+        boolean pendingSpace = false;
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            char next = i + 1 < length ? sql.charAt(i + 1) : 0;
+            if (c == '-' && next == '-') {
+                i = skipTo(sql, i + 2, "\n");
+                pendingSpace = true;
+            } else if (c == '/' && next == '*') {
+                i = skipTo(sql, i + 2, "*/");
+                pendingSpace = true;
+            } else if (Character.isWhitespace(c) || c == '|') {
+                i++;
+                pendingSpace = true;
+            } else if (c == '\'') {
+                i = skipQuoted(sql, i + 1, backslashEscapes);
+                pendingSpace = appendToken(sb, '?', pendingSpace);
+            } else if (Character.isDigit(c)
+                       && (pendingSpace || sb.length() == 0 || !isIdentifierPart(sb
+                           .charAt(sb.length() - 1)))) {
+                i = skipNumber(sql, i + 1);
+                pendingSpace = appendToken(sb, '?', pendingSpace);
+            } else {
+                i++;
+                pendingSpace = appendToken(sb, c, pendingSpace);
+            }
+        }
+        String normalized = sb.toString();
+        if (normalized.indexOf('?') < 0) {
+            return normalized;
+        }
+        normalized = IN_LIST.matcher(normalized).replaceAll("$1 (?)");
+        return VALUES_ROWS.matcher(normalized).replaceAll("$1 $2");
+    }
+
+    static long hash(String normalized) {
+        long h = FNV_OFFSET_BASIS;
+        for (int i = 0; i < normalized.length(); i++) {
+            h ^= normalized.charAt(i);
+            h *= FNV_PRIME;
+        }
+        return h;
+    }
+
+    private static boolean appendToken(StringBuilder sb, char c, boolean pendingSpace) {
+        if (pendingSpace && sb.length() > 0) {
+            sb.append(' ');
+        }
+        sb.append(c);
+        return false;
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '.' || c == '`';
+    }
+
+    private static int skipTo(String sql, int from, String end) {
+        int index = sql.indexOf(end, from);
+        return index < 0 ? sql.length() : index + end.length();
+    }
+
+    private static int skipQuoted(String sql, int from, boolean backslashEscapes) {
+        int i = from;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\\' && backslashEscapes) {
+                i += 2;
+            } else if (c == '\'') {
+                // '' is an escaped quote inside the literal
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                i++;
+            }
+        }
+        return sql.length();
+    }
+
+    private static int skipNumber(String sql, int from) {
+        int i = from;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (Character.isLetterOrDigit(c) || c == '.') {
+                i++;
+            } else if ((c == '+' || c == '-')
+                       && (sql.charAt(i - 1) == 'e' || sql.charAt(i - 1) == 'E')) {
+                // exponent sign, e.g. 1e-3
+                i++;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.datasource.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SqlFingerprintCache
+ * <p>
+ * Bounded LRU cache from raw statement to {@link SqlFingerprint}, so a prepared statement executed
+ * again and again is normalized once. Split into independently locked segments to keep
+ * contention low on the calling threads.
+ * </p>
+ * @since 3.1.10
+ */
+public class SqlFingerprintCache {
+
+    public static final int                     DEFAULT_MAX_SIZE = 1024;
+
+    private static final int                    SEGMENTS         = 16;
+
+    private final Map<String, SqlFingerprint>[] segments;
+
+    private final boolean                       backslashEscapes;
+
+    public SqlFingerprintCache(int maxSize) {
+        this(maxSize, false);
+    }
+
+    /**
+     * @param maxSize          max number of cached statements
+     * @param backslashEscapes see {@link SqlFingerprint#of(String, boolean)}
+     */
+    @SuppressWarnings("unchecked")
+    public SqlFingerprintCache(int maxSize, boolean backslashEscapes) {
+        this.backslashEscapes = backslashEscapes;
+        final int segmentSize = Math.max(1, maxSize / SEGMENTS);
+        this.segments = new Map[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new LinkedHashMap<String, SqlFingerprint>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, SqlFingerprint> eldest) {
+                    return size() > segmentSize;
+                }
+            };
+        }
+    }
+
+    /**
+     * @param sql raw statement, may be null
+     * @return cached or freshly computed fingerprint
+     */
+    public SqlFingerprint get(String sql) {
+        if (sql == null || sql.isEmpty()) {
+            return SqlFingerprint.EMPTY;
+        }
+        // statements past the digest limit are mostly one-off, keep them out of the cache
+        if (sql.length() > SqlUtils.DIGEST_LOG_SQL_LIMIT) {
+            return SqlFingerprint.of(sql, backslashEscapes);
+        }
+        Map<String, SqlFingerprint> segment = segments[(sql.hashCode() & 0x7fffffff) % SEGMENTS];
+        SqlFingerprint fingerprint;
+        synchronized (segment) {
+            fingerprint = segment.get(sql);
+        }
+        if (fingerprint == null) {
+            // computed outside the lock, a concurrent miss only costs a duplicate normalization
+            fingerprint = SqlFingerprint.of(sql, backslashEscapes);
+            synchronized (segment) {
+                segment.put(sql, fingerprint);
+            }
+        }
+        return fingerprint;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<String, SqlFingerprint> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+}
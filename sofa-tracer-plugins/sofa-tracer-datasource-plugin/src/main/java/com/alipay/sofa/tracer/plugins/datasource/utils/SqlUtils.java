@@ -29,7 +29,7 @@ public class SqlUtils {
     private static final String DEFAULT_NEW_LINE         = "\n";
     private static final String DEFAULT_RETURN           = "\r";
     private static final String EMPTY_STRING             = "";
-    private static final int    DIGEST_LOG_SQL_LIMIT     = 4096;
+    static final int            DIGEST_LOG_SQL_LIMIT     = 4096;
 
     public static String getSqlEscaped(String sql) {
         String limitSql = sql;
@@ -39,6 +39,10 @@ public class SqlUtils {
         return escape(escapeWithSpecialCheck(limitSql), DEFAULT_SEPARATOR, DEFAULT_SEPARATOR_ESCAPE);
     }
 
+    static String escapeSeparator(String sql) {
+        return escape(sql, DEFAULT_SEPARATOR, DEFAULT_SEPARATOR_ESCAPE);
+    }
+
     private static String escape(String str, String oldStr, String newStr) {
         if (str == null) {
             return EMPTY_STRING;
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sofa.tracer.plugins.datasource;
+
+import com.alipay.sofa.tracer.plugins.datasource.utils.SqlFingerprint;
+import com.alipay.sofa.tracer.plugins.datasource.utils.SqlFingerprintCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @since 3.1.10
+ */
+public class SqlFingerprintTest {
+
+    @Test
+    public void testLiteralsAndWhitespace() {
+        SqlFingerprint fingerprint = SqlFingerprint
+            .of("  select name\n from t_user where id = 100 and nick = 'it''s' -- c\n"
+                + " and score > 1.5e-3 /* hint */ and t2.col1 = 7");
+        Assert.assertEquals(
+            "select name from t_user where id = ? and nick = ? and score > ? and t2.col1 = ?",
+            fingerprint.getSql());
+    }
+
+    @Test
+    public void testBackslashEndsStandardLiteral() {
+        // a complete literal in standard SQL, the statement goes on after it
+        Assert.assertEquals("select * from t where path = ? and id = ?",
+            SqlFingerprint.of("select * from t where path = 'C:\\' and id = 1").getSql());
+        Assert.assertNotEquals(
+            SqlFingerprint.of("select * from t where path = 'C:\\' and id = 1").getHash(),
+            SqlFingerprint.of("select * from t where path = 'C:\\' and uid = 1").getHash());
+    }
+
+    @Test
+    public void testBackslashEscapes() {
+        Assert.assertEquals("select * from t where nick = ? and id = ?",
+            SqlFingerprint.of("select * from t where nick = 'it\\'s' and id = 1", true)
+                .getSql());
+        Assert.assertEquals("select * from t where path = ? and id = ?",
+            new SqlFingerprintCache(32, true).get(
+                "select * from t where path = 'C:\\\\' and id = 1").getSql());
+    }
+
+    @Test
+    public void testInListAndValuesCollapsed() {
+        Assert.assertEquals("select * from t where id in (?)",
+            SqlFingerprint.of("select * from t where id in (1, 2, 3)").getSql());
+        Assert.assertEquals("select * from t where id IN (?)",
+            SqlFingerprint.of("select * from t where id IN (?,?)").getSql());
+        Assert.assertEquals("insert into t (a%2C b) values (?%2C ?)",
+            SqlFingerprint.of("insert into t (a, b) values (1, 'x'), (2, 'y'), (?, ?)").getSql());
+    }
+
+    @Test
+    public void testSameShapeSameHash() {
+        SqlFingerprint a = SqlFingerprint.of("select * from t where id = 1");
+        SqlFingerprint b = SqlFingerprint.of("select *  from t where id = 22");
+        SqlFingerprint c = SqlFingerprint.of("select * from t where uid = 1");
+        Assert.assertEquals(a.getHash(), b.getHash());
+        Assert.assertEquals(a.getHashHex(), b.getHashHex());
+        Assert.assertNotEquals(a.getHash(), c.getHash());
+        Assert.assertEquals(16, a.getHashHex().length());
+        Assert.assertSame(SqlFingerprint.EMPTY, SqlFingerprint.of(null));
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        SqlFingerprintCache cache = new SqlFingerprintCache(32);
+        String sql = "select * from t where id = ?";
+        Assert.assertSame(cache.get(sql), cache.get(sql));
+        for (int i = 0; i < 1000; i++) {
+            cache.get("select * from t" + i);
+        }
+        Assert.assertTrue(cache.size() <= 32);
+        Assert.assertSame(SqlFingerprint.EMPTY, cache.get(null));
+    }
+}
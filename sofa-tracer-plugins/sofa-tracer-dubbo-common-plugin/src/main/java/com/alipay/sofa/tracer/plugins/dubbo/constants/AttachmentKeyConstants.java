@@ -22,13 +22,21 @@ package com.alipay.sofa.tracer.plugins.dubbo.constants;
  **/
 public class AttachmentKeyConstants {
 
-    public static final String SERVER_DESERIALIZE_SIZE = "server.deserialize.size";
-    public static final String SERVER_SERIALIZE_SIZE   = "server.serialize.size";
-    public static final String CLIENT_DESERIALIZE_SIZE = "client.deserialize.size";
-    public static final String CLIENT_SERIALIZE_SIZE   = "client.serialize.size";
+    public static final String SERVER_DESERIALIZE_SIZE        = "server.deserialize.size";
+    public static final String SERVER_SERIALIZE_SIZE          = "server.serialize.size";
+    public static final String CLIENT_DESERIALIZE_SIZE        = "client.deserialize.size";
+    public static final String CLIENT_SERIALIZE_SIZE          = "client.serialize.size";
 
-    public static final String SERVER_DESERIALIZE_TIME = "server.deserialize.time";
-    public static final String SERVER_SERIALIZE_TIME   = "server.serialize.time";
-    public static final String CLIENT_DESERIALIZE_TIME = "client.deserialize.time";
-    public static final String CLIENT_SERIALIZE_TIME   = "client.serialize.time";
+    public static final String SERVER_DESERIALIZE_TIME        = "server.deserialize.time";
+    public static final String SERVER_SERIALIZE_TIME          = "server.serialize.time";
+    public static final String CLIENT_DESERIALIZE_TIME        = "client.deserialize.time";
+    public static final String CLIENT_SERIALIZE_TIME          = "client.serialize.time";
+
+    /**
+     * The same timings in microseconds, most payloads take less than a millisecond
+     */
+    public static final String SERVER_DESERIALIZE_TIME_MICROS = "server.deserialize.time.us";
+    public static final String SERVER_SERIALIZE_TIME_MICROS   = "server.serialize.time.us";
+    public static final String CLIENT_DESERIALIZE_TIME_MICROS = "client.deserialize.time.us";
+    public static final String CLIENT_SERIALIZE_TIME_MICROS   = "client.serialize.time.us";
 }
@@ -120,7 +120,7 @@ public class DubboSofaTracerFilter implements Filter {
         appendRpcClientSpanTags(invoker, sofaTracerSpan);
         // do serialized and then transparent transmission to the rpc server
         String serializedSpanContext = sofaTracerSpan.getSofaTracerSpanContext()
-            .serializeSpanContext();
+            .serializeForPropagation();
         //put into attachments
         invocation.getAttachments().put(CommonSpanTags.RPC_TRACE_NAME, serializedSpanContext);
         // 同时更新rpc上下文里的内容, 防止新版 com.alibaba.dubbo.rpc.protocol.AbstractInvoker.invoke 里又用rpcContext的attachments覆盖invocation的attachments
@@ -375,8 +375,14 @@ public class DubboSofaTracerFilter implements Filter {
             deElapsed = result.getAttachment(AttachmentKeyConstants.CLIENT_DESERIALIZE_TIME);
             sofaTracerSpan.setTag(AttachmentKeyConstants.CLIENT_SERIALIZE_TIME,
                 parseAttachment(elapsed, 0));
+            sofaTracerSpan.setTag(AttachmentKeyConstants.CLIENT_SERIALIZE_TIME_MICROS,
+                parseAttachment(invocation
+                    .getAttachment(AttachmentKeyConstants.CLIENT_SERIALIZE_TIME_MICROS), 0));
             sofaTracerSpan.setTag(AttachmentKeyConstants.CLIENT_DESERIALIZE_TIME,
                 parseAttachment(deElapsed, 0));
+            sofaTracerSpan.setTag(AttachmentKeyConstants.CLIENT_DESERIALIZE_TIME_MICROS,
+                parseAttachment(result
+                    .getAttachment(AttachmentKeyConstants.CLIENT_DESERIALIZE_TIME_MICROS), 0));
             sofaTracerSpan.setTag(AttachmentKeyConstants.CLIENT_SERIALIZE_SIZE,
                 parseAttachment(reqSize, 0));
             sofaTracerSpan.setTag(AttachmentKeyConstants.CLIENT_DESERIALIZE_SIZE,
@@ -390,10 +396,16 @@ public class DubboSofaTracerFilter implements Filter {
                 parseAttachment(reqSize, 0));
             sofaTracerSpan.setTag(AttachmentKeyConstants.SERVER_DESERIALIZE_TIME,
                 parseAttachment(deElapsed, 0));
+            sofaTracerSpan.setTag(AttachmentKeyConstants.SERVER_DESERIALIZE_TIME_MICROS,
+                parseAttachment(invocation
+                    .getAttachment(AttachmentKeyConstants.SERVER_DESERIALIZE_TIME_MICROS), 0));
             sofaTracerSpan.setTag(AttachmentKeyConstants.SERVER_SERIALIZE_SIZE,
                 parseAttachment(respSize, 0));
             sofaTracerSpan.setTag(AttachmentKeyConstants.SERVER_SERIALIZE_TIME,
                 parseAttachment(elapsed, 0));
+            sofaTracerSpan.setTag(AttachmentKeyConstants.SERVER_SERIALIZE_TIME_MICROS,
+                parseAttachment(result
+                    .getAttachment(AttachmentKeyConstants.SERVER_SERIALIZE_TIME_MICROS), 0));
         }
 
     }
@@ -428,7 +440,7 @@ public class DubboSofaTracerFilter implements Filter {
         }
         RpcContext rpcContext = RpcContext.getContext();
         Map<String, String> tagsStr = sofaTracerSpan.getTagsWithStr();
-        tagsStr.put(Tags.SPAN_KIND.getKey(), spanKind(rpcContext));
+        sofaTracerSpan.setTag(Tags.SPAN_KIND.getKey(), spanKind(rpcContext));
         String service = invoker.getInterface().getName();
         tagsStr.put(CommonSpanTags.SERVICE, service == null ? BLANK : service);
         String methodName = rpcContext.getMethodName();
@@ -455,7 +467,7 @@ public class DubboSofaTracerFilter implements Filter {
         }
         RpcContext rpcContext = RpcContext.getContext();
         Map<String, String> tagsStr = sofaTracerSpan.getTagsWithStr();
-        tagsStr.put(Tags.SPAN_KIND.getKey(), spanKind(rpcContext));
+        sofaTracerSpan.setTag(Tags.SPAN_KIND.getKey(), spanKind(rpcContext));
         String protocol = rpcContext.getUrl().getProtocol();
         tagsStr.put(CommonSpanTags.PROTOCOL, protocol == null ? BLANK : protocol);
         String service = invoker.getInterface().getName();
@@ -26,6 +26,7 @@ import com.alibaba.dubbo.rpc.RpcResult;
 import com.alipay.sofa.tracer.plugins.dubbo.constants.AttachmentKeyConstants;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author: guolei.sgl (guolei.sgl@antfin.com) 2019/2/26 7:46 PM
@@ -69,16 +70,19 @@ public class DataSizeCodecWrapper implements Codec2 {
      */
     protected void encodeRequestWithTracer(Channel channel, ChannelBuffer buffer, Object message,
                                            RpcInvocation invocation) throws IOException {
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         int index = buffer.writerIndex();
         // serialization
         codec.encode(channel, buffer, message);
         int reqSize = buffer.writerIndex() - index;
-        long elapsed = System.currentTimeMillis() - startTime;
+        long elapsedMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime);
+        long elapsed = elapsedMicros / 1000;
         invocation.setAttachment(AttachmentKeyConstants.CLIENT_SERIALIZE_SIZE,
             String.valueOf(reqSize));
         invocation.setAttachment(AttachmentKeyConstants.CLIENT_SERIALIZE_TIME,
             String.valueOf(elapsed));
+        invocation.setAttachment(AttachmentKeyConstants.CLIENT_SERIALIZE_TIME_MICROS,
+            String.valueOf(elapsedMicros));
     }
 
     /**
@@ -90,15 +94,18 @@ public class DataSizeCodecWrapper implements Codec2 {
     protected void encodeResultWithTracer(Channel channel, ChannelBuffer buffer, Object message)
                                                                                                 throws IOException {
         Object result = ((Response) message).getResult();
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         int index = buffer.writerIndex();
         codec.encode(channel, buffer, message);
         int respSize = buffer.writerIndex() - index;
-        long elapsed = System.currentTimeMillis() - startTime;
+        long elapsedMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime);
+        long elapsed = elapsedMicros / 1000;
         ((RpcResult) result).setAttachment(AttachmentKeyConstants.SERVER_SERIALIZE_SIZE,
             String.valueOf(respSize));
         ((RpcResult) result).setAttachment(AttachmentKeyConstants.SERVER_SERIALIZE_TIME,
             String.valueOf(elapsed));
+        ((RpcResult) result).setAttachment(AttachmentKeyConstants.SERVER_SERIALIZE_TIME_MICROS,
+            String.valueOf(elapsedMicros));
     }
 
     /**
@@ -110,11 +117,12 @@ public class DataSizeCodecWrapper implements Codec2 {
      */
     @Override
     public Object decode(Channel channel, ChannelBuffer input) throws IOException {
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         int index = input.readerIndex();
         Object ret = codec.decode(channel, input);
         int size = input.readerIndex() - index;
-        long elapsed = System.currentTimeMillis() - startTime;
+        long elapsedMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime);
+        long elapsed = elapsedMicros / 1000;
         if (ret instanceof Request) {
             // server-side deserialize the Request
             Object data = ((Request) ret).getData();
@@ -124,6 +132,8 @@ public class DataSizeCodecWrapper implements Codec2 {
                     String.valueOf(size));
                 invocation.setAttachment(AttachmentKeyConstants.SERVER_DESERIALIZE_TIME,
                     String.valueOf(elapsed));
+                invocation.setAttachment(AttachmentKeyConstants.SERVER_DESERIALIZE_TIME_MICROS,
+                    String.valueOf(elapsedMicros));
             }
         } else if (ret instanceof Response) {
             // client-side deserialize the Response
@@ -134,6 +144,8 @@ public class DataSizeCodecWrapper implements Codec2 {
                     String.valueOf(size));
                 rpcResult.setAttachment(AttachmentKeyConstants.CLIENT_DESERIALIZE_TIME,
                     String.valueOf(elapsed));
+                rpcResult.setAttachment(AttachmentKeyConstants.CLIENT_DESERIALIZE_TIME_MICROS,
+                    String.valueOf(elapsedMicros));
             }
         }
         return ret;
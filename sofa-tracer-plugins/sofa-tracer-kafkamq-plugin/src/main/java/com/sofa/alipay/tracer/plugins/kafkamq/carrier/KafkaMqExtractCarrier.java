@@ -16,7 +16,7 @@
  */
 package com.sofa.alipay.tracer.plugins.kafkamq.carrier;
 
-import io.opentracing.propagation.TextMap;
+import com.alipay.common.tracer.core.registry.LookupTextMap;
 import org.apache.kafka.common.header.Header;
 import org.apache.kafka.common.header.Headers;
 
@@ -31,20 +31,52 @@ import java.util.Map;
  * @author chenchen6  2020/8/23 09:41
  * @since 3.1.0
  */
-public class KafkaMqExtractCarrier implements TextMap {
+public class KafkaMqExtractCarrier implements LookupTextMap {
 
-    private final Map<String, String> headerMap = new HashMap<>();
+    private final Headers headers;
 
     public KafkaMqExtractCarrier(Headers headers) {
+        this.headers = headers;
+    }
+
+    /**
+     * The last header with the key wins, as the most recently injected context is the parent
+     */
+    @Override
+    public String get(String key) {
+        Header found = null;
         for (Header head : headers) {
-            String headerVal = head.value() == null ? null : new String(head.value(),
-                StandardCharsets.UTF_8);
-            headerMap.put(head.key(), headerVal);
+            if (key.equalsIgnoreCase(head.key())) {
+                found = head;
+            }
         }
+        return found == null ? null : value(found);
+    }
+
+    @Override
+    public Iterable<String> keys() {
+        return () -> {
+            Iterator<Header> it = headers.iterator();
+            return new Iterator<String>() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public String next() {
+                    return it.next().key();
+                }
+            };
+        };
     }
 
     @Override
     public Iterator<Map.Entry<String, String>> iterator() {
+        Map<String, String> headerMap = new HashMap<>();
+        for (Header head : headers) {
+            headerMap.put(head.key(), value(head));
+        }
         return headerMap.entrySet().iterator();
     }
 
@@ -53,4 +85,8 @@ public class KafkaMqExtractCarrier implements TextMap {
         throw new UnsupportedOperationException(
             "put should never be used with SOFA Tracer.extract()");
     }
+
+    private static String value(Header head) {
+        return head.value() == null ? null : new String(head.value(), StandardCharsets.UTF_8);
+    }
 }
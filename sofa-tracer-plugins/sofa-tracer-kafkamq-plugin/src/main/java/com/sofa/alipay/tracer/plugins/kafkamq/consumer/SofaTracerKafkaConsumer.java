@@ -19,8 +19,11 @@ package com.sofa.alipay.tracer.plugins.kafkamq.consumer;
 import com.alipay.common.tracer.core.SofaTracer;
 import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
 import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
+import com.alipay.common.tracer.core.holder.SofaTraceContextHolder;
+import com.alipay.common.tracer.core.registry.AbstractTextB3Formatter;
 import com.alipay.common.tracer.core.registry.ExtendFormat;
 import com.alipay.common.tracer.core.span.CommonSpanTags;
+import com.alipay.common.tracer.core.span.MessageBatchSummary;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
 import com.sofa.alipay.tracer.plugins.kafkamq.carrier.KafkaMqExtractCarrier;
 import com.sofa.alipay.tracer.plugins.kafkamq.tracers.KafkaMQConsumeTracer;
@@ -40,6 +43,7 @@ import org.apache.kafka.common.header.Headers;
 
 import java.time.Duration;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.OptionalLong;
@@ -55,6 +59,20 @@ import java.util.regex.Pattern;
  */
 public class SofaTracerKafkaConsumer<K, V> implements Consumer<K, V> {
 
+    /**
+     * Comma separated topics traced with one span per poll instead of one per record, "*" for all
+     */
+    public static final String   BATCH_TOPICS_KEY    = "com.alipay.sofa.tracer.kafka.consumer.batchTopics";
+
+    /**
+     * Max number of sampled upstream traces linked from a batch span
+     */
+    public static final String   BATCH_MAX_LINKS_KEY = "com.alipay.sofa.tracer.kafka.consumer.batchMaxLinks";
+
+    private final Set<String>    batchTopics;
+
+    private final int            batchMaxLinks;
+
     private KafkaMQConsumeTracer kafkaMQConsumeTracer;
 
     private final Consumer<K, V> consumer;
@@ -67,11 +85,14 @@ public class SofaTracerKafkaConsumer<K, V> implements Consumer<K, V> {
                                    KafkaMQConsumeTracer kafkaMQConsumeTracer) {
         this.consumer = consumer;
         this.kafkaMQConsumeTracer = kafkaMQConsumeTracer;
+        this.batchTopics = MessageBatchSummary.parseTopics(SofaTracerConfiguration
+            .getProperty(BATCH_TOPICS_KEY));
+        this.batchMaxLinks = SofaTracerConfiguration.getIntegerDefaultIfNull(BATCH_MAX_LINKS_KEY,
+            MessageBatchSummary.DEFAULT_MAX_LINKS);
     }
 
     public SofaTracerKafkaConsumer(Consumer<K, V> consumer) {
-        this.consumer = consumer;
-        this.kafkaMQConsumeTracer = KafkaMQConsumeTracer.getKafkaMQConsumeTracerSingleton();
+        this(consumer, KafkaMQConsumeTracer.getKafkaMQConsumeTracerSingleton());
     }
 
     @Override
@@ -119,21 +140,17 @@ public class SofaTracerKafkaConsumer<K, V> implements Consumer<K, V> {
     public ConsumerRecords<K, V> poll(long timeout) {
 
         ConsumerRecords<K, V> records = consumer.poll(timeout);
-        for (ConsumerRecord<K, V> record : records) {
-            //no ss, depends on kafka consumption model.
-            //we can only do it in the aspect.
-            appendSpanAndServerReceive(record);
-        }
+        //no ss, depends on kafka consumption model.
+        //we can only do it in the aspect.
+        traceRecords(records);
         return records;
     }
 
     @Override
     public ConsumerRecords<K, V> poll(Duration timeout) {
         ConsumerRecords<K, V> records = consumer.poll(timeout);
-        for (ConsumerRecord<K, V> record : records) {
-            //sr, no ss.
-            appendSpanAndServerReceive(record);
-        }
+        //sr, no ss.
+        traceRecords(records);
         return records;
     }
 
@@ -327,10 +344,62 @@ public class SofaTracerKafkaConsumer<K, V> implements Consumer<K, V> {
         consumer.wakeup();
     }
 
-    private void appendSpanAndServerReceive(ConsumerRecord<K, V> record) {
+    /**
+     * Records of batch topics share one span per poll, it is started after the per record spans
+     * so that it is the one left in the context for the listener aspect to finish.
+     */
+    private void traceRecords(ConsumerRecords<K, V> records) {
+        if (records.isEmpty()) {
+            return;
+        }
         if (null == kafkaMQConsumeTracer) {
             kafkaMQConsumeTracer = KafkaMQConsumeTracer.getKafkaMQConsumeTracerSingleton();
         }
+        MessageBatchSummary summary = null;
+        Set<String> topics = null;
+        for (ConsumerRecord<K, V> record : records) {
+            if (!MessageBatchSummary.isBatchTopic(batchTopics, record.topic())) {
+                appendSpanAndServerReceive(record);
+                continue;
+            }
+            if (summary == null) {
+                summary = new MessageBatchSummary(batchMaxLinks);
+                topics = new LinkedHashSet<>();
+            }
+            topics.add(record.topic());
+            summary.add(record.topic() + '-' + record.partition(), recordSize(record));
+            // without a trace id the extraction makes up a root context, nothing to link to
+            if (summary.acceptsLinks()
+                && record.headers().lastHeader(AbstractTextB3Formatter.TRACE_ID_KEY_HEAD) != null) {
+                summary.link(getSpanContextFromHeaders(record.headers()));
+            }
+        }
+        if (summary != null) {
+            appendBatchSpanAndServerReceive(summary, topics);
+        }
+    }
+
+    private void appendBatchSpanAndServerReceive(MessageBatchSummary summary, Set<String> topics) {
+        // a batch mixes traces, they are linked instead of picking one of them as the parent.
+        // serverReceive parents on whatever the thread holds, a per record span of this poll or
+        // the unfinished batch span of the previous one, so drop it to start a new root
+        SofaTraceContextHolder.getSofaTraceContext().clear();
+        SofaTracerSpan sofaTracerSpan = kafkaMQConsumeTracer.serverReceive(null);
+        sofaTracerSpan.setTag(CommonSpanTags.CURRENT_THREAD_NAME, Thread.currentThread()
+            .getName());
+        sofaTracerSpan.setTag(CommonSpanTags.LOCAL_APP,
+            SofaTracerConfiguration.getProperty(SofaTracerConfiguration.TRACER_APPNAME_KEY));
+        sofaTracerSpan.setTag(CommonSpanTags.KAFKA_TOPIC,
+            String.join(String.valueOf(MessageBatchSummary.ENTRY_SEPARATOR), topics));
+        summary.applyTo(sofaTracerSpan);
+    }
+
+    private long recordSize(ConsumerRecord<K, V> record) {
+        return Math.max(0, record.serializedKeySize())
+               + Math.max(0, record.serializedValueSize());
+    }
+
+    private void appendSpanAndServerReceive(ConsumerRecord<K, V> record) {
         SofaTracerSpanContext spanContext = getSpanContextFromHeaders(record.headers());
         SofaTracerSpan sofaTracerSpan = kafkaMQConsumeTracer.serverReceive(spanContext);
         appendSpanTags(sofaTracerSpan, record);
@@ -37,7 +37,10 @@ public class KafkaMQConsumeDigestEncoder extends AbstractDigestSpanEncoder {
         Map<String, String> tagWithStr = span.getTagsWithStr();
         Map<String, Number> tagsWithNumber = span.getTagsWithNumber();
         xsb.append(tagWithStr.get(CommonSpanTags.KAFKA_TOPIC));
-        xsb.append((Integer) tagsWithNumber.get(CommonSpanTags.KAFKA_PARTITION));
-        xsb.append((Long) tagsWithNumber.get(CommonSpanTags.KAFKA_OFFSET));
+        Number partition = tagsWithNumber.get(CommonSpanTags.KAFKA_PARTITION);
+        Number offset = tagsWithNumber.get(CommonSpanTags.KAFKA_OFFSET);
+        // batch spans cover several partitions, see the batch distribution column
+        xsb.append(partition == null ? -1 : partition.intValue());
+        xsb.append(offset == null ? -1L : offset.longValue());
     }
 }
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sofa.tracer.plugins.kafka.consumer;
+
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
+import com.alipay.common.tracer.core.holder.SofaTraceContextHolder;
+import com.alipay.common.tracer.core.registry.AbstractTextB3Formatter;
+import com.alipay.common.tracer.core.span.CommonSpanTags;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import com.alipay.common.tracer.core.utils.StringUtils;
+import com.sofa.alipay.tracer.plugins.kafkamq.consumer.SofaTracerKafkaConsumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SofaTracerKafkaConsumerTest
+ *
+ * @since 3.1.10
+ */
+public class SofaTracerKafkaConsumerTest {
+
+    private static final TopicPartition  BATCH = new TopicPartition("batch", 0);
+
+    private static final TopicPartition  PLAIN = new TopicPartition("plain", 0);
+
+    private MockConsumer<String, String> mockConsumer;
+
+    private long                         offset;
+
+    @Before
+    public void before() {
+        SofaTracerConfiguration.setProperty(SofaTracerKafkaConsumer.BATCH_TOPICS_KEY, "batch");
+        SofaTraceContextHolder.getSofaTraceContext().clear();
+        mockConsumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        mockConsumer.assign(Arrays.asList(BATCH, PLAIN));
+        Map<TopicPartition, Long> beginningOffsets = new HashMap<>();
+        beginningOffsets.put(BATCH, 0L);
+        beginningOffsets.put(PLAIN, 0L);
+        mockConsumer.updateBeginningOffsets(beginningOffsets);
+    }
+
+    @After
+    public void after() {
+        SofaTracerConfiguration.removeProperty(SofaTracerKafkaConsumer.BATCH_TOPICS_KEY);
+        SofaTracerConfiguration.removeProperty(SofaTracerKafkaConsumer.BATCH_MAX_LINKS_KEY);
+        SofaTraceContextHolder.getSofaTraceContext().clear();
+    }
+
+    @Test
+    public void testBatchSpanOfMixedPollIsRoot() {
+        SofaTracerKafkaConsumer<String, String> consumer = new SofaTracerKafkaConsumer<>(
+            mockConsumer);
+        addRecord(PLAIN);
+        addRecord(BATCH);
+        addRecord(PLAIN);
+        consumer.poll(Duration.ofMillis(10));
+
+        SofaTracerSpan batchSpan = SofaTraceContextHolder.getSofaTraceContext().getCurrentSpan();
+        Assert.assertNotNull(batchSpan);
+        Assert.assertEquals("batch", batchSpan.getTagsWithStr().get(CommonSpanTags.KAFKA_TOPIC));
+        assertRoot(batchSpan.getSofaTracerSpanContext());
+    }
+
+    @Test
+    public void testConsecutivePollsStartSeparateTraces() {
+        SofaTracerKafkaConsumer<String, String> consumer = new SofaTracerKafkaConsumer<>(
+            mockConsumer);
+        addRecord(BATCH);
+        consumer.poll(Duration.ofMillis(10));
+        SofaTracerSpan first = SofaTraceContextHolder.getSofaTraceContext().getCurrentSpan();
+
+        // the listener aspect is absent, so the first batch span is never finished
+        addRecord(BATCH);
+        consumer.poll(Duration.ofMillis(10));
+        SofaTracerSpan second = SofaTraceContextHolder.getSofaTraceContext().getCurrentSpan();
+
+        Assert.assertNotSame(first, second);
+        assertRoot(second.getSofaTracerSpanContext());
+        Assert.assertNotEquals(first.getSofaTracerSpanContext().getTraceId(), second
+            .getSofaTracerSpanContext().getTraceId());
+    }
+
+    @Test
+    public void testOnlyRecordsWithTraceIdAreLinked() {
+        SofaTracerConfiguration.setProperty(SofaTracerKafkaConsumer.BATCH_MAX_LINKS_KEY, "2");
+        SofaTracerKafkaConsumer<String, String> consumer = new SofaTracerKafkaConsumer<>(
+            mockConsumer);
+        addRecord(BATCH);
+        addRecord(BATCH);
+        addRecord(BATCH, "t1", "0.1");
+        addRecord(BATCH);
+        addRecord(BATCH, "t2", "0.2");
+        consumer.poll(Duration.ofMillis(10));
+
+        SofaTracerSpan batchSpan = SofaTraceContextHolder.getSofaTraceContext().getCurrentSpan();
+        Assert.assertEquals(5, batchSpan.getTagsWithNumber().get(CommonSpanTags.MSG_BATCH_COUNT));
+        Assert.assertEquals("t1:0.1;t2:0.2",
+            batchSpan.getTagsWithStr().get(CommonSpanTags.MSG_BATCH_LINKS));
+    }
+
+    @Test
+    public void testNullTracerFallsBackToSingleton() {
+        SofaTracerKafkaConsumer<String, String> consumer = new SofaTracerKafkaConsumer<>(
+            mockConsumer, null);
+        addRecord(PLAIN);
+        addRecord(BATCH);
+        consumer.poll(Duration.ofMillis(10));
+        Assert.assertNotNull(SofaTraceContextHolder.getSofaTraceContext().getCurrentSpan());
+    }
+
+    private void assertRoot(SofaTracerSpanContext spanContext) {
+        Assert.assertTrue(StringUtils.isBlank(spanContext.getParentId()));
+    }
+
+    private void addRecord(TopicPartition partition) {
+        mockConsumer.addRecord(newRecord(partition));
+    }
+
+    private void addRecord(TopicPartition partition, String traceId, String spanId) {
+        ConsumerRecord<String, String> record = newRecord(partition);
+        record.headers().add(AbstractTextB3Formatter.TRACE_ID_KEY_HEAD, bytes(traceId));
+        record.headers().add(AbstractTextB3Formatter.SPAN_ID_KEY_HEAD, bytes(spanId));
+        record.headers().add(AbstractTextB3Formatter.SAMPLED_KEY_HEAD, bytes("true"));
+        mockConsumer.addRecord(record);
+    }
+
+    private ConsumerRecord<String, String> newRecord(TopicPartition partition) {
+        return new ConsumerRecord<>(partition.topic(), partition.partition(), offset++, "key",
+            "value");
+    }
+
+    private byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.mongodb;
+
+import org.bson.BsonDocument;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+
+/**
+ * Renders a command document as a JSON like statement, streaming through the BSON and stopping
+ * once the length budget is spent, so the cost does not grow with the size of bulk commands.
+ * <p>
+ * With redaction on, keys and the document shape are kept and values are replaced by {@code ?},
+ * except the value of the first top level field which names the collection of the command.
+ * </p>
+ * @since 3.1.10
+ */
+public class MongoCommandRenderer {
+
+    static final String   REDACTED  = "?";
+
+    static final String   TRUNCATED = "...";
+
+    private final int     maxLength;
+
+    private final boolean redact;
+
+    /**
+     * @param maxLength max length of a rendered statement
+     * @param redact    whether values are redacted
+     */
+    public MongoCommandRenderer(int maxLength, boolean redact) {
+        this.maxLength = maxLength;
+        this.redact = redact;
+    }
+
+    /**
+     * Must be called while the command is valid, i.e. inside the listener callback
+     *
+     * @param command command document
+     * @return the rendered statement, ending with {@code ...} if it was cut at the max length
+     */
+    public String render(BsonDocument command) {
+        StringBuilder out = new StringBuilder(Math.min(maxLength, 256));
+        BsonReader reader = command.asBsonReader();
+        try {
+            if (!renderDocument(reader, out, true)) {
+                out.setLength(Math.min(out.length(), maxLength));
+                out.append(TRUNCATED);
+            }
+        } finally {
+            reader.close();
+        }
+        return out.toString();
+    }
+
+    /**
+     * @return false if the budget was spent before the end of the document
+     */
+    private boolean renderDocument(BsonReader reader, StringBuilder out, boolean topLevel) {
+        reader.readStartDocument();
+        out.append('{');
+        boolean first = true;
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (!first) {
+                out.append(", ");
+            }
+            out.append('"').append(reader.readName()).append("\": ");
+            if (!renderValue(reader, out, !redact || (topLevel && first))) {
+                return false;
+            }
+            first = false;
+        }
+        reader.readEndDocument();
+        out.append('}');
+        return out.length() <= maxLength;
+    }
+
+    private boolean renderArray(BsonReader reader, StringBuilder out) {
+        reader.readStartArray();
+        out.append('[');
+        boolean first = true;
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (!first) {
+                out.append(", ");
+            }
+            if (!renderValue(reader, out, !redact)) {
+                return false;
+            }
+            first = false;
+        }
+        reader.readEndArray();
+        out.append(']');
+        return out.length() <= maxLength;
+    }
+
+    private boolean renderValue(BsonReader reader, StringBuilder out, boolean keepValue) {
+        BsonType type = reader.getCurrentBsonType();
+        if (type == BsonType.DOCUMENT) {
+            return renderDocument(reader, out, false);
+        }
+        if (type == BsonType.ARRAY) {
+            return renderArray(reader, out);
+        }
+        if (!keepValue) {
+            reader.skipValue();
+            out.append(REDACTED);
+        } else if (type == BsonType.STRING) {
+            String value = reader.readString();
+            int room = maxLength - out.length() - 1;
+            if (value.length() > room) {
+                // a single huge value must not be copied as a whole
+                out.append('"').append(value, 0, Math.max(room, 0));
+                return false;
+            }
+            out.append('"').append(value).append('"');
+        } else {
+            renderScalar(reader, type, out);
+        }
+        return out.length() <= maxLength;
+    }
+
+    private void renderScalar(BsonReader reader, BsonType type, StringBuilder out) {
+        switch (type) {
+            case INT32:
+                out.append(reader.readInt32());
+                break;
+            case INT64:
+                out.append(reader.readInt64());
+                break;
+            case DOUBLE:
+                out.append(reader.readDouble());
+                break;
+            case BOOLEAN:
+                out.append(reader.readBoolean());
+                break;
+            case OBJECT_ID:
+                out.append("ObjectId(\"").append(reader.readObjectId().toHexString())
+                    .append("\")");
+                break;
+            case NULL:
+                reader.readNull();
+                out.append("null");
+                break;
+            default:
+                // binary, dates, regular expressions... only their type is rendered
+                reader.skipValue();
+                out.append('<').append(type.name()).append('>');
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.mongodb;
+
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Spans of started commands by request id, bounded in size and age. Spans of commands that never
+ * complete, e.g. when the listener misses the end event of a closed connection, are evicted once
+ * they are older than the timeout instead of being kept forever. Evicted spans are never
+ * reported, they are counted like the spans rejected by a full cache.
+ *
+ * @since 3.1.10
+ */
+class PendingSpanCache {
+
+    /**
+     * At most one producer walks the cache per interval
+     */
+    private static final long                  SWEEP_INTERVAL_MILLIS = 1000L;
+
+    private final Map<Integer, SofaTracerSpan> spans                 = new ConcurrentHashMap<>();
+
+    private final int                          maxSize;
+
+    private final long                         timeoutMillis;
+
+    private final long                         sweepIntervalMillis;
+
+    private final AtomicLong                   lastSweep             = new AtomicLong(
+                                                                         System.currentTimeMillis());
+
+    private final AtomicLong                   rejected              = new AtomicLong();
+
+    private final AtomicLong                   expired               = new AtomicLong();
+
+    PendingSpanCache(int maxSize, long timeoutMillis) {
+        this(maxSize, timeoutMillis, SWEEP_INTERVAL_MILLIS);
+    }
+
+    PendingSpanCache(int maxSize, long timeoutMillis, long sweepIntervalMillis) {
+        this.maxSize = maxSize;
+        this.timeoutMillis = timeoutMillis;
+        this.sweepIntervalMillis = sweepIntervalMillis;
+    }
+
+    /**
+     * @return false if the cache is full of spans that have not expired yet, the span is not kept
+     */
+    boolean put(int requestId, SofaTracerSpan span) {
+        long now = System.currentTimeMillis();
+        long last = lastSweep.get();
+        if (now - last >= sweepIntervalMillis && lastSweep.compareAndSet(last, now)) {
+            evictExpired(now);
+        }
+        if (spans.size() >= maxSize) {
+            rejected.incrementAndGet();
+            return false;
+        }
+        spans.put(requestId, span);
+        return true;
+    }
+
+    SofaTracerSpan remove(int requestId) {
+        return spans.remove(requestId);
+    }
+
+    int size() {
+        return spans.size();
+    }
+
+    /**
+     * @return number of spans not kept because the cache was full
+     */
+    long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * @return number of spans evicted because their command did not complete within the timeout
+     */
+    long getExpiredCount() {
+        return expired.get();
+    }
+
+    private void evictExpired(long now) {
+        for (Map.Entry<Integer, SofaTracerSpan> entry : spans.entrySet()) {
+            // only counted when the end event did not remove the span in the meantime
+            if (now - entry.getValue().getStartTime() >= timeoutMillis
+                && spans.remove(entry.getKey(), entry.getValue())) {
+                expired.incrementAndGet();
+            }
+        }
+    }
+}
@@ -16,6 +16,8 @@
  */
 package com.alipay.sofa.tracer.plugins.mongodb;
 
+import com.alipay.common.tracer.core.appender.self.SelfLog;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
 import com.alipay.common.tracer.core.context.trace.SofaTraceContext;
 import com.alipay.common.tracer.core.holder.SofaTraceContextHolder;
 import com.alipay.common.tracer.core.span.CommonSpanTags;
@@ -32,7 +34,7 @@ import java.io.StringWriter;
 import java.net.InetSocketAddress;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.alipay.common.tracer.core.constants.SofaTracerConstant.RESULT_CODE_ERROR;
 import static com.alipay.common.tracer.core.constants.SofaTracerConstant.RESULT_CODE_SUCCESS;
@@ -43,19 +45,65 @@ import static com.alipay.common.tracer.core.constants.SofaTracerConstant.RESULT_
  **/
 public class SofaTracerCommandListener implements CommandListener {
 
-    public static final String                 COMPONENT_NAME = "mongodb";
+    public static final String         COMPONENT_NAME               = "mongodb";
 
-    private final MongoClientTracer            mongoClientTracer;
+    /**
+     * Max length of the db.statement tag
+     */
+    public static final String         STATEMENT_MAX_LENGTH_KEY     = "com.alipay.sofa.tracer.mongodb.statementMaxLength";
+
+    /**
+     * Whether the values of db.statement are redacted, keys and shape are kept
+     */
+    public static final String         STATEMENT_REDACT_KEY         = "com.alipay.sofa.tracer.mongodb.statementRedact";
+
+    /**
+     * Max number of commands waiting for their end event
+     */
+    public static final String         PENDING_MAX_SIZE_KEY         = "com.alipay.sofa.tracer.mongodb.pendingMaxSize";
+
+    /**
+     * Milliseconds after which the span of a command without end event is dropped
+     */
+    public static final String         PENDING_TIMEOUT_KEY          = "com.alipay.sofa.tracer.mongodb.pendingTimeout";
+
+    private static final int           DEFAULT_STATEMENT_MAX_LENGTH = 1024;
+
+    private static final int           DEFAULT_PENDING_MAX_SIZE     = 10000;
+
+    private static final int           DEFAULT_PENDING_TIMEOUT      = 60000;
+
+    private final MongoClientTracer    mongoClientTracer;
+
+    private final String               applicationName;
+
+    private final MongoCommandRenderer renderer;
 
-    private final String                       applicationName;
     /**
      * Cache for (request id, span) pairs
      */
-    private final Map<Integer, SofaTracerSpan> cache          = new ConcurrentHashMap<>();
+    private final PendingSpanCache     cache;
+
+    /**
+     * A full cache is reported once, see {@link #getDroppedSpanCount()}
+     */
+    private final AtomicBoolean        rejectionLogged              = new AtomicBoolean();
+
+    /**
+     * Expired commands are reported once, see {@link #getDroppedSpanCount()}
+     */
+    private final AtomicBoolean        expiryLogged                 = new AtomicBoolean();
 
     public SofaTracerCommandListener(String applicationName) {
         this.mongoClientTracer = MongoClientTracer.getMongoClientTracerSingleton();
         this.applicationName = applicationName;
+        this.renderer = new MongoCommandRenderer(SofaTracerConfiguration.getIntegerDefaultIfNull(
+            STATEMENT_MAX_LENGTH_KEY, DEFAULT_STATEMENT_MAX_LENGTH), Boolean
+            .parseBoolean(SofaTracerConfiguration.getProperty(STATEMENT_REDACT_KEY, "true")));
+        this.cache = new PendingSpanCache(SofaTracerConfiguration.getIntegerDefaultIfNull(
+            PENDING_MAX_SIZE_KEY, DEFAULT_PENDING_MAX_SIZE),
+            SofaTracerConfiguration.getIntegerDefaultIfNull(PENDING_TIMEOUT_KEY,
+                DEFAULT_PENDING_TIMEOUT));
     }
 
     @Override
@@ -69,9 +117,25 @@ public class SofaTracerCommandListener implements CommandListener {
         if (sofaTracerSpan.getParentSofaTracerSpan() != null) {
             sofaTraceContext.push(sofaTracerSpan.getParentSofaTracerSpan());
         }
-        if (sofaTracerSpan != null) {
-            cache.put(event.getRequestId(), sofaTracerSpan);
+        // not kept when too many commands are pending, the span is dropped then
+        if (!cache.put(event.getRequestId(), sofaTracerSpan)
+            && rejectionLogged.compareAndSet(false, true)) {
+            SelfLog.warn("Too many mongodb commands are waiting for their end event, spans of "
+                         + "new commands are dropped until some complete, see "
+                         + PENDING_MAX_SIZE_KEY);
         }
+        if (cache.getExpiredCount() > 0 && expiryLogged.compareAndSet(false, true)) {
+            SelfLog.warn("Spans of mongodb commands without end event are dropped after "
+                         + PENDING_TIMEOUT_KEY + " milliseconds");
+        }
+    }
+
+    /**
+     * @return number of spans dropped because too many commands were pending or because their
+     *         command did not complete within the pending timeout
+     */
+    public long getDroppedSpanCount() {
+        return cache.getRejectedCount() + cache.getExpiredCount();
     }
 
     @Override
@@ -116,7 +180,9 @@ public class SofaTracerCommandListener implements CommandListener {
     private void decorate(SofaTracerSpan span, CommandStartedEvent event) {
         String command = event.getCommandName();
         span.setTag(Tags.COMPONENT.getKey(), COMPONENT_NAME);
-        span.setTag(Tags.DB_STATEMENT.getKey(), event.getCommand().toString());
+        // the command is only valid during the callback, it is rendered here but never beyond
+        // the configured length
+        span.setTag(Tags.DB_STATEMENT.getKey(), renderer.render(event.getCommand()));
         span.setTag(Tags.DB_INSTANCE.getKey(), event.getDatabaseName());
         span.setTag(Tags.PEER_HOSTNAME.getKey(), event.getConnectionDescription()
             .getServerAddress().getHost());
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.mongodb;
+
+import org.bson.BsonDocument;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @since 3.1.10
+ */
+public class MongoCommandRendererTest {
+
+    private static final String FIND = "{\"find\": \"users\", \"filter\": {\"name\": \"bob\", "
+                                       + "\"age\": {\"$gt\": 3}}, \"limit\": 5}";
+
+    @Test
+    public void testRenderWithinBudget() {
+        MongoCommandRenderer renderer = new MongoCommandRenderer(1024, false);
+        String rendered = renderer.render(BsonDocument.parse(FIND));
+        Assert.assertEquals(FIND, rendered);
+        Assert.assertFalse(rendered.endsWith(MongoCommandRenderer.TRUNCATED));
+    }
+
+    @Test
+    public void testCutAtBudget() {
+        MongoCommandRenderer renderer = new MongoCommandRenderer(30, false);
+        String rendered = renderer.render(BsonDocument.parse(FIND));
+        Assert.assertTrue(rendered.endsWith(MongoCommandRenderer.TRUNCATED));
+        Assert.assertTrue(rendered.length() <= 30 + MongoCommandRenderer.TRUNCATED.length());
+        Assert.assertTrue(FIND.startsWith(rendered.substring(0, rendered.length()
+                                                                - MongoCommandRenderer.TRUNCATED
+                                                                    .length())));
+    }
+
+    @Test
+    public void testCutInsideSingleHugeString() {
+        StringBuilder huge = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            huge.append('a');
+        }
+        BsonDocument command = BsonDocument.parse("{\"insert\": \"" + huge + "\"}");
+        MongoCommandRenderer renderer = new MongoCommandRenderer(50, false);
+        String rendered = renderer.render(command);
+        Assert.assertEquals(50 + MongoCommandRenderer.TRUNCATED.length(), rendered.length());
+        Assert.assertTrue(rendered.startsWith("{\"insert\": \"aaa"));
+        Assert.assertTrue(rendered.endsWith("a" + MongoCommandRenderer.TRUNCATED));
+    }
+
+    @Test
+    public void testRedactKeepsFirstTopLevelValueAndShape() {
+        MongoCommandRenderer renderer = new MongoCommandRenderer(1024, true);
+        Assert.assertEquals(
+            "{\"find\": \"users\", \"filter\": {\"name\": ?, \"age\": {\"$gt\": ?}}, \"limit\": ?}",
+            renderer.render(BsonDocument.parse(FIND)));
+    }
+
+    @Test
+    public void testArrays() {
+        String insert = "{\"insert\": \"users\", \"documents\": [{\"a\": 1}, {\"a\": \"x\"}], "
+                        + "\"ids\": [1, 2]}";
+        Assert.assertEquals(insert,
+            new MongoCommandRenderer(1024, false).render(BsonDocument.parse(insert)));
+        Assert.assertEquals(
+            "{\"insert\": \"users\", \"documents\": [{\"a\": ?}, {\"a\": ?}], \"ids\": [?, ?]}",
+            new MongoCommandRenderer(1024, true).render(BsonDocument.parse(insert)));
+    }
+
+    @Test
+    public void testCutInsideArray() {
+        StringBuilder insert = new StringBuilder("{\"insert\": \"users\", \"ids\": [");
+        for (int i = 0; i < 1000; i++) {
+            insert.append(i == 0 ? "" : ", ").append(i);
+        }
+        insert.append("]}");
+        String rendered = new MongoCommandRenderer(64, false).render(BsonDocument.parse(insert
+            .toString()));
+        Assert.assertTrue(rendered.startsWith("{\"insert\": \"users\", \"ids\": [0, 1, 2"));
+        Assert.assertTrue(rendered.endsWith(MongoCommandRenderer.TRUNCATED));
+        Assert.assertTrue(rendered.length() <= 64 + MongoCommandRenderer.TRUNCATED.length());
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.mongodb;
+
+import com.alipay.common.tracer.core.SofaTracer;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @since 3.1.10
+ */
+public class PendingSpanCacheTest {
+
+    private final SofaTracer sofaTracer = new SofaTracer.Builder("PendingSpanCacheTest").build();
+
+    private SofaTracerSpan startSpan(long startTime) {
+        return (SofaTracerSpan) sofaTracer.buildSpan("find").withStartTimestamp(startTime)
+            .start();
+    }
+
+    @Test
+    public void testRejectAtMaxSize() {
+        PendingSpanCache cache = new PendingSpanCache(2, 60000L);
+        long now = System.currentTimeMillis();
+        Assert.assertTrue(cache.put(1, startSpan(now)));
+        Assert.assertTrue(cache.put(2, startSpan(now)));
+        SofaTracerSpan rejected = startSpan(now);
+        Assert.assertFalse(cache.put(3, rejected));
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(1, cache.getRejectedCount());
+        Assert.assertEquals(0, cache.getExpiredCount());
+        Assert.assertNull(cache.remove(3));
+
+        // room again once a command completes
+        Assert.assertNotNull(cache.remove(1));
+        Assert.assertTrue(cache.put(3, rejected));
+        Assert.assertSame(rejected, cache.remove(3));
+    }
+
+    @Test
+    public void testEvictOlderThanTimeout() {
+        PendingSpanCache cache = new PendingSpanCache(2, 1000L, 0L);
+        long now = System.currentTimeMillis();
+        Assert.assertTrue(cache.put(1, startSpan(now - 5000L)));
+        Assert.assertTrue(cache.put(2, startSpan(now)));
+        // the expired span makes room for a new one
+        SofaTracerSpan fresh = startSpan(now);
+        Assert.assertTrue(cache.put(3, fresh));
+        Assert.assertEquals(2, cache.size());
+        Assert.assertNull(cache.remove(1));
+        Assert.assertNotNull(cache.remove(2));
+        Assert.assertSame(fresh, cache.remove(3));
+        Assert.assertEquals(0, cache.getRejectedCount());
+        Assert.assertEquals(1, cache.getExpiredCount());
+    }
+
+    @Test
+    public void testSweepAtMostOncePerInterval() {
+        PendingSpanCache cache = new PendingSpanCache(1, 1000L, 60000L);
+        long now = System.currentTimeMillis();
+        Assert.assertTrue(cache.put(1, startSpan(now - 5000L)));
+        // expired, but the next sweep is not due yet
+        Assert.assertFalse(cache.put(2, startSpan(now)));
+        Assert.assertEquals(0, cache.getExpiredCount());
+        Assert.assertNotNull(cache.remove(1));
+    }
+}
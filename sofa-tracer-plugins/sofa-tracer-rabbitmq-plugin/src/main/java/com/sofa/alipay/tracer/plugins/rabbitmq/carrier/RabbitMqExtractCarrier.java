@@ -16,7 +16,7 @@
  */
 package com.sofa.alipay.tracer.plugins.rabbitmq.carrier;
 
-import io.opentracing.propagation.TextMap;
+import com.alipay.common.tracer.core.registry.LookupTextMap;
 
 import java.util.HashMap;
 import java.util.Iterator;
@@ -28,20 +28,44 @@ import java.util.Map;
  * @author  chenchen6  2020/8/22 17:35
  * @since 3.1.0
  */
-public class RabbitMqExtractCarrier implements TextMap {
-    private final Map<String, String> map = new HashMap<>();
+public class RabbitMqExtractCarrier implements LookupTextMap {
+    private final Map<String, Object> headers;
 
     public RabbitMqExtractCarrier(Map<String, Object> headers) {
+        this.headers = headers;
+    }
+
+    /**
+     * Exact lookup first, keys in another case are found by a scan
+     */
+    @Override
+    public String get(String key) {
+        Object value = headers.get(key);
+        if (value == null) {
+            for (Map.Entry<String, Object> entry : headers.entrySet()) {
+                if (key.equalsIgnoreCase(entry.getKey()) && entry.getValue() != null) {
+                    value = entry.getValue();
+                    break;
+                }
+            }
+        }
+        return value == null ? null : value.toString();
+    }
+
+    @Override
+    public Iterable<String> keys() {
+        return headers.keySet();
+    }
+
+    @Override
+    public Iterator<Map.Entry<String, String>> iterator() {
+        Map<String, String> map = new HashMap<>();
         headers.forEach((key, value) -> {
             if (value == null) {
                 return;
             }
             map.put(key, value.toString());
         });
-    }
-
-    @Override
-    public Iterator<Map.Entry<String, String>> iterator() {
         return map.entrySet().iterator();
     }
 
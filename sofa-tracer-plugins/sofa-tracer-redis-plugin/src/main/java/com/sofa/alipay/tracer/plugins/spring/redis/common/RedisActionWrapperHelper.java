@@ -18,13 +18,19 @@ package com.sofa.alipay.tracer.plugins.spring.redis.common;
 
 import com.alipay.common.tracer.core.SofaTracer;
 import com.alipay.common.tracer.core.constants.SofaTracerConstant;
+import com.alipay.common.tracer.core.context.trace.SofaTraceContext;
+import com.alipay.common.tracer.core.context.trace.SofaTracerReactiveTraceContext;
+import com.alipay.common.tracer.core.holder.SofaTraceContextHolder;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
 import com.sofa.alipay.tracer.plugins.spring.redis.tracer.RedisSofaTracer;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 
 /**
@@ -32,12 +38,17 @@ import java.util.function.Supplier;
  * @since:
  **/
 public class RedisActionWrapperHelper {
+    static final String           CANCELLED = "cancelled";
     protected final SofaTracer    tracer;
     private final RedisSofaTracer redisSofaTracer;
     private String                appName;
 
     public RedisActionWrapperHelper() {
-        redisSofaTracer = RedisSofaTracer.getRedisSofaTracerSingleton();
+        this(RedisSofaTracer.getRedisSofaTracerSingleton());
+    }
+
+    RedisActionWrapperHelper(RedisSofaTracer redisSofaTracer) {
+        this.redisSofaTracer = redisSofaTracer;
         this.tracer = redisSofaTracer.getSofaTracer();
     }
 
@@ -55,6 +66,46 @@ public class RedisActionWrapperHelper {
         return activateAndCloseSpan(supplier);
     }
 
+    /**
+     * Trace a reactive command from subscription to termination or cancellation. The parent span is
+     * read from the Reactor Context of the subscriber rather than the ThreadLocal of the
+     * subscribing thread.
+     *
+     * @param command  redis command
+     * @param supplier supplies the command to trace
+     * @return the traced command
+     */
+    public <T> Mono<T> doInReactiveScope(String command, Supplier<Mono<T>> supplier) {
+        return Mono.subscriberContext().flatMap(context -> {
+            SofaTraceContext parent = context.getOrDefault(
+                SofaTracerReactiveTraceContext.CONTEXT_KEY, null);
+            if (parent == null) {
+                // not subscribed within a traced reactive request
+                parent = SofaTraceContextHolder.getSofaTraceContext();
+            }
+            // a context per call, concurrent commands of one request must not share the slot
+            SofaTraceContext traceContext = new SofaTracerReactiveTraceContext(
+                parent.getCurrentSpan());
+            redisSofaTracer.startTrace(command, traceContext);
+            // a cancel, e.g. from timeout(), terminates neither with success nor with an error.
+            // The span is ended once, a second end would finish the parent restored into the
+            // per call context
+            AtomicBoolean ended = new AtomicBoolean();
+            return supplier.get()
+                .doOnSuccessOrError((result, throwable) -> {
+                    if (ended.compareAndSet(false, true)) {
+                        handleTraceCompletion(throwable, traceContext);
+                    }
+                })
+                .doFinally(signal -> {
+                    if (signal == SignalType.CANCEL && ended.compareAndSet(false, true)) {
+                        redisSofaTracer.endTrace(SofaTracerConstant.RESULT_CODE_ERROR,
+                            CANCELLED, traceContext);
+                    }
+                });
+        });
+    }
+
     public void doInScope(String command, byte[] key, Runnable runnable) {
         buildSpan(command, deserialize(key));
         activateAndCloseSpan(runnable);
@@ -79,11 +130,17 @@ public class RedisActionWrapperHelper {
     }
 
     private void handleTraceCompletion(Throwable candidateThrowable) {
+        handleTraceCompletion(candidateThrowable, SofaTraceContextHolder.getSofaTraceContext());
+    }
+
+    private void handleTraceCompletion(Throwable candidateThrowable,
+                                       SofaTraceContext sofaTraceContext) {
         if (candidateThrowable != null) {
             redisSofaTracer.endTrace(SofaTracerConstant.RESULT_CODE_ERROR,
-                candidateThrowable.getMessage());
+                candidateThrowable.getMessage(), sofaTraceContext);
         } else {
-            redisSofaTracer.endTrace(SofaTracerConstant.RESULT_CODE_SUCCESS, null);
+            redisSofaTracer.endTrace(SofaTracerConstant.RESULT_CODE_SUCCESS, null,
+                sofaTraceContext);
         }
     }
 
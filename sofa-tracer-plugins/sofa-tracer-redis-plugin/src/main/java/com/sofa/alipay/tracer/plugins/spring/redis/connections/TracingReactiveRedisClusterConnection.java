@@ -114,7 +114,7 @@ public class TracingReactiveRedisClusterConnection implements ReactiveRedisClust
 
     @Override
   public Mono<String> ping(RedisClusterNode node) {
-    return actionWrapper.doInScope(RedisCommand.PING,
+    return actionWrapper.doInReactiveScope(RedisCommand.PING,
         () -> reactiveRedisClusterConnection.ping(node));
   }
 
@@ -135,7 +135,8 @@ public class TracingReactiveRedisClusterConnection implements ReactiveRedisClust
 
     @Override
     public Mono<String> ping() {
-        return actionWrapper.doInScope(RedisCommand.PING, () -> reactiveRedisClusterConnection.ping());
+        return actionWrapper.doInReactiveScope(RedisCommand.PING,
+            () -> reactiveRedisClusterConnection.ping());
     }
 
     @Override
@@ -121,6 +121,6 @@ public class TracingReactiveRedisConnection implements ReactiveRedisConnection {
 
     @Override
   public Mono<String> ping() {
-    return actionWrapper.doInScope(RedisCommand.PING, reactiveRedisConnection::ping);
+    return actionWrapper.doInReactiveScope(RedisCommand.PING, reactiveRedisConnection::ping);
   }
 }
@@ -115,7 +115,18 @@ public class RedisSofaTracer extends AbstractClientTracer {
     }
 
     public SofaTracerSpan startTrace(String operationName) {
-        SofaTracerSpan sofaTracerSpan = clientSend(operationName);
+        return startTrace(operationName, SofaTraceContextHolder.getSofaTraceContext());
+    }
+
+    /**
+     * Start a span as child of the current span of the given trace context
+     *
+     * @param operationName    operation name
+     * @param sofaTraceContext trace context of the call, e.g. one of a reactive request
+     * @return the client span
+     */
+    public SofaTracerSpan startTrace(String operationName, SofaTraceContext sofaTraceContext) {
+        SofaTracerSpan sofaTracerSpan = clientSend(operationName, sofaTraceContext);
         if (this.appName == null) {
             this.appName = SofaTracerConfiguration
                 .getProperty(SofaTracerConfiguration.TRACER_APPNAME_KEY);
@@ -131,7 +142,10 @@ public class RedisSofaTracer extends AbstractClientTracer {
     }
 
     public void endTrace(String resultCode, String errorMsg) {
-        SofaTraceContext sofaTraceContext = SofaTraceContextHolder.getSofaTraceContext();
+        endTrace(resultCode, errorMsg, SofaTraceContextHolder.getSofaTraceContext());
+    }
+
+    public void endTrace(String resultCode, String errorMsg, SofaTraceContext sofaTraceContext) {
         if (sofaTraceContext != null) {
             SofaTracerSpan sofaTracerSpan = sofaTraceContext.getCurrentSpan();
             if (sofaTracerSpan != null) {
@@ -141,7 +155,7 @@ public class RedisSofaTracer extends AbstractClientTracer {
                         sofaTracerSpan.setTag(Tags.ERROR.getKey(), errorMsg);
                     }
                     sofaTracerSpan.setEndTime(System.currentTimeMillis());
-                    clientReceive(resultCode);
+                    clientReceive(resultCode, sofaTraceContext);
                 } catch (Throwable throwable) {
                     SelfLog.errorWithTraceId("redis processed", throwable);
                 }
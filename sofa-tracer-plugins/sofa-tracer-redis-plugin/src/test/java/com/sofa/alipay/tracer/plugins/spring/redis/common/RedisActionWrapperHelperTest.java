@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sofa.alipay.tracer.plugins.spring.redis.common;
+
+import com.alipay.common.tracer.core.constants.ComponentNameConstants;
+import com.alipay.common.tracer.core.constants.SofaTracerConstant;
+import com.alipay.common.tracer.core.context.trace.SofaTraceContext;
+import com.alipay.common.tracer.core.context.trace.SofaTracerReactiveTraceContext;
+import com.alipay.common.tracer.core.holder.SofaTraceContextHolder;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import com.sofa.alipay.tracer.plugins.spring.redis.tracer.RedisSofaTracer;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * @since 3.1.10
+ */
+public class RedisActionWrapperHelperTest {
+
+    private RecordingRedisSofaTracer redisSofaTracer;
+
+    private RedisActionWrapperHelper helper;
+
+    private SofaTracerSpan           requestSpan;
+
+    private Context                  context;
+
+    @Before
+    public void before() {
+        SofaTraceContextHolder.getSofaTraceContext().clear();
+        redisSofaTracer = new RecordingRedisSofaTracer();
+        helper = new RedisActionWrapperHelper(redisSofaTracer);
+        requestSpan = (SofaTracerSpan) redisSofaTracer.getSofaTracer().buildSpan("request")
+            .start();
+        context = Context.of(SofaTracerReactiveTraceContext.CONTEXT_KEY,
+            new SofaTracerReactiveTraceContext(requestSpan));
+    }
+
+    @Test
+    public void testParentIsReadFromReactorContext() {
+        Mono<String> ping = helper.doInReactiveScope(RedisCommand.PING,
+            () -> Mono.just("PONG").publishOn(Schedulers.parallel())).subscriberContext(context);
+        StepVerifier.create(ping).expectNext("PONG").verifyComplete();
+
+        Assert.assertEquals(1, redisSofaTracer.ended.size());
+        SofaTracerSpan span = redisSofaTracer.ended.get(0);
+        Assert.assertEquals(SofaTracerConstant.RESULT_CODE_SUCCESS,
+            redisSofaTracer.resultCodes.get(0));
+        Assert.assertSame(requestSpan, span.getParentSofaTracerSpan());
+        Assert.assertEquals(requestSpan.getSofaTracerSpanContext().getSpanId(), span
+            .getSofaTracerSpanContext().getParentId());
+        // the subscribing thread was never touched
+        Assert.assertTrue(SofaTraceContextHolder.getSofaTraceContext().isEmpty());
+    }
+
+    @Test
+    public void testError() {
+        Mono<String> ping = helper.doInReactiveScope(RedisCommand.PING,
+            () -> Mono.<String> error(new IllegalStateException("down"))).subscriberContext(
+            context);
+        StepVerifier.create(ping).expectError(IllegalStateException.class).verify();
+
+        Assert.assertEquals(1, redisSofaTracer.ended.size());
+        Assert.assertEquals(SofaTracerConstant.RESULT_CODE_ERROR,
+            redisSofaTracer.resultCodes.get(0));
+        Assert.assertEquals("down", redisSofaTracer.errorMessages.get(0));
+    }
+
+    @Test
+    public void testCancelEndsSpanOnce() {
+        Mono<String> ping = helper
+            .doInReactiveScope(RedisCommand.PING, () -> Mono.<String> never())
+            .timeout(Duration.ofMillis(50)).subscriberContext(context);
+        StepVerifier.create(ping).expectError(TimeoutException.class)
+            .verify(Duration.ofSeconds(5));
+
+        Assert.assertEquals(1, redisSofaTracer.ended.size());
+        Assert.assertEquals(SofaTracerConstant.RESULT_CODE_ERROR,
+            redisSofaTracer.resultCodes.get(0));
+        Assert.assertEquals(RedisActionWrapperHelper.CANCELLED,
+            redisSofaTracer.errorMessages.get(0));
+        Assert.assertNotSame(requestSpan, redisSofaTracer.ended.get(0));
+    }
+
+    @Test
+    public void testCancelAfterSuccessDoesNotEndParent() {
+        // succeeds on the value and is cancelled before it completes
+        Mono<String> ping = helper.doInReactiveScope(RedisCommand.PING,
+            () -> Mono.fromDirect(Flux.concat(Mono.just("PONG"), Mono.never())))
+            .subscriberContext(context);
+        StepVerifier.create(ping).expectNext("PONG").thenCancel().verify();
+
+        Assert.assertEquals(1, redisSofaTracer.ended.size());
+        Assert.assertNotSame(requestSpan, redisSofaTracer.ended.get(0));
+        Assert.assertEquals(SofaTracerConstant.RESULT_CODE_SUCCESS,
+            redisSofaTracer.resultCodes.get(0));
+    }
+
+    private static class RecordingRedisSofaTracer extends RedisSofaTracer {
+
+        private final List<SofaTracerSpan> ended         = new CopyOnWriteArrayList<>();
+
+        private final List<String>         resultCodes   = new CopyOnWriteArrayList<>();
+
+        private final List<String>         errorMessages = new CopyOnWriteArrayList<>();
+
+        RecordingRedisSofaTracer() {
+            super(ComponentNameConstants.REDIS);
+        }
+
+        @Override
+        public void endTrace(String resultCode, String errorMsg,
+                             SofaTraceContext sofaTraceContext) {
+            ended.add(sofaTraceContext.getCurrentSpan());
+            resultCodes.add(resultCode);
+            errorMessages.add(errorMsg);
+            super.endTrace(resultCode, errorMsg, sofaTraceContext);
+        }
+    }
+}
@@ -17,9 +17,11 @@
 package com.alipay.sofa.tracer.plugins.rocketmq.interceptor;
 
 import com.alipay.common.tracer.core.appender.self.SelfLog;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
 import com.alipay.common.tracer.core.constants.SofaTracerConstant;
 import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
 import com.alipay.common.tracer.core.span.CommonSpanTags;
+import com.alipay.common.tracer.core.span.MessageBatchSummary;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
 import com.alipay.sofa.tracer.plugins.rocketmq.tracers.RocketMQConsumeTracer;
 import org.apache.rocketmq.client.hook.ConsumeMessageContext;
@@ -27,16 +29,37 @@ import org.apache.rocketmq.client.hook.ConsumeMessageHook;
 import org.apache.rocketmq.common.message.MessageExt;
 import org.apache.rocketmq.common.message.MessageQueue;
 
+import java.util.Set;
+
 /**
  * @author: guolei.sgl (guolei.sgl@antfin.com) 2019/12/12 8:22 PM
  * @since:
  **/
 public class SofaTracerConsumeMessageHook implements ConsumeMessageHook {
 
-    private final String appName;
+    /**
+     * Comma separated topics traced with one span per consume batch instead of one per message,
+     * "*" for all
+     */
+    public static final String BATCH_TOPICS_KEY    = "com.alipay.sofa.tracer.rocketmq.consumer.batchTopics";
+
+    /**
+     * Max number of sampled upstream traces linked from a batch span
+     */
+    public static final String BATCH_MAX_LINKS_KEY = "com.alipay.sofa.tracer.rocketmq.consumer.batchMaxLinks";
+
+    private final String       appName;
+
+    private final Set<String>  batchTopics;
+
+    private final int          batchMaxLinks;
 
     public SofaTracerConsumeMessageHook(String appName) {
         this.appName = appName;
+        this.batchTopics = MessageBatchSummary.parseTopics(SofaTracerConfiguration
+            .getProperty(BATCH_TOPICS_KEY));
+        this.batchMaxLinks = SofaTracerConfiguration.getIntegerDefaultIfNull(BATCH_MAX_LINKS_KEY,
+            MessageBatchSummary.DEFAULT_MAX_LINKS);
     }
 
     private static RocketMQConsumeTracer rocketMQConsumeTracer = RocketMQConsumeTracer
@@ -54,6 +77,11 @@ public class SofaTracerConsumeMessageHook implements ConsumeMessageHook {
 
     @Override
     public void consumeMessageAfter(ConsumeMessageContext context) {
+        // a consume batch always comes from a single queue, so a single topic
+        if (MessageBatchSummary.isBatchTopic(batchTopics, context.getMq().getTopic())) {
+            consumeBatchAfter(context);
+            return;
+        }
         for (MessageExt msg : context.getMsgList()) {
             String sContext = msg.getUserProperty("SOFA_TRACER_CONTEXT");
             if (sContext != null) {
@@ -76,7 +104,39 @@ public class SofaTracerConsumeMessageHook implements ConsumeMessageHook {
         }
     }
 
+    private void consumeBatchAfter(ConsumeMessageContext context) {
+        try {
+            MessageBatchSummary summary = new MessageBatchSummary(batchMaxLinks);
+            for (MessageExt msg : context.getMsgList()) {
+                summary.add(msg.getBrokerName() + '-' + msg.getQueueId(),
+                    msg.getBody() == null ? 0 : msg.getBody().length);
+                if (!summary.acceptsLinks()) {
+                    continue;
+                }
+                String sContext = msg.getUserProperty("SOFA_TRACER_CONTEXT");
+                if (sContext != null) {
+                    summary.link(SofaTracerSpanContext.deserializeFromString(sContext));
+                }
+            }
+            // a batch mixes traces, they are linked instead of picking one of them as the parent
+            SofaTracerSpan span = rocketMQConsumeTracer.serverReceive(null);
+            span.setOperationName("mq-batch-receive");
+            appendCommonTags(context, span);
+            summary.applyTo(span);
+            rocketMQConsumeTracer
+                .serverSend(context.isSuccess() ? SofaTracerConstant.RESULT_CODE_SUCCESS
+                    : SofaTracerConstant.RESULT_CODE_ERROR);
+        } catch (Throwable t) {
+            SelfLog.error("Error to log batch consume side.", t);
+        }
+    }
+
     private void appendTags(ConsumeMessageContext context, MessageExt msg, SofaTracerSpan span) {
+        appendCommonTags(context, span);
+        span.setTag(CommonSpanTags.MSG_ID, msg.getMsgId());
+    }
+
+    private void appendCommonTags(ConsumeMessageContext context, SofaTracerSpan span) {
         span.setTag(CommonSpanTags.LOCAL_APP, appName);
         String consumerGroup = context.getConsumerGroup();
         MessageQueue mq = context.getMq();
@@ -85,7 +145,6 @@ public class SofaTracerConsumeMessageHook implements ConsumeMessageHook {
         span.setTag("consumerGroup", consumerGroup);
         span.setTag(CommonSpanTags.MSG_TOPIC, topic);
         span.setTag("broker", brokerName);
-        span.setTag(CommonSpanTags.MSG_ID, msg.getMsgId());
         span.setTag("status", context.getStatus());
     }
 }
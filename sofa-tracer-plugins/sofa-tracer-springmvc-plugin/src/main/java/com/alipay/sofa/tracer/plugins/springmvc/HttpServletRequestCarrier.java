@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.springmvc;
+
+import com.alipay.common.tracer.core.registry.LookupTextMap;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Extraction carrier reading the headers of the request in place
+ *
+ * @since 3.1.10
+ */
+public class HttpServletRequestCarrier implements LookupTextMap {
+
+    private final HttpServletRequest request;
+
+    public HttpServletRequestCarrier(HttpServletRequest request) {
+        this.request = request;
+    }
+
+    @Override
+    public String get(String key) {
+        // header names are case insensitive for the servlet container
+        return request.getHeader(key);
+    }
+
+    @Override
+    public Iterable<String> keys() {
+        return () -> {
+            Enumeration<String> names = request.getHeaderNames();
+            return names == null ? Collections.<String> emptyIterator() : new Iterator<String>() {
+                @Override
+                public boolean hasNext() {
+                    return names.hasMoreElements();
+                }
+
+                @Override
+                public String next() {
+                    return names.nextElement();
+                }
+            };
+        };
+    }
+
+    @Override
+    public Iterator<Map.Entry<String, String>> iterator() {
+        Iterator<String> names = keys().iterator();
+        return new Iterator<Map.Entry<String, String>>() {
+            @Override
+            public boolean hasNext() {
+                return names.hasNext();
+            }
+
+            @Override
+            public Map.Entry<String, String> next() {
+                String name = names.next();
+                return new AbstractMap.SimpleImmutableEntry<String, String>(name,
+                    request.getHeader(name));
+            }
+        };
+    }
+
+    @Override
+    public void put(String key, String value) {
+        throw new UnsupportedOperationException(
+            "put should never be used with SOFA Tracer.extract()");
+    }
+}
@@ -36,8 +36,6 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpServletResponseWrapper;
 import java.io.IOException;
-import java.util.Enumeration;
-import java.util.HashMap;
 
 /**
  * SpringMvcSofaTracerFilter
@@ -131,34 +129,25 @@ public class SpringMvcSofaTracerFilter implements Filter {
      * @return SofaTracerSpanContext Tracing context extract from request
      */
     public SofaTracerSpanContext getSpanContextFromRequest(HttpServletRequest request) {
-        HashMap<String, String> headers = new HashMap<String, String>();
-        Enumeration headerNames = request.getHeaderNames();
-        while (headerNames.hasMoreElements()) {
-            String key = (String) headerNames.nextElement();
-            String value = request.getHeader(key);
-            headers.put(key, value);
-        }
         // Delay the initialization of the SofaTracerSpanContext to execute the serverReceive method
-        if (headers.isEmpty() || !isContainSofaTracerMark(headers)) {
+        if (!isContainSofaTracerMark(request)) {
             return null;
         }
 
         SofaTracer tracer = springMvcTracer.getSofaTracer();
         SofaTracerSpanContext spanContext = (SofaTracerSpanContext) tracer.extract(
-            ExtendFormat.Builtin.B3_HTTP_HEADERS, new SpringMvcHeadersCarrier(headers));
+            ExtendFormat.Builtin.B3_HTTP_HEADERS, new HttpServletRequestCarrier(request));
         return spanContext;
     }
 
     /**
-     * To check is contain sofaTracer mark
-     * @param headers
+     * To check is contain sofaTracer mark, header names are case insensitive
+     * @param request
      * @return
      */
-    private boolean isContainSofaTracerMark(HashMap<String, String> headers) {
-        return (headers.containsKey(AbstractTextB3Formatter.TRACE_ID_KEY_HEAD.toLowerCase()) || headers
-            .containsKey(AbstractTextB3Formatter.TRACE_ID_KEY_HEAD))
-               && (headers.containsKey(AbstractTextB3Formatter.SPAN_ID_KEY_HEAD.toLowerCase()) || headers
-                   .containsKey(AbstractTextB3Formatter.SPAN_ID_KEY_HEAD));
+    private boolean isContainSofaTracerMark(HttpServletRequest request) {
+        return request.getHeader(AbstractTextB3Formatter.TRACE_ID_KEY_HEAD) != null
+               && request.getHeader(AbstractTextB3Formatter.SPAN_ID_KEY_HEAD) != null;
     }
 
     class ResponseWrapper extends HttpServletResponseWrapper {
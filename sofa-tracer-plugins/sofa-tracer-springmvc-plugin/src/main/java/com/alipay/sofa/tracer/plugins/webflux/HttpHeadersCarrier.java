@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.webflux;
+
+import com.alipay.common.tracer.core.registry.LookupTextMap;
+import org.springframework.http.HttpHeaders;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Extraction carrier reading {@link HttpHeaders} in place
+ *
+ * @since 3.1.10
+ */
+public class HttpHeadersCarrier implements LookupTextMap {
+
+    private final HttpHeaders headers;
+
+    public HttpHeadersCarrier(HttpHeaders headers) {
+        this.headers = headers;
+    }
+
+    @Override
+    public String get(String key) {
+        // HttpHeaders compares names ignoring case
+        return headers.getFirst(key);
+    }
+
+    @Override
+    public Iterable<String> keys() {
+        return headers.keySet();
+    }
+
+    @Override
+    public Iterator<Map.Entry<String, String>> iterator() {
+        return headers.toSingleValueMap().entrySet().iterator();
+    }
+
+    @Override
+    public void put(String key, String value) {
+        throw new UnsupportedOperationException(
+            "put should never be used with SOFA Tracer.extract()");
+    }
+}
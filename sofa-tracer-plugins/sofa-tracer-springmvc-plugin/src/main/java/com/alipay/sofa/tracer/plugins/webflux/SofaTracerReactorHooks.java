@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.webflux;
+
+import com.alipay.common.tracer.core.context.trace.SofaTraceContext;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Hooks;
+import reactor.core.publisher.Operators;
+
+/**
+ * Reactor operator hooks restoring the span of the reactive request around onNext/onError, see
+ * {@link SofaTracerSubscriber}. Only subscribers whose Reactor Context carries a trace context are
+ * wrapped, other pipelines are left untouched.
+ *
+ * @since 3.1.10
+ */
+public final class SofaTracerReactorHooks {
+
+    private static final String HOOK_KEY = SofaTracerReactorHooks.class.getName();
+
+    private SofaTracerReactorHooks() {
+    }
+
+    /**
+     * Register the hooks, calling it again replaces the registered hooks
+     */
+    public static void enable() {
+        Hooks.onEachOperator(HOOK_KEY,
+            Operators.lift((scannable, subscriber) -> wrap(subscriber)));
+    }
+
+    /**
+     * @param subscriber subscriber of an operator
+     * @return the subscriber wrapped in a {@link SofaTracerSubscriber} if its Reactor Context
+     * carries a trace context, otherwise the subscriber itself
+     */
+    static <T> CoreSubscriber<? super T> wrap(CoreSubscriber<? super T> subscriber) {
+        if (subscriber instanceof SofaTracerSubscriber) {
+            return subscriber;
+        }
+        SofaTraceContext traceContext = SofaTracerSubscriber.getTraceContext(subscriber
+            .currentContext());
+        if (traceContext == null) {
+            return subscriber;
+        }
+        return new SofaTracerSubscriber<>(subscriber, traceContext);
+    }
+
+    public static void disable() {
+        Hooks.resetOnEachOperator(HOOK_KEY);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.webflux;
+
+import com.alipay.common.tracer.core.context.trace.SofaTraceContext;
+import com.alipay.common.tracer.core.context.trace.SofaTracerReactiveTraceContext;
+import com.alipay.common.tracer.core.holder.SofaTraceContextHolder;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.util.context.Context;
+
+/**
+ * Subscriber that makes the span of the reactive request current on the signalling thread for
+ * the duration of each signal, so code reading {@link SofaTraceContextHolder} inside operators
+ * sees the span of its own request. The previous span of the thread is restored afterwards.
+ *
+ * @since 3.1.10
+ */
+class SofaTracerSubscriber<T> implements CoreSubscriber<T> {
+
+    private final CoreSubscriber<? super T> actual;
+
+    private final SofaTraceContext          traceContext;
+
+    SofaTracerSubscriber(CoreSubscriber<? super T> actual, SofaTraceContext traceContext) {
+        this.actual = actual;
+        this.traceContext = traceContext;
+    }
+
+    @Override
+    public void onSubscribe(Subscription s) {
+        SofaTracerSpan previous = enter();
+        try {
+            actual.onSubscribe(s);
+        } finally {
+            exit(previous);
+        }
+    }
+
+    @Override
+    public void onNext(T t) {
+        SofaTracerSpan previous = enter();
+        try {
+            actual.onNext(t);
+        } finally {
+            exit(previous);
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        SofaTracerSpan previous = enter();
+        try {
+            actual.onError(t);
+        } finally {
+            exit(previous);
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        SofaTracerSpan previous = enter();
+        try {
+            actual.onComplete();
+        } finally {
+            exit(previous);
+        }
+    }
+
+    @Override
+    public Context currentContext() {
+        return actual.currentContext();
+    }
+
+    private SofaTracerSpan enter() {
+        SofaTraceContext threadContext = SofaTraceContextHolder.getSofaTraceContext();
+        SofaTracerSpan previous = threadContext.getCurrentSpan();
+        SofaTracerSpan span = traceContext.getCurrentSpan();
+        if (span != null && span != previous) {
+            threadContext.push(span);
+        }
+        return previous;
+    }
+
+    private void exit(SofaTracerSpan previous) {
+        SofaTraceContext threadContext = SofaTraceContextHolder.getSofaTraceContext();
+        if (previous == null) {
+            threadContext.clear();
+        } else {
+            threadContext.push(previous);
+        }
+    }
+
+    /**
+     * @param context Reactor Context
+     * @return the trace context of the reactive request, null if the context has none
+     */
+    static SofaTraceContext getTraceContext(Context context) {
+        return context.getOrDefault(SofaTracerReactiveTraceContext.CONTEXT_KEY, null);
+    }
+}
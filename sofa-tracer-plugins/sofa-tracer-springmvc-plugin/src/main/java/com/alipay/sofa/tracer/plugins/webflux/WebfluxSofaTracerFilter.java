@@ -19,11 +19,12 @@ package com.alipay.sofa.tracer.plugins.webflux;
 import com.alipay.common.tracer.core.SofaTracer;
 import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
 import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
+import com.alipay.common.tracer.core.context.trace.SofaTracerReactiveTraceContext;
+import com.alipay.common.tracer.core.holder.SofaTraceContextHolder;
 import com.alipay.common.tracer.core.registry.ExtendFormat;
 import com.alipay.common.tracer.core.span.CommonSpanTags;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
 import com.alipay.common.tracer.core.utils.StringUtils;
-import com.alipay.sofa.tracer.plugins.springmvc.SpringMvcHeadersCarrier;
 import com.alipay.sofa.tracer.plugins.springmvc.SpringMvcTracer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
@@ -36,11 +37,14 @@ import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
 
 import java.net.URI;
-import java.util.HashMap;
 
 /**
+ * Server filter of WebFlux, the span of the request is carried in the Reactor Context,
+ * see {@link SofaTracerReactorHooks} to make it current inside operators.
+ *
  * @author qilong.zql
  * @since 3.0.0
  */
@@ -49,6 +53,15 @@ public class WebfluxSofaTracerFilter implements WebFilter {
     @Value("${" + SofaTracerConfiguration.TRACER_APPNAME_KEY + "}")
     private String appName = StringUtils.EMPTY_STRING;
 
+    /**
+     * Enables {@link SofaTracerReactorHooks}, the span of the request is no longer in the
+     * ThreadLocal of the event loop thread, so without the hooks code inside operators would not
+     * see it through {@link SofaTraceContextHolder}
+     */
+    public WebfluxSofaTracerFilter() {
+        SofaTracerReactorHooks.enable();
+    }
+
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
         SpringMvcTracer springMvcTracer = SpringMvcTracer.getSpringMvcTracerSingleton();
@@ -56,10 +69,13 @@ public class WebfluxSofaTracerFilter implements WebFilter {
 
         SofaTraceableRequest request = new ServerWebExchangeSofaTraceableRequest(exchange);
         SofaTracerSpanContext spanContext = (SofaTracerSpanContext) tracer.extract(
-                ExtendFormat.Builtin.B3_HTTP_HEADERS, new SpringMvcHeadersCarrier(new HashMap<>(request.getHeaders().toSingleValueMap())));
+                ExtendFormat.Builtin.B3_HTTP_HEADERS, new HttpHeadersCarrier(request.getHeaders()));
         spanContext.setSpanId(spanContext.nextChildContextId());
 
-        SofaTracerSpan springMvcSpan = springMvcTracer.serverReceive(spanContext);
+        // the span of a reactive request lives in its Reactor Context, never in the ThreadLocal of
+        // an event loop thread shared with other requests
+        SofaTracerReactiveTraceContext traceContext = new SofaTracerReactiveTraceContext();
+        SofaTracerSpan springMvcSpan = springMvcTracer.serverReceive(spanContext, traceContext);
         springMvcSpan.setOperationName(request.getUri().getPath());
         springMvcSpan.setTag(CommonSpanTags.LOCAL_APP, this.appName);
         springMvcSpan.setTag(CommonSpanTags.REMOTE_APP, request.getRemoteAddress());
@@ -71,8 +87,8 @@ public class WebfluxSofaTracerFilter implements WebFilter {
             SofaTraceableResponse response = new ServerWebExchangeSofaTraceableResponse(
                     throwable != null ? new SofaStatusResponseDecorator(throwable, exchange.getResponse()) : exchange.getResponse());
             springMvcSpan.setTag(CommonSpanTags.RESP_SIZE, response.getHeaders().getContentLength());
-            springMvcTracer.serverSend(String.valueOf(response.getStatus()));
-        }));
+            springMvcTracer.serverSend(String.valueOf(response.getStatus()), traceContext);
+        })).subscriberContext(Context.of(SofaTracerReactiveTraceContext.CONTEXT_KEY, traceContext));
     }
 
     static class SofaStatusResponseDecorator extends ServerHttpResponseDecorator {
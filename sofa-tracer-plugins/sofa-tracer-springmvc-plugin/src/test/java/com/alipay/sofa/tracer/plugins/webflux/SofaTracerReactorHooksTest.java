@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.webflux;
+
+import com.alipay.common.tracer.core.SofaTracer;
+import com.alipay.common.tracer.core.context.trace.SofaTraceContext;
+import com.alipay.common.tracer.core.context.trace.SofaTracerReactiveTraceContext;
+import com.alipay.common.tracer.core.holder.SofaTraceContextHolder;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @since 3.1.10
+ */
+public class SofaTracerReactorHooksTest {
+
+    private final SofaTracer               sofaTracer = new SofaTracer.Builder(
+                                                          "SofaTracerReactorHooksTest").build();
+
+    private SofaTracerSpan                 requestSpan;
+
+    private SofaTracerReactiveTraceContext traceContext;
+
+    private Scheduler                      scheduler;
+
+    @Before
+    public void before() {
+        SofaTracerReactorHooks.enable();
+        SofaTraceContextHolder.getSofaTraceContext().clear();
+        requestSpan = (SofaTracerSpan) sofaTracer.buildSpan("request").start();
+        traceContext = new SofaTracerReactiveTraceContext(requestSpan);
+        scheduler = Schedulers.newSingle("reactor-hooks-test");
+    }
+
+    @After
+    public void after() {
+        SofaTracerReactorHooks.disable();
+        SofaTraceContextHolder.getSofaTraceContext().clear();
+        scheduler.dispose();
+    }
+
+    @Test
+    public void testRequestSpanIsCurrentOnOtherSchedulers() {
+        AtomicReference<SofaTracerSpan> inMap = new AtomicReference<>();
+        AtomicReference<SofaTracerSpan> inFlatMap = new AtomicReference<>();
+        AtomicReference<Thread> flatMapThread = new AtomicReference<>();
+        Mono<SofaTracerSpan> mono = Mono.just("request")
+            .publishOn(scheduler)
+            .map(value -> {
+                inMap.set(currentSpan());
+                return (SofaTracerSpan) sofaTracer.buildSpan("child").asChildOf(currentSpan())
+                    .start();
+            })
+            .flatMap(child -> Mono.just(child).publishOn(Schedulers.parallel()).doOnNext(c -> {
+                flatMapThread.set(Thread.currentThread());
+                inFlatMap.set(currentSpan());
+            })).subscriberContext(Context.of(SofaTracerReactiveTraceContext.CONTEXT_KEY,
+                traceContext));
+
+        StepVerifier.create(mono).assertNext(child -> {
+            Assert.assertEquals(requestSpan.getSofaTracerSpanContext().getTraceId(),
+                child.getSofaTracerSpanContext().getTraceId());
+            Assert.assertEquals(requestSpan.getSofaTracerSpanContext().getSpanId(),
+                child.getSofaTracerSpanContext().getParentId());
+        }).verifyComplete();
+
+        Assert.assertSame(requestSpan, inMap.get());
+        Assert.assertSame(requestSpan, inFlatMap.get());
+        Assert.assertNotSame(Thread.currentThread(), flatMapThread.get());
+        // nothing is left behind on the scheduler thread once the signal is delivered
+        Assert.assertNull(Mono.fromCallable(this::currentSpan).subscribeOn(scheduler).block());
+    }
+
+    @Test
+    public void testPreviousSpanIsRestoredAfterEachSignal() {
+        SofaTracerSpan previous = (SofaTracerSpan) sofaTracer.buildSpan("previous").start();
+        SofaTraceContextHolder.getSofaTraceContext().push(previous);
+        Context context = Context.of(SofaTracerReactiveTraceContext.CONTEXT_KEY, traceContext);
+
+        Assert.assertSame(requestSpan, Mono.just(1).map(value -> currentSpan())
+            .subscriberContext(context).block());
+        Assert.assertSame(previous, currentSpan());
+
+        Assert.assertSame(requestSpan,
+            Mono.error(new IllegalStateException("expected"))
+                .onErrorResume(e -> Mono.fromSupplier(this::currentSpan))
+                .subscriberContext(context).block());
+        Assert.assertSame(previous, currentSpan());
+
+        SofaTraceContextHolder.getSofaTraceContext().clear();
+        Mono.just(1).map(value -> currentSpan()).subscriberContext(context).block();
+        Assert.assertTrue(SofaTraceContextHolder.getSofaTraceContext().isEmpty());
+    }
+
+    @Test
+    public void testPipelinesWithoutTraceContextAreNotWrapped() {
+        CoreSubscriber<Object> plain = Operators.emptySubscriber();
+        Assert.assertSame(plain, SofaTracerReactorHooks.wrap(plain));
+
+        CoreSubscriber<Object> traced = new ContextSubscriber(Context.of(
+            SofaTracerReactiveTraceContext.CONTEXT_KEY, traceContext));
+        CoreSubscriber<? super Object> wrapped = SofaTracerReactorHooks.wrap(traced);
+        Assert.assertTrue(wrapped instanceof SofaTracerSubscriber);
+        Assert.assertSame(wrapped, SofaTracerReactorHooks.wrap(wrapped));
+
+        // the span of the thread stays current in a pipeline of no reactive request
+        SofaTracerSpan previous = (SofaTracerSpan) sofaTracer.buildSpan("previous").start();
+        SofaTraceContextHolder.getSofaTraceContext().push(previous);
+        Assert.assertSame(previous, Mono.just(1).map(value -> currentSpan()).block());
+    }
+
+    @Test
+    public void testFilterEnablesHooks() {
+        SofaTracerReactorHooks.disable();
+        Context context = Context.of(SofaTracerReactiveTraceContext.CONTEXT_KEY, traceContext);
+        // the mapper runs on a signal, an empty result means no span was current
+        Assert.assertNull(Mono.just(1).flatMap(value -> Mono.justOrEmpty(currentSpan()))
+            .subscriberContext(context).block());
+
+        new WebfluxSofaTracerFilter();
+        Assert.assertSame(requestSpan, Mono.just(1).map(value -> currentSpan())
+            .subscriberContext(context).block());
+    }
+
+    private SofaTracerSpan currentSpan() {
+        SofaTraceContext threadContext = SofaTraceContextHolder.getSofaTraceContext();
+        return threadContext.getCurrentSpan();
+    }
+
+    private static class ContextSubscriber implements CoreSubscriber<Object> {
+
+        private final Context context;
+
+        ContextSubscriber(Context context) {
+            this.context = context;
+        }
+
+        @Override
+        public Context currentContext() {
+            return context;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+        }
+
+        @Override
+        public void onNext(Object o) {
+        }
+
+        @Override
+        public void onError(Throwable t) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
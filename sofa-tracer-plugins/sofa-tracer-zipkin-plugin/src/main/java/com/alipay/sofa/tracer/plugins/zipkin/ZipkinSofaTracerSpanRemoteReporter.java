@@ -20,11 +20,13 @@ import com.alipay.common.tracer.core.listener.SpanReportListener;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
 import com.alipay.common.tracer.core.utils.TracerUtils;
 import com.alipay.sofa.tracer.plugins.zipkin.adapter.ZipkinV2SpanAdapter;
+import com.alipay.sofa.tracer.plugins.zipkin.reporters.AsyncSpanConverter;
 import com.alipay.sofa.tracer.plugins.zipkin.sender.ZipkinRestTemplateSender;
 import org.springframework.util.Assert;
 import org.springframework.web.client.RestTemplate;
 import zipkin2.Span;
 import zipkin2.reporter.AsyncReporter;
+import zipkin2.reporter.InMemoryReporterMetrics;
 
 import java.io.Closeable;
 import java.io.Flushable;
@@ -40,15 +42,25 @@ public class ZipkinSofaTracerSpanRemoteReporter implements SpanReportListener, F
 
     private final ZipkinRestTemplateSender sender;
 
-    private final AsyncReporter<Span>      delegate;
+    private final InMemoryReporterMetrics  metrics;
 
-    private final ZipkinV2SpanAdapter      zipkinV2SpanAdapter;
+    private final AsyncSpanConverter       converter;
 
     public ZipkinSofaTracerSpanRemoteReporter(RestTemplate restTemplate, String baseUrl) {
+        this(restTemplate, baseUrl, AsyncSpanConverter.DEFAULT_QUEUE_SIZE);
+    }
 
-        this.zipkinV2SpanAdapter = new ZipkinV2SpanAdapter();
+    /**
+     * @param restTemplate rest template of the sender
+     * @param baseUrl      zipkin server url
+     * @param queueSize    spans waiting for conversion, more are dropped
+     */
+    public ZipkinSofaTracerSpanRemoteReporter(RestTemplate restTemplate, String baseUrl,
+                                              int queueSize) {
         this.sender = new ZipkinRestTemplateSender(restTemplate, baseUrl);
-        this.delegate = AsyncReporter.create(sender);
+        this.metrics = new InMemoryReporterMetrics();
+        AsyncReporter<Span> delegate = AsyncReporter.builder(sender).metrics(metrics).build();
+        this.converter = new AsyncSpanConverter(new ZipkinV2SpanAdapter(), delegate, queueSize);
     }
 
     @Override
@@ -56,19 +68,39 @@ public class ZipkinSofaTracerSpanRemoteReporter implements SpanReportListener, F
         if (span == null || !span.getSofaTracerSpanContext().isSampled()) {
             return;
         }
-        //convert
-        Span zipkinSpan = zipkinV2SpanAdapter.convertToZipkinSpan(span);
-        this.delegate.report(zipkinSpan);
+        // converted on the consumer thread, not the business thread
+        this.converter.offer(span);
     }
 
     @Override
     public void flush() {
-        this.delegate.flush();
+        this.converter.flush();
     }
 
     @Override
     public void close() {
-        this.delegate.close();
+        this.converter.close();
+    }
+
+    /**
+     * @return spans dropped before conversion because the ring was full
+     */
+    public long getDroppedSpans() {
+        return converter.getDroppedSpans();
+    }
+
+    /**
+     * @return spans waiting for conversion
+     */
+    public long getQueuedSpans() {
+        return converter.getQueuedSpans();
+    }
+
+    /**
+     * @return metrics of the batching reporter: queued, dropped and sent spans and messages
+     */
+    public InMemoryReporterMetrics getReporterMetrics() {
+        return metrics;
     }
 
     /**
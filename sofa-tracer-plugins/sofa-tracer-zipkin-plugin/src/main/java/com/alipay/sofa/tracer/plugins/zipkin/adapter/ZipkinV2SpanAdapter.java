@@ -17,6 +17,7 @@
 package com.alipay.sofa.tracer.plugins.zipkin.adapter;
 
 import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
+import com.alipay.common.tracer.core.context.span.SpanId;
 import com.alipay.common.tracer.core.span.CommonSpanTags;
 import com.alipay.common.tracer.core.span.LogData;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
@@ -27,6 +28,7 @@ import zipkin2.Span;
 
 import java.net.InetAddress;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /***
  * ZipkinV2SpanAdapter : convent sofaTracer span model to zipkin span model
@@ -54,16 +56,19 @@ public class ZipkinV2SpanAdapter {
         Span.Builder zipkinSpanBuilder = Span.newBuilder();
         SofaTracerSpanContext context = sofaTracerSpan.getSofaTracerSpanContext();
         zipkinSpanBuilder.traceId(getValidTraceId(context));
-        zipkinSpanBuilder.id(spanIdToLong(context.getSpanId()));
-        if (StringUtils.isNotBlank(context.getParentId())) {
+        // the hash of a structured span ID is computed once and equals spanIdToLong of its string
+        SpanId spanId = context.getStructuredSpanId();
+        zipkinSpanBuilder.id(spanId != null ? spanId.hash64() : spanIdToLong(context.getSpanId()));
+        SpanId parentId = context.getStructuredParentId();
+        if (parentId != null) {
+            zipkinSpanBuilder.parentId(parentId.hash64());
+        } else if (StringUtils.isNotBlank(context.getParentId())) {
             zipkinSpanBuilder.parentId(spanIdToLong(context.getParentId()));
         }
 
         // timestamp & duration
-        long start = sofaTracerSpan.getStartTime() * 1000;
-        long finish = sofaTracerSpan.getEndTime() * 1000;
-        zipkinSpanBuilder.timestamp(start);
-        zipkinSpanBuilder.duration(finish - start);
+        zipkinSpanBuilder.timestamp(TimeUnit.MILLISECONDS.toMicros(sofaTracerSpan.getStartTime()));
+        zipkinSpanBuilder.duration(sofaTracerSpan.getDurationMicroseconds());
 
         // kind
         Map<String, String> tagsWithStr = sofaTracerSpan.getTagsWithStr();
@@ -173,6 +178,10 @@ public class ZipkinV2SpanAdapter {
      * @param span
      */
     private void addZipkinAnnotations(Span.Builder zipkinSpan, SofaTracerSpan span) {
+        // getLogs would allocate the queue of a span without logs
+        if (!span.hasLogs()) {
+            return;
+        }
         for (LogData logData : span.getLogs()) {
             Map<String, ?> fields = logData.getFields();
             if (fields == null || fields.size() <= 0) {
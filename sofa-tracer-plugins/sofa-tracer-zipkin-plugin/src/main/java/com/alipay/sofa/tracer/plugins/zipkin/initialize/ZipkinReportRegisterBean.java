@@ -23,6 +23,7 @@ import com.alipay.common.tracer.core.utils.StringUtils;
 import com.alipay.sofa.tracer.plugins.zipkin.ZipkinSofaTracerRestTemplateCustomizer;
 import com.alipay.sofa.tracer.plugins.zipkin.ZipkinSofaTracerSpanRemoteReporter;
 import com.alipay.sofa.tracer.plugins.zipkin.properties.ZipkinProperties;
+import com.alipay.sofa.tracer.plugins.zipkin.reporters.AsyncSpanConverter;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.web.client.RestTemplate;
 
@@ -62,8 +63,10 @@ public class ZipkinReportRegisterBean implements InitializingBean {
             gzipped);
         zipkinSofaTracerRestTemplateCustomizer.customize(restTemplate);
         String baseUrl = SofaTracerConfiguration.getProperty(ZipkinProperties.ZIPKIN_BASE_URL_KEY);
+        int queueSize = SofaTracerConfiguration.getIntegerDefaultIfNull(
+            ZipkinProperties.ZIPKIN_QUEUE_SIZE_KEY, AsyncSpanConverter.DEFAULT_QUEUE_SIZE);
         SpanReportListener spanReportListener = new ZipkinSofaTracerSpanRemoteReporter(
-            restTemplate, baseUrl);
+            restTemplate, baseUrl, queueSize);
         List<SpanReportListener> spanReportListenerList = new ArrayList<SpanReportListener>();
         spanReportListenerList.add(spanReportListener);
         SpanReportListenerHolder.addSpanReportListeners(spanReportListenerList);
@@ -26,5 +26,6 @@ public class ZipkinProperties {
     public static final String ZIPKIN_IS_ENABLED_KEY = "com.alipay.sofa.tracer.zipkin.enabled";
     public static final String ZIPKIN_BASE_URL_KEY   = "com.alipay.sofa.tracer.zipkin.baseUrl";
     public static final String ZIPKIN_IS_GZIPPED_KEY = "com.alipay.sofa.tracer.zipkin.gzipped";
+    public static final String ZIPKIN_QUEUE_SIZE_KEY = "com.alipay.sofa.tracer.zipkin.queueSize";
 
 }
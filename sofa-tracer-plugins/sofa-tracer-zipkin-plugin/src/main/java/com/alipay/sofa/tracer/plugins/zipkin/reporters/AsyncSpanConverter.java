@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.zipkin.reporters;
+
+import com.alipay.common.tracer.core.appender.manager.ConsumerExceptionHandler;
+import com.alipay.common.tracer.core.appender.manager.ConsumerThreadFactory;
+import com.alipay.common.tracer.core.appender.manager.SofaTracerSpanEvent;
+import com.alipay.common.tracer.core.appender.manager.SofaTracerSpanEventFactory;
+import com.alipay.common.tracer.core.appender.self.SelfLog;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import com.alipay.disruptor.EventHandler;
+import com.alipay.disruptor.InsufficientCapacityException;
+import com.alipay.disruptor.RingBuffer;
+import com.alipay.disruptor.TimeoutException;
+import com.alipay.disruptor.dsl.Disruptor;
+import com.alipay.sofa.tracer.plugins.zipkin.adapter.ZipkinV2SpanAdapter;
+import zipkin2.Span;
+import zipkin2.reporter.AsyncReporter;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * AsyncSpanConverter
+ * <p>
+ * Hands finished spans from the business thread to a bounded ring and converts them to Zipkin
+ * spans on its own consumer thread, which then reports them to the batching {@link AsyncReporter}.
+ * A full ring drops the span instead of blocking the business thread.
+ * </p>
+ * @since 3.1.10
+ */
+public class AsyncSpanConverter implements Flushable, Closeable {
+
+    public static final int                       DEFAULT_QUEUE_SIZE = 8192;
+
+    private static final long                     TIMEOUT_MILLIS     = 1000;
+
+    private final Disruptor<SofaTracerSpanEvent>  disruptor;
+
+    private final RingBuffer<SofaTracerSpanEvent> ringBuffer;
+
+    private final Converter                       converter;
+
+    private final AsyncReporter<Span>             delegate;
+
+    private final AtomicLong                      droppedSpans       = new AtomicLong();
+
+    public AsyncSpanConverter(ZipkinV2SpanAdapter adapter, AsyncReporter<Span> delegate,
+                              int queueSize) {
+        int realQueueSize = 1 << (32 - Integer.numberOfLeadingZeros(Math.max(queueSize, 2) - 1));
+        ConsumerThreadFactory threadFactory = new ConsumerThreadFactory();
+        threadFactory.setWorkName("ZipkinSpanConverter");
+        this.delegate = delegate;
+        this.converter = new Converter(adapter);
+        this.disruptor = new Disruptor<SofaTracerSpanEvent>(new SofaTracerSpanEventFactory(),
+            realQueueSize, threadFactory);
+        this.disruptor.setDefaultExceptionHandler(new ConsumerExceptionHandler());
+        this.disruptor.handleEventsWith(converter);
+        this.ringBuffer = disruptor.start();
+    }
+
+    /**
+     * Queue the span without blocking
+     *
+     * @param span finished span
+     * @return false if the ring is full and the span was dropped
+     */
+    public boolean offer(SofaTracerSpan span) {
+        long sequence;
+        try {
+            sequence = ringBuffer.tryNext();
+        } catch (InsufficientCapacityException e) {
+            droppedSpans.incrementAndGet();
+            return false;
+        }
+        ringBuffer.get(sequence).setSofaTracerSpan(span);
+        ringBuffer.publish(sequence);
+        return true;
+    }
+
+    /**
+     * @return spans dropped because the ring was full
+     */
+    public long getDroppedSpans() {
+        return droppedSpans.get();
+    }
+
+    /**
+     * @return spans waiting for conversion
+     */
+    public long getQueuedSpans() {
+        return ringBuffer.getBufferSize() - ringBuffer.remainingCapacity();
+    }
+
+    /**
+     * Convert the spans queued so far and flush them to the sender
+     */
+    @Override
+    public void flush() {
+        long cursor = ringBuffer.getCursor();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+        while (disruptor.getSequenceValueFor(converter) < cursor
+               && System.nanoTime() - deadline < 0) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        delegate.flush();
+    }
+
+    @Override
+    public void close() {
+        try {
+            disruptor.shutdown(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            SelfLog.warn("Zipkin span converter did not drain in time, queued spans are dropped");
+            disruptor.halt();
+        }
+        delegate.close();
+    }
+
+    private class Converter implements EventHandler<SofaTracerSpanEvent> {
+
+        private final ZipkinV2SpanAdapter adapter;
+
+        Converter(ZipkinV2SpanAdapter adapter) {
+            this.adapter = adapter;
+        }
+
+        @Override
+        public void onEvent(SofaTracerSpanEvent event, long sequence, boolean endOfBatch) {
+            SofaTracerSpan span = event.getSofaTracerSpan();
+            if (span != null) {
+                event.clear();
+                delegate.report(adapter.convertToZipkinSpan(span));
+            }
+        }
+    }
+}
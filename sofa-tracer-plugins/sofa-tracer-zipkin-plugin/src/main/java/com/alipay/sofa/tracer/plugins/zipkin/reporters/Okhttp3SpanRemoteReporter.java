@@ -19,7 +19,6 @@ package com.alipay.sofa.tracer.plugins.zipkin.reporters;
 import com.alipay.common.tracer.core.listener.SpanReportListener;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
 import com.alipay.sofa.tracer.plugins.zipkin.adapter.ZipkinV2SpanAdapter;
-import zipkin2.Span;
 import zipkin2.reporter.AsyncReporter;
 import zipkin2.reporter.okhttp3.OkHttpSender;
 
@@ -33,32 +32,30 @@ import java.io.IOException;
  **/
 public class Okhttp3SpanRemoteReporter implements SpanReportListener, Flushable, Closeable {
 
-    private OkHttpSender              okHttpSender;
-    private ZipkinV2SpanAdapter       zipkinV2SpanAdapter;
-    private final OkHttpSender        sender;
+    private OkHttpSender             okHttpSender;
+    private final OkHttpSender       sender;
 
-    private final AsyncReporter<Span> delegate;
+    private final AsyncSpanConverter converter;
 
     public Okhttp3SpanRemoteReporter() {
-        this.zipkinV2SpanAdapter = new ZipkinV2SpanAdapter();
         this.sender = OkHttpSender.create("htp://localhost:9411/api/v1/spans");
-        this.delegate = AsyncReporter.create(sender);
+        this.converter = new AsyncSpanConverter(new ZipkinV2SpanAdapter(),
+            AsyncReporter.create(sender), AsyncSpanConverter.DEFAULT_QUEUE_SIZE);
     }
 
     @Override
     public void onSpanReport(SofaTracerSpan span) {
-        //convert
-        Span zipkinSpan = zipkinV2SpanAdapter.convertToZipkinSpan(span);
-        this.delegate.report(zipkinSpan);
+        //convert on the consumer thread
+        this.converter.offer(span);
     }
 
     @Override
     public void close() throws IOException {
-        delegate.close();
+        converter.close();
     }
 
     @Override
     public void flush() throws IOException {
-        delegate.flush();
+        converter.flush();
     }
 }
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.zipkin;
+
+import com.alipay.common.tracer.core.SofaTracer;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import com.alipay.sofa.tracer.plugins.zipkin.adapter.ZipkinV2SpanAdapter;
+import com.alipay.sofa.tracer.plugins.zipkin.reporters.AsyncSpanConverter;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import zipkin2.Span;
+import zipkin2.reporter.AsyncReporter;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AsyncSpanConverterTest
+ *
+ * @since 3.1.10
+ */
+public class AsyncSpanConverterTest {
+
+    private final SofaTracer   sofaTracer = new SofaTracer.Builder("AsyncSpanConverterTest")
+                                              .build();
+
+    private final StubReporter reporter   = new StubReporter();
+
+    @After
+    public void after() {
+        // never leave a consumer thread blocked in the stub
+        reporter.release.countDown();
+    }
+
+    @Test
+    public void testOfferCountsDropsOnceRingIsFull() throws InterruptedException {
+        reporter.block();
+        AsyncSpanConverter converter = new AsyncSpanConverter(new ZipkinV2SpanAdapter(),
+            reporter, 2);
+        Assert.assertTrue(converter.offer(newSpan()));
+        Assert.assertTrue(reporter.entered.await(5, TimeUnit.SECONDS));
+        // the slot of the span being reported is only released once report returns
+        Assert.assertTrue(converter.offer(newSpan()));
+        Assert.assertFalse(converter.offer(newSpan()));
+        Assert.assertFalse(converter.offer(newSpan()));
+        Assert.assertEquals(2, converter.getDroppedSpans());
+        Assert.assertEquals(2, converter.getQueuedSpans());
+
+        reporter.release.countDown();
+        converter.flush();
+        Assert.assertEquals(2, reporter.reported.size());
+        Assert.assertEquals(2, converter.getDroppedSpans());
+        converter.close();
+    }
+
+    @Test
+    public void testFlushDeliversEveryQueuedSpan() {
+        AsyncSpanConverter converter = new AsyncSpanConverter(new ZipkinV2SpanAdapter(),
+            reporter, 128);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(converter.offer(newSpan()));
+        }
+        converter.flush();
+        Assert.assertEquals(100, reporter.reported.size());
+        Assert.assertEquals(1, reporter.flushes.get());
+        Assert.assertEquals(0, converter.getQueuedSpans());
+        Assert.assertEquals(0, converter.getDroppedSpans());
+        converter.close();
+        Assert.assertEquals(1, reporter.closes.get());
+    }
+
+    @Test(timeout = 10000)
+    public void testCloseDoesNotHangOnBlockedDelegate() throws InterruptedException {
+        reporter.block();
+        AsyncSpanConverter converter = new AsyncSpanConverter(new ZipkinV2SpanAdapter(),
+            reporter, 16);
+        converter.offer(newSpan());
+        converter.offer(newSpan());
+        Assert.assertTrue(reporter.entered.await(5, TimeUnit.SECONDS));
+
+        converter.close();
+        // the converter gave up on the stuck consumer and still closed the delegate
+        Assert.assertEquals(1, reporter.closes.get());
+        Assert.assertTrue(reporter.reported.isEmpty());
+    }
+
+    private SofaTracerSpan newSpan() {
+        SofaTracerSpan span = (SofaTracerSpan) sofaTracer.buildSpan("converted").start();
+        span.setEndTime(System.currentTimeMillis());
+        return span;
+    }
+
+    /**
+     * Records the converted spans, report can be blocked until released
+     */
+    private static class StubReporter extends AsyncReporter<Span> {
+
+        private final List<Span>     reported = new CopyOnWriteArrayList<Span>();
+
+        private final AtomicInteger  flushes  = new AtomicInteger();
+
+        private final AtomicInteger  closes   = new AtomicInteger();
+
+        private final CountDownLatch entered  = new CountDownLatch(1);
+
+        private final CountDownLatch release  = new CountDownLatch(1);
+
+        private volatile boolean     blocking;
+
+        void block() {
+            blocking = true;
+        }
+
+        @Override
+        public void report(Span span) {
+            entered.countDown();
+            if (blocking) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            reported.add(span);
+        }
+
+        @Override
+        public void flush() {
+            flushes.incrementAndGet();
+        }
+
+        @Override
+        public void close() {
+            closes.incrementAndGet();
+        }
+    }
+}
@@ -19,7 +19,6 @@ package com.alipay.common.tracer.core;
 import com.alipay.common.tracer.core.appender.self.SelfLog;
 import com.alipay.common.tracer.core.constants.ComponentNameConstants;
 import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
-import com.alipay.common.tracer.core.generator.TraceIdGenerator;
 import com.alipay.common.tracer.core.listener.SpanReportListener;
 import com.alipay.common.tracer.core.listener.SpanReportListenerHolder;
 import com.alipay.common.tracer.core.registry.RegistryExtractorInjector;
@@ -66,6 +65,11 @@ public class SofaTracer implements Tracer {
      */
     private final String              tracerType;
 
+    /**
+     * Flexible tracers report every span through the client reporters
+     */
+    private final boolean             flexible;
+
     /**
      * Reporter as a client runtime
      */
@@ -102,6 +106,7 @@ public class SofaTracer implements Tracer {
     protected SofaTracer(String tracerType, Reporter clientReporter, Reporter serverReporter,
                          Sampler sampler, Map<String, Object> tracerTags) {
         this.tracerType = tracerType;
+        this.flexible = ComponentNameConstants.FLEXIBLE.equalsIgnoreCase(tracerType);
         this.clientReporter = clientReporter;
         this.serverReporter = serverReporter;
         this.clientEventReporter = null;
@@ -120,6 +125,7 @@ public class SofaTracer implements Tracer {
      */
     protected SofaTracer(String tracerType, Sampler sampler) {
         this.tracerType = tracerType;
+        this.flexible = ComponentNameConstants.FLEXIBLE.equalsIgnoreCase(tracerType);
         this.clientReporter = null;
         this.serverReporter = null;
         this.clientEventReporter = null;
@@ -142,6 +148,7 @@ public class SofaTracer implements Tracer {
                          Reporter clientEventReporter, Reporter serverEventReporter,
                          Sampler sampler, Map<String, Object> tracerTags) {
         this.tracerType = tracerType;
+        this.flexible = ComponentNameConstants.FLEXIBLE.equalsIgnoreCase(tracerType);
         this.clientReporter = clientReporter;
         this.serverReporter = serverReporter;
         this.clientEventReporter = clientEventReporter;
@@ -191,8 +198,7 @@ public class SofaTracer implements Tracer {
         }
         //invoke listener
         this.invokeReportListeners(span);
-        if (span.isClient()
-            || this.getTracerType().equalsIgnoreCase(ComponentNameConstants.FLEXIBLE)) {
+        if (span.isClient() || this.flexible) {
             if (this.clientReporter != null) {
                 this.clientReporter.report(span);
             }
@@ -221,8 +227,7 @@ public class SofaTracer implements Tracer {
         }
         // invoke listener
         this.invokeReportListeners(span);
-        if (span.isClient()
-            || this.getTracerType().equalsIgnoreCase(ComponentNameConstants.FLEXIBLE)) {
+        if (span.isClient() || this.flexible) {
             if (this.clientEventReporter != null) {
                 this.clientEventReporter.report(span);
             }
@@ -478,17 +483,13 @@ public class SofaTracer implements Tracer {
         }
 
         private SofaTracerSpanContext createRootSpanContext() {
-            //generate traceId
-            String traceId = TraceIdGenerator.generate();
-            return new SofaTracerSpanContext(traceId, ROOT_SPAN_ID, StringUtils.EMPTY_STRING);
+            return SofaTracerSpanContext.rootStart();
         }
 
         private SofaTracerSpanContext createChildContext() {
             SofaTracerSpanContext preferredReference = preferredReference();
 
-            SofaTracerSpanContext sofaTracerSpanContext = new SofaTracerSpanContext(
-                preferredReference.getTraceId(), preferredReference.nextChildContextId(),
-                preferredReference.getSpanId(), preferredReference.isSampled());
+            SofaTracerSpanContext sofaTracerSpanContext = preferredReference.nextChildContext();
             sofaTracerSpanContext.addBizBaggage(this.createChildBaggage(true));
             sofaTracerSpanContext.addSysBaggage(this.createChildBaggage(false));
             return sofaTracerSpanContext;
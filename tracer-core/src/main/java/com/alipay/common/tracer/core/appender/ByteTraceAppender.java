@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender;
+
+import com.alipay.common.tracer.core.appender.encoder.ByteSink;
+
+import java.io.IOException;
+
+/**
+ * TraceAppender that accepts already encoded bytes
+ *
+ * @since 3.1.10
+ */
+public interface ByteTraceAppender extends TraceAppender {
+
+    /**
+     * Add the encoded log to be output, the sink may be reused once this method returns
+     *
+     * @param log encoded log
+     * @throws IOException
+     */
+    void append(ByteSink log) throws IOException;
+}
@@ -16,6 +16,8 @@
  */
 package com.alipay.common.tracer.core.appender.builder;
 
+import com.alipay.common.tracer.core.appender.encoder.ByteSink;
+import com.alipay.common.tracer.core.appender.self.Timestamp;
 import com.alipay.common.tracer.core.utils.StringUtils;
 
 /**
@@ -68,6 +70,18 @@ public class JsonStringBuilder {
         return this;
     }
 
+    /**
+     * Append a time formatted as yyyy-MM-dd HH:mm:ss.SSS
+     * @param key  key
+     * @param time milliseconds since the epoch
+     * @return this
+     */
+    public JsonStringBuilder appendTimestamp(String key, long time) {
+        this.sb.append('"').append(key).append('"').append(':').append('"');
+        Timestamp.appendTo(this.sb, time).append('"').append(',');
+        return this;
+    }
+
     public JsonStringBuilder appendEnd() {
         return this.appendEnd(true);
     }
@@ -132,6 +146,14 @@ public class JsonStringBuilder {
         return this;
     }
 
+    /**
+     * Encode the content as UTF-8 into the sink without creating a String
+     * @param sink target sink
+     */
+    public void writeTo(ByteSink sink) {
+        sink.writeUtf8(sb);
+    }
+
     /**
      * @return string
      */
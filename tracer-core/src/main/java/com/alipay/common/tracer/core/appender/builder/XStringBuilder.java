@@ -16,6 +16,8 @@
  */
 package com.alipay.common.tracer.core.appender.builder;
 
+import com.alipay.common.tracer.core.appender.encoder.ByteSink;
+import com.alipay.common.tracer.core.appender.self.Timestamp;
 import com.alipay.common.tracer.core.utils.StringUtils;
 
 import java.util.Map;
@@ -127,6 +129,16 @@ public class XStringBuilder {
         return this;
     }
 
+    /**
+     * Append a time formatted as yyyy-MM-dd HH:mm:ss.SSS
+     * @param time milliseconds since the epoch
+     * @return this
+     */
+    public XStringBuilder appendTimestamp(long time) {
+        Timestamp.appendTo(sb, time).append(separator);
+        return this;
+    }
+
     /**
      * @param map map param
      * @return this
@@ -231,6 +243,14 @@ public class XStringBuilder {
         return this;
     }
 
+    /**
+     * Encode the content as UTF-8 into the sink without creating a String
+     * @param sink target sink
+     */
+    public void writeTo(ByteSink sink) {
+        sink.writeUtf8(sb);
+    }
+
     /**
      * @return this
      */
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.encoder;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * ByteSink
+ * <p>
+ * Growable, reusable buffer that encoded spans are written into as UTF-8 bytes.
+ * Owned by a single consumer thread, not thread safe.
+ * </p>
+ * @since 3.1.10
+ */
+public class ByteSink {
+
+    public static final int   DEFAULT_CAPACITY      = 1024;
+
+    /**
+     * A buffer grown beyond this size by a huge span is released on {@link #reset()}
+     */
+    public static final int   MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private static final byte REPLACEMENT           = (byte) '?';
+
+    private byte[]            buf;
+
+    private int               size;
+
+    private ByteBuffer        byteBuffer;
+
+    public ByteSink() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ByteSink(int capacity) {
+        this.buf = new byte[capacity];
+    }
+
+    /**
+     * Encode the chars as UTF-8, unpaired surrogates are replaced by '?' like {@link String#getBytes}
+     *
+     * @param cs chars to write
+     * @return this
+     */
+    public ByteSink writeUtf8(CharSequence cs) {
+        int length = cs.length();
+        // worst case is 3 bytes per char
+        ensureCapacity(size + length * 3);
+        byte[] b = buf;
+        int pos = size;
+        int i = 0;
+        // ASCII fast path
+        for (; i < length; i++) {
+            char c = cs.charAt(i);
+            if (c >= 0x80) {
+                break;
+            }
+            b[pos++] = (byte) c;
+        }
+        for (; i < length; i++) {
+            char c = cs.charAt(i);
+            if (c < 0x80) {
+                b[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                b[pos++] = (byte) (0xC0 | (c >> 6));
+                b[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                char low;
+                if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(low = cs.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, low);
+                    b[pos++] = (byte) (0xF0 | (codePoint >> 18));
+                    b[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    b[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    b[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+                    i++;
+                } else {
+                    b[pos++] = REPLACEMENT;
+                }
+            } else {
+                b[pos++] = (byte) (0xE0 | (c >> 12));
+                b[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                b[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        size = pos;
+        return this;
+    }
+
+    /**
+     * @param bytes raw bytes to write
+     * @return this
+     */
+    public ByteSink write(byte[] bytes) {
+        ensureCapacity(size + bytes.length);
+        System.arraycopy(bytes, 0, buf, size, bytes.length);
+        size += bytes.length;
+        return this;
+    }
+
+    /**
+     * @return backing array, valid from 0 to {@link #size()}
+     */
+    public byte[] array() {
+        return buf;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return a buffer over the written bytes, positioned at 0 with the limit at {@link #size()}
+     */
+    public ByteBuffer toByteBuffer() {
+        if (byteBuffer == null || byteBuffer.array() != buf) {
+            byteBuffer = ByteBuffer.wrap(buf);
+        }
+        byteBuffer.clear();
+        byteBuffer.limit(size);
+        return byteBuffer;
+    }
+
+    public void reset() {
+        size = 0;
+        if (buf.length > MAX_RETAINED_CAPACITY) {
+            buf = new byte[DEFAULT_CAPACITY];
+            byteBuffer = null;
+        }
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length << 1, minCapacity));
+        }
+    }
+}
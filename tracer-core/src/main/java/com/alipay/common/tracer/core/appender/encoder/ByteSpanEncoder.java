@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.encoder;
+
+import io.opentracing.Span;
+
+import java.io.IOException;
+
+/**
+ * ByteSpanEncoder
+ * <p>
+ * Span encoder that writes the encoded log straight into a reusable {@link ByteSink} as UTF-8,
+ * without building an intermediate String. Must produce the same bytes as {@link #encode(Span)}.
+ * </p>
+ * @since 3.1.10
+ */
+public interface ByteSpanEncoder<T extends Span> extends SpanEncoder<T> {
+
+    /**
+     * Encode the span and append it to the sink
+     *
+     * @param span current span
+     * @param sink target buffer owned by the calling consumer thread
+     * @throws IOException
+     */
+    void encode(T span, ByteSink sink) throws IOException;
+}
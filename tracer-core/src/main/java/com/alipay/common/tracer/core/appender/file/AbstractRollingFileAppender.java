@@ -16,13 +16,14 @@
  */
 package com.alipay.common.tracer.core.appender.file;
 
-import com.alipay.common.tracer.core.appender.TraceAppender;
+import com.alipay.common.tracer.core.appender.ByteTraceAppender;
 import com.alipay.common.tracer.core.appender.TracerLogRootDaemon;
+import com.alipay.common.tracer.core.appender.encoder.ByteSink;
 import com.alipay.common.tracer.core.appender.self.SelfLog;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.utils.StringUtils;
 
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -30,7 +31,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 /**
  * @author yangyanzhao
  */
-public abstract class AbstractRollingFileAppender implements TraceAppender {
+public abstract class AbstractRollingFileAppender implements ByteTraceAppender {
 
     /**
      * The log refresh interval, when the buffer time exceeds the interval, the cached log data is refreshed.
@@ -53,7 +54,12 @@ public abstract class AbstractRollingFileAppender implements TraceAppender {
 
     protected File                 logFile                    = null;
 
-    protected BufferedOutputStream bos                        = null;
+    /**
+     * One of the {@link LogFileOutput} types, stream by default
+     */
+    private final String           outputType;
+
+    protected LogFileOutput        output                     = null;
 
     private long                   nextFlushTime              = 0L;
     private long                   nextIOExceptionPrintTime   = 0L;
@@ -63,8 +69,14 @@ public abstract class AbstractRollingFileAppender implements TraceAppender {
     }
 
     public AbstractRollingFileAppender(String file, int bufferSize, boolean append) {
+        this(file, bufferSize, append, LogFileOutput.TYPE_STREAM);
+    }
+
+    public AbstractRollingFileAppender(String file, int bufferSize, boolean append,
+                                       String outputType) {
         this.fileName = TracerLogRootDaemon.LOG_FILE_DIR + File.separator + file;
         this.bufferSize = bufferSize;
+        this.outputType = outputType;
         setFile(append);
     }
 
@@ -89,35 +101,86 @@ public abstract class AbstractRollingFileAppender implements TraceAppender {
                 return;
             }
             //append == true
-            FileOutputStream ostream = new FileOutputStream(logFile, append);
-            bos = new BufferedOutputStream(ostream, bufferSize);
+            output = createOutput(append);
         } catch (Throwable e) {
             SelfLog.error("setFile error", e);
         }
     }
 
-    @Override
-    public void append(String log) throws IOException {
-        if (bos != null) {
-            waitUntilRollFinish();
-            if (shouldRollOverNow() && isRolling.compareAndSet(false, true)) {
-                try {
-                    rollOver();
-                    nextFlushTime = System.currentTimeMillis() + LOG_FLUSH_INTERVAL;
-                } finally {
-                    isRolling.set(false);
-                }
-            } else {
-                // Refreshed after the specified refresh time has not been refreshed
-                long now;
-                if ((now = System.currentTimeMillis()) >= nextFlushTime) {
-                    flush();
-                    nextFlushTime = now + LOG_FLUSH_INTERVAL;
+    private LogFileOutput createOutput(boolean append) throws IOException {
+        try {
+            if (LogFileOutput.TYPE_CHANNEL.equalsIgnoreCase(outputType)) {
+                return new ChannelLogFileOutput(logFile, append, bufferSize);
+            } else if (LogFileOutput.TYPE_MMAP.equalsIgnoreCase(outputType)) {
+                return new MappedLogFileOutput(logFile, append, mmapRegionSize());
+            }
+        } catch (IOException e) {
+            // keep logging with the classic output rather than not at all
+            SelfLog.error("Failed to open " + outputType + " output of " + fileName
+                          + ", fall back to stream", e);
+        }
+        return new StreamLogFileOutput(logFile, append, bufferSize);
+    }
+
+    private static int mmapRegionSize() {
+        String value = SofaTracerConfiguration
+            .getProperty(SofaTracerConfiguration.TRACER_LOG_FILE_MMAP_REGION_SIZE);
+        if (StringUtils.isNotBlank(value)) {
+            try {
+                int regionSize = Integer.parseInt(value.trim());
+                if (regionSize > 0) {
+                    return regionSize;
                 }
+            } catch (NumberFormatException e) {
+                // use the default
             }
-            // Whether you have RollOver or not, you need to write the input to bos
+        }
+        return MappedLogFileOutput.DEFAULT_REGION_SIZE;
+    }
+
+    @Override
+    public void append(String log) throws IOException {
+        if (output != null) {
+            prepareWrite();
+            // Whether you have RollOver or not, you need to write the input to output
             byte[] bytes = log.getBytes(TracerLogRootDaemon.DEFAULT_CHARSET);
-            write(bytes);
+            write(bytes, 0, bytes.length);
+        }
+    }
+
+    /**
+     * Write the encoded bytes without converting them to a String first
+     *
+     * @param log encoded log
+     * @throws IOException
+     */
+    @Override
+    public void append(ByteSink log) throws IOException {
+        if (output != null) {
+            prepareWrite();
+            write(log.array(), 0, log.size());
+        }
+    }
+
+    /**
+     * Roll over or flush if needed before writing
+     */
+    private void prepareWrite() {
+        waitUntilRollFinish();
+        if (shouldRollOverNow() && isRolling.compareAndSet(false, true)) {
+            try {
+                rollOver();
+                nextFlushTime = System.currentTimeMillis() + LOG_FLUSH_INTERVAL;
+            } finally {
+                isRolling.set(false);
+            }
+        } else {
+            // Refreshed after the specified refresh time has not been refreshed
+            long now;
+            if ((now = System.currentTimeMillis()) >= nextFlushTime) {
+                flush();
+                nextFlushTime = now + LOG_FLUSH_INTERVAL;
+            }
         }
     }
 
@@ -135,9 +198,9 @@ public abstract class AbstractRollingFileAppender implements TraceAppender {
      */
     protected abstract void rollOver();
 
-    private void write(byte[] bytes) {
+    private void write(byte[] bytes, int offset, int length) {
         try {
-            bos.write(bytes);
+            output.write(bytes, offset, length);
         } catch (IOException e) {
             long now = System.currentTimeMillis();
             if (now > nextIOExceptionPrintTime) {
@@ -152,9 +215,9 @@ public abstract class AbstractRollingFileAppender implements TraceAppender {
      */
     @Override
     public void flush() {
-        if (bos != null) {
+        if (output != null) {
             try {
-                bos.flush();
+                output.flush();
             } catch (IOException e) {
                 long now = System.currentTimeMillis();
                 if (now > nextIOExceptionPrintTime) {
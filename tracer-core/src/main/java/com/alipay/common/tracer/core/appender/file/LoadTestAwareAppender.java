@@ -16,7 +16,10 @@
  */
 package com.alipay.common.tracer.core.appender.file;
 
+import com.alipay.common.tracer.core.appender.ByteTraceAppender;
 import com.alipay.common.tracer.core.appender.TraceAppender;
+import com.alipay.common.tracer.core.appender.encoder.ByteSink;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
 
 import java.io.File;
 import java.io.IOException;
@@ -27,7 +30,7 @@ import java.io.IOException;
  * @author yangguanchao
  * @since 2017/06/25
  */
-public final class LoadTestAwareAppender implements TraceAppender {
+public final class LoadTestAwareAppender implements ByteTraceAppender {
 
     /** TraceAppender for non-pressure */
     private TraceAppender nonLoadTestTraceAppender;
@@ -52,12 +55,14 @@ public final class LoadTestAwareAppender implements TraceAppender {
     public static LoadTestAwareAppender createLoadTestAwareTimedRollingFileAppender(String logName,
                                                                                     String rollingPolicy,
                                                                                     String logReserveConfig) {
+        String outputType = SofaTracerConfiguration.getProperty(
+            SofaTracerConfiguration.TRACER_LOG_FILE_OUTPUT_TYPE, LogFileOutput.TYPE_STREAM);
         TraceAppender nonLoadTestTraceAppender = new TimedRollingFileAppender(logName,
-            rollingPolicy, logReserveConfig);
+            rollingPolicy, logReserveConfig, outputType);
         TraceAppender loadTestTraceAppender = new TimedRollingFileAppender("shadow"
                                                                            + File.separator
                                                                            + logName,
-            rollingPolicy, logReserveConfig);
+            rollingPolicy, logReserveConfig, outputType);
         return new LoadTestAwareAppender(nonLoadTestTraceAppender, loadTestTraceAppender);
     }
 
@@ -69,6 +74,21 @@ public final class LoadTestAwareAppender implements TraceAppender {
         }
     }
 
+    /**
+     * Both appenders are always {@link TimedRollingFileAppender}s, see the factory methods
+     *
+     * @param log encoded log
+     * @param loadTest whether the span is a load test span
+     * @throws IOException
+     */
+    public void append(ByteSink log, boolean loadTest) throws IOException {
+        if (loadTest) {
+            ((ByteTraceAppender) loadTestTraceAppender).append(log);
+        } else {
+            ((ByteTraceAppender) nonLoadTestTraceAppender).append(log);
+        }
+    }
+
     @Override
     public void flush() throws IOException {
         nonLoadTestTraceAppender.flush();
@@ -80,6 +100,11 @@ public final class LoadTestAwareAppender implements TraceAppender {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public void append(ByteSink log) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public void cleanup() {
         nonLoadTestTraceAppender.cleanup();
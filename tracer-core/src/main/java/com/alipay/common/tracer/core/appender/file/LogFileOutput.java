@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.file;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Output backend of {@link AbstractRollingFileAppender}, bound to one log file until it is closed on roll over
+ *
+ * @since 3.1.10
+ */
+public interface LogFileOutput extends Closeable {
+
+    /**
+     * {@link java.io.BufferedOutputStream} over a {@link java.io.FileOutputStream}
+     */
+    String TYPE_STREAM  = "stream";
+
+    /**
+     * {@link java.nio.channels.FileChannel} drained from a direct buffer
+     */
+    String TYPE_CHANNEL = "channel";
+
+    /**
+     * Pre-sized {@link java.nio.MappedByteBuffer} regions that advance as they fill
+     */
+    String TYPE_MMAP    = "mmap";
+
+    /**
+     * Write the bytes, they may stay buffered until {@link #flush()}
+     *
+     * @param bytes  source
+     * @param offset start offset
+     * @param length number of bytes
+     * @throws IOException
+     */
+    void write(byte[] bytes, int offset, int length) throws IOException;
+
+    /**
+     * Hand the buffered bytes over to the operating system
+     *
+     * @throws IOException
+     */
+    void flush() throws IOException;
+}
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes into a pre-sized {@link MappedByteBuffer} region of the log file and maps the next region
+ * when it fills, so appending costs a memory copy and no system call. The kernel writes the dirty
+ * pages back on its own, {@link #flush()} does nothing.
+ *
+ * While open, the file is extended to the end of the current region and its tail reads as NUL bytes;
+ * {@link #close()} truncates it to the written length. Outputs still open when the JVM exits are
+ * closed by a shutdown hook, and the NUL tail left by a crash is skipped when the file is reopened.
+ *
+ * @since 3.1.10
+ */
+class MappedLogFileOutput implements LogFileOutput {
+
+    public static final int                      DEFAULT_REGION_SIZE = 16 * 1024 * 1024;
+
+    private static final int                     SCAN_CHUNK_SIZE     = 8 * 1024;
+
+    private static final Set<MappedLogFileOutput> OPEN_OUTPUTS        = ConcurrentHashMap
+                                                                          .newKeySet();
+
+    private static final Object                  UNSAFE;
+    private static final Method                  INVOKE_CLEANER;
+    private static final Method                  CLEANER;
+    private static final Method                  CLEAN;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        Method cleaner = null;
+        Method clean = null;
+        try {
+            // Java 9+
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = theUnsafe.get(null);
+        } catch (Throwable e) {
+            invokeCleaner = null;
+            try {
+                // Java 8
+                cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+                clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+            } catch (Throwable t) {
+                cleaner = null;
+                clean = null;
+            }
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+        CLEANER = cleaner;
+        CLEAN = clean;
+    }
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (MappedLogFileOutput output : OPEN_OUTPUTS) {
+                try {
+                    output.close();
+                } catch (IOException e) {
+                    // the JVM is exiting, nothing left to report to
+                }
+            }
+        }, "Tracer-MappedLogFile-Closer"));
+    }
+
+    private final RandomAccessFile               raf;
+
+    private final FileChannel                    channel;
+
+    private final int                            regionSize;
+
+    /**
+     * File offset of the current region
+     */
+    private long                                 regionStart;
+
+    private MappedByteBuffer                     region;
+
+    private boolean                              closed;
+
+    MappedLogFileOutput(File file, boolean append, int regionSize) throws IOException {
+        this.raf = new RandomAccessFile(file, "rw");
+        this.channel = raf.getChannel();
+        this.regionSize = regionSize;
+        try {
+            long start = 0;
+            if (append) {
+                start = writtenLength(channel, regionSize);
+            }
+            // drop a NUL tail, or the old content when not appending
+            channel.truncate(start);
+            map(start, regionSize);
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+        OPEN_OUTPUTS.add(this);
+    }
+
+    @Override
+    public synchronized void write(byte[] bytes, int offset, int length) throws IOException {
+        if (closed) {
+            throw new IOException("Mapped log file output is closed");
+        }
+        if (length > region.remaining()) {
+            map(regionStart + region.position(), Math.max(regionSize, length));
+        }
+        region.put(bytes, offset, length);
+    }
+
+    @Override
+    public void flush() {
+        // written bytes are already in the page cache
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        OPEN_OUTPUTS.remove(this);
+        try {
+            long length = regionStart + region.position();
+            unmap(region);
+            region = null;
+            channel.truncate(length);
+        } finally {
+            raf.close();
+        }
+    }
+
+    private void map(long start, int size) throws IOException {
+        MappedByteBuffer next = channel.map(FileChannel.MapMode.READ_WRITE, start, size);
+        if (region != null) {
+            unmap(region);
+        }
+        region = next;
+        regionStart = start;
+    }
+
+    /**
+     * Length of the file without the trailing NUL bytes of a region that was never truncated,
+     * log lines always end with a line separator so a real log never ends with NUL
+     */
+    static long writtenLength(FileChannel channel, int maxScan) throws IOException {
+        long size = channel.size();
+        long limit = Math.max(0, size - maxScan);
+        ByteBuffer chunk = ByteBuffer.allocate(SCAN_CHUNK_SIZE);
+        long end = size;
+        while (end > limit) {
+            long begin = Math.max(limit, end - SCAN_CHUNK_SIZE);
+            chunk.clear();
+            chunk.limit((int) (end - begin));
+            while (chunk.hasRemaining()) {
+                if (channel.read(chunk, begin + chunk.position()) < 0) {
+                    break;
+                }
+            }
+            for (int i = chunk.position() - 1; i >= 0; i--) {
+                if (chunk.get(i) != 0) {
+                    return begin + i + 1;
+                }
+            }
+            end = begin;
+        }
+        return end;
+    }
+
+    /**
+     * Release the mapping right away instead of waiting for GC, so that the file can be truncated,
+     * renamed or deleted on every platform. Only called by the writing thread or under its lock.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            if (INVOKE_CLEANER != null) {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            } else if (CLEANER != null) {
+                Object cleaner = CLEANER.invoke(buffer);
+                if (cleaner != null) {
+                    CLEAN.invoke(cleaner);
+                }
+            }
+        } catch (Throwable e) {
+            // leave it to GC
+        }
+    }
+}
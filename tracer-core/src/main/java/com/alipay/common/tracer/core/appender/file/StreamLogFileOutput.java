@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.file;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * The classic buffered stream output
+ *
+ * @since 3.1.10
+ */
+class StreamLogFileOutput implements LogFileOutput {
+
+    private final BufferedOutputStream bos;
+
+    StreamLogFileOutput(File file, boolean append, int bufferSize) throws IOException {
+        this.bos = new BufferedOutputStream(new FileOutputStream(file, append), bufferSize);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        bos.write(bytes, offset, length);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        bos.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        bos.close();
+    }
+}
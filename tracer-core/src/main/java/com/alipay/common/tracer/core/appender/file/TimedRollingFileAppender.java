@@ -107,6 +107,18 @@ public class TimedRollingFileAppender extends AbstractRollingFileAppender {
         this.logReserveConfig = TracerUtils.parseLogReserveConfig(logReserveConfigString);
     }
 
+    /**
+     * @param file fileName
+     * @param datePattern date format
+     * @param logReserveConfigString log retention config
+     * @param outputType one of the {@link LogFileOutput} types
+     */
+    public TimedRollingFileAppender(String file, String datePattern,
+                                    String logReserveConfigString, String outputType) {
+        this(file, DEFAULT_BUFFER_SIZE, true, datePattern, outputType);
+        this.logReserveConfig = TracerUtils.parseLogReserveConfig(logReserveConfigString);
+    }
+
     public TimedRollingFileAppender(String file, int bufferSize, boolean append) {
         this(file, bufferSize, append, DEFAULT_ROLLING_PATTERN);
     }
@@ -119,7 +131,19 @@ public class TimedRollingFileAppender extends AbstractRollingFileAppender {
      */
     public TimedRollingFileAppender(String file, int bufferSize, boolean append,
                                     String datePatternParam) {
-        super(file, bufferSize, append);
+        this(file, bufferSize, append, datePatternParam, LogFileOutput.TYPE_STREAM);
+    }
+
+    /**
+     * @param file fileName
+     * @param bufferSize bufferSize
+     * @param append default is true
+     * @param datePatternParam date format
+     * @param outputType one of the {@link LogFileOutput} types
+     */
+    public TimedRollingFileAppender(String file, int bufferSize, boolean append,
+                                    String datePatternParam, String outputType) {
+        super(file, bufferSize, append, outputType);
         if (StringUtils.isBlank(datePatternParam)) {
             this.datePattern = DEFAULT_ROLLING_PATTERN;
         } else {
@@ -259,7 +283,7 @@ public class TimedRollingFileAppender extends AbstractRollingFileAppender {
         }
 
         try {
-            bos.close();
+            output.close();
         } catch (IOException e) {
             SelfLog.error(LogCode2Description.convert(SPACE_ID, "01-00008"), e);
         }
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.manager;
+
+import com.alipay.common.tracer.core.appender.self.SynchronizingSelfLog;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.utils.StringUtils;
+import com.alipay.disruptor.BlockingWaitStrategy;
+import com.alipay.disruptor.BusySpinWaitStrategy;
+import com.alipay.disruptor.LiteBlockingWaitStrategy;
+import com.alipay.disruptor.PhasedBackoffWaitStrategy;
+import com.alipay.disruptor.SleepingWaitStrategy;
+import com.alipay.disruptor.WaitStrategy;
+import com.alipay.disruptor.YieldingWaitStrategy;
+import com.alipay.disruptor.dsl.ProducerType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Disruptor settings of an asynchronous appender manager: ring buffer size, consumer number,
+ * wait strategy and producer type.
+ *
+ * The settings of a manager are read from the configuration items named
+ * {@code <keyPrefix><suffix>}, e.g. {@code tracer_digest_async_wait_strategy}.
+ *
+ * @since 3.1.10
+ */
+public class AsyncAppenderSettings {
+
+    public static final String WAIT_STRATEGY_BLOCKING       = "blocking";
+    public static final String WAIT_STRATEGY_LITE_BLOCKING  = "lite_blocking";
+    public static final String WAIT_STRATEGY_SLEEPING       = "sleeping";
+    public static final String WAIT_STRATEGY_YIELDING       = "yielding";
+    public static final String WAIT_STRATEGY_PHASED_BACKOFF = "phased_backoff";
+    public static final String WAIT_STRATEGY_BUSY_SPIN      = "busy_spin";
+
+    /**
+     * Spin and yield timeout of the phased backoff strategy before it falls back to a lite lock
+     */
+    private static final long  PHASED_BACKOFF_SPIN_MICROS   = 10;
+    private static final long  PHASED_BACKOFF_YIELD_MICROS  = 1000;
+
+    private final int          queueSize;
+
+    private final int          consumerNumber;
+
+    private final String       waitStrategy;
+
+    private final ProducerType producerType;
+
+    public AsyncAppenderSettings(int queueSize, int consumerNumber) {
+        this(queueSize, consumerNumber, WAIT_STRATEGY_BLOCKING, ProducerType.MULTI);
+    }
+
+    public AsyncAppenderSettings(int queueSize, int consumerNumber, String waitStrategy,
+                                 ProducerType producerType) {
+        this.queueSize = queueSize;
+        this.consumerNumber = consumerNumber;
+        this.waitStrategy = waitStrategy;
+        this.producerType = producerType;
+    }
+
+    /**
+     * Load the settings of a manager, falling back to the given defaults for absent or invalid items
+     *
+     * @param keyPrefix             configuration key prefix of the manager
+     * @param defaultQueueSize      default ring buffer size
+     * @param defaultConsumerNumber default consumer number
+     * @return settings
+     */
+    public static AsyncAppenderSettings load(String keyPrefix, int defaultQueueSize,
+                                             int defaultConsumerNumber) {
+        int queueSize = getPositiveInt(keyPrefix
+                                       + SofaTracerConfiguration.TRACER_ASYNC_RING_BUFFER_SIZE,
+            defaultQueueSize);
+        int consumerNumber = getPositiveInt(keyPrefix
+                                            + SofaTracerConfiguration.TRACER_ASYNC_CONSUMER_NUMBER,
+            defaultConsumerNumber);
+
+        String waitStrategy = SofaTracerConfiguration.getProperty(keyPrefix
+                                                                  + SofaTracerConfiguration.TRACER_ASYNC_WAIT_STRATEGY);
+        if (StringUtils.isBlank(waitStrategy)) {
+            waitStrategy = WAIT_STRATEGY_BLOCKING;
+        } else if (createWaitStrategy(waitStrategy.trim()) == null) {
+            SynchronizingSelfLog.warn("unknown wait strategy [" + waitStrategy + "] of " + keyPrefix
+                                      + ", use " + WAIT_STRATEGY_BLOCKING + " instead");
+            waitStrategy = WAIT_STRATEGY_BLOCKING;
+        }
+
+        ProducerType producerType = ProducerType.MULTI;
+        String producerTypeValue = SofaTracerConfiguration.getProperty(keyPrefix
+                                                                       + SofaTracerConfiguration.TRACER_ASYNC_PRODUCER_TYPE);
+        if (StringUtils.isNotBlank(producerTypeValue)) {
+            try {
+                producerType = ProducerType.valueOf(producerTypeValue.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                SynchronizingSelfLog.warn("unknown producer type [" + producerTypeValue + "] of "
+                                          + keyPrefix + ", use " + ProducerType.MULTI + " instead");
+            }
+        }
+        return new AsyncAppenderSettings(queueSize, consumerNumber, waitStrategy.trim(),
+            producerType);
+    }
+
+    /**
+     * Create a new wait strategy instance, a strategy must not be shared between ring buffers
+     *
+     * @return wait strategy
+     */
+    public WaitStrategy newWaitStrategy() {
+        WaitStrategy strategy = createWaitStrategy(waitStrategy);
+        return strategy == null ? new BlockingWaitStrategy() : strategy;
+    }
+
+    private static WaitStrategy createWaitStrategy(String name) {
+        if (WAIT_STRATEGY_BLOCKING.equalsIgnoreCase(name)) {
+            return new BlockingWaitStrategy();
+        } else if (WAIT_STRATEGY_LITE_BLOCKING.equalsIgnoreCase(name)) {
+            return new LiteBlockingWaitStrategy();
+        } else if (WAIT_STRATEGY_SLEEPING.equalsIgnoreCase(name)) {
+            return new SleepingWaitStrategy();
+        } else if (WAIT_STRATEGY_YIELDING.equalsIgnoreCase(name)) {
+            return new YieldingWaitStrategy();
+        } else if (WAIT_STRATEGY_PHASED_BACKOFF.equalsIgnoreCase(name)) {
+            return PhasedBackoffWaitStrategy.withLiteLock(PHASED_BACKOFF_SPIN_MICROS,
+                PHASED_BACKOFF_YIELD_MICROS, TimeUnit.MICROSECONDS);
+        } else if (WAIT_STRATEGY_BUSY_SPIN.equalsIgnoreCase(name)) {
+            return new BusySpinWaitStrategy();
+        }
+        return null;
+    }
+
+    private static int getPositiveInt(String key, int defaultValue) {
+        String value = SofaTracerConfiguration.getProperty(key);
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        try {
+            int result = Integer.parseInt(value.trim());
+            if (result > 0) {
+                return result;
+            }
+        } catch (NumberFormatException e) {
+            // fall through
+        }
+        SynchronizingSelfLog.warn("invalid value [" + value + "] of " + key + ", use "
+                                  + defaultValue + " instead");
+        return defaultValue;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public int getConsumerNumber() {
+        return consumerNumber;
+    }
+
+    public String getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public ProducerType getProducerType() {
+        return producerType;
+    }
+}
@@ -21,16 +21,13 @@ import com.alipay.common.tracer.core.appender.file.TimedRollingFileAppender;
 import com.alipay.common.tracer.core.appender.self.SynchronizingSelfLog;
 import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
 import com.alipay.common.tracer.core.utils.StringUtils;
-import com.alipay.disruptor.BlockingWaitStrategy;
 import com.alipay.disruptor.EventHandler;
-import com.alipay.disruptor.InsufficientCapacityException;
 import com.alipay.disruptor.RingBuffer;
 import com.alipay.disruptor.dsl.Disruptor;
-import com.alipay.disruptor.dsl.ProducerType;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.TimeUnit;
 
 /**
  * For SelfLog
@@ -50,26 +47,32 @@ public class AsyncCommonAppenderManager {
     /** Dedicated for SelfLog, no need to open three Consumers */
     private static final int            DEFAULT_CONSUMER_NUMBER       = 1;
 
+    private final String                logName;
+
     private boolean                     allowDiscard;
-    private boolean                     isOutDiscardNumber;
-    private boolean                     isOutDiscardId;
-    private long                        discardOutThreshold;
-    private PaddedAtomicLong            discardCount;
+    private ShedPolicy                  shedPolicy;
+    private long                        blockTimeoutNanos;
+    private DiscardRecorder             discardRecorder;
 
     private static final String         DEFAULT_ALLOW_DISCARD         = "true";
     private static final String         DEFAULT_IS_OUT_DISCARD_NUMBER = "true";
-    private static final String         DEFAULT_IS_OUT_DISCARD_ID     = "false";
 
-    private static final String         DEFAULT_DISCARD_OUT_THRESHOLD = "500";
+    private static final String         DEFAULT_DISCARD_INTERVAL      = "10";
+    private static final String         DEFAULT_BLOCK_TIMEOUT         = "10";
 
     public AsyncCommonAppenderManager(int queueSize, int consumerNumber, String logName) {
-        int realQueueSize = 1 << (32 - Integer.numberOfLeadingZeros(queueSize - 1));
+        this(new AsyncAppenderSettings(queueSize, consumerNumber), logName);
+    }
+
+    public AsyncCommonAppenderManager(AsyncAppenderSettings settings, String logName) {
+        this.logName = logName;
+        int realQueueSize = 1 << (32 - Integer.numberOfLeadingZeros(settings.getQueueSize() - 1));
         disruptor = new Disruptor<StringEvent>(new StringEventFactory(), realQueueSize,
-            threadFactory, ProducerType.MULTI, new BlockingWaitStrategy());
+            threadFactory, settings.getProducerType(), settings.newWaitStrategy());
 
-        this.consumers = new ArrayList<Consumer>(consumerNumber);
+        this.consumers = new ArrayList<Consumer>(settings.getConsumerNumber());
 
-        for (int i = 0; i < consumerNumber; i++) {
+        for (int i = 0; i < settings.getConsumerNumber(); i++) {
             Consumer consumer = new Consumer();
             consumers.add(consumer);
             disruptor.setDefaultExceptionHandler(new StringConsumerExceptionHandler());
@@ -79,19 +82,22 @@ public class AsyncCommonAppenderManager {
         this.allowDiscard = Boolean.parseBoolean(SofaTracerConfiguration.getProperty(
             SofaTracerConfiguration.TRACER_ASYNC_APPENDER_ALLOW_DISCARD, DEFAULT_ALLOW_DISCARD));
         if (allowDiscard) {
-            this.isOutDiscardNumber = Boolean.parseBoolean(SofaTracerConfiguration.getProperty(
-                SofaTracerConfiguration.TRACER_ASYNC_APPENDER_IS_OUT_DISCARD_NUMBER,
-                DEFAULT_IS_OUT_DISCARD_NUMBER));
-            this.isOutDiscardId = Boolean.parseBoolean(SofaTracerConfiguration.getProperty(
-                SofaTracerConfiguration.TRACER_ASYNC_APPENDER_IS_OUT_DISCARD_ID,
-                DEFAULT_IS_OUT_DISCARD_ID));
-            this.discardOutThreshold = Long.parseLong(SofaTracerConfiguration.getProperty(
-                SofaTracerConfiguration.TRACER_ASYNC_APPENDER_DISCARD_OUT_THRESHOLD,
-                DEFAULT_DISCARD_OUT_THRESHOLD));
-
-            if (isOutDiscardNumber) {
-                this.discardCount = new PaddedAtomicLong(0L);
-            }
+            // self logs have no priority, drop_by_priority behaves like drop_newest here
+            this.shedPolicy = ShedPolicy.parse(SofaTracerConfiguration
+                .getProperty(SofaTracerConfiguration.TRACER_ASYNC_APPENDER_SHED_POLICY));
+            this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Long
+                .parseLong(SofaTracerConfiguration.getProperty(
+                    SofaTracerConfiguration.TRACER_ASYNC_APPENDER_BLOCK_TIMEOUT,
+                    DEFAULT_BLOCK_TIMEOUT)));
+
+            boolean isOutDiscardNumber = Boolean.parseBoolean(SofaTracerConfiguration
+                .getProperty(SofaTracerConfiguration.TRACER_ASYNC_APPENDER_IS_OUT_DISCARD_NUMBER,
+                    DEFAULT_IS_OUT_DISCARD_NUMBER));
+            long discardInterval = Long.parseLong(SofaTracerConfiguration.getProperty(
+                SofaTracerConfiguration.TRACER_ASYNC_APPENDER_DISCARD_INTERVAL,
+                DEFAULT_DISCARD_INTERVAL));
+            this.discardRecorder = new DiscardRecorder(logName, false,
+                isOutDiscardNumber ? discardInterval : 0L);
         }
 
         String globalLogReserveDay = SofaTracerConfiguration.getProperty(
@@ -122,23 +128,9 @@ public class AsyncCommonAppenderManager {
     public boolean append(String string) {
         long sequence = 0L;
         if (allowDiscard) {
-            try {
-                sequence = ringBuffer.tryNext();
-            } catch (InsufficientCapacityException e) {
-
-                if (isOutDiscardId) {
-                    if (string != null) {
-                        SynchronizingSelfLog.warn("discarded selflog ");
-                    }
-                }
-
-                if ((isOutDiscardNumber) && discardCount.incrementAndGet() == discardOutThreshold) {
-                    discardCount.set(0);
-                    if (isOutDiscardNumber) {
-                        SynchronizingSelfLog.warn("discarded " + discardOutThreshold + " selflogs");
-                    }
-                }
-
+            sequence = shedPolicy.claim(ringBuffer, true, blockTimeoutNanos);
+            if (sequence < 0) {
+                discardRecorder.record(logName, null);
                 return false;
             }
         } else {
@@ -181,15 +173,4 @@ public class AsyncCommonAppenderManager {
         }
 
     }
-
-    class PaddedAtomicLong extends AtomicLong {
-        public volatile long p1, p2, p3, p4, p5, p6 = 7L;
-
-        public PaddedAtomicLong(long initialValue) {
-            super(initialValue);
-        }
-
-        public PaddedAtomicLong() {
-        }
-    }
-}
\ No newline at end of file
+}
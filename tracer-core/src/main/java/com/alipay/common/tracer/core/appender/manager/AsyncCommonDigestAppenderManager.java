@@ -16,32 +16,42 @@
  */
 package com.alipay.common.tracer.core.appender.manager;
 
+import com.alipay.common.tracer.core.appender.ByteTraceAppender;
 import com.alipay.common.tracer.core.appender.TraceAppender;
+import com.alipay.common.tracer.core.appender.TracerLogRootDaemon;
+import com.alipay.common.tracer.core.appender.encoder.ByteSink;
+import com.alipay.common.tracer.core.appender.encoder.ByteSpanEncoder;
 import com.alipay.common.tracer.core.appender.encoder.SpanEncoder;
 import com.alipay.common.tracer.core.appender.file.LoadTestAwareAppender;
 import com.alipay.common.tracer.core.appender.self.SynchronizingSelfLog;
 import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
 import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
+import com.alipay.common.tracer.core.reporter.stat.SofaTracerStatisticReporter;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import com.alipay.common.tracer.core.utils.StringUtils;
 import com.alipay.common.tracer.core.utils.TracerUtils;
-import com.alipay.disruptor.BlockingWaitStrategy;
 import com.alipay.disruptor.EventHandler;
-import com.alipay.disruptor.InsufficientCapacityException;
 import com.alipay.disruptor.RingBuffer;
 import com.alipay.disruptor.dsl.Disruptor;
-import com.alipay.disruptor.dsl.ProducerType;
+import io.opentracing.tag.Tags;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.nio.charset.StandardCharsets;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * Digest logs are partitioned by logType: each partition owns a ring buffer and a single consumer,
+ * so every span is only touched by the consumer thread of the partition its logType belongs to.
+ * Partitions are created as logTypes are added, up to the configured consumer number.
+ * Every partition gets a ring buffer of the full configured queue size, so a logType keeps the
+ * burst capacity it had with a single shared ring, while the ring memory grows with the number of
+ * partitions: up to consumer number times the queue size.
  *
  * @author liangen
  * @version $Id: AsyncCommonDigestAppenderManager.java, v 0.1 October 23, 2017 9：47 AM liangen Exp $
@@ -50,81 +60,121 @@ public class AsyncCommonDigestAppenderManager {
     private final Map<String, TraceAppender> appenders                     = new ConcurrentHashMap<String, TraceAppender>();
     private final Map<String, SpanEncoder>   contextEncoders               = new ConcurrentHashMap<String, SpanEncoder>();
 
-    private Disruptor<SofaTracerSpanEvent>   disruptor;
-    private RingBuffer<SofaTracerSpanEvent>  ringBuffer;
-    private final ConsumerThreadFactory      threadFactory                 = new ConsumerThreadFactory();
+    private final Map<String, Partition>     logTypePartitions             = new ConcurrentHashMap<String, Partition>();
+    private final List<Partition>            partitions                    = new CopyOnWriteArrayList<Partition>();
 
-    private List<Consumer>                   consumers;
+    private final int                        realQueueSize;
+    private final AsyncAppenderSettings      settings;
     private AtomicInteger                    index                         = new AtomicInteger(0);
+    private volatile String                  workerName;
     private static final int                 DEFAULT_CONSUMER_NUMBER       = 3;
 
+    /**
+     * {@link ByteSpanEncoder}s write UTF-8, so the byte path is only taken when the log files use UTF-8
+     */
+    private static final boolean             BYTE_ENCODING                 = StandardCharsets.UTF_8
+                                                                               .equals(TracerLogRootDaemon.DEFAULT_CHARSET);
+
     private boolean                          allowDiscard;
-    private boolean                          isOutDiscardNumber;
-    private boolean                          isOutDiscardId;
-    private long                             discardOutThreshold;
-    private PaddedAtomicLong                 discardCount;
+    private ShedPolicy                       shedPolicy;
+    private long                             blockTimeoutNanos;
+    private DiscardRecorder                  discardRecorder;
+
+    private boolean                          batchFlush;
+    private long                             maxFlushLatency;
+
+    private boolean                          asyncStatistic;
 
     private static final String              DEFAULT_ALLOW_DISCARD         = "true";
     private static final String              DEFAULT_IS_OUT_DISCARD_NUMBER = "true";
     private static final String              DEFAULT_IS_OUT_DISCARD_ID     = "false";
 
-    private static final String              DEFAULT_DISCARD_OUT_THRESHOLD = "500";
+    private static final String              DEFAULT_DISCARD_INTERVAL      = "10";
+    private static final String              DEFAULT_BLOCK_TIMEOUT         = "10";
 
-    public AsyncCommonDigestAppenderManager(int queueSize, int consumerNumber) {
-        int realQueueSize = 1 << (32 - Integer.numberOfLeadingZeros(queueSize - 1));
-        disruptor = new Disruptor<SofaTracerSpanEvent>(new SofaTracerSpanEventFactory(),
-            realQueueSize, threadFactory, ProducerType.MULTI, new BlockingWaitStrategy());
+    private static final String              DEFAULT_BATCH_FLUSH           = "false";
+    private static final String              DEFAULT_MAX_FLUSH_LATENCY     = "100";
 
-        this.consumers = new ArrayList<Consumer>(consumerNumber);
+    private static final String              DEFAULT_ASYNC_STATISTIC       = "false";
 
-        for (int i = 0; i < consumerNumber; i++) {
-            Consumer consumer = new Consumer();
-            consumers.add(consumer);
-            disruptor.setDefaultExceptionHandler(new ConsumerExceptionHandler());
-            disruptor.handleEventsWith(consumer);
-        }
+    public AsyncCommonDigestAppenderManager(int queueSize, int consumerNumber) {
+        this(new AsyncAppenderSettings(queueSize, consumerNumber));
+    }
+
+    public AsyncCommonDigestAppenderManager(AsyncAppenderSettings settings) {
+        this.realQueueSize = 1 << (32 - Integer.numberOfLeadingZeros(settings.getQueueSize() - 1));
+        this.settings = settings;
 
         this.allowDiscard = Boolean.parseBoolean(SofaTracerConfiguration.getProperty(
             SofaTracerConfiguration.TRACER_ASYNC_APPENDER_ALLOW_DISCARD, DEFAULT_ALLOW_DISCARD));
         if (allowDiscard) {
-            this.isOutDiscardNumber = Boolean.parseBoolean(SofaTracerConfiguration.getProperty(
-                SofaTracerConfiguration.TRACER_ASYNC_APPENDER_IS_OUT_DISCARD_NUMBER,
-                DEFAULT_IS_OUT_DISCARD_NUMBER));
-            this.isOutDiscardId = Boolean.parseBoolean(SofaTracerConfiguration.getProperty(
+            this.shedPolicy = ShedPolicy.parse(SofaTracerConfiguration
+                .getProperty(SofaTracerConfiguration.TRACER_ASYNC_APPENDER_SHED_POLICY));
+            this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Long
+                .parseLong(SofaTracerConfiguration.getProperty(
+                    SofaTracerConfiguration.TRACER_ASYNC_APPENDER_BLOCK_TIMEOUT,
+                    DEFAULT_BLOCK_TIMEOUT)));
+
+            boolean isOutDiscardNumber = Boolean.parseBoolean(SofaTracerConfiguration
+                .getProperty(SofaTracerConfiguration.TRACER_ASYNC_APPENDER_IS_OUT_DISCARD_NUMBER,
+                    DEFAULT_IS_OUT_DISCARD_NUMBER));
+            boolean isOutDiscardId = Boolean.parseBoolean(SofaTracerConfiguration.getProperty(
                 SofaTracerConfiguration.TRACER_ASYNC_APPENDER_IS_OUT_DISCARD_ID,
                 DEFAULT_IS_OUT_DISCARD_ID));
-            this.discardOutThreshold = Long.parseLong(SofaTracerConfiguration.getProperty(
-                SofaTracerConfiguration.TRACER_ASYNC_APPENDER_DISCARD_OUT_THRESHOLD,
-                DEFAULT_DISCARD_OUT_THRESHOLD));
+            long discardInterval = Long.parseLong(SofaTracerConfiguration.getProperty(
+                SofaTracerConfiguration.TRACER_ASYNC_APPENDER_DISCARD_INTERVAL,
+                DEFAULT_DISCARD_INTERVAL));
+            this.discardRecorder = new DiscardRecorder("digest appender", isOutDiscardId,
+                isOutDiscardNumber ? discardInterval : 0L);
+        }
 
-            if (isOutDiscardNumber) {
-                this.discardCount = new PaddedAtomicLong(0L);
-            }
+        this.batchFlush = Boolean.parseBoolean(SofaTracerConfiguration.getProperty(
+            SofaTracerConfiguration.TRACER_ASYNC_APPENDER_BATCH_FLUSH, DEFAULT_BATCH_FLUSH));
+        if (batchFlush) {
+            this.maxFlushLatency = Long.parseLong(SofaTracerConfiguration.getProperty(
+                SofaTracerConfiguration.TRACER_ASYNC_APPENDER_MAX_FLUSH_LATENCY,
+                DEFAULT_MAX_FLUSH_LATENCY));
         }
+
+        this.asyncStatistic = Boolean.parseBoolean(SofaTracerConfiguration.getProperty(
+            SofaTracerConfiguration.TRACER_ASYNC_STATISTIC, DEFAULT_ASYNC_STATISTIC));
     }
 
     public AsyncCommonDigestAppenderManager(int queueSize) {
         this(queueSize, DEFAULT_CONSUMER_NUMBER);
     }
 
-    public void start(final String workerName) {
-        this.threadFactory.setWorkName(workerName);
-
-        this.ringBuffer = this.disruptor.start();
-
+    public synchronized void start(final String workerName) {
+        this.workerName = workerName;
+        for (Partition partition : partitions) {
+            partition.start(workerName);
+        }
     }
 
-    public void addAppender(String logType, TraceAppender appender, SpanEncoder encoder) {
+    public synchronized void addAppender(String logType, TraceAppender appender,
+                                         SpanEncoder encoder) {
         if (isAppenderOrEncoderExist(logType)) {
             SynchronizingSelfLog.error("logType[" + logType
                                        + "] already is added AsyncCommonDigestAppenderManager");
             return;
         }
 
+        Partition partition;
+        if (partitions.size() < settings.getConsumerNumber()) {
+            partition = new Partition();
+            if (workerName != null) {
+                // added after start, the new partition has to be started by itself
+                partition.start(workerName);
+            }
+            partitions.add(partition);
+        } else {
+            partition = partitions.get(index.getAndIncrement() % partitions.size());
+        }
+        // bind the partition before the appender becomes visible to the reporters
+        logTypePartitions.put(logType, partition);
+
         appenders.put(logType, appender);
         contextEncoders.put(logType, encoder);
-
-        consumers.get(index.incrementAndGet() % consumers.size()).addLogType(logType);
     }
 
     public boolean isAppenderOrEncoderExist(String logType) {
@@ -139,31 +189,58 @@ public class AsyncCommonDigestAppenderManager {
         return appenders.containsKey(logType);
     }
 
-    public boolean append(SofaTracerSpan sofaTracerSpan) {
-        long sequence = 0L;
-        if (allowDiscard) {
-            try {
-                sequence = ringBuffer.tryNext();
-            } catch (InsufficientCapacityException e) {
+    /**
+     * @return whether reporters hand the stat of their spans to the consumer threads
+     */
+    public boolean isAsyncStatistic() {
+        return asyncStatistic;
+    }
 
-                if (isOutDiscardId) {
-                    SofaTracerSpanContext sofaTracerSpanContext = sofaTracerSpan
-                        .getSofaTracerSpanContext();
-                    if (sofaTracerSpanContext != null) {
-                        SynchronizingSelfLog.warn("discarded tracer: traceId["
-                                                  + sofaTracerSpanContext.getTraceId()
-                                                  + "];spanId[" + sofaTracerSpanContext.getSpanId()
-                                                  + "]");
-                    }
-                }
+    /**
+     * @param logType logType
+     * @return number of spans of the logType dropped because the queue was full
+     */
+    public long getDiscardCount(String logType) {
+        return discardRecorder == null ? 0L : discardRecorder.getDiscardCount(logType);
+    }
 
-                if ((isOutDiscardNumber) && discardCount.incrementAndGet() == discardOutThreshold) {
-                    discardCount.set(0);
-                    if (isOutDiscardNumber) {
-                        SynchronizingSelfLog.warn("discarded " + discardOutThreshold + " logs");
-                    }
-                }
+    public boolean append(SofaTracerSpan sofaTracerSpan) {
+        return append(sofaTracerSpan, true, null);
+    }
+
+    /**
+     * Append the span, the consumer thread of its logType writes the digest log and then reports
+     * the stat. All spans of a logType are consumed by the same thread, so its stat reporter is
+     * never updated concurrently.
+     *
+     * @param sofaTracerSpan span
+     * @param digest         whether the digest log is written
+     * @param statReporter   stat reporter of the span, may be null
+     * @return false if the span was not accepted, the caller still has to report the stat then
+     */
+    public boolean append(SofaTracerSpan sofaTracerSpan, boolean digest,
+                          SofaTracerStatisticReporter statReporter) {
+        String logType = sofaTracerSpan.getLogType();
+        Partition partition = logType == null ? null : logTypePartitions.get(logType);
+        RingBuffer<SofaTracerSpanEvent> ringBuffer = partition == null ? null
+            : partition.ringBuffer;
+        if (ringBuffer == null) {
+            // no appender registered for the logType or the manager is not started yet
+            return false;
+        }
 
+        long sequence = 0L;
+        if (allowDiscard) {
+            sequence = shedPolicy.tryClaim(ringBuffer);
+            if (sequence < 0) {
+                // the priority is only looked up once the ring buffer is short of free slots
+                sequence = shedPolicy.claim(ringBuffer, shedPolicy == ShedPolicy.DROP_BY_PRIORITY
+                                                        && isHighPriority(sofaTracerSpan),
+                    blockTimeoutNanos);
+            }
+            if (sequence < 0) {
+                // the drop is summarized by the discard reporter thread, never logged here
+                discardRecorder.record(logType, sofaTracerSpan.getSofaTracerSpanContext());
                 return false;
             }
         } else {
@@ -172,6 +249,8 @@ public class AsyncCommonDigestAppenderManager {
 
         try {
             SofaTracerSpanEvent event = ringBuffer.get(sequence);
+            event.setDigest(digest);
+            event.setStatReporter(statReporter);
             event.setSofaTracerSpan(sofaTracerSpan);
         } catch (Exception e) {
             SynchronizingSelfLog.error("fail to add event");
@@ -181,9 +260,54 @@ public class AsyncCommonDigestAppenderManager {
         return true;
     }
 
+    /**
+     * Error spans are kept, {@link SofaTracerSpan#reportError} sets a boolean error tag while the
+     * plugins record the error as a string tag
+     */
+    private boolean isHighPriority(SofaTracerSpan sofaTracerSpan) {
+        return Boolean.TRUE.equals(sofaTracerSpan.getTagsWithBool().get(Tags.ERROR.getKey()))
+               || StringUtils.isNotBlank(sofaTracerSpan.getTagsWithStr().get(Tags.ERROR.getKey()));
+    }
+
+    /**
+     * A ring buffer with its own consumer thread, shared by the logTypes bound to it
+     */
+    private class Partition {
+
+        private final Disruptor<SofaTracerSpanEvent>     disruptor;
+        private final ConsumerThreadFactory              threadFactory = new ConsumerThreadFactory();
+        private volatile RingBuffer<SofaTracerSpanEvent> ringBuffer;
+
+        Partition() {
+            disruptor = new Disruptor<SofaTracerSpanEvent>(new SofaTracerSpanEventFactory(),
+                realQueueSize, threadFactory, settings.getProducerType(), settings
+                    .newWaitStrategy());
+            disruptor.setDefaultExceptionHandler(new ConsumerExceptionHandler());
+            disruptor.handleEventsWith(new Consumer());
+        }
+
+        void start(String workerName) {
+            threadFactory.setWorkName(workerName);
+            ringBuffer = disruptor.start();
+        }
+    }
+
     private class Consumer implements EventHandler<SofaTracerSpanEvent> {
 
-        protected Set<String> logTypes = Collections.synchronizedSet(new HashSet<String>());
+        /**
+         * Appenders written since the last flush, only accessed by the consumer thread
+         */
+        private final Set<TraceAppender> unflushed        = new HashSet<TraceAppender>();
+
+        /**
+         * Time of the first write since the last flush, -1 if nothing is pending
+         */
+        private long                     firstUnflushTime = -1L;
+
+        /**
+         * Reusable buffer of the byte encoding path
+         */
+        private final ByteSink           sink             = new ByteSink();
 
         @Override
         public void onEvent(SofaTracerSpanEvent event, long sequence, boolean endOfBatch)
@@ -195,19 +319,24 @@ public class AsyncCommonDigestAppenderManager {
                 try {
 
                     String logType = sofaTracerSpan.getLogType();
-                    if (logTypes.contains(logType)) {
-                        SpanEncoder encoder = contextEncoders.get(logType);
-                        TraceAppender appender = appenders.get(logType);
-
-                        String encodedStr = encoder.encode(sofaTracerSpan);
-                        if (appender instanceof LoadTestAwareAppender) {
-                            ((LoadTestAwareAppender) appender).append(encodedStr,
-                                TracerUtils.isLoadTest(sofaTracerSpan));
+                    SpanEncoder encoder = contextEncoders.get(logType);
+                    TraceAppender appender = appenders.get(logType);
+                    if (event.isDigest() && encoder != null && appender != null) {
+                        if (BYTE_ENCODING && encoder instanceof ByteSpanEncoder
+                            && appender instanceof ByteTraceAppender) {
+                            appendBytes((ByteSpanEncoder) encoder, (ByteTraceAppender) appender,
+                                sofaTracerSpan);
+                        } else {
+                            appendString(encoder, appender, sofaTracerSpan);
+                        }
+                        if (batchFlush) {
+                            unflushed.add(appender);
+                            if (firstUnflushTime < 0) {
+                                firstUnflushTime = System.currentTimeMillis();
+                            }
                         } else {
-                            appender.append(encodedStr);
+                            appender.flush();
                         }
-                        appender.flush();
-                        event.clear();
                     }
                 } catch (Exception e) {
                     SofaTracerSpanContext sofaTracerSpanContext = sofaTracerSpan
@@ -223,23 +352,57 @@ public class AsyncCommonDigestAppenderManager {
                     }
 
                 }
+                SofaTracerStatisticReporter statReporter = event.getStatReporter();
+                if (statReporter != null) {
+                    try {
+                        statReporter.reportStat(sofaTracerSpan);
+                    } catch (Exception e) {
+                        SynchronizingSelfLog.error("fail to async report stat of "
+                                                   + statReporter.getStatTracerName(), e);
+                    }
+                }
+                event.clear();
             }
 
+            if (firstUnflushTime >= 0
+                && (endOfBatch || System.currentTimeMillis() - firstUnflushTime >= maxFlushLatency)) {
+                flushUnflushed();
+            }
         }
 
-        public void addLogType(String logType) {
-            logTypes.add(logType);
+        private void appendBytes(ByteSpanEncoder encoder, ByteTraceAppender appender,
+                                 SofaTracerSpan sofaTracerSpan) throws Exception {
+            sink.reset();
+            encoder.encode(sofaTracerSpan, sink);
+            if (appender instanceof LoadTestAwareAppender) {
+                ((LoadTestAwareAppender) appender).append(sink,
+                    TracerUtils.isLoadTest(sofaTracerSpan));
+            } else {
+                appender.append(sink);
+            }
         }
-    }
 
-    class PaddedAtomicLong extends AtomicLong {
-        public volatile long p1, p2, p3, p4, p5, p6 = 7L;
-
-        public PaddedAtomicLong(long initialValue) {
-            super(initialValue);
+        private void appendString(SpanEncoder encoder, TraceAppender appender,
+                                  SofaTracerSpan sofaTracerSpan) throws Exception {
+            String encodedStr = encoder.encode(sofaTracerSpan);
+            if (appender instanceof LoadTestAwareAppender) {
+                ((LoadTestAwareAppender) appender).append(encodedStr,
+                    TracerUtils.isLoadTest(sofaTracerSpan));
+            } else {
+                appender.append(encodedStr);
+            }
         }
 
-        public PaddedAtomicLong() {
+        private void flushUnflushed() {
+            for (TraceAppender appender : unflushed) {
+                try {
+                    appender.flush();
+                } catch (Exception e) {
+                    SynchronizingSelfLog.error("fail to flush appender in batch", e);
+                }
+            }
+            unflushed.clear();
+            firstUnflushTime = -1L;
         }
     }
 
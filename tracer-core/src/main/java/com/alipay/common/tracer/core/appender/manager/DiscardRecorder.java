@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.manager;
+
+import com.alipay.common.tracer.core.appender.self.SelfLog;
+import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the events dropped by an asynchronous appender manager per logType and samples the ids of
+ * the dropped spans. Recording only touches lock-free counters, the self log is written by a shared
+ * background thread that summarizes the drops of every interval.
+ *
+ * @since 3.1.10
+ */
+public class DiscardRecorder {
+
+    /**
+     * Max number of span ids sampled per interval
+     */
+    public static final int                            SAMPLE_CAPACITY = 16;
+
+    private static final ScheduledExecutorService      REPORTER;
+
+    private final String                               name;
+
+    private final boolean                              sampleId;
+
+    private final ConcurrentHashMap<String, LongAdder> discardCounts   = new ConcurrentHashMap<String, LongAdder>();
+
+    /**
+     * Totals already reported, only accessed by the reporter
+     */
+    private final Map<String, Long>                    reportedCounts  = new HashMap<String, Long>();
+
+    private final AtomicReferenceArray<String>         sampledIds      = new AtomicReferenceArray<String>(SAMPLE_CAPACITY);
+
+    private final AtomicInteger                        sampleIndex     = new AtomicInteger();
+
+    static {
+        REPORTER = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Tracer-DiscardReporter");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * @param name           name of the manager shown in the summary
+     * @param sampleId       whether the ids of dropped spans are sampled
+     * @param reportInterval seconds between two summaries, no summary is written if not positive
+     */
+    public DiscardRecorder(String name, boolean sampleId, long reportInterval) {
+        this.name = name;
+        this.sampleId = sampleId;
+        if (reportInterval > 0) {
+            REPORTER.scheduleAtFixedRate(new Runnable() {
+                @Override
+                public void run() {
+                    report();
+                }
+            }, reportInterval, reportInterval, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Record a dropped event, safe to call from any producer thread
+     *
+     * @param logType logType of the event
+     * @param context context of the dropped span, may be null
+     */
+    public void record(String logType, SofaTracerSpanContext context) {
+        LongAdder count = discardCounts.get(logType);
+        if (count == null) {
+            LongAdder newCount = new LongAdder();
+            count = discardCounts.putIfAbsent(logType, newCount);
+            if (count == null) {
+                count = newCount;
+            }
+        }
+        count.increment();
+
+        if (sampleId && context != null && sampleIndex.get() < SAMPLE_CAPACITY) {
+            int index = sampleIndex.getAndIncrement();
+            if (index < SAMPLE_CAPACITY) {
+                sampledIds.set(index, "traceId[" + context.getTraceId() + "];spanId["
+                                      + context.getSpanId() + "]");
+            }
+        }
+    }
+
+    /**
+     * @param logType logType
+     * @return number of events of the logType dropped so far
+     */
+    public long getDiscardCount(String logType) {
+        LongAdder count = discardCounts.get(logType);
+        return count == null ? 0L : count.sum();
+    }
+
+    /**
+     * Summarize the drops since the last summary and reset the sampled ids
+     *
+     * @return the summary, null if nothing was dropped
+     */
+    synchronized String summarize() {
+        StringBuilder summary = null;
+        for (Map.Entry<String, LongAdder> entry : discardCounts.entrySet()) {
+            long total = entry.getValue().sum();
+            Long reported = reportedCounts.get(entry.getKey());
+            long delta = reported == null ? total : total - reported;
+            if (delta <= 0) {
+                continue;
+            }
+            reportedCounts.put(entry.getKey(), total);
+            if (summary == null) {
+                summary = new StringBuilder(name).append(" discarded");
+            } else {
+                summary.append(',');
+            }
+            summary.append(' ').append(delta).append(" of logType[").append(entry.getKey())
+                .append(']');
+        }
+
+        int sampled = Math.min(sampleIndex.getAndSet(0), SAMPLE_CAPACITY);
+        String separator = "; sampled ";
+        for (int i = 0; i < sampled; i++) {
+            String id = sampledIds.getAndSet(i, null);
+            // a producer may not have stored its id yet, it shows up in the next summary
+            if (id != null && summary != null) {
+                summary.append(separator).append(id);
+                separator = ",";
+            }
+        }
+        return summary == null ? null : summary.toString();
+    }
+
+    private void report() {
+        try {
+            String summary = summarize();
+            if (summary != null) {
+                SelfLog.warn(summary);
+            }
+        } catch (Throwable t) {
+            SelfLog.error("fail to report discarded logs of " + name, t);
+        }
+    }
+}
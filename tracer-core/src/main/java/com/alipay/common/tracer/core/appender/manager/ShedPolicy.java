@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.manager;
+
+import com.alipay.common.tracer.core.appender.self.SynchronizingSelfLog;
+import com.alipay.common.tracer.core.utils.StringUtils;
+import com.alipay.disruptor.InsufficientCapacityException;
+import com.alipay.disruptor.RingBuffer;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * What a producer does when the ring buffer of an asynchronous appender manager has no free slot.
+ *
+ * @since 3.1.10
+ */
+public enum ShedPolicy {
+
+    /**
+     * Drop the event being appended
+     */
+    DROP_NEWEST,
+
+    /**
+     * Keep the last 1/{@link #PRIORITY_RESERVE_RATIO} of the ring buffer for high priority events,
+     * e.g. error spans, and drop the other events once only that part is free
+     */
+    DROP_BY_PRIORITY,
+
+    /**
+     * Wait for a free slot up to the configured timeout, then drop the event
+     */
+    BLOCK_WITH_TIMEOUT;
+
+    public static final int   PRIORITY_RESERVE_RATIO = 8;
+
+    private static final long PARK_NANOS             = 10000L;
+
+    /**
+     * Claim the next sequence without waiting and without touching the reserved part of the ring
+     * buffer, so callers only need the priority of the event when this fails
+     *
+     * @param ringBuffer ring buffer
+     * @return the claimed sequence, or -1 if {@link #claim} has to decide
+     */
+    public long tryClaim(RingBuffer<?> ringBuffer) {
+        if (this == DROP_BY_PRIORITY) {
+            long reserve = ringBuffer.getBufferSize() / PRIORITY_RESERVE_RATIO;
+            if (ringBuffer.remainingCapacity() <= reserve) {
+                return -1L;
+            }
+        }
+        return tryNext(ringBuffer);
+    }
+
+    /**
+     * Claim the next sequence of the ring buffer
+     *
+     * @param ringBuffer   ring buffer
+     * @param highPriority whether the event may use the reserved part of the ring buffer
+     * @param timeoutNanos max wait of {@link #BLOCK_WITH_TIMEOUT}
+     * @return the claimed sequence, or -1 if the event has to be dropped
+     */
+    public long claim(RingBuffer<?> ringBuffer, boolean highPriority, long timeoutNanos) {
+        long sequence = tryClaim(ringBuffer);
+        if (sequence >= 0 || this == DROP_NEWEST) {
+            return sequence;
+        }
+        if (this == DROP_BY_PRIORITY) {
+            return highPriority ? tryNext(ringBuffer) : -1L;
+        }
+        long deadline = System.nanoTime() + timeoutNanos;
+        do {
+            LockSupport.parkNanos(PARK_NANOS);
+            try {
+                return ringBuffer.tryNext();
+            } catch (InsufficientCapacityException e) {
+                // keep waiting
+            }
+        } while (System.nanoTime() - deadline < 0);
+        return -1L;
+    }
+
+    private static long tryNext(RingBuffer<?> ringBuffer) {
+        try {
+            return ringBuffer.tryNext();
+        } catch (InsufficientCapacityException e) {
+            return -1L;
+        }
+    }
+
+    /**
+     * Parse the configured policy, case insensitive
+     *
+     * @param value configured value, may be blank
+     * @return the policy, {@link #DROP_NEWEST} if the value is blank or unknown
+     */
+    public static ShedPolicy parse(String value) {
+        if (StringUtils.isBlank(value)) {
+            return DROP_NEWEST;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            SynchronizingSelfLog.warn("unknown shed policy [" + value + "], use " + DROP_NEWEST
+                                      + " instead");
+            return DROP_NEWEST;
+        }
+    }
+}
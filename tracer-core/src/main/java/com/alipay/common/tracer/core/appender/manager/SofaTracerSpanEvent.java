@@ -16,13 +16,24 @@
  */
 package com.alipay.common.tracer.core.appender.manager;
 
+import com.alipay.common.tracer.core.reporter.stat.SofaTracerStatisticReporter;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
 
 /**
  * @author liangen 3/10/17
  */
 public class SofaTracerSpanEvent implements ObjectEvent {
-    private volatile SofaTracerSpan sofaTracerSpan;
+    private volatile SofaTracerSpan     sofaTracerSpan;
+
+    /**
+     * Whether the digest log of the span is written, false if only its stat is reported
+     */
+    private boolean                     digest = true;
+
+    /**
+     * Stat reporter the consumer reports the span to, null if the stat was reported by the producer
+     */
+    private SofaTracerStatisticReporter statReporter;
 
     /**
      * Getter method for property <tt>sofaTracerSpan</tt>.
@@ -42,8 +53,25 @@ public class SofaTracerSpanEvent implements ObjectEvent {
         this.sofaTracerSpan = sofaTracerSpan;
     }
 
+    public boolean isDigest() {
+        return digest;
+    }
+
+    public void setDigest(boolean digest) {
+        this.digest = digest;
+    }
+
+    public SofaTracerStatisticReporter getStatReporter() {
+        return statReporter;
+    }
+
+    public void setStatReporter(SofaTracerStatisticReporter statReporter) {
+        this.statReporter = statReporter;
+    }
+
     @Override
     public void clear() {
         setSofaTracerSpan(null);
+        this.statReporter = null;
     }
 }
\ No newline at end of file
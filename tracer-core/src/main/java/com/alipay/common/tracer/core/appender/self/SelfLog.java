@@ -16,7 +16,9 @@
  */
 package com.alipay.common.tracer.core.appender.self;
 
+import com.alipay.common.tracer.core.appender.manager.AsyncAppenderSettings;
 import com.alipay.common.tracer.core.appender.manager.AsyncCommonAppenderManager;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
 import com.alipay.common.tracer.core.utils.StringUtils;
 import com.alipay.common.tracer.core.utils.TracerUtils;
 
@@ -41,7 +43,8 @@ public class SelfLog {
     static private AsyncCommonAppenderManager selfLogAppenderManager;
 
     static {
-        selfLogAppenderManager = new AsyncCommonAppenderManager(1024, SELF_LOG_FILE);
+        selfLogAppenderManager = new AsyncCommonAppenderManager(AsyncAppenderSettings.load(
+            SofaTracerConfiguration.TRACER_SELF_LOG_ASYNC_PREFIX, 1024, 1), SELF_LOG_FILE);
         selfLogAppenderManager.start("SelfLogAppender");
     }
 
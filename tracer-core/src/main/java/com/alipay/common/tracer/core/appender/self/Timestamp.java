@@ -17,22 +17,68 @@
 package com.alipay.common.tracer.core.appender.self;
 
 import java.text.SimpleDateFormat;
+import java.util.Date;
 
 /***
+ * Formats timestamps as {@code yyyy-MM-dd HH:mm:ss.SSS}.
+ *
+ * Each thread caches the formatted {@code yyyy-MM-dd HH:mm:ss.} prefix of the last second it
+ * formatted, so {@link SimpleDateFormat} only runs once per second and per thread, and
+ * {@link #appendTo(StringBuilder, long)} only appends the prefix and the millisecond digits.
+ *
  * @author yangguanchao
  * @since  2017/06/17
  */
 public class Timestamp {
 
+    private static final ThreadLocal<CachedFormatter> FORMATTER = ThreadLocal
+                                                                    .withInitial(CachedFormatter::new);
+
     public static String currentTime() {
-        return getSimpleDateFormat().format(System.currentTimeMillis());
+        return format(System.currentTimeMillis());
     }
 
     public static String format(long time) {
-        return getSimpleDateFormat().format(time);
+        StringBuilder sb = new StringBuilder(23);
+        appendTo(sb, time);
+        return sb.toString();
+    }
+
+    /**
+     * Append the formatted time to the builder without intermediate objects
+     *
+     * @param sb   target builder
+     * @param time milliseconds since the epoch
+     * @return the target builder
+     */
+    public static StringBuilder appendTo(StringBuilder sb, long time) {
+        return FORMATTER.get().appendTo(sb, time);
     }
 
-    private static SimpleDateFormat getSimpleDateFormat() {
-        return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+    private static final class CachedFormatter {
+
+        private final SimpleDateFormat format       = new SimpleDateFormat(
+                                                        "yyyy-MM-dd HH:mm:ss.");
+
+        private final Date             date         = new Date();
+
+        private long                   cachedSecond = Long.MIN_VALUE;
+
+        private String                 cachedPrefix;
+
+        StringBuilder appendTo(StringBuilder sb, long time) {
+            long second = Math.floorDiv(time, 1000L);
+            if (second != cachedSecond) {
+                date.setTime(second * 1000L);
+                cachedPrefix = format.format(date);
+                cachedSecond = second;
+            }
+            int millis = (int) (time - second * 1000L);
+            sb.append(cachedPrefix);
+            sb.append((char) ('0' + millis / 100));
+            sb.append((char) ('0' + millis / 10 % 10));
+            sb.append((char) ('0' + millis % 10));
+            return sb;
+        }
     }
 }
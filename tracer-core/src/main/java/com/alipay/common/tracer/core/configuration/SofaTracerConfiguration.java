@@ -25,9 +25,11 @@ import com.alipay.sofa.common.code.LogCode2Description;
 import java.io.InputStream;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static com.alipay.common.tracer.core.constants.SofaTracerConstant.SPACE_ID;
 
@@ -41,94 +43,191 @@ public class SofaTracerConfiguration {
     /**
      * Whether to open the Digest log of the middleware, closing this switch will close the Digest log of all middleware.
      */
-    public static final String                     DISABLE_MIDDLEWARE_DIGEST_LOG_KEY            = "disable_middleware_digest_log";
+    public static final String                              DISABLE_MIDDLEWARE_DIGEST_LOG_KEY            = "disable_middleware_digest_log";
     /**
      * com.alipay.sofa.tracer.disableConfiguration[logType]=true
      */
-    public final static String                     DISABLE_DIGEST_LOG_KEY                       = "disable_digest_log";
+    public final static String                              DISABLE_DIGEST_LOG_KEY                       = "disable_digest_log";
 
     /**
      * Tracer's Global Rolling configured Key
      */
-    public final static String                     TRACER_GLOBAL_ROLLING_KEY                    = "tracer_global_rolling_policy";
+    public final static String                              TRACER_GLOBAL_ROLLING_KEY                    = "tracer_global_rolling_policy";
 
     /**
      * Tracer's global log retention days configured Key
      */
-    public final static String                     TRACER_GLOBAL_LOG_RESERVE_DAY                = "tracer_global_log_reserve_day";
+    public final static String                              TRACER_GLOBAL_LOG_RESERVE_DAY                = "tracer_global_log_reserve_day";
 
     /**
      * Default log retention days
      */
-    public static final int                        DEFAULT_LOG_RESERVE_DAY                      = 7;
+    public static final int                                 DEFAULT_LOG_RESERVE_DAY                      = 7;
+
+    /**
+     * How digest, stat and common log files are written: stream (default), channel or mmap
+     */
+    public static final String                              TRACER_LOG_FILE_OUTPUT_TYPE                  = "tracer_log_file_output_type";
+
+    /**
+     * Size in bytes of each region mapped by the mmap log file output
+     */
+    public static final String                              TRACER_LOG_FILE_MMAP_REGION_SIZE             = "tracer_log_file_mmap_region_size";
 
     /**
      * Threshold, the length of the service transparent field
      */
-    public final static int                        PEN_ATTRS_LENGTH_TRESHOLD                    = 1024;
+    public final static int                                 PEN_ATTRS_LENGTH_TRESHOLD                    = 1024;
 
     /**
      * The configuration of the maximum value of the tracer's penetration data
      */
-    public static final String                     TRACER_PENETRATE_ATTRIBUTE_MAX_LENGTH        = "tracer_penetrate_attribute_max_length";
+    public static final String                              TRACER_PENETRATE_ATTRIBUTE_MAX_LENGTH        = "tracer_penetrate_attribute_max_length";
 
     /**
      * The configuration key of the maximum value of the Tracer system penetration data
      */
-    public static final String                     TRACER_SYSTEM_PENETRATE_ATTRIBUTE_MAX_LENGTH = "tracer_system_penetrate_attribute_max_length";
+    public static final String                              TRACER_SYSTEM_PENETRATE_ATTRIBUTE_MAX_LENGTH = "tracer_system_penetrate_attribute_max_length";
 
     /**
      * The interval for printing the stat log.
      * This option is mainly for testability considerations. System attribute keywords.
      */
-    public static final String                     STAT_LOG_INTERVAL                            = "stat_log_interval";
+    public static final String                              STAT_LOG_INTERVAL                            = "stat_log_interval";
 
-    public static final String                     FILL_MINUTE_SWITCH                           = "fill_minute_switch";
+    public static final String                              FILL_MINUTE_SWITCH                           = "fill_minute_switch";
 
     /***************** Asynchronous queue configuration item  start ***************/
 
     /**
      * Whether to allow lost logs
      */
-    public static final String                     TRACER_ASYNC_APPENDER_ALLOW_DISCARD          = "tracer_async_appender_allow_discard";
+    public static final String                              TRACER_ASYNC_APPENDER_ALLOW_DISCARD          = "tracer_async_appender_allow_discard";
     /**
      * Whether the log output loses the number of logs
      */
-    public static final String                     TRACER_ASYNC_APPENDER_IS_OUT_DISCARD_NUMBER  = "tracer_async_appender_is_out_discard_number";
+    public static final String                              TRACER_ASYNC_APPENDER_IS_OUT_DISCARD_NUMBER  = "tracer_async_appender_is_out_discard_number";
     /**
      * Whether the log output loses the trace of the TraceId and RpcId
      */
-    public static final String                     TRACER_ASYNC_APPENDER_IS_OUT_DISCARD_ID      = "tracer_async_appender_is_out_discard_id";
+    public static final String                              TRACER_ASYNC_APPENDER_IS_OUT_DISCARD_ID      = "tracer_async_appender_is_out_discard_id";
+    /**
+     * The number of lost logs reaches this threshold for a log output.
+     * @deprecated ignored, lost logs are summarized every {@link #TRACER_ASYNC_APPENDER_DISCARD_INTERVAL}
+     */
+    @Deprecated
+    public static final String                              TRACER_ASYNC_APPENDER_DISCARD_OUT_THRESHOLD  = "tracer_async_appender_discard_out_threshold";
+    /**
+     * Seconds between two summaries of the lost logs in the self log
+     */
+    public static final String                              TRACER_ASYNC_APPENDER_DISCARD_INTERVAL       = "tracer_async_appender_discard_interval";
+    /**
+     * What to do when the queue is full: drop_newest, drop_by_priority or block_with_timeout
+     */
+    public static final String                              TRACER_ASYNC_APPENDER_SHED_POLICY            = "tracer_async_appender_shed_policy";
+    /**
+     * The max milliseconds a producer waits for a free slot with the block_with_timeout shed policy
+     */
+    public static final String                              TRACER_ASYNC_APPENDER_BLOCK_TIMEOUT          = "tracer_async_appender_block_timeout";
+    /**
+     * Whether the digest consumers flush once per disruptor batch instead of once per span
+     */
+    public static final String                              TRACER_ASYNC_APPENDER_BATCH_FLUSH            = "tracer_async_appender_batch_flush";
+    /**
+     * The max milliseconds a written span may stay unflushed when batch flush is enabled
+     */
+    public static final String                              TRACER_ASYNC_APPENDER_MAX_FLUSH_LATENCY      = "tracer_async_appender_max_flush_latency";
     /**
-     * The number of lost logs reaches this threshold for a log output
+     * Whether stat logs are aggregated by the digest consumer threads instead of the thread finishing the span
      */
-    public static final String                     TRACER_ASYNC_APPENDER_DISCARD_OUT_THRESHOLD  = "tracer_async_appender_discard_out_threshold";
+    public static final String                              TRACER_ASYNC_STATISTIC                       = "tracer_async_statistic";
+
+    /**
+     * Key prefix of the disruptor settings of the digest log manager
+     */
+    public static final String                              TRACER_DIGEST_ASYNC_PREFIX                   = "tracer_digest_async";
+    /**
+     * Key prefix of the disruptor settings of the common (middleware error and profile) log manager
+     */
+    public static final String                              TRACER_COMMON_ASYNC_PREFIX                   = "tracer_common_async";
+    /**
+     * Key prefix of the disruptor settings of the self log manager
+     */
+    public static final String                              TRACER_SELF_LOG_ASYNC_PREFIX                 = "tracer_self_log_async";
+    /**
+     * Suffix of the ring buffer size, rounded up to a power of 2. The size is per ring: the digest
+     * manager partitions its logTypes over up to {@link #TRACER_ASYNC_CONSUMER_NUMBER} rings of this
+     * size each, so its ring memory is up to consumer number times this size
+     */
+    public static final String                              TRACER_ASYNC_RING_BUFFER_SIZE                = "_ring_buffer_size";
+    /**
+     * Suffix of the consumer number, for the digest manager also the max number of rings
+     */
+    public static final String                              TRACER_ASYNC_CONSUMER_NUMBER                 = "_consumer_number";
+    /**
+     * Suffix of the wait strategy: blocking, lite_blocking, sleeping, yielding, phased_backoff or busy_spin
+     */
+    public static final String                              TRACER_ASYNC_WAIT_STRATEGY                   = "_wait_strategy";
+    /**
+     * Suffix of the producer type: MULTI or SINGLE, SINGLE is only safe when one thread appends
+     */
+    public static final String                              TRACER_ASYNC_PRODUCER_TYPE                   = "_producer_type";
 
     /***************** Asynchronous queue configuration item   end ***************/
 
     /**
      * app name
      */
-    public static final String                     TRACER_APPNAME_KEY                           = "spring.application.name";
+    public static final String                              TRACER_APPNAME_KEY                           = "spring.application.name";
     /**
      * jdbc url
      */
-    public static final String                     TRACER_JDBC_URL_KEY                          = "spring.datasource.url";
+    public static final String                              TRACER_JDBC_URL_KEY                          = "spring.datasource.url";
 
-    private static Map<String, Object>             properties                                   = new ConcurrentHashMap<String, Object>();
+    private static Map<String, Object>                      properties                                   = new ConcurrentHashMap<String, Object>();
 
-    private static Properties                      fileProperties                               = new Properties();
+    private static Properties                               fileProperties                               = new Properties();
 
-    private static SofaTracerExternalConfiguration sofaTracerExternalConfiguration              = null;
+    private static SofaTracerExternalConfiguration          sofaTracerExternalConfiguration              = null;
 
     /** The key of Sampling policy name */
-    public static final String                     SAMPLER_STRATEGY_NAME_KEY                    = "tracer_sampler_strategy_name_key";
+    public static final String                              SAMPLER_STRATEGY_NAME_KEY                    = "tracer_sampler_strategy_name_key";
     /** Custom sampling rule class name */
-    public static final String                     SAMPLER_STRATEGY_CUSTOM_RULE_CLASS_NAME      = "tracer_sampler_strategy_custom_rule_class_name";
+    public static final String                              SAMPLER_STRATEGY_CUSTOM_RULE_CLASS_NAME      = "tracer_sampler_strategy_custom_rule_class_name";
     /** The key of Sampling rate */
-    public static final String                     SAMPLER_STRATEGY_PERCENTAGE_KEY              = "tracer_sampler_strategy_percentage_key";
+    public static final String                              SAMPLER_STRATEGY_PERCENTAGE_KEY              = "tracer_sampler_strategy_percentage_key";
 
-    public static final String                     JSON_FORMAT_OUTPUT                           = "global_json_format_output";
+    public static final String                              JSON_FORMAT_OUTPUT                           = "global_json_format_output";
+
+    /**
+     * Set to false to only print the stat log of rpc-2-jvm calls
+     */
+    public static final String                              ENABLE_RPC_2_JVM_DIGEST_LOG_KEY              = "enable_rpc_2_jvm_digest_log";
+
+    /**
+     * Whether spans keep their tags in one compact table instead of concurrent maps, only for spans
+     * that are not tagged by several threads at the same time
+     */
+    public static final String                              TRACER_SPAN_COMPACT_STORAGE                  = "tracer_span_compact_storage";
+
+    /**
+     * Whether root spans get a binary trace ID drawn from per-thread sequence blocks, rendered in the
+     * usual layout only when the string is needed
+     */
+    public static final String                              TRACER_BINARY_TRACE_ID                       = "tracer_binary_trace_id";
+
+    /**
+     * Whether RPC filters send the span context in the compact binary form, enable it once every
+     * receiver reads it
+     */
+    public static final String                              TRACER_COMPACT_PROPAGATION                   = "tracer_compact_propagation";
+
+    /**
+     * Values read for every span, republished whenever a property changes
+     */
+    private static volatile SofaTracerConfigurationSnapshot snapshot;
+
+    private static final List<ConfigurationChangeListener>  listeners                                    = new CopyOnWriteArrayList<ConfigurationChangeListener>();
 
     static {
         InputStream inputStream = null;
@@ -142,6 +241,7 @@ public class SofaTracerConfiguration {
         } catch (Exception e) {
             SelfLog.info("sofa.tracer.properties文件不存在");
         }
+        snapshot = buildSnapshot(0);
         //Static statistics
         StaticInfoLog.logStaticInfo();
     }
@@ -154,6 +254,7 @@ public class SofaTracerConfiguration {
      */
     public static void setProperty(String key, String value) {
         properties.put(key, value);
+        refresh();
     }
 
     /**
@@ -163,6 +264,7 @@ public class SofaTracerConfiguration {
      */
     public static void setProperty(String key, Integer value) {
         properties.put(key, value);
+        refresh();
     }
 
     /**
@@ -172,6 +274,7 @@ public class SofaTracerConfiguration {
      */
     public static void setProperty(String key, Map<String, String> value) {
         properties.put(key, value);
+        refresh();
     }
 
     /**
@@ -180,6 +283,7 @@ public class SofaTracerConfiguration {
      */
     public static void removeProperty(String key) {
         properties.remove(key);
+        refresh();
     }
 
     /**
@@ -301,6 +405,7 @@ public class SofaTracerConfiguration {
 
     public static void setSofaTracerExternalConfiguration(SofaTracerExternalConfiguration sofaTracerExternalConfiguration) {
         SofaTracerConfiguration.sofaTracerExternalConfiguration = sofaTracerExternalConfiguration;
+        refresh();
     }
 
     public static String getSofaTracerSamplerStrategy() {
@@ -312,12 +417,75 @@ public class SofaTracerConfiguration {
     }
 
     /**
-     * use json to print
+     * use json to print, read from the {@link #getSnapshot() snapshot}
      * @return
      */
     public static boolean isJsonOutput() {
-        return StringUtils.isNotBlank(SofaTracerConfiguration.getProperty(JSON_FORMAT_OUTPUT))
-               && "false".equalsIgnoreCase(SofaTracerConfiguration.getProperty(JSON_FORMAT_OUTPUT)) ? false
-            : true;
+        return snapshot.isJsonOutput();
+    }
+
+    /**
+     * Current values of the configuration items read for every span.
+     * <p>
+     * The snapshot is resolved when this class is initialized and again on every
+     * {@link #refresh()}, which the setters of this class call. System properties and the
+     * {@link SofaTracerExternalConfiguration} are only read at those points: unlike
+     * {@link #getProperty(String)}, the snapshot does not see a system property set afterwards
+     * until {@link #refresh()} is called.
+     * </p>
+     * @return snapshot, never null
+     */
+    public static SofaTracerConfigurationSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Resolve the snapshot again and notify the listeners if its values changed. Changes made
+     * through this class are published automatically, call this after changing a system property
+     * or the values behind the {@link SofaTracerExternalConfiguration}.
+     */
+    public static void refresh() {
+        SofaTracerConfigurationSnapshot published;
+        synchronized (listeners) {
+            SofaTracerConfigurationSnapshot current = snapshot;
+            SofaTracerConfigurationSnapshot next = buildSnapshot(current.getVersion() + 1);
+            if (next.hasSameValues(current)) {
+                return;
+            }
+            snapshot = next;
+            published = next;
+        }
+        for (ConfigurationChangeListener listener : listeners) {
+            try {
+                listener.onChange(published);
+            } catch (Throwable e) {
+                SelfLog.error("Failed to notify configuration change listener " + listener, e);
+            }
+        }
+    }
+
+    public static void addConfigurationChangeListener(ConfigurationChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeConfigurationChangeListener(ConfigurationChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    private static SofaTracerConfigurationSnapshot buildSnapshot(long version) {
+        boolean jsonOutput = !"false".equalsIgnoreCase(getProperty(JSON_FORMAT_OUTPUT));
+        boolean middlewareDigestLogDisabled = Boolean.TRUE.toString().equalsIgnoreCase(
+            getProperty(DISABLE_MIDDLEWARE_DIGEST_LOG_KEY));
+        boolean rpc2JvmDigestLogDisabled = Boolean.FALSE.toString().equalsIgnoreCase(
+            getProperty(ENABLE_RPC_2_JVM_DIGEST_LOG_KEY));
+        boolean compactSpanStorage = Boolean.TRUE.toString().equalsIgnoreCase(
+            getProperty(TRACER_SPAN_COMPACT_STORAGE));
+        boolean binaryTraceId = Boolean.TRUE.toString().equalsIgnoreCase(
+            getProperty(TRACER_BINARY_TRACE_ID));
+        boolean compactPropagation = Boolean.TRUE.toString().equalsIgnoreCase(
+            getProperty(TRACER_COMPACT_PROPAGATION));
+        return new SofaTracerConfigurationSnapshot(version, jsonOutput,
+            middlewareDigestLogDisabled, getMapEmptyIfNull(DISABLE_DIGEST_LOG_KEY),
+            rpc2JvmDigestLogDisabled, compactSpanStorage, binaryTraceId, compactPropagation);
     }
 }
\ No newline at end of file
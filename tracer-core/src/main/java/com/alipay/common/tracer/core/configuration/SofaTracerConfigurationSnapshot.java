@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.configuration;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SofaTracerConfigurationSnapshot
+ * <p>
+ * Immutable view of the configuration items read for every span, resolved once when
+ * {@link SofaTracerConfiguration} publishes it instead of on each lookup.
+ * </p>
+ * @since 3.1.10
+ */
+public final class SofaTracerConfigurationSnapshot {
+
+    private final long        version;
+
+    private final boolean     jsonOutput;
+
+    private final boolean     middlewareDigestLogDisabled;
+
+    private final Set<String> disabledDigestLogTypes;
+
+    private final boolean     rpc2JvmDigestLogDisabled;
+
+    private final boolean     compactSpanStorage;
+
+    private final boolean     binaryTraceId;
+
+    private final boolean     compactPropagation;
+
+    SofaTracerConfigurationSnapshot(long version, boolean jsonOutput,
+                                    boolean middlewareDigestLogDisabled,
+                                    Map<String, String> disableDigestLog,
+                                    boolean rpc2JvmDigestLogDisabled, boolean compactSpanStorage,
+                                    boolean binaryTraceId, boolean compactPropagation) {
+        this.version = version;
+        this.jsonOutput = jsonOutput;
+        this.middlewareDigestLogDisabled = middlewareDigestLogDisabled;
+        Set<String> disabled = new HashSet<String>();
+        for (Map.Entry<String, String> entry : disableDigestLog.entrySet()) {
+            if (Boolean.TRUE.toString().equalsIgnoreCase(entry.getValue())) {
+                disabled.add(entry.getKey());
+            }
+        }
+        this.disabledDigestLogTypes = Collections.unmodifiableSet(disabled);
+        this.rpc2JvmDigestLogDisabled = rpc2JvmDigestLogDisabled;
+        this.compactSpanStorage = compactSpanStorage;
+        this.binaryTraceId = binaryTraceId;
+        this.compactPropagation = compactPropagation;
+    }
+
+    /**
+     * @return incremented every time a snapshot with different values is published
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return false only if {@link SofaTracerConfiguration#JSON_FORMAT_OUTPUT} is "false"
+     */
+    public boolean isJsonOutput() {
+        return jsonOutput;
+    }
+
+    /**
+     * @return whether {@link SofaTracerConfiguration#DISABLE_MIDDLEWARE_DIGEST_LOG_KEY} is "true"
+     */
+    public boolean isMiddlewareDigestLogDisabled() {
+        return middlewareDigestLogDisabled;
+    }
+
+    /**
+     * @param logType digest log type
+     * @return whether the log type is set to "true" in {@link SofaTracerConfiguration#DISABLE_DIGEST_LOG_KEY}
+     */
+    public boolean isDigestLogDisabled(String logType) {
+        return disabledDigestLogTypes.contains(logType);
+    }
+
+    /**
+     * @return whether {@link SofaTracerConfiguration#ENABLE_RPC_2_JVM_DIGEST_LOG_KEY} is "false"
+     */
+    public boolean isRpc2JvmDigestLogDisabled() {
+        return rpc2JvmDigestLogDisabled;
+    }
+
+    /**
+     * @return whether {@link SofaTracerConfiguration#TRACER_SPAN_COMPACT_STORAGE} is "true"
+     */
+    public boolean isCompactSpanStorage() {
+        return compactSpanStorage;
+    }
+
+    /**
+     * @return whether {@link SofaTracerConfiguration#TRACER_BINARY_TRACE_ID} is "true"
+     */
+    public boolean isBinaryTraceId() {
+        return binaryTraceId;
+    }
+
+    /**
+     * @return whether {@link SofaTracerConfiguration#TRACER_COMPACT_PROPAGATION} is "true"
+     */
+    public boolean isCompactPropagation() {
+        return compactPropagation;
+    }
+
+    boolean hasSameValues(SofaTracerConfigurationSnapshot other) {
+        return jsonOutput == other.jsonOutput
+               && middlewareDigestLogDisabled == other.middlewareDigestLogDisabled
+               && rpc2JvmDigestLogDisabled == other.rpc2JvmDigestLogDisabled
+               && compactSpanStorage == other.compactSpanStorage
+               && binaryTraceId == other.binaryTraceId
+               && compactPropagation == other.compactPropagation
+               && disabledDigestLogTypes.equals(other.disabledDigestLogTypes);
+    }
+}
@@ -18,6 +18,7 @@ package com.alipay.common.tracer.core.context.span;
 
 import com.alipay.common.tracer.core.SofaTracer;
 import com.alipay.common.tracer.core.appender.self.SelfLog;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
 import com.alipay.common.tracer.core.generator.TraceIdGenerator;
 import com.alipay.common.tracer.core.utils.StringUtils;
 import com.alipay.common.tracer.core.utils.TracerUtils;
@@ -54,12 +55,33 @@ public class SofaTracerSpanContext implements SpanContext {
      */
     private static final String       SYS_BAGGAGE_PREFIX_KEY = "_sys_";
 
+    /**
+     * Null until first used when the context is created with a binary trace ID
+     */
     private String                    traceId                = StringUtils.EMPTY_STRING;
 
+    /**
+     * Binary trace ID, both zero if the context only has the string form
+     */
+    private long                      traceIdHigh;
+
+    private long                      traceIdLow;
+
+    /**
+     * Null until first used when the context is created with a structured span ID
+     */
     private String                    spanId                 = StringUtils.EMPTY_STRING;
 
+    /**
+     * Null until first used when the parent is the parent of the structured span ID
+     */
     private String                    parentId               = StringUtils.EMPTY_STRING;
 
+    /**
+     * Structured span ID, parsed from the span ID string when first needed
+     */
+    private SpanId                    structuredSpanId;
+
     /**
      * Default will not be sampled
      */
@@ -87,8 +109,10 @@ public class SofaTracerSpanContext implements SpanContext {
      * @return
      */
     public SofaTracerSpanContext cloneInstance() {
-        SofaTracerSpanContext spanContext = new SofaTracerSpanContext(this.traceId, this.spanId,
-            this.parentId, this.isSampled);
+        SofaTracerSpanContext spanContext = new SofaTracerSpanContext(this,
+            this.structuredSpanId, this.isSampled);
+        spanContext.spanId = this.spanId;
+        spanContext.parentId = this.parentId;
         spanContext.addSysBaggage(this.sysBaggage);
         spanContext.addBizBaggage(this.bizBaggage);
         spanContext.childContextIndex = this.childContextIndex;
@@ -117,6 +141,39 @@ public class SofaTracerSpanContext implements SpanContext {
         this.isSampled = isSampled;
     }
 
+    /**
+     * Create a context with a binary trace ID, see {@link TraceIdGenerator#render(long, long)}
+     * for the string form it is rendered to
+     */
+    public SofaTracerSpanContext(long traceIdHigh, long traceIdLow, String spanId,
+                                 String parentId, boolean isSampled) {
+        this(null, spanId, parentId, isSampled);
+        this.traceIdHigh = traceIdHigh;
+        this.traceIdLow = traceIdLow;
+    }
+
+    /**
+     * Create a context in the trace of another context, with a structured span ID
+     */
+    private SofaTracerSpanContext(SofaTracerSpanContext trace, SpanId spanId, boolean isSampled) {
+        this(trace.traceId, trace.traceIdHigh, trace.traceIdLow, spanId, isSampled);
+    }
+
+    /**
+     * Create a context with a structured span ID whose parent is the parent span ID,
+     * the trace ID is rendered from the two longs if the string is null
+     */
+    SofaTracerSpanContext(String traceId, long traceIdHigh, long traceIdLow, SpanId spanId,
+                          boolean isSampled) {
+        this.traceId = traceId;
+        this.traceIdHigh = traceIdHigh;
+        this.traceIdLow = traceIdLow;
+        this.spanId = null;
+        this.parentId = null;
+        this.structuredSpanId = spanId;
+        this.isSampled = isSampled;
+    }
+
     public SofaTracerSpanContext addBizBaggage(Map<String, String> bizBaggage) {
         if (bizBaggage != null && bizBaggage.size() > 0) {
             this.bizBaggage.putAll(bizBaggage);
@@ -152,7 +209,7 @@ public class SofaTracerSpanContext implements SpanContext {
      * @return
      */
     private String contextAsString() {
-        return String.format("%s:%s:%s:%s", traceId, spanId, parentId, isSampled);
+        return String.format("%s:%s:%s:%s", getTraceId(), getSpanId(), getParentId(), isSampled);
     }
 
     /**
@@ -208,11 +265,11 @@ public class SofaTracerSpanContext implements SpanContext {
      */
     public String serializeSpanContext() {
         StringBuilder serializedValue = new StringBuilder();
-        serializedValue.append(TRACE_ID_KET).append(StringUtils.EQUAL).append(traceId)
+        serializedValue.append(TRACE_ID_KET).append(StringUtils.EQUAL).append(getTraceId())
             .append(StringUtils.AND);
-        serializedValue.append(SPAN_ID_KET).append(StringUtils.EQUAL).append(spanId)
+        serializedValue.append(SPAN_ID_KET).append(StringUtils.EQUAL).append(getSpanId())
             .append(StringUtils.AND);
-        serializedValue.append(PARENT_SPAN_ID_KET).append(StringUtils.EQUAL).append(parentId)
+        serializedValue.append(PARENT_SPAN_ID_KET).append(StringUtils.EQUAL).append(getParentId())
             .append(StringUtils.AND);
         serializedValue.append(SAMPLE_KET).append(StringUtils.EQUAL).append(isSampled)
             .append(StringUtils.AND);
@@ -238,6 +295,14 @@ public class SofaTracerSpanContext implements SpanContext {
         if (StringUtils.isBlank(deserializeValue)) {
             return SofaTracerSpanContext.rootStart();
         }
+        if (SpanContextCodec.isCompact(deserializeValue)) {
+            try {
+                return SpanContextCodec.decodeFromString(deserializeValue);
+            } catch (RuntimeException e) {
+                SelfLog.error("Failed to decode compact span context, recover by root start", e);
+                return SofaTracerSpanContext.rootStart();
+            }
+        }
         //default value for SofaTracerSpanContext
         String traceId = TraceIdGenerator.generate();
         String spanId = SofaTracer.ROOT_SPAN_ID;
@@ -307,6 +372,12 @@ public class SofaTracerSpanContext implements SpanContext {
     }
 
     public static SofaTracerSpanContext rootStart(boolean isSampled) {
+        if (SofaTracerConfiguration.getSnapshot().isBinaryTraceId()
+            && TraceIdGenerator.isBinarySupported()) {
+            return new SofaTracerSpanContext(TraceIdGenerator.localTraceIdHigh(),
+                TraceIdGenerator.nextTraceIdLow(), SofaTracer.ROOT_SPAN_ID,
+                StringUtils.EMPTY_STRING, isSampled);
+        }
         //create traceId
         String traceId = TraceIdGenerator.generate();
         return new SofaTracerSpanContext(traceId, SofaTracer.ROOT_SPAN_ID,
@@ -324,6 +395,8 @@ public class SofaTracerSpanContext implements SpanContext {
      */
     public void setTraceId(String traceId) {
         this.traceId = traceId;
+        this.traceIdHigh = 0;
+        this.traceIdLow = 0;
     }
 
     /**
@@ -333,6 +406,7 @@ public class SofaTracerSpanContext implements SpanContext {
     public void setSpanId(String spanId) {
         this.spanId = spanId;
         this.parentId = this.genParentSpanId(spanId);
+        this.structuredSpanId = null;
     }
 
     public SofaTracerSpanContext setBizBaggageItem(String key, String value) {
@@ -360,17 +434,104 @@ public class SofaTracerSpanContext implements SpanContext {
     }
 
     public String getTraceId() {
-        return StringUtils.isBlank(this.traceId) ? StringUtils.EMPTY_STRING : traceId;
+        String traceId = this.traceId;
+        if (traceId == null && traceIdLow != 0) {
+            traceId = TraceIdGenerator.render(traceIdHigh, traceIdLow);
+            this.traceId = traceId;
+        }
+        return StringUtils.isBlank(traceId) ? StringUtils.EMPTY_STRING : traceId;
+    }
+
+    /**
+     * @return whether the trace ID is held as two longs
+     */
+    public boolean hasBinaryTraceId() {
+        return traceIdLow != 0;
+    }
+
+    public long getTraceIdHigh() {
+        return traceIdHigh;
+    }
+
+    public long getTraceIdLow() {
+        return traceIdLow;
     }
 
     public String getSpanId() {
+        String spanId = this.spanId;
+        if (spanId == null && structuredSpanId != null) {
+            spanId = structuredSpanId.toString();
+            this.spanId = spanId;
+        }
         return StringUtils.isBlank(spanId) ? StringUtils.EMPTY_STRING : spanId;
     }
 
     public String getParentId() {
+        String parentId = this.parentId;
+        if (parentId == null && structuredSpanId != null) {
+            SpanId parent = structuredSpanId.getParent();
+            parentId = parent == null ? StringUtils.EMPTY_STRING : parent.toString();
+            this.parentId = parentId;
+        }
         return StringUtils.isBlank(parentId) ? StringUtils.EMPTY_STRING : parentId;
     }
 
+    /**
+     * @return structured span ID, null if the span ID is not made of dotted decimal segments
+     */
+    public SpanId getStructuredSpanId() {
+        SpanId structured = this.structuredSpanId;
+        if (structured == null && spanId != null) {
+            structured = SpanId.parse(spanId);
+            this.structuredSpanId = structured;
+        }
+        return structured;
+    }
+
+    /**
+     * @return structured parent span ID, null for a root span or a parent ID that is not made of
+     *         dotted decimal segments
+     */
+    public SpanId getStructuredParentId() {
+        if (parentId == null) {
+            return structuredSpanId.getParent();
+        }
+        return SpanId.parse(parentId);
+    }
+
+    /**
+     * @return whether the parent span ID is the parent of the structured span ID, without
+     *         rendering either
+     */
+    boolean hasDerivedParentId() {
+        return parentId == null;
+    }
+
+    /**
+     * Serialize the context for an RPC attachment, in the compact form of {@link SpanContextCodec}
+     * if {@link SofaTracerConfiguration#TRACER_COMPACT_PROPAGATION} is enabled, otherwise as
+     * {@link #serializeSpanContext()}. Both are read by {@link #deserializeFromString(String)}.
+     *
+     * @return serialized context
+     */
+    public String serializeForPropagation() {
+        if (SofaTracerConfiguration.getSnapshot().isCompactPropagation()) {
+            return SpanContextCodec.encodeToString(this);
+        }
+        return serializeSpanContext();
+    }
+
+    /**
+     * @return number of segments of the span ID, 1 for a root span
+     */
+    public int getSpanDepth() {
+        SpanId structured = getStructuredSpanId();
+        if (structured != null) {
+            return structured.depth();
+        }
+        return StringUtils.countMatches(getSpanId(), '.') + 1;
+    }
+
     public Map<String, String> getBizBaggage() {
         return bizBaggage;
     }
@@ -397,7 +558,26 @@ public class SofaTracerSpanContext implements SpanContext {
      * @return next spanId
      */
     public String nextChildContextId() {
-        return this.spanId + RPC_ID_SEPARATOR + childContextIndex.incrementAndGet();
+        return getSpanId() + RPC_ID_SEPARATOR + childContextIndex.incrementAndGet();
+    }
+
+    /**
+     * Create the context of the next child span. It shares the trace ID in the form this context
+     * holds it and gets a structured span ID, so no string is built until it is needed.
+     *
+     * @return child context without baggage
+     */
+    public SofaTracerSpanContext nextChildContext() {
+        int index = childContextIndex.incrementAndGet();
+        SpanId structured = getStructuredSpanId();
+        if (structured != null) {
+            return new SofaTracerSpanContext(this, structured.child(index), this.isSampled);
+        }
+        String spanId = getSpanId();
+        SofaTracerSpanContext child = new SofaTracerSpanContext(this, null, this.isSampled);
+        child.spanId = spanId + RPC_ID_SEPARATOR + index;
+        child.parentId = spanId;
+        return child;
     }
 
     /**
@@ -406,7 +586,7 @@ public class SofaTracerSpanContext implements SpanContext {
      * @return prev spanId
      */
     public String lastChildContextId() {
-        return this.spanId + RPC_ID_SEPARATOR + childContextIndex.get();
+        return getSpanId() + RPC_ID_SEPARATOR + childContextIndex.get();
     }
 
     @Override
@@ -420,31 +600,28 @@ public class SofaTracerSpanContext implements SpanContext {
 
         SofaTracerSpanContext that = (SofaTracerSpanContext) o;
 
-        if (!traceId.equals(that.traceId)) {
+        if (!getTraceId().equals(that.getTraceId())) {
             return false;
         }
-        if (!spanId.equals(that.spanId)) {
+        if (!getSpanId().equals(that.getSpanId())) {
             return false;
         }
-        if (StringUtils.isBlank(parentId)) {
-            return StringUtils.isBlank(that.parentId);
-        }
-        return parentId.equals(that.parentId);
+        return getParentId().equals(that.getParentId());
     }
 
     @Override
     public int hashCode() {
-        int result = traceId.hashCode();
-        result = 31 * result + spanId.hashCode();
-        result = 31 * result + parentId.hashCode();
+        int result = getTraceId().hashCode();
+        result = 31 * result + getSpanId().hashCode();
+        result = 31 * result + getParentId().hashCode();
         return result;
     }
 
     @Override
     public String toString() {
-        return "SofaTracerSpanContext{" + "traceId='" + traceId + '\'' + ", spanId='" + spanId
-               + '\'' + ", parentId='" + parentId + '\'' + ", isSampled=" + isSampled
-               + ", bizBaggage=" + bizBaggage + ", sysBaggage=" + sysBaggage
+        return "SofaTracerSpanContext{" + "traceId='" + getTraceId() + '\'' + ", spanId='"
+               + getSpanId() + '\'' + ", parentId='" + getParentId() + '\'' + ", isSampled="
+               + isSampled + ", bizBaggage=" + bizBaggage + ", sysBaggage=" + sysBaggage
                + ", childContextIndex=" + childContextIndex + '}';
     }
 
@@ -0,0 +1,310 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.context.span;
+
+import com.alipay.common.tracer.core.constants.SofaTracerConstant;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * SpanContextCodec
+ * <p>
+ * Compact binary form of a {@link SofaTracerSpanContext} for RPC propagation, read without the
+ * intermediate maps of {@link SofaTracerSpanContext#deserializeFromString(String)}. Version 1:
+ * <pre>
+ * byte    version
+ * byte    flags: 1 sampled, 2 binary trace ID, 4 structured span ID
+ * trace   two longs if binary, otherwise a string
+ * span    varint depth and varint segments if structured,
+ *         otherwise span ID and parent ID strings
+ * varint  system baggage count, then key and value strings
+ * varint  business baggage count, then key and value strings
+ * </pre>
+ * Strings are a varint byte length followed by UTF-8 bytes. In string carriers such as RPC
+ * attachments the bytes are written as {@link #STRING_PREFIX} and URL safe Base64.
+ * </p>
+ * @since 3.1.10
+ */
+public final class SpanContextCodec {
+
+    public static final byte VERSION            = 1;
+
+    /**
+     * Starts the string form, the text form always starts with the trace ID key
+     */
+    public static final char STRING_PREFIX      = '~';
+
+    private static final int SAMPLED            = 1;
+
+    private static final int BINARY_TRACE_ID    = 2;
+
+    private static final int STRUCTURED_SPAN_ID = 4;
+
+    private static final int INITIAL_CAPACITY   = 64;
+
+    private SpanContextCodec() {
+    }
+
+    /**
+     * @param context span context
+     * @return encoded bytes
+     */
+    public static byte[] encode(SofaTracerSpanContext context) {
+        Writer writer = new Writer();
+        SpanId spanId = context.getStructuredSpanId();
+        boolean structured = spanId != null
+                             && (context.hasDerivedParentId() || context.getParentId().equals(
+                                 spanId.getParent() == null ? "" : spanId.getParent().toString()));
+        boolean binaryTraceId = context.hasBinaryTraceId();
+        int flags = (context.isSampled() ? SAMPLED : 0) | (binaryTraceId ? BINARY_TRACE_ID : 0)
+                    | (structured ? STRUCTURED_SPAN_ID : 0);
+        writer.writeByte(VERSION);
+        writer.writeByte(flags);
+        if (binaryTraceId) {
+            writer.writeLong(context.getTraceIdHigh());
+            writer.writeLong(context.getTraceIdLow());
+        } else {
+            writer.writeString(context.getTraceId());
+        }
+        if (structured) {
+            int[] segments = new int[spanId.depth()];
+            SpanId node = spanId;
+            for (int i = segments.length - 1; i >= 0; i--) {
+                segments[i] = node.index();
+                node = node.getParent();
+            }
+            writer.writeVarint(segments.length);
+            for (int segment : segments) {
+                writer.writeVarint(segment);
+            }
+        } else {
+            writer.writeString(context.getSpanId());
+            writer.writeString(context.getParentId());
+        }
+        writeBaggage(writer, context.getSysBaggage());
+        writeBaggage(writer, context.getBizBaggage());
+        return writer.toByteArray();
+    }
+
+    /**
+     * @param data encoded bytes
+     * @param offset start of the encoded context
+     * @param length length of the encoded context
+     * @return span context
+     * @throws IllegalArgumentException if the version is unknown or the data is truncated
+     */
+    public static SofaTracerSpanContext decode(byte[] data, int offset, int length) {
+        Reader reader = new Reader(data, offset, offset + length);
+        int version = reader.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported span context version " + version);
+        }
+        int flags = reader.readByte();
+        boolean sampled = (flags & SAMPLED) != 0;
+        String traceId = null;
+        long traceIdHigh = 0;
+        long traceIdLow = 0;
+        if ((flags & BINARY_TRACE_ID) != 0) {
+            traceIdHigh = reader.readLong();
+            traceIdLow = reader.readLong();
+        } else {
+            traceId = reader.readString();
+        }
+        SofaTracerSpanContext context;
+        if ((flags & STRUCTURED_SPAN_ID) != 0) {
+            int depth = reader.readVarint();
+            if (depth < 1) {
+                throw new IllegalArgumentException("Empty span ID");
+            }
+            SpanId spanId = SpanId.top(reader.readVarint());
+            for (int i = 1; i < depth; i++) {
+                spanId = spanId.child(reader.readVarint());
+            }
+            context = new SofaTracerSpanContext(traceId, traceIdHigh, traceIdLow, spanId, sampled);
+        } else {
+            String spanId = reader.readString();
+            String parentId = reader.readString();
+            context = traceId != null ? new SofaTracerSpanContext(traceId, spanId, parentId,
+                sampled) : new SofaTracerSpanContext(traceIdHigh, traceIdLow, spanId, parentId,
+                sampled);
+        }
+        readBaggage(reader, context.getSysBaggage());
+        readBaggage(reader, context.getBizBaggage());
+        return context;
+    }
+
+    /**
+     * @param data encoded bytes
+     * @return whether the bytes start like the compact form instead of the text form
+     */
+    public static boolean isCompact(byte[] data) {
+        return data.length > 0 && data[0] == VERSION;
+    }
+
+    /**
+     * @param context span context
+     * @return {@link #STRING_PREFIX} followed by the URL safe Base64 of {@link #encode}
+     */
+    public static String encodeToString(SofaTracerSpanContext context) {
+        byte[] data = encode(context);
+        return STRING_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(data);
+    }
+
+    /**
+     * @param value serialized context
+     * @return whether it is the string form of the compact encoding
+     */
+    public static boolean isCompact(String value) {
+        return value.length() > 0 && value.charAt(0) == STRING_PREFIX;
+    }
+
+    /**
+     * @param value string from {@link #encodeToString}
+     * @return span context
+     * @throws IllegalArgumentException if the value is not a valid compact context
+     */
+    public static SofaTracerSpanContext decodeFromString(String value) {
+        byte[] data = Base64.getUrlDecoder().decode(value.substring(1));
+        return decode(data, 0, data.length);
+    }
+
+    private static void writeBaggage(Writer writer, Map<String, String> baggage) {
+        writer.writeVarint(baggage.size());
+        for (Map.Entry<String, String> entry : baggage.entrySet()) {
+            writer.writeString(entry.getKey());
+            writer.writeString(entry.getValue());
+        }
+    }
+
+    private static void readBaggage(Reader reader, Map<String, String> baggage) {
+        int size = reader.readVarint();
+        for (int i = 0; i < size; i++) {
+            String key = reader.readString();
+            String value = reader.readString();
+            baggage.put(key, value);
+        }
+    }
+
+    private static final class Writer {
+
+        private byte[] buf = new byte[INITIAL_CAPACITY];
+
+        private int    pos;
+
+        void writeByte(int b) {
+            ensureCapacity(1);
+            buf[pos++] = (byte) b;
+        }
+
+        void writeLong(long v) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buf[pos++] = (byte) (v >>> shift);
+            }
+        }
+
+        void writeVarint(int v) {
+            ensureCapacity(5);
+            while ((v & ~0x7F) != 0) {
+                buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[pos++] = (byte) v;
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(SofaTracerConstant.DEFAULT_UTF8_CHARSET);
+            writeVarint(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (pos + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length << 1, pos + extra));
+            }
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] data;
+
+        private final int    limit;
+
+        private int          pos;
+
+        Reader(byte[] data, int offset, int limit) {
+            if (offset < 0 || limit > data.length || offset > limit) {
+                throw new IllegalArgumentException("Invalid span context bounds");
+            }
+            this.data = data;
+            this.pos = offset;
+            this.limit = limit;
+        }
+
+        int readByte() {
+            require(1);
+            return data[pos++] & 0xFF;
+        }
+
+        long readLong() {
+            require(8);
+            long v = 0;
+            for (int i = 0; i < 8; i++) {
+                v = (v << 8) | (data[pos++] & 0xFF);
+            }
+            return v;
+        }
+
+        int readVarint() {
+            int v = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = readByte();
+                v |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    if (v < 0) {
+                        throw new IllegalArgumentException("Negative length or index");
+                    }
+                    return v;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        String readString() {
+            int length = readVarint();
+            require(length);
+            String value = new String(data, pos, length, SofaTracerConstant.DEFAULT_UTF8_CHARSET);
+            pos += length;
+            return value;
+        }
+
+        private void require(int length) {
+            if (limit - pos < length) {
+                throw new IllegalArgumentException("Truncated span context");
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.context.span;
+
+/**
+ * SpanId
+ * <p>
+ * Structured form of a dotted span ID such as 0.1.2, a node linked to its parent so that child,
+ * parent and depth are O(1). The dotted string and its 64-bit FNV-1a hash are computed once, when
+ * first needed.
+ * </p>
+ * @since 3.1.10
+ */
+public final class SpanId {
+
+    /**
+     * The span ID of a root span, "0"
+     */
+    public static final SpanId ROOT       = new SpanId(null, 0);
+
+    private static final long  FNV_OFFSET = 0xcbf29ce484222325L;
+
+    private static final long  FNV_PRIME  = 0x100000001b3L;
+
+    /**
+     * Longest segment that always fits an int
+     */
+    private static final int   MAX_DIGITS = 9;
+
+    private final SpanId       parent;
+
+    private final int          index;
+
+    private final int          depth;
+
+    private String             string;
+
+    /**
+     * 0 until computed
+     */
+    private volatile long      hash;
+
+    private SpanId(SpanId parent, int index) {
+        this.parent = parent;
+        this.index = index;
+        this.depth = parent == null ? 1 : parent.depth + 1;
+    }
+
+    /**
+     * Parse a dotted span ID
+     *
+     * @param spanId dotted span ID
+     * @return null if it is not made of decimal segments without leading zeros, which could not
+     *         be rendered back to the same string
+     */
+    public static SpanId parse(String spanId) {
+        if (spanId == null || spanId.isEmpty()) {
+            return null;
+        }
+        SpanId current = null;
+        int start = 0;
+        int length = spanId.length();
+        while (start <= length) {
+            int end = spanId.indexOf('.', start);
+            if (end < 0) {
+                end = length;
+            }
+            int digits = end - start;
+            if (digits == 0 || digits > MAX_DIGITS
+                || (digits > 1 && spanId.charAt(start) == '0')) {
+                return null;
+            }
+            int index = 0;
+            for (int i = start; i < end; i++) {
+                char c = spanId.charAt(i);
+                if (c < '0' || c > '9') {
+                    return null;
+                }
+                index = index * 10 + (c - '0');
+            }
+            current = current == null && index == 0 ? ROOT : new SpanId(current, index);
+            start = end + 1;
+        }
+        current.string = spanId;
+        return current;
+    }
+
+    /**
+     * @param index first segment
+     * @return top level span ID
+     */
+    static SpanId top(int index) {
+        return index == 0 ? ROOT : new SpanId(null, index);
+    }
+
+    /**
+     * @return last segment
+     */
+    int index() {
+        return index;
+    }
+
+    /**
+     * @param index index of the child, starting from 1
+     * @return span ID of the child
+     */
+    public SpanId child(int index) {
+        return new SpanId(this, index);
+    }
+
+    /**
+     * @return span ID of the parent, null for a top level span ID
+     */
+    public SpanId getParent() {
+        return parent;
+    }
+
+    /**
+     * @return number of segments, 1 for the root
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * @return 64-bit FNV-1a hash of the dotted string, the 64-bit span ID used by Zipkin
+     */
+    public long hash64() {
+        long h = hash;
+        if (h == 0) {
+            String value = toString();
+            h = FNV_OFFSET;
+            for (int i = 0; i < value.length(); i++) {
+                h ^= value.charAt(i);
+                h *= FNV_PRIME;
+            }
+            hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        String value = string;
+        if (value == null) {
+            int[] indexes = new int[depth];
+            SpanId node = this;
+            for (int i = depth - 1; i >= 0; i--) {
+                indexes[i] = node.index;
+                node = node.parent;
+            }
+            StringBuilder sb = new StringBuilder(depth * 2 + 8);
+            for (int i = 0; i < depth; i++) {
+                if (i > 0) {
+                    sb.append('.');
+                }
+                sb.append(indexes[i]);
+            }
+            value = sb.toString();
+            string = value;
+        }
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SpanId)) {
+            return false;
+        }
+        SpanId that = (SpanId) o;
+        return depth == that.depth && toString().equals(that.toString());
+    }
+
+    @Override
+    public int hashCode() {
+        return toString().hashCode();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.context.trace;
+
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+
+/**
+ * SofaTraceContext bound to one reactive request instead of a thread.
+ * <p>
+ * Reactive requests hop between event loop threads and many requests share a thread, so their
+ * span cannot live in a ThreadLocal. An instance is created per request and carried in the
+ * Reactor Context under {@link #CONTEXT_KEY}.
+ * </p>
+ * @since 3.1.10
+ */
+public class SofaTracerReactiveTraceContext implements SofaTraceContext {
+
+    /**
+     * Key of the trace context in the Reactor Context
+     */
+    public static final String      CONTEXT_KEY = SofaTraceContext.class.getName();
+
+    private volatile SofaTracerSpan span;
+
+    public SofaTracerReactiveTraceContext() {
+    }
+
+    /**
+     * @param span initial current span, e.g. the parent of a client call, may be null
+     */
+    public SofaTracerReactiveTraceContext(SofaTracerSpan span) {
+        this.span = span;
+    }
+
+    @Override
+    public void push(SofaTracerSpan span) {
+        if (span == null) {
+            return;
+        }
+        this.span = span;
+    }
+
+    @Override
+    public SofaTracerSpan getCurrentSpan() {
+        return span;
+    }
+
+    @Override
+    public SofaTracerSpan pop() {
+        SofaTracerSpan current = span;
+        span = null;
+        return current;
+    }
+
+    @Override
+    public int getThreadLocalSpanSize() {
+        return span == null ? 0 : 1;
+    }
+
+    @Override
+    public void clear() {
+        span = null;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return span == null;
+    }
+}
@@ -19,11 +19,51 @@ package com.alipay.common.tracer.core.generator;
 import com.alipay.common.tracer.core.utils.TracerUtils;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class TraceIdGenerator {
 
-    private static String        IP_16 = "ffffffff";
-    private static AtomicInteger count = new AtomicInteger(1000);
+    private static String                           IP_16          = "ffffffff";
+    private static AtomicInteger                    count          = new AtomicInteger(1000);
+
+    //======================== binary trace ID ========================
+
+    private static final int                        MIN_SEQUENCE   = 1000;
+
+    /**
+     * Sequences per millisecond, they are rendered as 4 digits like the string IDs
+     */
+    private static final long                       SEQUENCE_RANGE = 9000;
+
+    private static final int                        SEQUENCE_BITS  = 14;
+
+    /**
+     * Sequences a thread takes from {@link #CLOCK} at a time
+     */
+    private static final int                        BLOCK_SIZE     = 16;
+
+    private static final long                       NO_PID         = 0xffffffffL;
+
+    /**
+     * How far {@link #CLOCK} may run ahead of the wall clock
+     */
+    static final long                               MAX_DRIFT_MS   = 10;
+
+    /**
+     * Last allocated position, millisecond * {@link #SEQUENCE_RANGE} + sequence offset.
+     * When a millisecond runs out of sequences the positions move on to the next one, so the
+     * millisecond of an ID can be ahead of the wall clock. That happens when more than
+     * {@link #SEQUENCE_RANGE} / {@link #BLOCK_SIZE} blocks are claimed within a millisecond,
+     * the drift is capped at {@link #MAX_DRIFT_MS}: beyond it block claims wait for the wall
+     * clock to catch up.
+     */
+    private static final AtomicLong                 CLOCK          = new AtomicLong();
+
+    private static final ThreadLocal<SequenceBlock> BLOCKS         = new ThreadLocal<>();
+
+    private static long                             localHigh;
+
+    private static boolean                          binarySupported;
 
     static {
         try {
@@ -36,6 +76,16 @@ public class TraceIdGenerator {
              * empty catch block
              */
         }
+        try {
+            String pid = TracerUtils.getPID();
+            long pidBits = pid.length() == 0 ? NO_PID : Long.parseLong(pid);
+            if (IP_16.length() == 8 && pidBits >= 0 && pidBits <= NO_PID) {
+                localHigh = Long.parseLong(IP_16, 16) << 32 | pidBits;
+                binarySupported = true;
+            }
+        } catch (Throwable e) {
+            // the ID cannot be held in two longs, only string IDs are generated
+        }
     }
 
     private static String getTraceId(String ip, long timestamp, int nextId) {
@@ -44,10 +94,77 @@ public class TraceIdGenerator {
         return appender.toString();
     }
 
+    /**
+     * When the binary layout is supported the ID is rendered from {@link #nextTraceIdLow()}, both
+     * layouts are the same and must not be given the same sequence in the same millisecond
+     *
+     * @return trace ID string
+     */
     public static String generate() {
+        if (binarySupported) {
+            return render(localHigh, nextTraceIdLow());
+        }
         return getTraceId(IP_16, System.currentTimeMillis(), getNextId());
     }
 
+    /**
+     * @return false if the IP or PID of this JVM does not fit the binary layout
+     */
+    public static boolean isBinarySupported() {
+        return binarySupported;
+    }
+
+    /**
+     * @return high 64 bits of the binary trace IDs of this JVM, the IPv4 address and the PID
+     */
+    public static long localTraceIdHigh() {
+        return localHigh;
+    }
+
+    /**
+     * Low 64 bits of a new binary trace ID, the millisecond and the sequence.
+     * Sequences come from a block owned by the calling thread, so only one CAS is needed per block.
+     *
+     * @return low bits
+     */
+    public static long nextTraceIdLow() {
+        SequenceBlock block = BLOCKS.get();
+        if (block == null) {
+            block = new SequenceBlock();
+            BLOCKS.set(block);
+        }
+        long now = System.currentTimeMillis();
+        if (block.next == block.end || block.next / SEQUENCE_RANGE < now) {
+            block.allocate(now);
+        }
+        long position = block.next++;
+        return (position / SEQUENCE_RANGE) << SEQUENCE_BITS
+               | (MIN_SEQUENCE + position % SEQUENCE_RANGE);
+    }
+
+    /**
+     * Render a binary trace ID in the same layout as {@link #generate()}:
+     * hex IP, millisecond, 4 digit sequence and PID.
+     *
+     * @param high high 64 bits
+     * @param low low 64 bits
+     * @return trace ID string
+     */
+    public static String render(long high, long low) {
+        StringBuilder appender = new StringBuilder(32);
+        String ip = Long.toHexString(high >>> 32);
+        for (int i = ip.length(); i < 8; i++) {
+            appender.append('0');
+        }
+        appender.append(ip).append(low >>> SEQUENCE_BITS)
+            .append(low & ((1L << SEQUENCE_BITS) - 1));
+        long pid = high & NO_PID;
+        if (pid != NO_PID) {
+            appender.append(pid);
+        }
+        return appender.toString();
+    }
+
     private static String getIP_16(String ip) {
         String[] ips = ip.split("\\.");
         StringBuilder sb = new StringBuilder();
@@ -72,4 +189,28 @@ public class TraceIdGenerator {
             }
         }
     }
+
+    private static class SequenceBlock {
+
+        long next;
+
+        long end;
+
+        void allocate(long now) {
+            for (;;) {
+                long current = CLOCK.get();
+                if (current / SEQUENCE_RANGE - now > MAX_DRIFT_MS) {
+                    Thread.yield();
+                    now = System.currentTimeMillis();
+                    continue;
+                }
+                long start = Math.max(current, now * SEQUENCE_RANGE);
+                if (CLOCK.compareAndSet(current, start + BLOCK_SIZE)) {
+                    next = start;
+                    end = start + BLOCK_SIZE;
+                    return;
+                }
+            }
+        }
+    }
 }
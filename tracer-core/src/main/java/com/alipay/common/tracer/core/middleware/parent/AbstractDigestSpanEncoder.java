@@ -18,8 +18,8 @@ package com.alipay.common.tracer.core.middleware.parent;
 
 import com.alipay.common.tracer.core.appender.builder.JsonStringBuilder;
 import com.alipay.common.tracer.core.appender.builder.XStringBuilder;
-import com.alipay.common.tracer.core.appender.encoder.SpanEncoder;
-import com.alipay.common.tracer.core.appender.self.Timestamp;
+import com.alipay.common.tracer.core.appender.encoder.ByteSink;
+import com.alipay.common.tracer.core.appender.encoder.ByteSpanEncoder;
 import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
 import com.alipay.common.tracer.core.constants.SofaTracerConstant;
 import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
@@ -39,25 +39,49 @@ import static com.alipay.common.tracer.util.DesensitizationHelper.desensitize;
  * @author luoguimu123
  * @version $Id: AbstractDigestSpanEncoder.java, v 0.1 August 28, 2017 10:23 AM luoguimu123 Exp $
  */
-public abstract class AbstractDigestSpanEncoder implements SpanEncoder<SofaTracerSpan> {
+public abstract class AbstractDigestSpanEncoder implements ByteSpanEncoder<SofaTracerSpan> {
+
+    /**
+     * Builders reused by the byte encoding path, one per consumer thread
+     */
+    private static final ThreadLocal<XStringBuilder>    REUSABLE_XSB = ThreadLocal
+                                                                         .withInitial(XStringBuilder::new);
+
+    private static final ThreadLocal<JsonStringBuilder> REUSABLE_JSB = ThreadLocal
+                                                                         .withInitial(JsonStringBuilder::new);
 
     @Override
     public String encode(SofaTracerSpan span) throws IOException {
-        if ("false".equalsIgnoreCase(SofaTracerConfiguration
-            .getProperty(SofaTracerConfiguration.JSON_FORMAT_OUTPUT))) {
-            return encodeXsbSpan(span);
+        if (!SofaTracerConfiguration.isJsonOutput()) {
+            XStringBuilder xsb = new XStringBuilder();
+            encodeXsbSpan(xsb, span);
+            return xsb.toString();
         } else {
-            return encodeJsbSpan(span);
+            JsonStringBuilder jsb = new JsonStringBuilder();
+            encodeJsbSpan(jsb, span);
+            return jsb.toString();
+        }
+    }
+
+    @Override
+    public void encode(SofaTracerSpan span, ByteSink sink) throws IOException {
+        if (!SofaTracerConfiguration.isJsonOutput()) {
+            XStringBuilder xsb = REUSABLE_XSB.get().reset();
+            encodeXsbSpan(xsb, span);
+            xsb.writeTo(sink);
+        } else {
+            JsonStringBuilder jsb = REUSABLE_JSB.get().reset();
+            encodeJsbSpan(jsb, span);
+            jsb.writeTo(sink);
         }
     }
 
     /**
      * encodeJsbSpan
+     * @param jsb
      * @param span
-     * @return
      */
-    private String encodeJsbSpan(SofaTracerSpan span) {
-        JsonStringBuilder jsb = new JsonStringBuilder();
+    private void encodeJsbSpan(JsonStringBuilder jsb, SofaTracerSpan span) {
         // common tag
         appendJsonCommonSlot(jsb, span);
         // component tag
@@ -65,28 +89,35 @@ public abstract class AbstractDigestSpanEncoder implements SpanEncoder<SofaTrace
         // baggage
         jsb.append(CommonSpanTags.SYS_BAGGAGE,
             baggageSystemSerialized(span.getSofaTracerSpanContext()));
-        jsb.appendEnd(CommonSpanTags.BIZ_BAGGAGE,
-            baggageSerialized(span.getSofaTracerSpanContext()));
-
-        return jsb.toString();
+        if (isBatchSpan(span)) {
+            jsb.append(CommonSpanTags.BIZ_BAGGAGE,
+                baggageSerialized(span.getSofaTracerSpanContext()));
+            appendBatchSlot(null, jsb, span);
+        } else {
+            jsb.appendEnd(CommonSpanTags.BIZ_BAGGAGE,
+                baggageSerialized(span.getSofaTracerSpanContext()));
+        }
     }
 
     /**
      * encodeXsbSpan
+     * @param xsb
      * @param span
-     * @return
      */
-    private String encodeXsbSpan(SofaTracerSpan span) {
-        XStringBuilder xsb = new XStringBuilder();
+    private void encodeXsbSpan(XStringBuilder xsb, SofaTracerSpan span) {
         // common tag
         appendXsbCommonSlot(xsb, span);
         // component tag
         appendComponentSlot(xsb, null, span);
         // sys baggage
         xsb.append(baggageSystemSerialized(span.getSofaTracerSpanContext()));
-        // biz baggage
-        xsb.appendEnd(baggageSerialized(span.getSofaTracerSpanContext()));
-        return xsb.toString();
+        // biz baggage, batch spans continue with the batch columns
+        if (isBatchSpan(span)) {
+            xsb.append(baggageSerialized(span.getSofaTracerSpanContext()));
+            appendBatchSlot(xsb, null, span);
+        } else {
+            xsb.appendEnd(baggageSerialized(span.getSofaTracerSpanContext()));
+        }
     }
 
     /**
@@ -99,6 +130,37 @@ public abstract class AbstractDigestSpanEncoder implements SpanEncoder<SofaTrace
                                        SofaTracerSpan span) {
     }
 
+    private boolean isBatchSpan(SofaTracerSpan span) {
+        return span.getTagsWithNumber().containsKey(CommonSpanTags.MSG_BATCH_COUNT);
+    }
+
+    /**
+     * Append the {@link com.alipay.common.tracer.core.span.MessageBatchSummary} tags of a batch
+     * consume span and end the line. They follow the baggage so the columns before them keep the
+     * positions of per message spans
+     * @param xsb
+     * @param jsb
+     * @param span
+     */
+    private void appendBatchSlot(XStringBuilder xsb, JsonStringBuilder jsb, SofaTracerSpan span) {
+        Number count = span.getTagsWithNumber().get(CommonSpanTags.MSG_BATCH_COUNT);
+        Number bytes = span.getTagsWithNumber().get(CommonSpanTags.MSG_BATCH_BYTES);
+        Map<String, String> tagWithStr = span.getTagsWithStr();
+        String distribution = tagWithStr.get(CommonSpanTags.MSG_BATCH_DISTRIBUTION);
+        String links = tagWithStr.get(CommonSpanTags.MSG_BATCH_LINKS);
+        if (xsb != null) {
+            xsb.append(count.intValue());
+            xsb.append(bytes == null ? 0L : bytes.longValue());
+            xsb.appendEscape(distribution);
+            xsb.appendEscapeEnd(links);
+        } else {
+            jsb.append(CommonSpanTags.MSG_BATCH_COUNT, count);
+            jsb.append(CommonSpanTags.MSG_BATCH_BYTES, bytes);
+            jsb.append(CommonSpanTags.MSG_BATCH_DISTRIBUTION, distribution);
+            jsb.appendEnd(CommonSpanTags.MSG_BATCH_LINKS, links);
+        }
+    }
+
     /**
      * System transparent transmission of data
      * @param spanContext span context
@@ -126,7 +188,8 @@ public abstract class AbstractDigestSpanEncoder implements SpanEncoder<SofaTrace
         SofaTracerSpanContext context = span.getSofaTracerSpanContext();
         Map<String, String> tagWithStr = span.getTagsWithStr();
         //span end time
-        jsb.appendBegin(CommonSpanTags.TIME, Timestamp.format(span.getEndTime()));
+        jsb.appendBegin();
+        jsb.appendTimestamp(CommonSpanTags.TIME, span.getEndTime());
         //app
         jsb.append(CommonSpanTags.LOCAL_APP, tagWithStr.get(CommonSpanTags.LOCAL_APP));
         //TraceId
@@ -154,7 +217,7 @@ public abstract class AbstractDigestSpanEncoder implements SpanEncoder<SofaTrace
         SofaTracerSpanContext context = span.getSofaTracerSpanContext();
         Map<String, String> tagWithStr = span.getTagsWithStr();
         //span end time
-        xsb.append(Timestamp.format(span.getEndTime()));
+        xsb.appendTimestamp(span.getEndTime());
         //appName
         xsb.append(tagWithStr.get(CommonSpanTags.LOCAL_APP));
         //TraceId
@@ -61,6 +61,9 @@ public abstract class AbstractTextB3Formatter implements RegistryExtractorInject
             //There not have tracing propagation head,start root span
             return SofaTracerSpanContext.rootStart();
         }
+        if (carrier instanceof LookupTextMap) {
+            return extract((LookupTextMap) carrier);
+        }
 
         String traceId = null;
         String spanId = null;
@@ -88,32 +91,70 @@ public abstract class AbstractTextB3Formatter implements RegistryExtractorInject
                 parentId = decodedValue(entry.getValue());
             }
             if (!isGetSampled && SAMPLED_KEY_HEAD.equalsIgnoreCase(key)) {
-                String valueTmp = decodedValue(entry.getValue());
-                if ("1".equals(valueTmp)) {
-                    sampled = true;
-                } else if ("0".equals(valueTmp)) {
-                    sampled = false;
-                } else {
-                    sampled = Boolean.parseBoolean(valueTmp);
-                }
+                sampled = parseSampled(decodedValue(entry.getValue()));
                 isGetSampled = true;
             }
-            if (key.indexOf(BAGGAGE_SYS_KEY_PREFIX) == 0) {
-                String keyTmp = StringUtils.unescapeEqualAndPercent(key).substring(
-                    BAGGAGE_SYS_KEY_PREFIX.length());
-                String valueTmp = StringUtils
-                    .unescapeEqualAndPercent(decodedValue(entry.getValue()));
-                sysBaggage.put(keyTmp, valueTmp);
+            putBaggage(key, entry.getValue(), sysBaggage, bizBaggage);
+        }
+
+        return newSpanContext(traceId, spanId, parentId, sampled, sysBaggage, bizBaggage);
+    }
+
+    /**
+     * Extract by looking up the B3 keys, the values of other keys are only read for baggage
+     */
+    private SofaTracerSpanContext extract(LookupTextMap carrier) {
+        String traceId = carrier.get(TRACE_ID_KEY_HEAD);
+        if (traceId == null) {
+            return SofaTracerSpanContext.rootStart();
+        }
+        String spanId = carrier.get(SPAN_ID_KEY_HEAD);
+        String parentId = carrier.get(PARENT_SPAN_ID_KEY_HEAD);
+        String sampled = carrier.get(SAMPLED_KEY_HEAD);
+        Map<String, String> sysBaggage = new ConcurrentHashMap<String, String>();
+        Map<String, String> bizBaggage = new ConcurrentHashMap<String, String>();
+        for (String key : carrier.keys()) {
+            if (key == null || !key.startsWith(BAGGAGE_KEY_PREFIX)) {
+                continue;
             }
-            if (key.indexOf(BAGGAGE_KEY_PREFIX) == 0) {
-                String keyTmp = StringUtils.unescapeEqualAndPercent(key).substring(
-                    BAGGAGE_KEY_PREFIX.length());
-                String valueTmp = StringUtils
-                    .unescapeEqualAndPercent(decodedValue(entry.getValue()));
-                bizBaggage.put(keyTmp, valueTmp);
+            String value = carrier.get(key);
+            if (value != null) {
+                putBaggage(key, value, sysBaggage, bizBaggage);
             }
         }
+        return newSpanContext(decodedValue(traceId), spanId == null ? null
+            : decodedValue(spanId), parentId == null ? null : decodedValue(parentId),
+            sampled == null || parseSampled(decodedValue(sampled)), sysBaggage, bizBaggage);
+    }
+
+    private boolean parseSampled(String value) {
+        if ("1".equals(value)) {
+            return true;
+        } else if ("0".equals(value)) {
+            return false;
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    private void putBaggage(String key, String value, Map<String, String> sysBaggage,
+                            Map<String, String> bizBaggage) {
+        if (key.indexOf(BAGGAGE_SYS_KEY_PREFIX) == 0) {
+            String keyTmp = StringUtils.unescapeEqualAndPercent(key).substring(
+                BAGGAGE_SYS_KEY_PREFIX.length());
+            String valueTmp = StringUtils.unescapeEqualAndPercent(decodedValue(value));
+            sysBaggage.put(keyTmp, valueTmp);
+        }
+        if (key.indexOf(BAGGAGE_KEY_PREFIX) == 0) {
+            String keyTmp = StringUtils.unescapeEqualAndPercent(key).substring(
+                BAGGAGE_KEY_PREFIX.length());
+            String valueTmp = StringUtils.unescapeEqualAndPercent(decodedValue(value));
+            bizBaggage.put(keyTmp, valueTmp);
+        }
+    }
 
+    private SofaTracerSpanContext newSpanContext(String traceId, String spanId, String parentId,
+                                                 boolean sampled, Map<String, String> sysBaggage,
+                                                 Map<String, String> bizBaggage) {
         if (traceId == null) {
             //There not have trace id, assumed not have tracing propagation head also,start root span
             return SofaTracerSpanContext.rootStart();
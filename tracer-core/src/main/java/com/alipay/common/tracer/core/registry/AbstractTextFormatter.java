@@ -35,6 +35,11 @@ public abstract class AbstractTextFormatter implements RegistryExtractorInjector
         if (carrier == null) {
             return null;
         }
+        if (carrier instanceof LookupTextMap) {
+            String value = ((LookupTextMap) carrier).get(FORMATER_KEY_HEAD);
+            return StringUtils.isBlank(value) ? null : SofaTracerSpanContext
+                .deserializeFromString(this.decodedValue(value));
+        }
         SofaTracerSpanContext sofaTracerSpanContext = null;
         for (Map.Entry<String, String> entry : carrier) {
             String key = entry.getKey();
@@ -17,8 +17,10 @@
 package com.alipay.common.tracer.core.registry;
 
 import com.alipay.common.tracer.core.appender.self.SelfLog;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
 import com.alipay.common.tracer.core.constants.SofaTracerConstant;
 import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
+import com.alipay.common.tracer.core.context.span.SpanContextCodec;
 import com.alipay.common.tracer.core.utils.ByteArrayUtils;
 import io.opentracing.propagation.Format;
 
@@ -66,6 +68,9 @@ public class BinaryFormater implements RegistryExtractorInjector<ByteBuffer> {
             //value byte arrays
             byte[] contextDataBytes = new byte[carrier.getInt()];
             carrier.get(contextDataBytes);
+            if (SpanContextCodec.isCompact(contextDataBytes)) {
+                return SpanContextCodec.decode(contextDataBytes, 0, contextDataBytes.length);
+            }
             String spanContextInfos = new String(contextDataBytes,
                 SofaTracerConstant.DEFAULT_UTF8_CHARSET);
             return SofaTracerSpanContext.deserializeFromString(spanContextInfos);
@@ -85,8 +90,13 @@ public class BinaryFormater implements RegistryExtractorInjector<ByteBuffer> {
         }
         //head
         carrier.put(FORMATER_KEY_HEAD_BYTES);
-        String spanContextInfos = spanContext.serializeSpanContext();
-        byte[] value = spanContextInfos.getBytes(SofaTracerConstant.DEFAULT_UTF8_CHARSET);
+        byte[] value;
+        if (SofaTracerConfiguration.getSnapshot().isCompactPropagation()) {
+            value = SpanContextCodec.encode(spanContext);
+        } else {
+            String spanContextInfos = spanContext.serializeSpanContext();
+            value = spanContextInfos.getBytes(SofaTracerConstant.DEFAULT_UTF8_CHARSET);
+        }
         //length
         carrier.putInt(value.length);
         //data
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.registry;
+
+import io.opentracing.propagation.TextMap;
+
+/**
+ * LookupTextMap
+ * <p>
+ * Carrier that reads entries in place, such as request headers or message headers. Extraction
+ * looks up the few keys it needs and only walks the key names to find baggage, instead of copying
+ * and iterating every entry.
+ * </p>
+ * @since 3.1.10
+ */
+public interface LookupTextMap extends TextMap {
+
+    /**
+     * Get the first value of a key, keys are compared ignoring case as far as the underlying
+     * headers allow, like extraction through {@link #iterator()} does
+     *
+     * @param key key
+     * @return value, null if absent
+     */
+    String get(String key);
+
+    /**
+     * Names of all entries, extraction reads back those with a baggage prefix through {@link #get}
+     *
+     * @return key names
+     */
+    Iterable<String> keys();
+}
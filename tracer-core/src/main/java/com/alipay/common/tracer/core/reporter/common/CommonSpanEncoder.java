@@ -18,7 +18,6 @@ package com.alipay.common.tracer.core.reporter.common;
 
 import com.alipay.common.tracer.core.appender.builder.XStringBuilder;
 import com.alipay.common.tracer.core.appender.encoder.SpanEncoder;
-import com.alipay.common.tracer.core.appender.self.Timestamp;
 import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
 import com.alipay.common.tracer.core.span.CommonLogSpan;
 import com.alipay.common.tracer.core.tags.SpanTags;
@@ -47,7 +46,7 @@ public class CommonSpanEncoder implements SpanEncoder<CommonLogSpan> {
         SofaTracerSpanContext spanContext = commonLogSpan.getSofaTracerSpanContext();
         XStringBuilder xsb = new XStringBuilder();
         //The time when the report started as the time of printing, there is no completion time
-        xsb.append(Timestamp.format(commonLogSpan.getStartTime()))
+        xsb.appendTimestamp(commonLogSpan.getStartTime())
             //Ensure that the construct common is also carried
             .append(commonLogSpan.getTagsWithStr().get(SpanTags.CURR_APP_TAG.getKey()))
             .append(spanContext.getTraceId()).append(spanContext.getSpanId());
@@ -19,6 +19,7 @@ package com.alipay.common.tracer.core.reporter.common;
 import com.alipay.common.tracer.core.appender.TraceAppender;
 import com.alipay.common.tracer.core.appender.encoder.SpanEncoder;
 import com.alipay.common.tracer.core.appender.file.LoadTestAwareAppender;
+import com.alipay.common.tracer.core.appender.manager.AsyncAppenderSettings;
 import com.alipay.common.tracer.core.appender.manager.AsyncCommonDigestAppenderManager;
 import com.alipay.common.tracer.core.appender.self.SelfLog;
 import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
@@ -40,12 +41,14 @@ public class CommonTracerManager {
     /**
      * Asynchronous log print, all middleware common to print general logs
      */
-    private static volatile AsyncCommonDigestAppenderManager commonReporterAsyncManager = new AsyncCommonDigestAppenderManager(
-                                                                                            1024);
+    private static volatile AsyncCommonDigestAppenderManager commonReporterAsyncManager;
 
-    private static SpanEncoder                               commonSpanEncoder          = new CommonSpanEncoder();
+    private static SpanEncoder                               commonSpanEncoder = new CommonSpanEncoder();
 
     static {
+        commonReporterAsyncManager = new AsyncCommonDigestAppenderManager(
+            AsyncAppenderSettings.load(SofaTracerConfiguration.TRACER_COMMON_ASYNC_PREFIX, 1024, 3));
+
         String logName = TracerSystemLogEnum.MIDDLEWARE_ERROR.getDefaultLogName();
         TraceAppender traceAppender = LoadTestAwareAppender
             .createLoadTestAwareTimedRollingFileAppender(logName, SofaTracerConfiguration
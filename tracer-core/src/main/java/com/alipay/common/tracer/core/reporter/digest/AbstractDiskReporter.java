@@ -17,14 +17,13 @@
 package com.alipay.common.tracer.core.reporter.digest;
 
 import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfigurationSnapshot;
 import com.alipay.common.tracer.core.constants.SofaTracerConstant;
 import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
 import com.alipay.common.tracer.core.reporter.facade.AbstractReporter;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
 import com.alipay.common.tracer.core.utils.StringUtils;
 
-import java.util.Map;
-
 /**
  * AbstractDiskReporter
  *
@@ -93,16 +92,11 @@ public abstract class AbstractDiskReporter extends AbstractReporter {
         if (!sofaTracerSpanContext.isSampled()) {
             return true;
         }
-        boolean allDisabled = Boolean.TRUE.toString().equalsIgnoreCase(
-            SofaTracerConfiguration
-                .getProperty(SofaTracerConfiguration.DISABLE_MIDDLEWARE_DIGEST_LOG_KEY));
-
-        if (allDisabled) {
+        SofaTracerConfigurationSnapshot configuration = SofaTracerConfiguration.getSnapshot();
+        if (configuration.isMiddlewareDigestLogDisabled()) {
             return true;
         }
 
-        Map<String, String> disableConfiguration = SofaTracerConfiguration
-            .getMapEmptyIfNull(SofaTracerConfiguration.DISABLE_DIGEST_LOG_KEY);
         //digest log type
         String logType = StringUtils.EMPTY_STRING + span.getLogType();
         if (StringUtils.isBlank(logType)) {
@@ -111,12 +105,11 @@ public abstract class AbstractDiskReporter extends AbstractReporter {
         }
         // Rpc-2-jvm special handling, adapting rpc2jvm to close digest and only print stat
         if (SofaTracerConstant.RPC_2_JVM_DIGEST_LOG_NAME.equals(logType)) {
-            if (Boolean.FALSE.toString().equalsIgnoreCase(
-                SofaTracerConfiguration.getProperty("enable_rpc_2_jvm_digest_log"))) {
+            if (configuration.isRpc2JvmDigestLogDisabled()) {
                 return true;
             }
         }
-        return Boolean.TRUE.toString().equalsIgnoreCase(disableConfiguration.get(logType));
+        return configuration.isDigestLogDisabled(logType);
     }
 
 }
@@ -120,6 +120,36 @@ public class DiskReporterImpl extends AbstractDiskReporter {
         return StringUtils.EMPTY_STRING;
     }
 
+    /**
+     * With {@link SofaTracerConfiguration#TRACER_ASYNC_STATISTIC} the stat is aggregated by the
+     * consumer thread of the digest log type, and only if the span is not accepted by the ring
+     * buffer it is still aggregated here.
+     */
+    @Override
+    public void doReport(SofaTracerSpan span) {
+        if (this.statReporter == null) {
+            super.doReport(span);
+            return;
+        }
+        AsyncCommonDigestAppenderManager asyncDigestManager = SofaTracerDigestReporterAsyncManager
+            .getSofaTracerDigestReporterAsyncManager();
+        if (!asyncDigestManager.isAsyncStatistic()) {
+            super.doReport(span);
+            return;
+        }
+        span.setLogType(this.digestLogType);
+        boolean digest = !isDisableDigestLog(span);
+        if (digest && !this.isDigestFileInited.get()) {
+            this.initDigestFile();
+        }
+        // the file of a disabled digest log is not created only to route its stat
+        if ((digest || asyncDigestManager.isAppenderAndEncoderExist(this.digestLogType))
+            && asyncDigestManager.append(span, digest, this.statReporter)) {
+            return;
+        }
+        this.statisticReport(span);
+    }
+
     @Override
     public void digestReport(SofaTracerSpan span) {
         //lazy initialization
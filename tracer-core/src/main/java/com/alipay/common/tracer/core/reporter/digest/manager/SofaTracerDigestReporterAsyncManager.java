@@ -16,7 +16,9 @@
  */
 package com.alipay.common.tracer.core.reporter.digest.manager;
 
+import com.alipay.common.tracer.core.appender.manager.AsyncAppenderSettings;
 import com.alipay.common.tracer.core.appender.manager.AsyncCommonDigestAppenderManager;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
 
 /**
  * SofaTracerDigestReporterAsyncManager
@@ -26,6 +28,10 @@ import com.alipay.common.tracer.core.appender.manager.AsyncCommonDigestAppenderM
  */
 public final class SofaTracerDigestReporterAsyncManager {
 
+    private static final int                                DEFAULT_QUEUE_SIZE      = 1024;
+
+    private static final int                                DEFAULT_CONSUMER_NUMBER = 3;
+
     /**
      * Asynchronous log print, all middleware digest logs share a SofaTracerDigestReporterAsyncManager AsyncAppender to print logs
      */
@@ -40,7 +46,9 @@ public final class SofaTracerDigestReporterAsyncManager {
             synchronized (SofaTracerDigestReporterAsyncManager.class) {
                 if (asyncCommonDigestAppenderManager == null) {
                     AsyncCommonDigestAppenderManager localManager = new AsyncCommonDigestAppenderManager(
-                        1024);
+                        AsyncAppenderSettings.load(
+                            SofaTracerConfiguration.TRACER_DIGEST_ASYNC_PREFIX, DEFAULT_QUEUE_SIZE,
+                            DEFAULT_CONSUMER_NUMBER));
                     localManager.start("NetworkAppender");
                     asyncCommonDigestAppenderManager = localManager;
                 }
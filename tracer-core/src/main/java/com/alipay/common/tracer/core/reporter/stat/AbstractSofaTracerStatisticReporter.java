@@ -21,11 +21,11 @@ import com.alipay.common.tracer.core.appender.builder.JsonStringBuilder;
 import com.alipay.common.tracer.core.appender.builder.XStringBuilder;
 import com.alipay.common.tracer.core.appender.file.LoadTestAwareAppender;
 import com.alipay.common.tracer.core.appender.self.SelfLog;
-import com.alipay.common.tracer.core.appender.self.Timestamp;
 import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
 import com.alipay.common.tracer.core.constants.SofaTracerConstant;
 import com.alipay.common.tracer.core.reporter.stat.manager.SofaTracerStatisticReporterCycleTimesManager;
 import com.alipay.common.tracer.core.reporter.stat.manager.SofaTracerStatisticReporterManager;
+import com.alipay.common.tracer.core.reporter.stat.model.LatencyHistogram;
 import com.alipay.common.tracer.core.reporter.stat.model.StatKey;
 import com.alipay.common.tracer.core.reporter.stat.model.StatMapKey;
 import com.alipay.common.tracer.core.reporter.stat.model.StatValues;
@@ -38,7 +38,6 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * AbstractSofaTracerStatisticReporter
@@ -55,11 +54,6 @@ public abstract class AbstractSofaTracerStatisticReporter implements SofaTracerS
      */
     public static final int            DEFAULT_CYCLE = 0;
 
-    /**
-     * Used to control the concurrency when initializing the slot
-     */
-    private static final ReentrantLock initLock      = new ReentrantLock(false);
-
     private static XStringBuilder      buffer        = new XStringBuilder();
     private static JsonStringBuilder   jsonBuffer    = new JsonStringBuilder();
 
@@ -195,26 +189,28 @@ public abstract class AbstractSofaTracerStatisticReporter implements SofaTracerS
      * @param values Statistical value
      */
     protected void addStat(StatKey keys, long... values) {
-        StatValues oldValues = statDatas.get(keys);
+        Map<StatKey, StatValues> current = statDatas;
+        StatValues oldValues = current.get(keys);
         if (oldValues == null) {
-            // need to lock and double judgment
-            initLock.lock();
-            try {
-                oldValues = statDatas.get(keys);
-                // check whether the maximum key limit is exceeded
-                if (null == oldValues) {
-                    // Create a slot with specified value
-                    oldValues = new StatValues(values);
-                    statDatas.put(keys, oldValues);
-                    return;
-                }
-            } finally {
-                initLock.unlock();
+            // Create a slot with specified value, without locking: only one of the racing slots is kept
+            StatValues newValues = new StatValues(values);
+            oldValues = current.putIfAbsent(keys, newValues);
+            if (oldValues == null) {
+                recordLatency(newValues, values);
+                return;
             }
         }
         // Other threads have created slots and merge new data
-        if (oldValues != null) {
-            oldValues.update(values);
+        oldValues.update(values);
+        recordLatency(oldValues, values);
+    }
+
+    /**
+     * The values are count and total cost, as printed by {@link #printJsbStat}
+     */
+    private void recordLatency(StatValues statValues, long[] values) {
+        if (values.length > 1 && values[0] > 0) {
+            statValues.recordLatency(values[1] / values[0], values[0]);
         }
     }
 
@@ -255,29 +251,49 @@ public abstract class AbstractSofaTracerStatisticReporter implements SofaTracerS
 
     @Override
     public void print(StatKey statKey, long[] values) {
+        print(statKey, values, null);
+    }
+
+    /**
+     * The latency percentiles are printed after the existing columns, so that their positions do not change
+     */
+    @Override
+    public void print(StatKey statKey, long[] values, LatencyHistogram.Snapshot latency) {
         if (this.isClosePrint.get()) {
             //Close the statistics log output
             return;
         }
-        if ("false".equalsIgnoreCase(SofaTracerConfiguration
-            .getProperty(SofaTracerConfiguration.JSON_FORMAT_OUTPUT))) {
-            printXsbStat(statKey, values);
+        if (!SofaTracerConfiguration.isJsonOutput()) {
+            printXsbStat(statKey, values, latency);
         } else {
-            printJsbStat(statKey, values);
+            printJsbStat(statKey, values, latency);
         }
     }
 
     protected void printXsbStat(StatKey statKey, long[] values) {
+        printXsbStat(statKey, values, null);
+    }
+
+    protected void printXsbStat(StatKey statKey, long[] values, LatencyHistogram.Snapshot latency) {
         try {
             buffer.reset();
-            buffer.append(Timestamp.currentTime()).append(statKey.getKey());
+            buffer.appendTimestamp(System.currentTimeMillis()).append(statKey.getKey());
             int i = 0;
             for (; i < values.length - 1; i++) {
                 buffer.append(values[i]);
             }
             buffer.append(values[i]);
             buffer.append(statKey.getResult());
-            buffer.appendEnd(statKey.getEnd());
+            if (latency == null) {
+                buffer.appendEnd(statKey.getEnd());
+            } else {
+                buffer.append(statKey.getEnd());
+                buffer.append(latency.getValueAtPercentile(50));
+                buffer.append(latency.getValueAtPercentile(90));
+                buffer.append(latency.getValueAtPercentile(99));
+                buffer.append(latency.getValueAtPercentile(99.9));
+                buffer.appendEnd(latency.getMax());
+            }
             if (appender instanceof LoadTestAwareAppender) {
                 ((LoadTestAwareAppender) appender).append(buffer.toString(), statKey.isLoadTest());
             } else {
@@ -291,6 +307,10 @@ public abstract class AbstractSofaTracerStatisticReporter implements SofaTracerS
     }
 
     protected void printJsbStat(StatKey statKey, long[] values) {
+        printJsbStat(statKey, values, null);
+    }
+
+    protected void printJsbStat(StatKey statKey, long[] values, LatencyHistogram.Snapshot latency) {
 
         if (!(statKey instanceof StatMapKey)) {
             return;
@@ -299,10 +319,21 @@ public abstract class AbstractSofaTracerStatisticReporter implements SofaTracerS
         try {
             jsonBuffer.reset();
             jsonBuffer.appendBegin();
-            jsonBuffer.append(CommonSpanTags.TIME, Timestamp.currentTime());
+            jsonBuffer.appendTimestamp(CommonSpanTags.TIME, System.currentTimeMillis());
             jsonBuffer.append(CommonSpanTags.STAT_KEY, this.statKeySplit(statMapKey));
             jsonBuffer.append(CommonSpanTags.COUNT, values[0]);
             jsonBuffer.append(CommonSpanTags.TOTAL_COST_MILLISECONDS, values[1]);
+            if (latency != null) {
+                jsonBuffer.append(CommonSpanTags.P50_COST_MILLISECONDS,
+                    latency.getValueAtPercentile(50));
+                jsonBuffer.append(CommonSpanTags.P90_COST_MILLISECONDS,
+                    latency.getValueAtPercentile(90));
+                jsonBuffer.append(CommonSpanTags.P99_COST_MILLISECONDS,
+                    latency.getValueAtPercentile(99));
+                jsonBuffer.append(CommonSpanTags.P999_COST_MILLISECONDS,
+                    latency.getValueAtPercentile(99.9));
+                jsonBuffer.append(CommonSpanTags.MAX_COST_MILLISECONDS, latency.getMax());
+            }
             jsonBuffer.append(CommonSpanTags.SUCCESS, statMapKey.getResult());
             //pressure test mark
             jsonBuffer.appendEnd(CommonSpanTags.LOAD_TEST, statMapKey.getEnd());
@@ -16,6 +16,7 @@
  */
 package com.alipay.common.tracer.core.reporter.stat;
 
+import com.alipay.common.tracer.core.reporter.stat.model.LatencyHistogram;
 import com.alipay.common.tracer.core.reporter.stat.model.StatKey;
 import com.alipay.common.tracer.core.reporter.stat.model.StatValues;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
@@ -71,6 +72,17 @@ public interface SofaTracerStatisticReporter {
      */
     void print(StatKey statKey, long[] values);
 
+    /**
+     * Print with the latency distribution of the slot, implementations that do not print
+     * percentiles print only the values
+     * @param statKey
+     * @param values
+     * @param latency latency distribution of the values
+     */
+    default void print(StatKey statKey, long[] values, LatencyHistogram.Snapshot latency) {
+        print(statKey, values);
+    }
+
     /**
      * close print
      */
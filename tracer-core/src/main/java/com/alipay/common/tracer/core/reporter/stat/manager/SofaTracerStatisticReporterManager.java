@@ -19,6 +19,7 @@ package com.alipay.common.tracer.core.reporter.stat.manager;
 import com.alipay.common.tracer.core.appender.self.SelfLog;
 import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
 import com.alipay.common.tracer.core.reporter.stat.SofaTracerStatisticReporter;
+import com.alipay.common.tracer.core.reporter.stat.model.LatencyHistogram;
 import com.alipay.common.tracer.core.reporter.stat.model.StatKey;
 import com.alipay.common.tracer.core.reporter.stat.model.StatValues;
 import com.alipay.common.tracer.core.utils.DateUtils;
@@ -148,13 +149,15 @@ public class SofaTracerStatisticReporterManager {
                             StatValues values = e.getValue();
                             // print log
                             long[] tobePrint = values.getCurrentValue();
+                            LatencyHistogram.Snapshot latency = values.getLatencySnapshot();
                             // print when the count is greater than 0
                             if (tobePrint[0] > 0) {
-                                statTracer.print(statKeys, tobePrint);
+                                statTracer.print(statKeys, tobePrint, latency);
                             }
                             // Update the slot value to clear the printed content
                             // Here you must ensure that the input params is the value of the array used in the print process.
                             values.clear(tobePrint);
+                            values.clearLatency(latency);
                         }
                         // If the number of keys in the statistics log is greater than the threshold,
                         // it indicates that the key may have variable parameters,
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.reporter.stat.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-memory log-linear latency histogram of a stat slot, recorded without locks.
+ *
+ * <p>
+ * Values below {@code 2 * SUB_BUCKET_COUNT} get a bucket of their own. Every following power of
+ * two is split into {@code SUB_BUCKET_COUNT} linear buckets, so a percentile is at most one
+ * sixteenth above the real value. Values above {@link #MAX_TRACKABLE_VALUE} fall into the last
+ * bucket, while the max is kept exactly. That is 32 exact and 20 * 16 linear buckets, 352 cells
+ * per slot.
+ *
+ * Like {@link StatValues}, the printer takes a {@link Snapshot} and subtracts it afterwards, so
+ * spans recorded while printing are kept for the next cycle.
+ * </p>
+ *
+ * @since 3.1.10
+ */
+public class LatencyHistogram {
+
+    private static final int          SUB_BUCKET_BITS     = 4;
+
+    private static final int          SUB_BUCKET_COUNT    = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * About 9 hours in milliseconds
+     */
+    public static final long          MAX_TRACKABLE_VALUE = (1L << 25) - 1;
+
+    static final int                  BUCKET_COUNT        = bucketIndex(MAX_TRACKABLE_VALUE) + 1;
+
+    private final AtomicLongArray     buckets             = new AtomicLongArray(BUCKET_COUNT);
+
+    private final AtomicLong          max                 = new AtomicLong();
+
+    /**
+     * Record a latency
+     *
+     * @param value latency, negative values are recorded as 0
+     * @param count number of spans with this latency
+     */
+    public void record(long value, long count) {
+        if (value < 0) {
+            value = 0;
+        }
+        buckets.addAndGet(bucketIndex(Math.min(value, MAX_TRACKABLE_VALUE)), count);
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // retry, only while a larger max is being recorded
+        }
+    }
+
+    /**
+     * @return a copy of the recorded buckets
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        return new Snapshot(counts, total, max.get());
+    }
+
+    /**
+     * Remove the printed spans, the max is only reset when no larger one was recorded meanwhile
+     *
+     * @param printed snapshot taken for printing
+     */
+    public void clear(Snapshot printed) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (printed.counts[i] != 0) {
+                buckets.addAndGet(i, -printed.counts[i]);
+            }
+        }
+        max.compareAndSet(printed.max, 0);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < 2 * SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) ((value >>> shift) - SUB_BUCKET_COUNT);
+    }
+
+    /**
+     * @return the largest value that falls into the bucket
+     */
+    static long bucketUpperBound(int index) {
+        if (index < 2 * SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long lower = (long) (index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    /**
+     * Immutable copy of a histogram
+     */
+    public static class Snapshot {
+
+        private final long[] counts;
+
+        private final long   totalCount;
+
+        private final long   max;
+
+        Snapshot(long[] counts, long totalCount, long max) {
+            this.counts = counts;
+            this.totalCount = totalCount;
+            this.max = max;
+        }
+
+        /**
+         * @param percentile between 0 and 100, e.g. 99.9
+         * @return the upper bound of the bucket holding the percentile, never above the max
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (totalCount == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), max);
+                }
+            }
+            return max;
+        }
+
+        public long getTotalCount() {
+            return totalCount;
+        }
+
+        public long getMax() {
+            return max;
+        }
+    }
+}
@@ -16,26 +16,19 @@
  */
 package com.alipay.common.tracer.core.reporter.stat.model;
 
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Constantly updated statistics
  *
  * <p>
- * Note that the CAS mechanism is used here.
- * This mechanism replaces the lock with a failed retry
+ * Every column is a {@link LongAdder}: concurrent updates are spread over striped cells instead of
+ * retrying a CAS on one shared reference, and an update allocates nothing.
  *
- * It allows multiple threads to modify an atom at the same time,
- * but when a new value is written and it is found that the new value has been modified,
- * the assignment process needs to be re-executed until it succeeds.
- *
- *
- * It should be noted that the assignment process may be repeatedly executed.
- * The only change allowed in the assignment algorithm is the value of the attribute inside the atom.
- * Other factors cannot be changed.This can improve performance in the absence of most concurrent conflicts.
- *
- * All changes to the value in the AtomicReference must be written to a completely new array,
- * and the values ​​in the existing array cannot be directly changed (so that the atom is modified)
+ * The columns are read one by one, so a value read while spans are still being added may mix a
+ * count with a cost that already includes one more span. The printer only reads a slot after the
+ * reporter switched to the other map, and subtracts exactly what it printed, so such a span is
+ * printed in the next cycle instead of being lost.
  * </p>
  *
  * @author zhanghan
@@ -44,59 +37,82 @@ public class StatValues {
     /**
      *  the real value
      */
-    private final AtomicReference<long[]> values = new AtomicReference<long[]>();
+    private final LongAdder[]      values;
+
+    /**
+     * Latency distribution of the slot, see {@link #recordLatency(long, long)}
+     */
+    private final LatencyHistogram latencyHistogram = new LatencyHistogram();
 
     public StatValues(long[] values) {
-        this.values.set(values);
+        this.values = new LongAdder[values.length];
+        for (int k = 0; k < values.length; k++) {
+            this.values[k] = new LongAdder();
+            this.values[k].add(values[k]);
+        }
     }
 
     /**
      * write new value
-     * (All operations need to meet the CAS mechanism)
      * @param update new value need to update
      */
     public void update(long[] update) {
-        long[] current;
-        long[] tmp = new long[update.length];
-        do {
-            current = values.get();
-            for (int k = 0; k < update.length && k < current.length; k++) {
-                tmp[k] = current[k] + update[k];
-            }
-        } while (!values.compareAndSet(current, tmp));
+        for (int k = 0; k < update.length && k < values.length; k++) {
+            values[k].add(update[k]);
+        }
+    }
+
+    /**
+     * Record the latency of spans, in the same unit as the cost column
+     *
+     * @param latency latency of each span
+     * @param count   number of spans
+     */
+    public void recordLatency(long latency, long count) {
+        latencyHistogram.record(latency, count);
+    }
+
+    /**
+     * @return latency distribution recorded so far
+     */
+    public LatencyHistogram.Snapshot getLatencySnapshot() {
+        return latencyHistogram.snapshot();
+    }
 
+    /**
+     * Remove the printed latencies, like {@link #clear(long[])}
+     *
+     * @param printed the snapshot that was printed
+     */
+    public void clearLatency(LatencyHistogram.Snapshot printed) {
+        latencyHistogram.clear(printed);
     }
 
     /**
      * Empty the slot after print
      *
      * The value may have been updated during printing
-     * So pass in the array of values ​​that need to be cleared, minus the value that has been printed.
-     *
-     * (All operations need to meet the CAS mechanism)
+     * So pass in the array of values that need to be cleared, minus the value that has been printed.
      *
      *  @param toBeClear toBeClear
      */
     public void clear(long[] toBeClear) {
-        long[] current;
-        long[] tmp = new long[toBeClear.length];
-        do {
-            current = values.get();
-            for (int k = 0; k < current.length && k < toBeClear.length; k++) {
-                tmp[k] = current[k] - toBeClear[k];
-            }
-        } while (!values.compareAndSet(current, tmp));
+        for (int k = 0; k < values.length && k < toBeClear.length; k++) {
+            values[k].add(-toBeClear[k]);
+        }
     }
 
     /**
      * Return current value
      *
-     * Here you can get and return directly, the returned value will definitely not change
-     * Because any change to the atoms of values ​​is directly over the reference address of the array.
-     * and does not update the values ​​in the array.
+     * A new array summing up every column, later updates do not change it
      * @return
      */
     public long[] getCurrentValue() {
-        return values.get();
+        long[] current = new long[values.length];
+        for (int k = 0; k < values.length; k++) {
+            current[k] = values[k].sum();
+        }
+        return current;
     }
 }
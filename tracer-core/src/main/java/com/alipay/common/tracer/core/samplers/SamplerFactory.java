@@ -61,6 +61,11 @@ public class SamplerFactory {
         if (StringUtils.isNotBlank(samplerProperties.getRuleClassName())) {
             return (Sampler) Class.forName(samplerProperties.getRuleClassName()).newInstance();
         }
+        // sampler selected by name
+        if (TraceIdHashSampler.TYPE.equalsIgnoreCase(SofaTracerConfiguration
+            .getSofaTracerSamplerStrategy())) {
+            return new TraceIdHashSampler(samplerProperties);
+        }
         // default instance
         return new SofaTracerPercentageBasedSampler(samplerProperties);
     }
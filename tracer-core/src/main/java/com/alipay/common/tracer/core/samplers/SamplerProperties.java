@@ -24,9 +24,8 @@ package com.alipay.common.tracer.core.samplers;
  */
 public class SamplerProperties {
     /**
-     * Percentage of requests that should be sampled. E.g. 1.0 - 100% requests should be
-     * sampled. The precision is whole-numbers only (i.e. there's no support for 1.0 of
-     * the traces).
+     * Percentage of requests that should be sampled. E.g. 100 - 100% requests should be
+     * sampled. Fractional values such as 0.05 are supported down to 0.0001%.
      */
     private float  percentage = 100;
 
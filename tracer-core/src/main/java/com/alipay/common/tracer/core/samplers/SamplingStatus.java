@@ -28,6 +28,20 @@ public class SamplingStatus {
      */
     private Map<String, Object> tags      = new HashMap<String, Object>();
 
+    public SamplingStatus() {
+    }
+
+    /**
+     * Used for statuses that samplers build once and share between decisions
+     *
+     * @param isSampled whether sampled
+     * @param tags      tags placed at the root span, should be unmodifiable
+     */
+    public SamplingStatus(boolean isSampled, Map<String, Object> tags) {
+        this.isSampled = isSampled;
+        this.tags = tags;
+    }
+
     public boolean isSampled() {
         return isSampled;
     }
@@ -24,47 +24,62 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * SofaTracerPercentageBasedSampler
  *
+ * <p>
+ * Whole percentages are decided by a shuffled 100-bit {@link BitSet}. Fractional percentages such
+ * as 0.05 are decided by a per-thread counter with a resolution of {@link #RATE_SCALE}, which samples
+ * exactly that many of every {@link #RATE_SCALE} root spans of a thread, evenly spread.
+ *
+ * Both outcomes are built once per percentage, so a decision allocates nothing. The returned
+ * {@link SamplingStatus} instances are shared and must not be modified.
+ * </p>
+ *
  * @author yangguanchao
  * @since  2017/06/19
  */
 public class SofaTracerPercentageBasedSampler implements Sampler {
 
-    public static final String      TYPE    = "PercentageBasedSampler";
+    public static final String                      TYPE             = "PercentageBasedSampler";
+
+    /**
+     * Fractional percentages are sampled per million root spans, i.e. down to 0.0001%
+     */
+    public static final int                         RATE_SCALE       = 1000000;
+
+    private static final ThreadLocal<FractionCounter> FRACTION_COUNTER = ThreadLocal
+                                                                         .withInitial(FractionCounter::new);
 
-    private final AtomicLong        counter = new AtomicLong(0);
-    private final BitSet            sampleDecisions;
-    private final SamplerProperties configuration;
+    private final AtomicLong                        counter          = new AtomicLong(0);
+    private final SamplerProperties                 configuration;
+
+    /**
+     * Rebuilt only when the configured percentage changes
+     */
+    private volatile Decision                       decision;
 
     public SofaTracerPercentageBasedSampler(SamplerProperties configuration) {
-        int outOf100 = (int) (configuration.getPercentage());
-        this.sampleDecisions = randomBitSet(100, outOf100, new Random());
+        if (configuration.getPercentage() < 0) {
+            throw new IllegalArgumentException("Sampling percentage must not be negative: "
+                                               + configuration.getPercentage());
+        }
         this.configuration = configuration;
+        this.decision = new Decision(configuration.getPercentage());
     }
 
     @Override
     public SamplingStatus sample(SofaTracerSpan sofaTracerSpan) {
-        SamplingStatus samplingStatus = new SamplingStatus();
-        Map<String, Object> tags = new HashMap<String, Object>();
-        tags.put(SofaTracerConstant.SAMPLER_TYPE_TAG_KEY, TYPE);
-        tags.put(SofaTracerConstant.SAMPLER_PARAM_TAG_KEY, configuration.getPercentage());
-        tags = Collections.unmodifiableMap(tags);
-        samplingStatus.setTags(tags);
-
-        if (this.configuration.getPercentage() == 0) {
-            samplingStatus.setSampled(false);
-            return samplingStatus;
-        } else if (this.configuration.getPercentage() == 100) {
-            samplingStatus.setSampled(true);
-            return samplingStatus;
+        Decision current = this.decision;
+        float percentage = this.configuration.getPercentage();
+        if (Float.compare(percentage, current.percentage) != 0) {
+            current = new Decision(percentage);
+            this.decision = current;
         }
-        boolean result = this.sampleDecisions.get((int) (this.counter.getAndIncrement() % 100));
-        samplingStatus.setSampled(result);
-        return samplingStatus;
+        return current.decide() ? current.sampled : current.notSampled;
     }
 
     @Override
@@ -77,6 +92,73 @@ public class SofaTracerPercentageBasedSampler implements Sampler {
         //do nothing
     }
 
+    /**
+     * Decision state and precomputed outcomes of one percentage
+     */
+    private class Decision {
+
+        private final float          percentage;
+        private final SamplingStatus sampled;
+        private final SamplingStatus notSampled;
+        /**
+         * Set for whole percentages
+         */
+        private final BitSet         sampleDecisions;
+        /**
+         * Sampled root spans per {@link #RATE_SCALE}, for fractional percentages
+         */
+        private final int            threshold;
+
+        Decision(float percentage) {
+            this.percentage = percentage;
+            Map<String, Object> tags = new HashMap<String, Object>();
+            tags.put(SofaTracerConstant.SAMPLER_TYPE_TAG_KEY, TYPE);
+            tags.put(SofaTracerConstant.SAMPLER_PARAM_TAG_KEY, percentage);
+            tags = Collections.unmodifiableMap(tags);
+            this.sampled = new SamplingStatus(true, tags);
+            this.notSampled = new SamplingStatus(false, tags);
+
+            if (percentage > 0 && percentage < 100 && percentage == (int) percentage) {
+                this.sampleDecisions = randomBitSet(100, (int) percentage, new Random());
+                this.threshold = 0;
+            } else {
+                this.sampleDecisions = null;
+                this.threshold = (int) Math.round((double) percentage * RATE_SCALE / 100);
+            }
+        }
+
+        boolean decide() {
+            if (percentage <= 0) {
+                return false;
+            } else if (percentage >= 100) {
+                return true;
+            } else if (sampleDecisions != null) {
+                return sampleDecisions.get((int) (counter.getAndIncrement() % 100));
+            }
+            return FRACTION_COUNTER.get().next(threshold);
+        }
+    }
+
+    /**
+     * Position of a thread in the current {@link #RATE_SCALE} cycle. The position moves by the
+     * threshold per root span and a span is sampled whenever it wraps, so exactly threshold spans
+     * of every cycle are sampled. The random start keeps threads from sampling in lockstep.
+     */
+    static class FractionCounter {
+
+        private long count;
+
+        private final long offset = ThreadLocalRandom.current().nextInt(RATE_SCALE);
+
+        boolean next(int threshold) {
+            long position = (count * threshold + offset) % RATE_SCALE;
+            if (++count == RATE_SCALE) {
+                count = 0;
+            }
+            return position < threshold;
+        }
+    }
+
     /**
      * Reservoir sampling algorithm borrowed from Stack Overflow.
      * <p>
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.samplers;
+
+import com.alipay.common.tracer.core.constants.SofaTracerConstant;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * TraceIdHashSampler
+ *
+ * <p>
+ * Decides from a hash of the trace ID instead of a local counter, so every service configured with
+ * the same percentage makes the same decision for a trace without propagating it, and a service
+ * with a higher percentage samples a superset of the traces sampled by one with a lower percentage.
+ *
+ * The hash is the 64-bit FNV-1a of the trace ID chars finished with the MurmurHash3 fmix64 step.
+ * A trace is sampled when the hash, as an unsigned number modulo {@link #RATE_SCALE}, is below
+ * percentage * {@link #RATE_SCALE} / 100. Other implementations have to follow the same steps.
+ * </p>
+ *
+ * @since 3.1.10
+ */
+public class TraceIdHashSampler implements Sampler {
+
+    public static final String      TYPE       = "TraceIdHashSampler";
+
+    /**
+     * Percentages are applied per million trace IDs, i.e. down to 0.0001%
+     */
+    public static final int         RATE_SCALE = 1000000;
+
+    private static final long       FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long       FNV_PRIME  = 0x100000001b3L;
+
+    private final SamplerProperties configuration;
+
+    /**
+     * Rebuilt only when the configured percentage changes
+     */
+    private volatile Decision       decision;
+
+    public TraceIdHashSampler(SamplerProperties configuration) {
+        if (configuration.getPercentage() < 0) {
+            throw new IllegalArgumentException("Sampling percentage must not be negative: "
+                                               + configuration.getPercentage());
+        }
+        this.configuration = configuration;
+        this.decision = new Decision(configuration.getPercentage());
+    }
+
+    @Override
+    public SamplingStatus sample(SofaTracerSpan sofaTracerSpan) {
+        Decision current = this.decision;
+        float percentage = this.configuration.getPercentage();
+        if (Float.compare(percentage, current.percentage) != 0) {
+            current = new Decision(percentage);
+            this.decision = current;
+        }
+        String traceId = sofaTracerSpan.getSofaTracerSpanContext().getTraceId();
+        return current.decide(traceId) ? current.sampled : current.notSampled;
+    }
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    @Override
+    public void close() {
+        //do nothing
+    }
+
+    /**
+     * @param traceId trace ID
+     * @return position of the trace ID in [0, {@link #RATE_SCALE})
+     */
+    public static int bucketOf(String traceId) {
+        long hash = FNV_OFFSET;
+        if (traceId != null) {
+            for (int i = 0; i < traceId.length(); i++) {
+                hash ^= traceId.charAt(i);
+                hash *= FNV_PRIME;
+            }
+        }
+        // fmix64, spreads the low bits FNV leaves correlated for IDs differing only in their tail
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (int) Long.remainderUnsigned(hash, RATE_SCALE);
+    }
+
+    /**
+     * Threshold and precomputed outcomes of one percentage
+     */
+    private static class Decision {
+
+        private final float          percentage;
+        private final int            threshold;
+        private final SamplingStatus sampled;
+        private final SamplingStatus notSampled;
+
+        Decision(float percentage) {
+            this.percentage = percentage;
+            this.threshold = (int) Math.min(RATE_SCALE,
+                Math.round((double) percentage * RATE_SCALE / 100));
+            Map<String, Object> tags = new HashMap<String, Object>();
+            tags.put(SofaTracerConstant.SAMPLER_TYPE_TAG_KEY, TYPE);
+            tags.put(SofaTracerConstant.SAMPLER_PARAM_TAG_KEY, percentage);
+            tags = Collections.unmodifiableMap(tags);
+            this.sampled = new SamplingStatus(true, tags);
+            this.notSampled = new SamplingStatus(false, tags);
+        }
+
+        boolean decide(String traceId) {
+            if (threshold <= 0) {
+                return false;
+            } else if (threshold >= RATE_SCALE) {
+                return true;
+            }
+            return bucketOf(traceId) < threshold;
+        }
+    }
+}
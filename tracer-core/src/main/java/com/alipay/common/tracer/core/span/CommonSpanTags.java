@@ -159,6 +159,19 @@ public class CommonSpanTags {
      */
     public static final String TOTAL_COST_MILLISECONDS = "total.cost.milliseconds";
 
+    /**
+     * P50_COST_MILLISECONDS ... MAX_COST_MILLISECONDS are the span's stat log keys for the latency percentiles
+     */
+    public static final String P50_COST_MILLISECONDS   = "p50.cost.milliseconds";
+
+    public static final String P90_COST_MILLISECONDS   = "p90.cost.milliseconds";
+
+    public static final String P99_COST_MILLISECONDS   = "p99.cost.milliseconds";
+
+    public static final String P999_COST_MILLISECONDS  = "p999.cost.milliseconds";
+
+    public static final String MAX_COST_MILLISECONDS   = "max.cost.milliseconds";
+
     /**
      * STAT_KEY is the span's stat log key for stat.key
      */
@@ -217,4 +230,24 @@ public class CommonSpanTags {
      */
     public static final String KAFKA_OFFSET            = "kafka.offset";
 
+    /**
+     * MSG_BATCH_COUNT records the number of messages traced by a batch consume span.
+     */
+    public static final String MSG_BATCH_COUNT         = "msg.batch.count";
+
+    /**
+     * MSG_BATCH_BYTES records the serialized size of the batch.
+     */
+    public static final String MSG_BATCH_BYTES         = "msg.batch.bytes";
+
+    /**
+     * MSG_BATCH_DISTRIBUTION records the message count per partition or queue.
+     */
+    public static final String MSG_BATCH_DISTRIBUTION  = "msg.batch.distribution";
+
+    /**
+     * MSG_BATCH_LINKS records traceId:spanId of the sampled upstream traces in the batch.
+     */
+    public static final String MSG_BATCH_LINKS         = "msg.batch.links";
+
 }
\ No newline at end of file
@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.span;
+
+import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
+import com.alipay.common.tracer.core.utils.StringUtils;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * MessageBatchSummary
+ * <p>
+ * Aggregates a consumed message batch into the tags of a single span: record count, byte total,
+ * per partition or queue distribution and links to the sampled upstream traces.
+ * Used by one consumer thread at a time, not thread safe.
+ * </p>
+ * @since 3.1.10
+ */
+public class MessageBatchSummary {
+
+    /**
+     * Topic pattern that puts every topic into batch mode
+     */
+    public static final String       ALL_TOPICS        = "*";
+
+    public static final int          DEFAULT_MAX_LINKS = 32;
+
+    /**
+     * Separates the entries of the distribution, links and topic values, ',' is the digest log
+     * column separator
+     */
+    public static final char         ENTRY_SEPARATOR   = ';';
+
+    /**
+     * Upstream contexts examined per link slot, bounds the extraction cost when most upstream
+     * traces are not sampled
+     */
+    public static final int          ATTEMPTS_PER_LINK = 2;
+
+    private final int                maxLinks;
+
+    private final int                maxLinkAttempts;
+
+    private final Map<String, int[]> distribution      = new LinkedHashMap<>();
+
+    private final StringBuilder      links             = new StringBuilder();
+
+    private int                      count;
+
+    private long                     bytes;
+
+    private int                      linkCount;
+
+    private int                      linkAttempts;
+
+    public MessageBatchSummary() {
+        this(DEFAULT_MAX_LINKS);
+    }
+
+    public MessageBatchSummary(int maxLinks) {
+        this.maxLinks = Math.max(0, maxLinks);
+        this.maxLinkAttempts = this.maxLinks * ATTEMPTS_PER_LINK;
+    }
+
+    /**
+     * Account one message of the batch
+     *
+     * @param partition partition or queue the message was read from
+     * @param size      serialized size in bytes, negative when unknown
+     */
+    public void add(String partition, long size) {
+        count++;
+        if (size > 0) {
+            bytes += size;
+        }
+        int[] counter = distribution.get(partition);
+        if (counter == null) {
+            distribution.put(partition, new int[] { 1 });
+        } else {
+            counter[0]++;
+        }
+    }
+
+    /**
+     * Callers can skip extracting upstream contexts once this returns false, either all link
+     * slots are used or {@link #ATTEMPTS_PER_LINK} contexts per slot have been examined
+     *
+     * @return whether another link would still be recorded
+     */
+    public boolean acceptsLinks() {
+        return linkCount < maxLinks && linkAttempts < maxLinkAttempts;
+    }
+
+    /**
+     * Link the batch to an upstream trace, only sampled contexts are kept. Every call counts as
+     * one extraction attempt, whether the context is kept or not
+     *
+     * @param spanContext context extracted from the message, may be null
+     */
+    public void link(SofaTracerSpanContext spanContext) {
+        if (!acceptsLinks()) {
+            return;
+        }
+        linkAttempts++;
+        if (spanContext == null || !spanContext.isSampled()
+            || StringUtils.isBlank(spanContext.getTraceId())) {
+            return;
+        }
+        if (linkCount > 0) {
+            links.append(ENTRY_SEPARATOR);
+        }
+        links.append(spanContext.getTraceId()).append(':').append(spanContext.getSpanId());
+        linkCount++;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public int getLinkCount() {
+        return linkCount;
+    }
+
+    /**
+     * @return distribution as "partition:count" pairs separated by {@link #ENTRY_SEPARATOR}, in
+     *         the order partitions were first seen
+     */
+    public String getDistribution() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, int[]> entry : distribution.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(ENTRY_SEPARATOR);
+            }
+            sb.append(entry.getKey()).append(':').append(entry.getValue()[0]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return "traceId:spanId" pairs separated by {@link #ENTRY_SEPARATOR}
+     */
+    public String getLinks() {
+        return links.toString();
+    }
+
+    /**
+     * Write the summary into the batch span tags
+     *
+     * @param span batch span
+     */
+    public void applyTo(SofaTracerSpan span) {
+        span.setTag(CommonSpanTags.MSG_BATCH_COUNT, count);
+        span.setTag(CommonSpanTags.MSG_BATCH_BYTES, bytes);
+        span.setTag(CommonSpanTags.MSG_BATCH_DISTRIBUTION, getDistribution());
+        if (linkCount > 0) {
+            span.setTag(CommonSpanTags.MSG_BATCH_LINKS, getLinks());
+        }
+    }
+
+    /**
+     * Parse a comma separated topic list, {@link #ALL_TOPICS} matches every topic
+     *
+     * @param topics configured value, may be blank
+     * @return immutable topic set, empty when nothing is configured
+     */
+    public static Set<String> parseTopics(String topics) {
+        if (StringUtils.isBlank(topics)) {
+            return Collections.emptySet();
+        }
+        Set<String> result = new HashSet<>();
+        for (String topic : topics.split(",")) {
+            if (StringUtils.isNotBlank(topic)) {
+                result.add(topic.trim());
+            }
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * @param batchTopics set returned by {@link #parseTopics(String)}
+     * @param topic       topic of the consumed message
+     * @return whether messages of the topic are traced as one span per batch
+     */
+    public static boolean isBatchTopic(Set<String> batchTopics, String topic) {
+        return !batchTopics.isEmpty()
+               && (batchTopics.contains(ALL_TOPICS) || batchTopics.contains(topic));
+    }
+}
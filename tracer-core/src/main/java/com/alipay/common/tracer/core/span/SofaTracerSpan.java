@@ -18,6 +18,7 @@ package com.alipay.common.tracer.core.span;
 
 import com.alipay.common.tracer.core.SofaTracer;
 import com.alipay.common.tracer.core.appender.self.SelfLog;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
 import com.alipay.common.tracer.core.constants.SofaTracerConstant;
 import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
 import com.alipay.common.tracer.core.extensions.SpanExtensionFactory;
@@ -40,6 +41,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * SofaTracerSpan
@@ -54,23 +56,38 @@ public class SofaTracerSpan implements Span {
      */
     public static final char                                ARRAY_SEPARATOR      = '|';
 
+    private static final byte                               KIND_NONE            = 0;
+
+    private static final byte                               KIND_SERVER          = 1;
+
+    private static final byte                               KIND_CLIENT          = 2;
+
+    private static final long                               NO_NANO_TIME         = Long.MIN_VALUE;
+
     private final SofaTracer                                sofaTracer;
 
     private final List<SofaTracerSpanReferenceRelationship> spanReferences;
+    /**
+     * All tags in compact storage mode, null otherwise
+     */
+    private final SpanTagTable                              tagTable;
     /**
      * tags for String
      */
-    private final Map<String, String>                       tagsWithStr          = new ConcurrentHashMap<>();
+    private final Map<String, String>                       tagsWithStr;
     /**
      * tags for Boolean
      */
-    private final Map<String, Boolean>                      tagsWithBool         = new ConcurrentHashMap<>();
+    private final Map<String, Boolean>                      tagsWithBool;
     /**
      * tags for Number
      */
-    private final Map<String, Number>                       tagsWithNumber       = new ConcurrentHashMap<>();
+    private final Map<String, Number>                       tagsWithNumber;
 
-    private final ConcurrentLinkedQueue<LogData>            logs                 = new ConcurrentLinkedQueue<>();
+    /**
+     * Allocated with the first log, most spans have none
+     */
+    private volatile ConcurrentLinkedQueue<LogData>         logs;
 
     private SpanEventData                                   eventData;
 
@@ -81,6 +98,16 @@ public class SofaTracerSpan implements Span {
     private long                                            startTime;
     private long                                            endTime              = -1;
 
+    /**
+     * {@link System#nanoTime()} at the start time, only known when the span started just now
+     */
+    private long                                            startNanoTime        = NO_NANO_TIME;
+
+    /**
+     * Measured with {@link System#nanoTime()} by {@link #finish()}, -1 otherwise
+     */
+    private long                                            durationNanos        = -1;
+
     /**
      * Only meaningful when reporting
      * Digest log type,The logs correctly printed key information.
@@ -88,6 +115,11 @@ public class SofaTracerSpan implements Span {
      */
     private String                                          logType              = StringUtils.EMPTY_STRING;
 
+    /**
+     * Resolved from the span.kind tag when it is set, so other tags do not look it up
+     */
+    private byte                                            spanKind             = KIND_NONE;
+
     /**
      * parent span. Describe the child-of relationship
      */
@@ -106,12 +138,15 @@ public class SofaTracerSpan implements Span {
         tags.putAll(this.tagsWithNumber);
         SofaTracerSpan cloneSpan = new SofaTracerSpan(this.sofaTracer, this.startTime,
             this.spanReferences, this.operationName, spanContext, tags);
-        if (this.logs != null && this.logs.size() > 0) {
-            for (LogData logData : this.logs) {
+        ConcurrentLinkedQueue<LogData> logs = this.logs;
+        if (logs != null && logs.size() > 0) {
+            for (LogData logData : logs) {
                 cloneSpan.log(logData);
             }
         }
         cloneSpan.setEndTime(this.endTime);
+        cloneSpan.startNanoTime = this.startNanoTime;
+        cloneSpan.durationNanos = this.durationNanos;
         cloneSpan.setLogType(this.logType);
         cloneSpan.setParentSofaTracerSpan(this.parentSofaTracerSpan);
 
@@ -156,7 +191,18 @@ public class SofaTracerSpan implements Span {
         AssertUtils.notNull(sofaTracer);
         AssertUtils.notNull(sofaTracerSpanContext);
         this.sofaTracer = sofaTracer;
-        this.startTime = startTime;
+        if (SofaTracerConfiguration.getSnapshot().isCompactSpanStorage()) {
+            this.tagTable = new SpanTagTable();
+            this.tagsWithStr = tagTable.view(SpanTagTable.GROUP_STR);
+            this.tagsWithBool = tagTable.view(SpanTagTable.GROUP_BOOL);
+            this.tagsWithNumber = tagTable.view(SpanTagTable.GROUP_NUMBER);
+        } else {
+            this.tagTable = null;
+            this.tagsWithStr = new ConcurrentHashMap<>();
+            this.tagsWithBool = new ConcurrentHashMap<>();
+            this.tagsWithNumber = new ConcurrentHashMap<>();
+        }
+        this.setStartTime(startTime);
         this.spanReferences = spanReferences != null ? new ArrayList<>(spanReferences) : null;
         this.operationName = operationName;
         this.sofaTracerSpanContext = sofaTracerSpanContext;
@@ -172,12 +218,24 @@ public class SofaTracerSpan implements Span {
 
     @Override
     public void finish() {
-        this.finish(System.currentTimeMillis());
+        if (this.startNanoTime == NO_NANO_TIME) {
+            this.finish(System.currentTimeMillis());
+            return;
+        }
+        // the end time follows the monotonic clock, so a clock step never makes it negative
+        long elapsedNanos = System.nanoTime() - this.startNanoTime;
+        this.endTime = this.startTime + TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        this.durationNanos = elapsedNanos;
+        this.report();
     }
 
     @Override
     public void finish(long endTime) {
         this.setEndTime(endTime);
+        this.report();
+    }
+
+    private void report() {
         //Key record:report span
         this.sofaTracer.reportSpan(this);
         SpanExtensionFactory.logStoppedSpan(this);
@@ -215,25 +273,45 @@ public class SofaTracerSpan implements Span {
         if (StringUtils.isBlank(key) || StringUtils.isBlank(value)) {
             return this;
         }
-        this.tagsWithStr.put(key, value);
-        //to set log type by span kind type
-        if (isServer()) {
+        if (tagTable != null) {
+            tagTable.putString(key, value);
+        } else {
+            this.tagsWithStr.put(key, value);
+        }
+        if (Tags.SPAN_KIND.getKey().equals(key)) {
+            setSpanKind(value);
+        }
+        return this;
+    }
+
+    /**
+     * Cache the span kind and set the log type by it
+     */
+    private void setSpanKind(String kind) {
+        if (Tags.SPAN_KIND_SERVER.equals(kind)) {
+            this.spanKind = KIND_SERVER;
             Reporter serverReporter = this.sofaTracer.getServerReporter();
             if (serverReporter != null) {
                 this.setLogType(serverReporter.getReporterType());
             }
-        } else if (isClient()) {
+        } else if (Tags.SPAN_KIND_CLIENT.equals(kind)) {
+            this.spanKind = KIND_CLIENT;
             Reporter clientReporter = this.sofaTracer.getClientReporter();
             if (clientReporter != null) {
                 this.setLogType(clientReporter.getReporterType());
             }
+        } else {
+            this.spanKind = KIND_NONE;
         }
-        return this;
     }
 
     @Override
     public Span setTag(String key, boolean value) {
-        this.tagsWithBool.put(key, value);
+        if (tagTable != null) {
+            tagTable.putBoolean(key, value);
+        } else {
+            this.tagsWithBool.put(key, value);
+        }
         return this;
     }
 
@@ -242,7 +320,11 @@ public class SofaTracerSpan implements Span {
         if (number == null) {
             return this;
         }
-        this.tagsWithNumber.put(key, number);
+        if (tagTable != null) {
+            tagTable.putNumber(key, number);
+        } else {
+            this.tagsWithNumber.put(key, number);
+        }
         return this;
     }
 
@@ -270,14 +352,14 @@ public class SofaTracerSpan implements Span {
         if (logData == null) {
             return this;
         }
-        this.logs.add(logData);
+        this.logs().add(logData);
         return this;
     }
 
     @Override
     public Span log(long currentTime, Map<String, ?> map) {
         AssertUtils.isTrue(currentTime >= startTime, "current time must greater than start time");
-        this.logs.add(new LogData(currentTime, map));
+        this.logs().add(new LogData(currentTime, map));
         return this;
     }
 
@@ -400,7 +482,8 @@ public class SofaTracerSpan implements Span {
     /**
      * Return itself as the parent of the next context
      * <p>
-     * Use countMatches to count . for higher performance, see performance test data for com.alipay.common.tracer.benchmark.CountBenchmark
+     * The depth is read from the structured span ID, span IDs that are not dotted numbers are counted
+     * with countMatches, see com.alipay.common.tracer.benchmark.CountBenchmark
      * Preventing SofaTracerSpan from nesting too deeply causes a memory leak.
      * This time recreates a context so that the above context can be released.
      * </p>
@@ -409,8 +492,7 @@ public class SofaTracerSpan implements Span {
      */
     public SofaTracerSpan getThisAsParentWhenExceedLayer() {
         final SofaTracerSpan parent;
-        String rpcId = this.sofaTracerSpanContext.getSpanId();
-        if (StringUtils.countMatches(rpcId, '.') + 1 > SofaTracerConstant.MAX_LAYER) {
+        if (this.sofaTracerSpanContext.getSpanDepth() > SofaTracerConstant.MAX_LAYER) {
             SofaTracerSpanContext parentSpanContext = SofaTracerSpanContext.rootStart();
             // discard tags
             Map<String, String> baggage = new HashMap<>();
@@ -468,6 +550,10 @@ public class SofaTracerSpan implements Span {
      */
     public void setStartTime(long startTime) {
         this.startTime = startTime;
+        // a start time taken just before is anchored to the monotonic clock
+        long nanoTime = System.nanoTime();
+        long delay = System.currentTimeMillis() - startTime;
+        this.startNanoTime = delay >= 0 && delay <= 1 ? nanoTime : NO_NANO_TIME;
     }
 
     /**
@@ -486,15 +572,20 @@ public class SofaTracerSpan implements Span {
      */
     public void setEndTime(long endTime) {
         this.endTime = endTime;
+        this.durationNanos = -1;
     }
 
     /**
-     * Gets duration microseconds.
+     * Gets duration microseconds, measured with {@link System#nanoTime()} when the span started
+     * and finished without explicit timestamps, otherwise derived from the millisecond times.
      *
      * @return the duration microseconds
      */
     public long getDurationMicroseconds() {
-        return this.endTime - this.startTime;
+        if (this.durationNanos >= 0) {
+            return TimeUnit.NANOSECONDS.toMicros(this.durationNanos);
+        }
+        return TimeUnit.MILLISECONDS.toMicros(this.endTime - this.startTime);
     }
 
     /**
@@ -548,7 +639,31 @@ public class SofaTracerSpan implements Span {
      * @return the logs
      */
     public ConcurrentLinkedQueue<LogData> getLogs() {
-        return logs;
+        return logs();
+    }
+
+    /**
+     * Whether any log was recorded, unlike {@link #getLogs()} it never allocates the log queue
+     *
+     * @return true if the span has logs
+     */
+    public boolean hasLogs() {
+        ConcurrentLinkedQueue<LogData> current = this.logs;
+        return current != null && !current.isEmpty();
+    }
+
+    private ConcurrentLinkedQueue<LogData> logs() {
+        ConcurrentLinkedQueue<LogData> current = this.logs;
+        if (current == null) {
+            synchronized (this) {
+                current = this.logs;
+                if (current == null) {
+                    current = new ConcurrentLinkedQueue<>();
+                    this.logs = current;
+                }
+            }
+        }
+        return current;
     }
 
     /**
@@ -614,7 +729,7 @@ public class SofaTracerSpan implements Span {
      * @return the boolean
      */
     public boolean isServer() {
-        return Tags.SPAN_KIND_SERVER.equals(tagsWithStr.get(Tags.SPAN_KIND.getKey()));
+        return spanKind == KIND_SERVER;
     }
 
     /**
@@ -623,7 +738,7 @@ public class SofaTracerSpan implements Span {
      * @return the boolean
      */
     public boolean isClient() {
-        return Tags.SPAN_KIND_CLIENT.equals(tagsWithStr.get(Tags.SPAN_KIND.getKey()));
+        return spanKind == KIND_CLIENT;
     }
 
     private void setTags(Map<String, ?> tags) {
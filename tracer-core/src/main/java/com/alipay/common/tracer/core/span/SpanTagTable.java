@@ -0,0 +1,403 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.span;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * SpanTagTable
+ * <p>
+ * All tags of a span in one open-addressed table with linear probing, used instead of one
+ * ConcurrentHashMap per tag type in the compact span storage mode. String, boolean and number tags
+ * keep separate namespaces like the maps they replace, and booleans and int, long and double numbers
+ * are stored without their boxes. A span without tags only costs the arrays of {@link #INITIAL_CAPACITY} slots.
+ *
+ * Not thread safe: a span in compact mode has to be tagged by one thread at a time. The reporter
+ * threads read it after it was handed over through the ring buffer.
+ * </p>
+ * @since 3.1.10
+ */
+final class SpanTagTable {
+
+    static final int          GROUP_STR        = 0;
+    static final int          GROUP_BOOL       = 1;
+    static final int          GROUP_NUMBER     = 2;
+
+    static final int          INITIAL_CAPACITY = 16;
+
+    private static final byte KIND_STR         = 1;
+    private static final byte KIND_BOOL        = 2;
+    private static final byte KIND_INT         = 3;
+    private static final byte KIND_LONG        = 4;
+    private static final byte KIND_DOUBLE      = 5;
+    /**
+     * Numbers of other types, stored as they are to keep their type and precision
+     */
+    private static final byte KIND_NUMBER      = 6;
+
+    private String[]          keys             = new String[INITIAL_CAPACITY];
+    private byte[]            kinds            = new byte[INITIAL_CAPACITY];
+    private Object[]          refs             = new Object[INITIAL_CAPACITY];
+    /**
+     * Unboxed values, allocated with the first boolean or number tag
+     */
+    private long[]            bits;
+
+    private int               size;
+    private final int[]       groupSizes       = new int[3];
+
+    String getString(String key) {
+        int slot = find(key, GROUP_STR);
+        return slot < 0 ? null : (String) refs[slot];
+    }
+
+    void putString(String key, String value) {
+        int slot = insert(key, GROUP_STR);
+        kinds[slot] = KIND_STR;
+        refs[slot] = value;
+    }
+
+    void putBoolean(String key, boolean value) {
+        int slot = insert(key, GROUP_BOOL);
+        kinds[slot] = KIND_BOOL;
+        bits()[slot] = value ? 1L : 0L;
+    }
+
+    void putNumber(String key, Number value) {
+        int slot = insert(key, GROUP_NUMBER);
+        Class<?> type = value.getClass();
+        if (type == Integer.class) {
+            kinds[slot] = KIND_INT;
+            bits()[slot] = value.intValue();
+            refs[slot] = null;
+        } else if (type == Long.class) {
+            kinds[slot] = KIND_LONG;
+            bits()[slot] = value.longValue();
+            refs[slot] = null;
+        } else if (type == Double.class) {
+            kinds[slot] = KIND_DOUBLE;
+            bits()[slot] = Double.doubleToRawLongBits(value.doubleValue());
+            refs[slot] = null;
+        } else {
+            kinds[slot] = KIND_NUMBER;
+            refs[slot] = value;
+        }
+    }
+
+    Object get(String key, int group) {
+        int slot = find(key, group);
+        return slot < 0 ? null : valueAt(slot);
+    }
+
+    Object remove(String key, int group) {
+        int slot = find(key, group);
+        if (slot < 0) {
+            return null;
+        }
+        Object old = valueAt(slot);
+        delete(slot);
+        return old;
+    }
+
+    int size(int group) {
+        return groupSizes[group];
+    }
+
+    /**
+     * @param group tag type
+     * @return live map of the tags of the type
+     */
+    <V> Map<String, V> view(int group) {
+        return new View<V>(group);
+    }
+
+    private long[] bits() {
+        if (bits == null) {
+            bits = new long[keys.length];
+        }
+        return bits;
+    }
+
+    private Object valueAt(int slot) {
+        switch (kinds[slot]) {
+            case KIND_BOOL:
+                return bits[slot] != 0L;
+            case KIND_INT:
+                return (int) bits[slot];
+            case KIND_LONG:
+                return bits[slot];
+            case KIND_DOUBLE:
+                return Double.longBitsToDouble(bits[slot]);
+            default:
+                return refs[slot];
+        }
+    }
+
+    private static int groupOf(byte kind) {
+        return kind == KIND_STR ? GROUP_STR : kind == KIND_BOOL ? GROUP_BOOL : GROUP_NUMBER;
+    }
+
+    private static int home(String key, int group, int mask) {
+        int h = key.hashCode() * 31 + group;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private int find(String key, int group) {
+        if (key == null) {
+            return -1;
+        }
+        int mask = keys.length - 1;
+        for (int i = home(key, group, mask);; i = (i + 1) & mask) {
+            String k = keys[i];
+            if (k == null) {
+                return -1;
+            }
+            if (groupOf(kinds[i]) == group && k.equals(key)) {
+                return i;
+            }
+        }
+    }
+
+    /**
+     * @return slot of the key, a new one if the key is absent
+     */
+    private int insert(String key, int group) {
+        int slot = find(key, group);
+        if (slot >= 0) {
+            return slot;
+        }
+        // keep the table at most 3/4 full
+        if ((size + 1) * 4 > keys.length * 3) {
+            resize(keys.length << 1);
+        }
+        int mask = keys.length - 1;
+        int i = home(key, group, mask);
+        while (keys[i] != null) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        // the kind is set by the caller, it only has to be in the right group until then
+        kinds[i] = group == GROUP_STR ? KIND_STR : group == GROUP_BOOL ? KIND_BOOL : KIND_NUMBER;
+        size++;
+        groupSizes[group]++;
+        return i;
+    }
+
+    private void resize(int capacity) {
+        String[] oldKeys = keys;
+        byte[] oldKinds = kinds;
+        Object[] oldRefs = refs;
+        long[] oldBits = bits;
+        keys = new String[capacity];
+        kinds = new byte[capacity];
+        refs = new Object[capacity];
+        bits = oldBits == null ? null : new long[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == null) {
+                continue;
+            }
+            int i = home(oldKeys[j], groupOf(oldKinds[j]), mask);
+            while (keys[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            kinds[i] = oldKinds[j];
+            refs[i] = oldRefs[j];
+            if (oldBits != null) {
+                bits[i] = oldBits[j];
+            }
+        }
+    }
+
+    /**
+     * Backward shift deletion: entries of the cluster after the slot that may not stay behind the
+     * gap are moved into it, so lookups never need tombstones
+     */
+    private void delete(int slot) {
+        size--;
+        groupSizes[groupOf(kinds[slot])]--;
+        int mask = keys.length - 1;
+        int gap = slot;
+        for (int j = (gap + 1) & mask; keys[j] != null; j = (j + 1) & mask) {
+            int home = home(keys[j], groupOf(kinds[j]), mask);
+            boolean homeInRange = gap <= j ? gap < home && home <= j : gap < home || home <= j;
+            if (!homeInRange) {
+                keys[gap] = keys[j];
+                kinds[gap] = kinds[j];
+                refs[gap] = refs[j];
+                if (bits != null) {
+                    bits[gap] = bits[j];
+                }
+                gap = j;
+            }
+        }
+        keys[gap] = null;
+        kinds[gap] = 0;
+        refs[gap] = null;
+    }
+
+    /**
+     * Map view of one tag type, backing the getTagsWithXxx methods of the span
+     */
+    private final class View<V> extends AbstractMap<String, V> {
+
+        private final int group;
+
+        View(int group) {
+            this.group = group;
+        }
+
+        @Override
+        public int size() {
+            return groupSizes[group];
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && find((String) key, group) >= 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V get(Object key) {
+            return key instanceof String ? (V) SpanTagTable.this.get((String) key, group) : null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V put(String key, V value) {
+            if (key == null || value == null) {
+                throw new NullPointerException();
+            }
+            V old = (V) SpanTagTable.this.get(key, group);
+            if (group == GROUP_STR) {
+                putString(key, (String) value);
+            } else if (group == GROUP_BOOL) {
+                putBoolean(key, (Boolean) value);
+            } else {
+                putNumber(key, (Number) value);
+            }
+            return old;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V remove(Object key) {
+            return key instanceof String ? (V) SpanTagTable.this.remove((String) key, group)
+                : null;
+        }
+
+        @Override
+        public void clear() {
+            Iterator<Entry<String, V>> iterator = entrySet().iterator();
+            while (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+
+        @Override
+        public Set<Entry<String, V>> entrySet() {
+            return new AbstractSet<Entry<String, V>>() {
+                @Override
+                public Iterator<Entry<String, V>> iterator() {
+                    return new ViewIterator<V>(View.this);
+                }
+
+                @Override
+                public int size() {
+                    return groupSizes[group];
+                }
+            };
+        }
+    }
+
+    /**
+     * Starts after an empty slot and walks the table once, cyclically. Clusters never wrap around
+     * the start then, so the entries a removal shifts back were not visited yet.
+     */
+    private final class ViewIterator<V> implements Iterator<Map.Entry<String, V>> {
+
+        private final View<V> view;
+        private final int     start;
+        private int           visited;
+        private int           next    = -1;
+        private int           current = -1;
+
+        ViewIterator(View<V> view) {
+            this.view = view;
+            int empty = 0;
+            while (keys[empty] != null) {
+                empty++;
+            }
+            this.start = empty;
+            advance();
+        }
+
+        private void advance() {
+            int mask = keys.length - 1;
+            next = -1;
+            while (visited < keys.length) {
+                int i = (start + 1 + visited) & mask;
+                if (keys[i] != null && groupOf(kinds[i]) == view.group) {
+                    next = i;
+                    return;
+                }
+                visited++;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next >= 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<String, V> next() {
+            if (next < 0) {
+                throw new NoSuchElementException();
+            }
+            current = next;
+            Map.Entry<String, V> entry = new AbstractMap.SimpleImmutableEntry<String, V>(
+                keys[current], (V) valueAt(current));
+            visited++;
+            advance();
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            if (current < 0) {
+                throw new IllegalStateException();
+            }
+            delete(current);
+            // an entry shifted into the removed slot has not been returned yet
+            if (keys[current] != null) {
+                visited = (current - start - 1) & (keys.length - 1);
+                advance();
+            }
+            current = -1;
+        }
+    }
+}
@@ -108,7 +108,17 @@ public abstract class AbstractTracer {
      * @return              a new spam
      */
     public SofaTracerSpan clientSend(String operationName) {
-        SofaTraceContext sofaTraceContext = SofaTraceContextHolder.getSofaTraceContext();
+        return clientSend(operationName, SofaTraceContextHolder.getSofaTraceContext());
+    }
+
+    /**
+     * Stage CS with an explicit trace context, e.g. the one of a reactive request
+     *
+     * @param operationName    as span name
+     * @param sofaTraceContext context holding the parent span, the new span is pushed into it
+     * @return                 a new span
+     */
+    public SofaTracerSpan clientSend(String operationName, SofaTraceContext sofaTraceContext) {
         SofaTracerSpan serverSpan = sofaTraceContext.pop();
         SofaTracerSpan clientSpan = null;
         try {
@@ -148,7 +158,16 @@ public abstract class AbstractTracer {
      * @param resultCode resultCode to mark success or fail
      */
     public void clientReceive(String resultCode) {
-        SofaTraceContext sofaTraceContext = SofaTraceContextHolder.getSofaTraceContext();
+        clientReceive(resultCode, SofaTraceContextHolder.getSofaTraceContext());
+    }
+
+    /**
+     * Stage CR with an explicit trace context
+     *
+     * @param resultCode       resultCode to mark success or fail
+     * @param sofaTraceContext context the client span was pushed into
+     */
+    public void clientReceive(String resultCode, SofaTraceContext sofaTraceContext) {
         SofaTracerSpan clientSpan = sofaTraceContext.pop();
         if (clientSpan == null) {
             return;
@@ -197,9 +216,21 @@ public abstract class AbstractTracer {
      * @return SofaTracerSpan
      */
     public SofaTracerSpan serverReceive(SofaTracerSpanContext sofaTracerSpanContext) {
+        return serverReceive(sofaTracerSpanContext, SofaTraceContextHolder.getSofaTraceContext());
+    }
+
+    /**
+     * Stage SR with an explicit trace context, e.g. one bound to a reactive request instead of
+     * the current thread
+     *
+     * @param sofaTracerSpanContext The context to restore
+     * @param sofaTraceContext      context the new span is pushed into
+     * @return SofaTracerSpan
+     */
+    public SofaTracerSpan serverReceive(SofaTracerSpanContext sofaTracerSpanContext,
+                                        SofaTraceContext sofaTraceContext) {
         SofaTracerSpan newSpan = null;
         // pop LogContext
-        SofaTraceContext sofaTraceContext = SofaTraceContextHolder.getSofaTraceContext();
         SofaTracerSpan serverSpan = sofaTraceContext.pop();
         try {
             if (serverSpan == null) {
@@ -240,8 +271,17 @@ public abstract class AbstractTracer {
      * @param resultCode
      */
     public void serverSend(String resultCode) {
+        serverSend(resultCode, SofaTraceContextHolder.getSofaTraceContext());
+    }
+
+    /**
+     * Stage SS with an explicit trace context
+     *
+     * @param resultCode       resultCode
+     * @param sofaTraceContext context the server span was pushed into, cleared afterwards
+     */
+    public void serverSend(String resultCode, SofaTraceContext sofaTraceContext) {
         try {
-            SofaTraceContext sofaTraceContext = SofaTraceContextHolder.getSofaTraceContext();
             SofaTracerSpan serverSpan = sofaTraceContext.pop();
             if (serverSpan == null) {
                 return;
@@ -253,7 +293,7 @@ public abstract class AbstractTracer {
             serverSpan.finish();
         } finally {
             // clear TreadLocalContext
-            this.clearTreadLocalContext();
+            sofaTraceContext.clear();
         }
     }
 
@@ -264,15 +304,6 @@ public abstract class AbstractTracer {
             sofaTracerSpanContext, tags);
     }
 
-    /**
-     * Clean up all call context information: Note that the server can be cleaned up after receiving it;
-     * the client does not have the right time to clean up (can only judge size <= 1)
-     */
-    private void clearTreadLocalContext() {
-        SofaTraceContext sofaTraceContext = SofaTraceContextHolder.getSofaTraceContext();
-        sofaTraceContext.clear();
-    }
-
     /**
      *
      * When an error occurs to remedy, start counting from the root node
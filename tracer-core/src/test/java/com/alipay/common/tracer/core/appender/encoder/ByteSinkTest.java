@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.encoder;
+
+import com.alipay.common.tracer.core.appender.builder.XStringBuilder;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * @since 3.1.10
+ */
+public class ByteSinkTest {
+
+    @Test
+    public void testWriteUtf8SameAsGetBytes() {
+        String[] samples = new String[] { "", "ascii only,0.1.2", "中文日志", "é ñ ü",
+                "emoji 😀 end", "unpaired \uD800 high", "unpaired \uDC00 low",
+                "trailing high \uD83D" };
+        ByteSink sink = new ByteSink(4);
+        for (String sample : samples) {
+            sink.reset();
+            sink.writeUtf8(sample);
+            byte[] expected = sample.getBytes(StandardCharsets.UTF_8);
+            Assert.assertArrayEquals(sample, expected, Arrays.copyOf(sink.array(), sink.size()));
+        }
+    }
+
+    @Test
+    public void testAppendAndByteBuffer() {
+        ByteSink sink = new ByteSink();
+        sink.writeUtf8("a,").write("b".getBytes(StandardCharsets.UTF_8));
+        ByteBuffer buffer = sink.toByteBuffer();
+        Assert.assertEquals(0, buffer.position());
+        Assert.assertEquals(3, buffer.remaining());
+        Assert.assertSame(buffer, sink.toByteBuffer());
+    }
+
+    @Test
+    public void testResetReleasesHugeBuffer() {
+        ByteSink sink = new ByteSink();
+        char[] chars = new char[ByteSink.MAX_RETAINED_CAPACITY];
+        Arrays.fill(chars, 'x');
+        sink.writeUtf8(new String(chars));
+        Assert.assertTrue(sink.array().length > ByteSink.MAX_RETAINED_CAPACITY);
+        sink.reset();
+        Assert.assertEquals(0, sink.size());
+        Assert.assertEquals(ByteSink.DEFAULT_CAPACITY, sink.array().length);
+    }
+
+    @Test
+    public void testBuilderWriteTo() {
+        XStringBuilder xsb = new XStringBuilder();
+        xsb.append("2018-05-14 10:00:00.000").append("app").appendEnd("中文");
+        ByteSink sink = new ByteSink();
+        xsb.writeTo(sink);
+        Assert.assertEquals(xsb.toString(), new String(sink.array(), 0, sink.size(),
+            StandardCharsets.UTF_8));
+    }
+}
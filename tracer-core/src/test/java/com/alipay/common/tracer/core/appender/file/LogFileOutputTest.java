@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.file;
+
+import com.alipay.common.tracer.core.appender.TracerLogRootDaemon;
+import com.alipay.common.tracer.core.base.AbstractTestBase;
+import com.alipay.common.tracer.core.utils.StringUtils;
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @since 3.1.10
+ */
+public class LogFileOutputTest extends AbstractTestBase {
+
+    private static final String LINE = "2018-05-14 10:00:00.000,app,traceId,0.1" + StringUtils.NEWLINE;
+
+    @Test
+    public void testStream() throws IOException {
+        File file = newFile("output-stream.log");
+        assertWriteAndAppend(file, new StreamLogFileOutput(file, true, 16), new StreamLogFileOutput(
+            file, true, 16));
+    }
+
+    @Test
+    public void testChannel() throws IOException {
+        File file = newFile("output-channel.log");
+        assertWriteAndAppend(file, new ChannelLogFileOutput(file, true, 16),
+            new ChannelLogFileOutput(file, true, 16));
+    }
+
+    @Test
+    public void testMmap() throws IOException {
+        File file = newFile("output-mmap.log");
+        // a tiny region is remapped many times
+        assertWriteAndAppend(file, new MappedLogFileOutput(file, true, 16),
+            new MappedLogFileOutput(file, true, 16));
+    }
+
+    @Test
+    public void testMmapSkipsNulTailOfUnclosedFile() throws IOException {
+        File file = newFile("output-mmap-crash.log");
+        byte[] line = LINE.getBytes(StandardCharsets.UTF_8);
+        byte[] crashed = new byte[line.length + 10000];
+        System.arraycopy(line, 0, crashed, 0, line.length);
+        FileUtils.writeByteArrayToFile(file, crashed);
+
+        LogFileOutput output = new MappedLogFileOutput(file, true, 64 * 1024);
+        output.write(line, 0, line.length);
+        output.close();
+        Assert.assertEquals(LINE + LINE, FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testMmapRollOver() throws IOException, InterruptedException {
+        String fileName = "output-mmap-rolling.log";
+        TimedRollingFileAppender appender = new TimedRollingFileAppender(fileName,
+            AbstractRollingFileAppender.DEFAULT_BUFFER_SIZE, true, "'.'yyyy-MM-dd.HH:mm:ss",
+            LogFileOutput.TYPE_MMAP);
+        appender.append(LINE);
+        // wait to rolling
+        Thread.sleep(1100);
+        appender.append(LINE);
+        appender.output.close();
+
+        File[] files = new File(TracerLogRootDaemon.LOG_FILE_DIR).listFiles((dir, name) -> name
+            .startsWith(fileName));
+        Assert.assertNotNull(files);
+        Assert.assertEquals(2, files.length);
+        for (File file : files) {
+            Assert.assertEquals(file.getName(), LINE,
+                FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+        }
+    }
+
+    private void assertWriteAndAppend(File file, LogFileOutput first, LogFileOutput second)
+                                                                                           throws IOException {
+        byte[] line = LINE.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < 10; i++) {
+            first.write(line, 0, line.length);
+        }
+        first.flush();
+        first.close();
+        second.write(line, 0, line.length);
+        second.close();
+
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 11; i++) {
+            expected.append(LINE);
+        }
+        Assert.assertEquals(expected.toString(),
+            FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+    }
+
+    private File newFile(String name) throws IOException {
+        File file = new File(TracerLogRootDaemon.LOG_FILE_DIR, name);
+        FileUtils.deleteQuietly(file);
+        FileUtils.forceMkdir(file.getParentFile());
+        return file;
+    }
+}
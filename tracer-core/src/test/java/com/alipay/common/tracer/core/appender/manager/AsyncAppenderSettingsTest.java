@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.manager;
+
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.disruptor.BlockingWaitStrategy;
+import com.alipay.disruptor.PhasedBackoffWaitStrategy;
+import com.alipay.disruptor.YieldingWaitStrategy;
+import com.alipay.disruptor.dsl.ProducerType;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @since 3.1.10
+ */
+public class AsyncAppenderSettingsTest {
+
+    private static final String PREFIX = "tracer_test_async";
+
+    @After
+    public void after() {
+        SofaTracerConfiguration.removeProperty(PREFIX
+                                               + SofaTracerConfiguration.TRACER_ASYNC_RING_BUFFER_SIZE);
+        SofaTracerConfiguration.removeProperty(PREFIX
+                                               + SofaTracerConfiguration.TRACER_ASYNC_CONSUMER_NUMBER);
+        SofaTracerConfiguration.removeProperty(PREFIX
+                                               + SofaTracerConfiguration.TRACER_ASYNC_WAIT_STRATEGY);
+        SofaTracerConfiguration.removeProperty(PREFIX
+                                               + SofaTracerConfiguration.TRACER_ASYNC_PRODUCER_TYPE);
+    }
+
+    @Test
+    public void testDefaults() {
+        AsyncAppenderSettings settings = AsyncAppenderSettings.load(PREFIX, 1024, 3);
+        Assert.assertEquals(1024, settings.getQueueSize());
+        Assert.assertEquals(3, settings.getConsumerNumber());
+        Assert.assertEquals(ProducerType.MULTI, settings.getProducerType());
+        Assert.assertTrue(settings.newWaitStrategy() instanceof BlockingWaitStrategy);
+    }
+
+    @Test
+    public void testConfigured() {
+        SofaTracerConfiguration.setProperty(PREFIX
+                                            + SofaTracerConfiguration.TRACER_ASYNC_RING_BUFFER_SIZE,
+            "8192");
+        SofaTracerConfiguration.setProperty(PREFIX
+                                            + SofaTracerConfiguration.TRACER_ASYNC_CONSUMER_NUMBER,
+            "6");
+        SofaTracerConfiguration.setProperty(PREFIX
+                                            + SofaTracerConfiguration.TRACER_ASYNC_WAIT_STRATEGY,
+            "yielding");
+        SofaTracerConfiguration.setProperty(PREFIX
+                                            + SofaTracerConfiguration.TRACER_ASYNC_PRODUCER_TYPE,
+            "single");
+
+        AsyncAppenderSettings settings = AsyncAppenderSettings.load(PREFIX, 1024, 3);
+        Assert.assertEquals(8192, settings.getQueueSize());
+        Assert.assertEquals(6, settings.getConsumerNumber());
+        Assert.assertEquals(ProducerType.SINGLE, settings.getProducerType());
+        Assert.assertTrue(settings.newWaitStrategy() instanceof YieldingWaitStrategy);
+        // every ring buffer needs its own strategy instance
+        Assert.assertNotSame(settings.newWaitStrategy(), settings.newWaitStrategy());
+    }
+
+    @Test
+    public void testPhasedBackoff() {
+        SofaTracerConfiguration.setProperty(PREFIX
+                                            + SofaTracerConfiguration.TRACER_ASYNC_WAIT_STRATEGY,
+            "PHASED_BACKOFF");
+        AsyncAppenderSettings settings = AsyncAppenderSettings.load(PREFIX, 1024, 3);
+        Assert.assertTrue(settings.newWaitStrategy() instanceof PhasedBackoffWaitStrategy);
+    }
+
+    @Test
+    public void testInvalidValuesFallBackToDefaults() {
+        SofaTracerConfiguration.setProperty(PREFIX
+                                            + SofaTracerConfiguration.TRACER_ASYNC_RING_BUFFER_SIZE,
+            "-1");
+        SofaTracerConfiguration.setProperty(PREFIX
+                                            + SofaTracerConfiguration.TRACER_ASYNC_CONSUMER_NUMBER,
+            "abc");
+        SofaTracerConfiguration.setProperty(PREFIX
+                                            + SofaTracerConfiguration.TRACER_ASYNC_WAIT_STRATEGY,
+            "unknown");
+        SofaTracerConfiguration.setProperty(PREFIX
+                                            + SofaTracerConfiguration.TRACER_ASYNC_PRODUCER_TYPE,
+            "unknown");
+
+        AsyncAppenderSettings settings = AsyncAppenderSettings.load(PREFIX, 1024, 3);
+        Assert.assertEquals(1024, settings.getQueueSize());
+        Assert.assertEquals(3, settings.getConsumerNumber());
+        Assert.assertEquals(ProducerType.MULTI, settings.getProducerType());
+        Assert.assertTrue(settings.newWaitStrategy() instanceof BlockingWaitStrategy);
+    }
+}
@@ -21,6 +21,8 @@ import com.alipay.common.tracer.core.appender.TraceAppender;
 import com.alipay.common.tracer.core.appender.TracerLogRootDaemon;
 import com.alipay.common.tracer.core.appender.file.LoadTestAwareAppender;
 import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.reporter.stat.AbstractSofaTracerStatisticReporter;
+import com.alipay.common.tracer.core.reporter.stat.SofaTracerStatisticReporter;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
 import org.apache.commons.io.FileUtils;
 import org.junit.After;
@@ -33,7 +35,10 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author liangen
@@ -152,6 +157,149 @@ public class ConcurrentConsumerCorrectTest {
         }, 3000);
     }
 
+    @Test
+    public void testBatchFlushConsumerCorrect() throws InterruptedException {
+        SofaTracerConfiguration.setProperty(
+                SofaTracerConfiguration.TRACER_ASYNC_APPENDER_ALLOW_DISCARD, "false");
+        SofaTracerConfiguration.setProperty(
+                SofaTracerConfiguration.TRACER_ASYNC_APPENDER_BATCH_FLUSH, "true");
+        SofaTracerConfiguration.setProperty(
+                SofaTracerConfiguration.TRACER_ASYNC_APPENDER_MAX_FLUSH_LATENCY, "10");
+
+        try {
+            final AsyncCommonDigestAppenderManager asyncCommonDigestAppenderManager = new AsyncCommonDigestAppenderManager(
+                    1024);
+            asyncCommonDigestAppenderManager.start("BatchFlushConsumerCorrectTest");
+
+            ClientSpanEncoder encoder = new ClientSpanEncoder();
+            TraceAppender traceAppender1 = LoadTestAwareAppender
+                    .createLoadTestAwareTimedRollingFileAppender(fileName1, "", "");
+            TraceAppender traceAppender2 = LoadTestAwareAppender
+                    .createLoadTestAwareTimedRollingFileAppender(fileName2, "", "");
+            asyncCommonDigestAppenderManager.addAppender("logType1", traceAppender1, encoder);
+            asyncCommonDigestAppenderManager.addAppender("logType2", traceAppender2, encoder);
+
+            final CountDownLatch countDownLatch = new CountDownLatch(10);
+            for (int i = 0; i < 10; i++) {
+                new Thread(() -> {
+                    SofaTracerSpan span1 = ManagerTestUtil.createSofaTracerSpan(1);
+                    SofaTracerSpan span2 = ManagerTestUtil.createSofaTracerSpan(2);
+                    for (int j = 0; j < 100; j++) {
+                        asyncCommonDigestAppenderManager.append(span1);
+                        asyncCommonDigestAppenderManager.append(span2);
+                    }
+                    countDownLatch.countDown();
+                }).start();
+            }
+
+            /* every pending span must be flushed at the end of a batch */
+            countDownLatch.await();
+            TestUtil.periodicallyAssert(() -> {
+                try {
+                    assertFile(fileName1, 1000, "traceID1");
+                    assertFile(fileName2, 1000, "traceID2");
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+            }, 3000);
+        } finally {
+            SofaTracerConfiguration
+                .removeProperty(SofaTracerConfiguration.TRACER_ASYNC_APPENDER_BATCH_FLUSH);
+            SofaTracerConfiguration
+                .removeProperty(SofaTracerConfiguration.TRACER_ASYNC_APPENDER_MAX_FLUSH_LATENCY);
+        }
+    }
+
+    @Test
+    public void testPartitionAddedAfterStart() throws InterruptedException {
+        SofaTracerConfiguration.setProperty(
+                SofaTracerConfiguration.TRACER_ASYNC_APPENDER_ALLOW_DISCARD, "false");
+
+        final AsyncCommonDigestAppenderManager asyncCommonDigestAppenderManager = new AsyncCommonDigestAppenderManager(
+                1024, 1);
+        asyncCommonDigestAppenderManager.start("PartitionAddedAfterStartTest");
+
+        /* no partition is bound to the logType yet */
+        Assert.assertFalse(asyncCommonDigestAppenderManager.append(ManagerTestUtil
+            .createSofaTracerSpan(1)));
+
+        ClientSpanEncoder encoder = new ClientSpanEncoder();
+        asyncCommonDigestAppenderManager.addAppender("logType1", LoadTestAwareAppender
+            .createLoadTestAwareTimedRollingFileAppender(fileName1, "", ""), encoder);
+        asyncCommonDigestAppenderManager.addAppender("logType2", LoadTestAwareAppender
+            .createLoadTestAwareTimedRollingFileAppender(fileName2, "", ""), encoder);
+
+        SofaTracerSpan span1 = ManagerTestUtil.createSofaTracerSpan(1);
+        SofaTracerSpan span2 = ManagerTestUtil.createSofaTracerSpan(2);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(asyncCommonDigestAppenderManager.append(span1));
+            Assert.assertTrue(asyncCommonDigestAppenderManager.append(span2));
+        }
+
+        TestUtil.periodicallyAssert(() -> {
+            try {
+                assertFile(fileName1, 100, "traceID1");
+                assertFile(fileName2, 100, "traceID2");
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        }, 3000);
+    }
+
+    @Test
+    public void testStatisticOnConsumerThread() throws InterruptedException {
+        SofaTracerConfiguration.setProperty(
+                SofaTracerConfiguration.TRACER_ASYNC_APPENDER_ALLOW_DISCARD, "false");
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_ASYNC_STATISTIC,
+                "true");
+        try {
+            final AsyncCommonDigestAppenderManager asyncCommonDigestAppenderManager = new AsyncCommonDigestAppenderManager(
+                    1024, 1);
+            Assert.assertTrue(asyncCommonDigestAppenderManager.isAsyncStatistic());
+            asyncCommonDigestAppenderManager.start("StatisticOnConsumerThreadTest");
+            asyncCommonDigestAppenderManager.addAppender("logType1", LoadTestAwareAppender
+                .createLoadTestAwareTimedRollingFileAppender(fileName1, "", ""),
+                new ClientSpanEncoder());
+
+            final AtomicInteger reported = new AtomicInteger();
+            final Set<String> reportingThreads = ConcurrentHashMap.newKeySet();
+            SofaTracerStatisticReporter statReporter = new AbstractSofaTracerStatisticReporter(
+                "stat-on-consumer.log", "", "") {
+                @Override
+                public void reportStat(SofaTracerSpan sofaTracerSpan) {
+                    reportingThreads.add(Thread.currentThread().getName());
+                    reported.incrementAndGet();
+                }
+
+                @Override
+                public void doReportStat(SofaTracerSpan sofaTracerSpan) {
+                }
+            };
+
+            SofaTracerSpan span1 = ManagerTestUtil.createSofaTracerSpan(1);
+            for (int i = 0; i < 100; i++) {
+                /* only every other span has its digest written */
+                Assert.assertTrue(asyncCommonDigestAppenderManager.append(span1, i % 2 == 0,
+                    statReporter));
+            }
+
+            TestUtil.periodicallyAssert(() -> {
+                try {
+                    assertFile(fileName1, 50, "traceID1");
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+                Assert.assertEquals(100, reported.get());
+            }, 3000);
+            Assert.assertEquals(1, reportingThreads.size());
+            Assert.assertTrue(reportingThreads.iterator().next()
+                .endsWith("StatisticOnConsumerThreadTest"));
+        } finally {
+            SofaTracerConfiguration
+                .removeProperty(SofaTracerConfiguration.TRACER_ASYNC_STATISTIC);
+        }
+    }
+
     public void assertFile(String fileName, int expectedNum, String expectedContent)
                                                                                     throws IOException {
         int actualNum = 0;
@@ -43,25 +43,19 @@ import java.util.concurrent.atomic.AtomicInteger;
  * @version $Id: ConcurrentDiscardTest.java, v 0.1 October 23, 2017 8:22 PM liangen Exp $
  */
 public class ConcurrentDiscardTest {
-    static final String fileNameRoot    = TracerLogRootDaemon.LOG_FILE_DIR + File.separator;
-    static final String fileName1       = "log1.log";
-    static final String fileName2       = "log2.log";
-    static final String fileName3       = "log3.log";
-    static final String fileName4       = "log4.log";
-    static final String fileName5       = "log5.log";
-
-    int                 traceId1Discard = 0;
-    int                 traceId2Discard = 0;
-    int                 traceId3Discard = 0;
-    int                 traceId4Discard = 0;
-    int                 traceId5Discard = 0;
-
-    File                f               = new File(fileNameRoot + "sync.log");
-    File                f1              = new File(fileNameRoot + fileName1);
-    File                f2              = new File(fileNameRoot + fileName2);
-    File                f3              = new File(fileNameRoot + fileName3);
-    File                f4              = new File(fileNameRoot + fileName4);
-    File                f5              = new File(fileNameRoot + fileName5);
+    static final String fileNameRoot = TracerLogRootDaemon.LOG_FILE_DIR + File.separator;
+    static final String fileName1    = "log1.log";
+    static final String fileName2    = "log2.log";
+    static final String fileName3    = "log3.log";
+    static final String fileName4    = "log4.log";
+    static final String fileName5    = "log5.log";
+
+    File                f            = new File(fileNameRoot + "sync.log");
+    File                f1           = new File(fileNameRoot + fileName1);
+    File                f2           = new File(fileNameRoot + fileName2);
+    File                f3           = new File(fileNameRoot + fileName3);
+    File                f4           = new File(fileNameRoot + fileName4);
+    File                f5           = new File(fileNameRoot + fileName5);
 
     @Before
     public void beforeClean() throws Exception {
@@ -90,8 +84,6 @@ public class ConcurrentDiscardTest {
                 SofaTracerConfiguration.TRACER_ASYNC_APPENDER_IS_OUT_DISCARD_NUMBER, "true");
         SofaTracerConfiguration.setProperty(
                 SofaTracerConfiguration.TRACER_ASYNC_APPENDER_IS_OUT_DISCARD_ID, "true");
-        SofaTracerConfiguration.setProperty(
-                SofaTracerConfiguration.TRACER_ASYNC_APPENDER_DISCARD_OUT_THRESHOLD, "500");
 
         final AsyncCommonDigestAppenderManager asyncCommonDigestAppenderManager = new AsyncCommonDigestAppenderManager(
                 1024);
@@ -169,16 +161,13 @@ public class ConcurrentDiscardTest {
                 SelfLog.info("Landing log：" + allNum);
                 SelfLog.info("Lost log：" + discardNum.get());
                 Assert.assertEquals(25000, allNum + discardNum.get());
-                /* Sync.log lost log data is less than the actual number of lost */
-                int logDiscard = getDiscardNumFromTracerSelfLog();
-                SelfLog.info("Sync.log records the number of lost logs：" + logDiscard);
-                Assert.assertTrue(logDiscard <= discardNum.get());
-                /* Accuracy of the specific lost log data recorded by sync.log: the difference from the true lost number should be less than 500 */
-                int allTraceIdDiscard = traceId1Discard + traceId2Discard + traceId3Discard
-                        + traceId4Discard + traceId5Discard;
-                SelfLog.info("The number of specific lost log data with traceId recorded by sync.log:" + allTraceIdDiscard);
-                Assert.assertTrue((discardNum.get() == allTraceIdDiscard)
-                        || (discardNum.get() - allTraceIdDiscard) < 500);
+                /* Every lost log is counted per logType */
+                long recorded = 0;
+                for (int i = 1; i <= 5; i++) {
+                    recorded += asyncCommonDigestAppenderManager.getDiscardCount("logType" + i);
+                }
+                SelfLog.info("Recorded lost logs：" + recorded);
+                Assert.assertEquals(discardNum.get(), recorded);
             } catch (IOException e) {
                 throw new AssertionError(e);
             }
@@ -195,32 +184,4 @@ public class ConcurrentDiscardTest {
         return num;
     }
 
-    public int getDiscardNumFromTracerSelfLog() throws IOException {
-        int num = 0;
-        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(
-            fileNameRoot + "sync.log")));
-        String line;
-        while ((line = reader.readLine()) != null) {
-            if (line.contains("discarded 500 logs")) {
-                num += 500;
-            }
-            if (line.contains("traceId[traceID1")) {
-                traceId1Discard++;
-            }
-            if (line.contains("traceId[traceID2")) {
-                traceId2Discard++;
-            }
-            if (line.contains("traceId[traceID2")) {
-                traceId3Discard++;
-            }
-            if (line.contains("traceId[traceID3")) {
-                traceId4Discard++;
-            }
-            if (line.contains("traceId[traceID4")) {
-                traceId5Discard++;
-            }
-        }
-        return num;
-    }
-
-}
\ No newline at end of file
+}
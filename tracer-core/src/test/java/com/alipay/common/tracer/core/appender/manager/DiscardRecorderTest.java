@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.manager;
+
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * @since 3.1.10
+ */
+public class DiscardRecorderTest {
+
+    @Test
+    public void testCountPerLogType() throws InterruptedException {
+        final DiscardRecorder recorder = new DiscardRecorder("test", false, 0);
+        final CountDownLatch latch = new CountDownLatch(4);
+        for (int i = 0; i < 4; i++) {
+            new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    recorder.record("logType" + (j % 2), null);
+                }
+                latch.countDown();
+            }).start();
+        }
+        latch.await();
+
+        Assert.assertEquals(2000, recorder.getDiscardCount("logType0"));
+        Assert.assertEquals(2000, recorder.getDiscardCount("logType1"));
+        Assert.assertEquals(0, recorder.getDiscardCount("absent"));
+    }
+
+    @Test
+    public void testSummarize() {
+        DiscardRecorder recorder = new DiscardRecorder("test", true, 0);
+        Assert.assertNull(recorder.summarize());
+
+        SofaTracerSpan span = ManagerTestUtil.createSofaTracerSpan(1);
+        for (int i = 0; i < DiscardRecorder.SAMPLE_CAPACITY + 4; i++) {
+            recorder.record("logType1", span.getSofaTracerSpanContext());
+        }
+        String summary = recorder.summarize();
+        Assert.assertTrue(summary, summary.startsWith("test discarded 20 of logType[logType1]"));
+        Assert.assertEquals(DiscardRecorder.SAMPLE_CAPACITY,
+            summary.split("traceId\\[").length - 1);
+
+        // only the drops since the last summary are reported
+        Assert.assertNull(recorder.summarize());
+        recorder.record("logType1", null);
+        Assert.assertEquals("test discarded 1 of logType[logType1]", recorder.summarize());
+        Assert.assertEquals(21, recorder.getDiscardCount("logType1"));
+    }
+}
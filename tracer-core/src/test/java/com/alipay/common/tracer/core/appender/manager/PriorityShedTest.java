@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.manager;
+
+import com.alipay.common.tracer.core.appender.TraceAppender;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import io.opentracing.tag.Tags;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sheds a {@link AsyncCommonDigestAppenderManager} whose consumer is stuck
+ *
+ * @since 3.1.10
+ */
+public class PriorityShedTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Before
+    public void before() {
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_ASYNC_APPENDER_ALLOW_DISCARD, "true");
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_ASYNC_APPENDER_SHED_POLICY, "drop_by_priority");
+    }
+
+    @After
+    public void after() {
+        release.countDown();
+        SofaTracerConfiguration
+            .removeProperty(SofaTracerConfiguration.TRACER_ASYNC_APPENDER_ALLOW_DISCARD);
+        SofaTracerConfiguration
+            .removeProperty(SofaTracerConfiguration.TRACER_ASYNC_APPENDER_SHED_POLICY);
+    }
+
+    @Test
+    public void testErrorSpansUseTheReserve() {
+        AsyncCommonDigestAppenderManager manager = new AsyncCommonDigestAppenderManager(16, 1);
+        manager.start("PriorityShedTest");
+        manager.addAppender("logType1", new BlockedAppender(), new ClientSpanEncoder());
+
+        SofaTracerSpan plain = ManagerTestUtil.createSofaTracerSpan(1);
+        int accepted = 0;
+        while (manager.append(plain)) {
+            Assert.assertTrue("the consumer should not drain the ring buffer", ++accepted <= 16);
+        }
+
+        // plugins record errors as a string tag
+        SofaTracerSpan stringError = ManagerTestUtil.createSofaTracerSpan(1);
+        stringError.setTag(Tags.ERROR.getKey(), "timeout");
+        Assert.assertTrue(manager.append(stringError));
+
+        SofaTracerSpan boolError = ManagerTestUtil.createSofaTracerSpan(1);
+        boolError.setTag(Tags.ERROR.getKey(), true);
+        Assert.assertTrue(manager.append(boolError));
+
+        SofaTracerSpan blankError = ManagerTestUtil.createSofaTracerSpan(1);
+        blankError.setTag(Tags.ERROR.getKey(), " ");
+        Assert.assertFalse(manager.append(blankError));
+        Assert.assertEquals(2, manager.getDiscardCount("logType1"));
+    }
+
+    /**
+     * Holds the consumer thread in the first append, so nothing leaves the ring buffer
+     */
+    private class BlockedAppender implements TraceAppender {
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void append(String log) {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void cleanup() {
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.manager;
+
+import com.alipay.disruptor.EventFactory;
+import com.alipay.disruptor.RingBuffer;
+import com.alipay.disruptor.Sequence;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @since 3.1.10
+ */
+public class ShedPolicyTest {
+
+    private RingBuffer<StringEvent> newRingBuffer(int size) {
+        RingBuffer<StringEvent> ringBuffer = RingBuffer.createMultiProducer(
+            new EventFactory<StringEvent>() {
+                @Override
+                public StringEvent newInstance() {
+                    return new StringEvent();
+                }
+            }, size);
+        // a consumer that never moves, so the ring buffer fills up
+        ringBuffer.addGatingSequences(new Sequence());
+        return ringBuffer;
+    }
+
+    private void fill(RingBuffer<StringEvent> ringBuffer, int count) {
+        for (int i = 0; i < count; i++) {
+            ringBuffer.publish(ringBuffer.next());
+        }
+    }
+
+    @Test
+    public void testParse() {
+        Assert.assertEquals(ShedPolicy.DROP_NEWEST, ShedPolicy.parse(null));
+        Assert.assertEquals(ShedPolicy.DROP_NEWEST, ShedPolicy.parse("unknown"));
+        Assert.assertEquals(ShedPolicy.DROP_BY_PRIORITY, ShedPolicy.parse(" drop_by_priority "));
+        Assert.assertEquals(ShedPolicy.BLOCK_WITH_TIMEOUT, ShedPolicy.parse("BLOCK_WITH_TIMEOUT"));
+    }
+
+    @Test
+    public void testDropNewest() {
+        RingBuffer<StringEvent> ringBuffer = newRingBuffer(16);
+        fill(ringBuffer, 15);
+        Assert.assertEquals(15, ShedPolicy.DROP_NEWEST.claim(ringBuffer, false, 0));
+        Assert.assertEquals(-1, ShedPolicy.DROP_NEWEST.claim(ringBuffer, true, 0));
+    }
+
+    @Test
+    public void testDropByPriority() {
+        RingBuffer<StringEvent> ringBuffer = newRingBuffer(16);
+        // 2 slots left, the reserved part of a 16 slots ring buffer
+        fill(ringBuffer, 14);
+        Assert.assertEquals(-1, ShedPolicy.DROP_BY_PRIORITY.claim(ringBuffer, false, 0));
+        long sequence = ShedPolicy.DROP_BY_PRIORITY.claim(ringBuffer, true, 0);
+        Assert.assertEquals(14, sequence);
+        ringBuffer.publish(sequence);
+        ringBuffer.publish(ShedPolicy.DROP_BY_PRIORITY.claim(ringBuffer, true, 0));
+        Assert.assertEquals(-1, ShedPolicy.DROP_BY_PRIORITY.claim(ringBuffer, true, 0));
+    }
+
+    @Test
+    public void testTryClaimLeavesReserveToClaim() {
+        RingBuffer<StringEvent> ringBuffer = newRingBuffer(16);
+        fill(ringBuffer, 13);
+        Assert.assertEquals(13, ShedPolicy.DROP_BY_PRIORITY.tryClaim(ringBuffer));
+        ringBuffer.publish(13);
+        // only the reserved part is left, the fast path gives up without consulting a priority
+        Assert.assertEquals(-1, ShedPolicy.DROP_BY_PRIORITY.tryClaim(ringBuffer));
+        Assert.assertEquals(14, ShedPolicy.DROP_NEWEST.tryClaim(ringBuffer));
+        ringBuffer.publish(14);
+        Assert.assertEquals(15, ShedPolicy.DROP_BY_PRIORITY.claim(ringBuffer, true, 0));
+    }
+
+    @Test
+    public void testBlockWithTimeout() {
+        RingBuffer<StringEvent> ringBuffer = newRingBuffer(16);
+        fill(ringBuffer, 16);
+        long timeout = TimeUnit.MILLISECONDS.toNanos(20);
+        long start = System.nanoTime();
+        Assert.assertEquals(-1, ShedPolicy.BLOCK_WITH_TIMEOUT.claim(ringBuffer, false, timeout));
+        Assert.assertTrue(System.nanoTime() - start >= timeout);
+    }
+}
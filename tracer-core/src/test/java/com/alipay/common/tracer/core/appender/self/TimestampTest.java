@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.self;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+
+/**
+ * @since 3.1.10
+ */
+public class TimestampTest {
+
+    private final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+
+    @Test
+    public void testFormatSameAsSimpleDateFormat() {
+        long now = System.currentTimeMillis();
+        // cross several second and minute boundaries, in both directions
+        for (long time = now - 125000; time < now + 125000; time += 7) {
+            Assert.assertEquals(format.format(time), Timestamp.format(time));
+        }
+        Assert.assertEquals(format.format(0L), Timestamp.format(0L));
+        Assert.assertEquals(format.format(-1L), Timestamp.format(-1L));
+    }
+
+    @Test
+    public void testAppendTo() {
+        long now = System.currentTimeMillis();
+        StringBuilder sb = new StringBuilder("prefix,");
+        Timestamp.appendTo(sb, now);
+        Assert.assertEquals("prefix," + format.format(now), sb.toString());
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.benchmark;
+
+import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
+import com.alipay.common.tracer.core.context.span.SpanContextCodec;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Span context propagation with 0, 5 and 20 baggage items: the text form against the compact
+ * form, as bytes and as the Base64 string carried in RPC attachments.
+ *
+ * @since 3.1.10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PropagationBenchmark {
+
+    @Param({ "0", "5", "20" })
+    private int                   baggageSize;
+
+    private SofaTracerSpanContext context;
+
+    private String                text;
+
+    private byte[]                compact;
+
+    private String                compactString;
+
+    @Setup
+    public void setup() {
+        context = SofaTracerSpanContext.rootStart().nextChildContext().nextChildContext();
+        for (int i = 0; i < baggageSize; i++) {
+            context.setBizBaggageItem("bizKey" + i, "bizValue" + i);
+        }
+        text = context.serializeSpanContext();
+        compact = SpanContextCodec.encode(context);
+        compactString = SpanContextCodec.encodeToString(context);
+    }
+
+    @Benchmark
+    public String encodeText() {
+        return context.serializeSpanContext();
+    }
+
+    @Benchmark
+    public byte[] encodeCompact() {
+        return SpanContextCodec.encode(context);
+    }
+
+    @Benchmark
+    public String encodeCompactString() {
+        return SpanContextCodec.encodeToString(context);
+    }
+
+    @Benchmark
+    public SofaTracerSpanContext decodeText() {
+        return SofaTracerSpanContext.deserializeFromString(text);
+    }
+
+    @Benchmark
+    public SofaTracerSpanContext decodeCompact() {
+        return SpanContextCodec.decode(compact, 0, compact.length);
+    }
+
+    @Benchmark
+    public SofaTracerSpanContext decodeCompactString() {
+        return SofaTracerSpanContext.deserializeFromString(compactString);
+    }
+
+    @Test
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(PropagationBenchmark.class.getSimpleName())
+            .forks(1).build();
+        new Runner(opt).run();
+    }
+}
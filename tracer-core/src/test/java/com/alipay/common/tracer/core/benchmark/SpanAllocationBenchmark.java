@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.benchmark;
+
+import com.alipay.common.tracer.core.SofaTracer;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
+import com.alipay.common.tracer.core.span.CommonSpanTags;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import io.opentracing.tag.Tags;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation of a typical Spring MVC server span and Dubbo client span, with the default
+ * concurrent maps against the compact tag table enabled by
+ * {@link SofaTracerConfiguration#TRACER_SPAN_COMPACT_STORAGE}.
+ *
+ * Compare the gc.alloc.rate.norm column reported by {@code -prof gc}.
+ *
+ * @since 3.1.10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SpanAllocationBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean     compact;
+
+    private SofaTracer tracer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_SPAN_COMPACT_STORAGE,
+            String.valueOf(compact));
+        tracer = new SofaTracer.Builder("benchmark").build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SofaTracerConfiguration.removeProperty(SofaTracerConfiguration.TRACER_SPAN_COMPACT_STORAGE);
+    }
+
+    @Benchmark
+    public SofaTracerSpan springMvcServerSpan() {
+        SofaTracerSpan span = new SofaTracerSpan(tracer, System.currentTimeMillis(),
+            "GET /users", SofaTracerSpanContext.rootStart(), null);
+        span.setTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_SERVER);
+        span.setTag(CommonSpanTags.LOCAL_APP, "user-service");
+        span.setTag(CommonSpanTags.REQUEST_URL, "http://localhost:8080/users/1024");
+        span.setTag(CommonSpanTags.METHOD, "GET");
+        span.setTag(CommonSpanTags.CURRENT_THREAD_NAME, "http-nio-8080-exec-1");
+        span.setTag(CommonSpanTags.REQ_SIZE, 0);
+        span.setTag(CommonSpanTags.RESP_SIZE, 312);
+        span.setTag(CommonSpanTags.RESULT_CODE, "200");
+        span.setTag(Tags.HTTP_STATUS.getKey(), 200);
+        return span;
+    }
+
+    @Benchmark
+    public SofaTracerSpan dubboClientSpan() {
+        SofaTracerSpan span = new SofaTracerSpan(tracer, System.currentTimeMillis(),
+            "com.example.UserService#getUser", SofaTracerSpanContext.rootStart(), null);
+        span.setTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_CLIENT);
+        span.setTag(CommonSpanTags.LOCAL_APP, "order-service");
+        span.setTag(CommonSpanTags.REMOTE_APP, "user-service");
+        span.setTag(CommonSpanTags.SERVICE, "com.example.UserService:1.0.0");
+        span.setTag(CommonSpanTags.METHOD, "getUser");
+        span.setTag(CommonSpanTags.PROTOCOL, "dubbo");
+        span.setTag(CommonSpanTags.INVOKE_TYPE, "sync");
+        span.setTag(CommonSpanTags.REMOTE_HOST, "10.0.0.12");
+        span.setTag(CommonSpanTags.REMOTE_PORT, "20880");
+        span.setTag(CommonSpanTags.LOCAL_HOST, "10.0.0.7");
+        span.setTag(CommonSpanTags.CURRENT_THREAD_NAME, "main");
+        span.setTag(CommonSpanTags.REQ_SIZE, 186);
+        span.setTag(CommonSpanTags.RESP_SIZE, 420);
+        span.setTag(Tags.ERROR.getKey(), false);
+        span.setTag(CommonSpanTags.RESULT_CODE, "00");
+        return span;
+    }
+
+    @Test
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(SpanAllocationBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class).forks(1).build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.benchmark;
+
+import com.alipay.common.tracer.core.reporter.stat.model.StatValues;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Contention on one stat slot: the striped {@link StatValues} against the previous copy-on-write
+ * long[] updated with a CAS loop, with 1, 8 and 32 threads updating the same slot as a hot stat key does.
+ *
+ * Run with {@code -prof gc} to compare the allocation rate as well.
+ *
+ * @since 3.1.10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StatValuesBenchmark {
+
+    /**
+     * count, total cost, as digest stat reporters add them
+     */
+    private final long[]        update        = new long[] { 1, 12 };
+
+    private final StatValues    stripedValues = new StatValues(new long[] { 0, 0 });
+
+    private final CasStatValues casValues     = new CasStatValues(new long[] { 0, 0 });
+
+    @Benchmark
+    public void stripedUpdate() {
+        stripedValues.update(update);
+    }
+
+    @Benchmark
+    public void casArrayUpdate() {
+        casValues.update(update);
+    }
+
+    /**
+     * The StatValues implementation before the striped cells
+     */
+    static class CasStatValues {
+
+        private final AtomicReference<long[]> values = new AtomicReference<long[]>();
+
+        CasStatValues(long[] values) {
+            this.values.set(values);
+        }
+
+        void update(long[] update) {
+            long[] current;
+            long[] tmp = new long[update.length];
+            do {
+                current = values.get();
+                for (int k = 0; k < update.length && k < current.length; k++) {
+                    tmp[k] = current[k] + update[k];
+                }
+            } while (!values.compareAndSet(current, tmp));
+        }
+    }
+
+    @Test
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[] { 1, 8, 32 }) {
+            Options opt = new OptionsBuilder().include(StatValuesBenchmark.class.getSimpleName())
+                .threads(threads).forks(1).build();
+            new Runner(opt).run();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.benchmark;
+
+import com.alipay.common.tracer.core.appender.self.Timestamp;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.text.SimpleDateFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare formatting a digest timestamp with a new {@link SimpleDateFormat} per call, as
+ * {@link Timestamp} used to do, with the cached {@link Timestamp#format(long)} and the
+ * allocation-free {@link Timestamp#appendTo(StringBuilder, long)}.
+ *
+ * Run with {@code -prof gc} to compare the allocation rate as well.
+ *
+ * @since 3.1.10
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TimestampBenchmark {
+
+    private final StringBuilder sb   = new StringBuilder(64);
+
+    private long                time = System.currentTimeMillis();
+
+    @Benchmark
+    public void formatWithNewSimpleDateFormat(Blackhole blackhole) {
+        blackhole.consume(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(time++));
+    }
+
+    @Benchmark
+    public void formatWithCachedFormatter(Blackhole blackhole) {
+        blackhole.consume(Timestamp.format(time++));
+    }
+
+    @Benchmark
+    public void appendWithCachedFormatter(Blackhole blackhole) {
+        sb.setLength(0);
+        blackhole.consume(Timestamp.appendTo(sb, time++));
+    }
+
+    @Test
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(TimestampBenchmark.class.getSimpleName())
+            .forks(1).build();
+        new Runner(opt).run();
+    }
+}
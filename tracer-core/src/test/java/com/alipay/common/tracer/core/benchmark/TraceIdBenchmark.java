@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.benchmark;
+
+import com.alipay.common.tracer.core.generator.TraceIdGenerator;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Root trace ID generation with 1, 8 and 32 threads: the string generator with its shared CAS
+ * counter against binary IDs taken from per-thread sequence blocks, with and without rendering
+ * the string. Uniqueness under contention is checked by TraceIdGeneratorTest.
+ *
+ * @since 3.1.10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TraceIdBenchmark {
+
+    @Benchmark
+    public String stringTraceId() {
+        return TraceIdGenerator.generate();
+    }
+
+    @Benchmark
+    public long binaryTraceId() {
+        return TraceIdGenerator.nextTraceIdLow();
+    }
+
+    @Benchmark
+    public String binaryTraceIdRendered() {
+        return TraceIdGenerator.render(TraceIdGenerator.localTraceIdHigh(),
+            TraceIdGenerator.nextTraceIdLow());
+    }
+
+    @Test
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[] { 1, 8, 32 }) {
+            Options opt = new OptionsBuilder().include(TraceIdBenchmark.class.getSimpleName())
+                .threads(threads).forks(1).build();
+            new Runner(opt).run();
+        }
+    }
+}
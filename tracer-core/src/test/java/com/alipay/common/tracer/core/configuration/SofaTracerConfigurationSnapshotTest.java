@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.configuration;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @since 3.1.10
+ */
+public class SofaTracerConfigurationSnapshotTest {
+
+    private final List<SofaTracerConfigurationSnapshot> published = new ArrayList<SofaTracerConfigurationSnapshot>();
+
+    private final ConfigurationChangeListener           listener  = published::add;
+
+    @After
+    public void after() {
+        SofaTracerConfiguration.removeConfigurationChangeListener(listener);
+        SofaTracerConfiguration.removeProperty(SofaTracerConfiguration.JSON_FORMAT_OUTPUT);
+        SofaTracerConfiguration
+            .removeProperty(SofaTracerConfiguration.DISABLE_MIDDLEWARE_DIGEST_LOG_KEY);
+        SofaTracerConfiguration.removeProperty(SofaTracerConfiguration.DISABLE_DIGEST_LOG_KEY);
+        SofaTracerConfiguration
+            .removeProperty(SofaTracerConfiguration.ENABLE_RPC_2_JVM_DIGEST_LOG_KEY);
+    }
+
+    @Test
+    public void testDefaults() {
+        SofaTracerConfigurationSnapshot snapshot = SofaTracerConfiguration.getSnapshot();
+        Assert.assertTrue(snapshot.isJsonOutput());
+        Assert.assertTrue(SofaTracerConfiguration.isJsonOutput());
+        Assert.assertFalse(snapshot.isMiddlewareDigestLogDisabled());
+        Assert.assertFalse(snapshot.isDigestLogDisabled("rpc-client-digest.log"));
+        Assert.assertFalse(snapshot.isRpc2JvmDigestLogDisabled());
+    }
+
+    @Test
+    public void testPublishedOnChange() {
+        long version = SofaTracerConfiguration.getSnapshot().getVersion();
+        SofaTracerConfiguration.addConfigurationChangeListener(listener);
+
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.JSON_FORMAT_OUTPUT, "FALSE");
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.DISABLE_MIDDLEWARE_DIGEST_LOG_KEY, "true");
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.ENABLE_RPC_2_JVM_DIGEST_LOG_KEY, "false");
+        Map<String, String> disabled = new HashMap<String, String>();
+        disabled.put("rpc-client-digest.log", "true");
+        disabled.put("rpc-server-digest.log", "false");
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.DISABLE_DIGEST_LOG_KEY,
+            disabled);
+
+        SofaTracerConfigurationSnapshot snapshot = SofaTracerConfiguration.getSnapshot();
+        Assert.assertFalse(snapshot.isJsonOutput());
+        Assert.assertFalse(SofaTracerConfiguration.isJsonOutput());
+        Assert.assertTrue(snapshot.isMiddlewareDigestLogDisabled());
+        Assert.assertTrue(snapshot.isRpc2JvmDigestLogDisabled());
+        Assert.assertTrue(snapshot.isDigestLogDisabled("rpc-client-digest.log"));
+        Assert.assertFalse(snapshot.isDigestLogDisabled("rpc-server-digest.log"));
+        Assert.assertEquals(version + 4, snapshot.getVersion());
+        Assert.assertEquals(4, published.size());
+        Assert.assertSame(snapshot, published.get(3));
+
+        // later changes to the map are not seen until it is set again
+        disabled.put("rpc-server-digest.log", "true");
+        Assert.assertFalse(SofaTracerConfiguration.getSnapshot().isDigestLogDisabled(
+            "rpc-server-digest.log"));
+    }
+
+    @Test
+    public void testNotPublishedWithoutChange() {
+        SofaTracerConfigurationSnapshot snapshot = SofaTracerConfiguration.getSnapshot();
+        SofaTracerConfiguration.addConfigurationChangeListener(listener);
+        SofaTracerConfiguration.setProperty("tracer_snapshot_unrelated_key", "value");
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.JSON_FORMAT_OUTPUT, "true");
+        SofaTracerConfiguration.removeProperty("tracer_snapshot_unrelated_key");
+        Assert.assertSame(snapshot, SofaTracerConfiguration.getSnapshot());
+        Assert.assertTrue(published.isEmpty());
+    }
+
+    @Test
+    public void testRefreshSeesSystemProperties() {
+        String key = SofaTracerConfiguration.ENABLE_RPC_2_JVM_DIGEST_LOG_KEY;
+        System.setProperty(key, "false");
+        try {
+            // getProperty reads the system property at once, the snapshot is frozen until refresh
+            Assert.assertEquals("false", SofaTracerConfiguration.getProperty(key));
+            Assert.assertFalse(SofaTracerConfiguration.getSnapshot().isRpc2JvmDigestLogDisabled());
+            SofaTracerConfiguration.setProperty("tracer_snapshot_unrelated_key", "value");
+            SofaTracerConfiguration.removeProperty("tracer_snapshot_unrelated_key");
+            // any setter refreshes, and picks up the system property along the way
+            Assert.assertTrue(SofaTracerConfiguration.getSnapshot().isRpc2JvmDigestLogDisabled());
+            System.clearProperty(key);
+            Assert.assertTrue(SofaTracerConfiguration.getSnapshot().isRpc2JvmDigestLogDisabled());
+            SofaTracerConfiguration.refresh();
+            Assert.assertFalse(SofaTracerConfiguration.getSnapshot().isRpc2JvmDigestLogDisabled());
+            System.setProperty(key, "false");
+            SofaTracerConfiguration.refresh();
+            Assert.assertTrue(SofaTracerConfiguration.getSnapshot().isRpc2JvmDigestLogDisabled());
+        } finally {
+            System.clearProperty(key);
+            SofaTracerConfiguration.refresh();
+        }
+    }
+
+    @Test
+    public void testFailingListener() {
+        SofaTracerConfiguration.addConfigurationChangeListener(new ConfigurationChangeListener() {
+            @Override
+            public void onChange(SofaTracerConfigurationSnapshot snapshot) {
+                SofaTracerConfiguration.removeConfigurationChangeListener(this);
+                throw new IllegalStateException("expected");
+            }
+        });
+        SofaTracerConfiguration.addConfigurationChangeListener(listener);
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.JSON_FORMAT_OUTPUT, "false");
+        Assert.assertEquals(1, published.size());
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.context.span;
+
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.registry.BinaryFormater;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * @since 3.1.10
+ */
+public class SpanContextCodecTest {
+
+    @After
+    public void after() {
+        SofaTracerConfiguration.removeProperty(SofaTracerConfiguration.TRACER_COMPACT_PROPAGATION);
+    }
+
+    @Test
+    public void testStructuredRoundTrip() {
+        SofaTracerSpanContext context = SofaTracerSpanContext.rootStart().nextChildContext()
+            .nextChildContext();
+        context.setBizBaggageItem("user", "用户");
+        context.setSysBaggageItem("zone", "gz00a");
+
+        SofaTracerSpanContext decoded = roundTrip(context);
+        Assert.assertEquals(context, decoded);
+        Assert.assertEquals("0.1.1", decoded.getSpanId());
+        Assert.assertEquals("0.1", decoded.getParentId());
+        Assert.assertEquals(3, decoded.getSpanDepth());
+        Assert.assertEquals("用户", decoded.getBizBaggageItem("user"));
+        Assert.assertEquals("gz00a", decoded.getSysBaggageItem("zone"));
+        Assert.assertTrue(decoded.isSampled());
+        // children continue the structured ID
+        Assert.assertEquals("0.1.1.1", decoded.nextChildContext().getSpanId());
+    }
+
+    @Test
+    public void testBinaryTraceIdRoundTrip() {
+        SofaTracerSpanContext context = new SofaTracerSpanContext(0x0a00000100000123L,
+            0x0000017f12345678L, "0.3", "0", false);
+        SofaTracerSpanContext decoded = roundTrip(context);
+        Assert.assertTrue(decoded.hasBinaryTraceId());
+        Assert.assertEquals(context.getTraceIdHigh(), decoded.getTraceIdHigh());
+        Assert.assertEquals(context.getTraceIdLow(), decoded.getTraceIdLow());
+        Assert.assertEquals(context.getTraceId(), decoded.getTraceId());
+        Assert.assertFalse(decoded.isSampled());
+    }
+
+    @Test
+    public void testFreeFormIdsRoundTrip() {
+        SofaTracerSpanContext context = new SofaTracerSpanContext("b3-trace-id", "span-a",
+            "parent-b", true);
+        SofaTracerSpanContext decoded = roundTrip(context);
+        Assert.assertEquals("b3-trace-id", decoded.getTraceId());
+        Assert.assertEquals("span-a", decoded.getSpanId());
+        Assert.assertEquals("parent-b", decoded.getParentId());
+
+        // a canonical span ID whose parent does not follow from it keeps both strings
+        context = new SofaTracerSpanContext("trace", "0.2", "other", true);
+        decoded = roundTrip(context);
+        Assert.assertEquals("0.2", decoded.getSpanId());
+        Assert.assertEquals("other", decoded.getParentId());
+    }
+
+    @Test
+    public void testAutoDetectedByDeserialize() {
+        SofaTracerSpanContext context = SofaTracerSpanContext.rootStart().nextChildContext();
+        context.setBizBaggageItem("k", "v");
+        Assert.assertEquals(context.serializeSpanContext(), context.serializeForPropagation());
+
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_COMPACT_PROPAGATION,
+            "true");
+        String compact = context.serializeForPropagation();
+        Assert.assertTrue(SpanContextCodec.isCompact(compact));
+        Assert.assertTrue(compact.length() < context.serializeSpanContext().length());
+        SofaTracerSpanContext decoded = SofaTracerSpanContext.deserializeFromString(compact);
+        Assert.assertEquals(context, decoded);
+        Assert.assertEquals("v", decoded.getBizBaggageItem("k"));
+        // the text form is still read by upgraded receivers
+        Assert.assertEquals(context,
+            SofaTracerSpanContext.deserializeFromString(context.serializeSpanContext()));
+    }
+
+    @Test
+    public void testCorruptDataRecoversByRootStart() {
+        byte[] data = SpanContextCodec.encode(SofaTracerSpanContext.rootStart());
+        try {
+            SpanContextCodec.decode(data, 0, data.length - 1);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        byte[] unknownVersion = Arrays.copyOf(data, data.length);
+        unknownVersion[0] = 9;
+        try {
+            SpanContextCodec.decode(unknownVersion, 0, unknownVersion.length);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        SofaTracerSpanContext recovered = SofaTracerSpanContext.deserializeFromString("~!!");
+        Assert.assertEquals("0", recovered.getSpanId());
+    }
+
+    @Test
+    public void testBinaryFormater() {
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_COMPACT_PROPAGATION,
+            "true");
+        SofaTracerSpanContext context = SofaTracerSpanContext.rootStart().nextChildContext();
+        context.setSysBaggageItem("sys", "1");
+        BinaryFormater formater = new BinaryFormater();
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        formater.inject(context, buffer);
+        SofaTracerSpanContext extracted = formater.extract(buffer);
+        Assert.assertEquals(context, extracted);
+        Assert.assertEquals("1", extracted.getSysBaggageItem("sys"));
+
+        // text written by a sender that has not switched yet
+        SofaTracerConfiguration.removeProperty(SofaTracerConfiguration.TRACER_COMPACT_PROPAGATION);
+        buffer = ByteBuffer.allocate(256);
+        formater.inject(context, buffer);
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_COMPACT_PROPAGATION,
+            "true");
+        Assert.assertEquals(context, formater.extract(buffer));
+    }
+
+    private SofaTracerSpanContext roundTrip(SofaTracerSpanContext context) {
+        byte[] data = SpanContextCodec.encode(context);
+        byte[] padded = new byte[data.length + 4];
+        System.arraycopy(data, 0, padded, 2, data.length);
+        SofaTracerSpanContext decoded = SpanContextCodec.decode(padded, 2, data.length);
+        Assert.assertEquals(decoded,
+            SpanContextCodec.decodeFromString(SpanContextCodec.encodeToString(context)));
+        return decoded;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.context.span;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @since 3.1.10
+ */
+public class SpanIdTest {
+
+    @Test
+    public void testParse() {
+        Assert.assertSame(SpanId.ROOT, SpanId.parse("0"));
+        SpanId spanId = SpanId.parse("0.1.12.3");
+        Assert.assertEquals(4, spanId.depth());
+        Assert.assertEquals("0.1.12", spanId.getParent().toString());
+        Assert.assertEquals("0.1.12.3", spanId.toString());
+
+        Assert.assertNull(SpanId.parse(""));
+        Assert.assertNull(SpanId.parse("0..1"));
+        Assert.assertNull(SpanId.parse("0.1."));
+        Assert.assertNull(SpanId.parse("0.01"));
+        Assert.assertNull(SpanId.parse("0.a"));
+        Assert.assertNull(SpanId.parse("0.12345678901"));
+    }
+
+    @Test
+    public void testChild() {
+        SpanId child = SpanId.ROOT.child(2).child(10);
+        Assert.assertEquals(3, child.depth());
+        Assert.assertEquals("0.2.10", child.toString());
+        Assert.assertEquals(SpanId.parse("0.2.10"), child);
+        Assert.assertNull(SpanId.ROOT.getParent());
+    }
+
+    @Test
+    public void testHashIsFnvOfString() {
+        SpanId spanId = SpanId.ROOT.child(1).child(3);
+        long expected = 0xcbf29ce484222325L;
+        for (char c : "0.1.3".toCharArray()) {
+            expected ^= c;
+            expected *= 0x100000001b3L;
+        }
+        Assert.assertEquals(expected, spanId.hash64());
+        Assert.assertEquals(expected, SpanId.parse("0.1.3").hash64());
+    }
+
+    @Test
+    public void testChildContext() {
+        SofaTracerSpanContext root = SofaTracerSpanContext.rootStart();
+        SofaTracerSpanContext first = root.nextChildContext();
+        SofaTracerSpanContext second = root.nextChildContext();
+        SofaTracerSpanContext grandChild = second.nextChildContext();
+
+        Assert.assertEquals(root.getTraceId(), grandChild.getTraceId());
+        Assert.assertEquals("0.1", first.getSpanId());
+        Assert.assertEquals("0", first.getParentId());
+        Assert.assertEquals("0.2.1", grandChild.getSpanId());
+        Assert.assertEquals("0.2", grandChild.getParentId());
+        Assert.assertEquals(3, grandChild.getSpanDepth());
+        Assert.assertEquals(grandChild, grandChild.cloneInstance());
+        Assert.assertEquals(new SofaTracerSpanContext(root.getTraceId(), "0.2.1", "0.2"),
+            grandChild);
+
+        // span IDs that are not dotted numbers still get string children
+        SofaTracerSpanContext custom = new SofaTracerSpanContext("traceId", "0.a");
+        Assert.assertNull(custom.getStructuredSpanId());
+        SofaTracerSpanContext customChild = custom.nextChildContext();
+        Assert.assertEquals("0.a.1", customChild.getSpanId());
+        Assert.assertEquals("0.a", customChild.getParentId());
+        Assert.assertEquals(3, customChild.getSpanDepth());
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.context.trace;
+
+import com.alipay.common.tracer.core.SofaTracer;
+import com.alipay.common.tracer.core.holder.SofaTraceContextHolder;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @since 3.1.10
+ */
+public class SofaTracerReactiveTraceContextTest {
+
+    private SofaTracer sofaTracer = new SofaTracer.Builder("SofaTracerReactiveTraceContextTest")
+                                      .build();
+
+    @Test
+    public void testPushPop() {
+        SofaTracerReactiveTraceContext traceContext = new SofaTracerReactiveTraceContext();
+        Assert.assertTrue(traceContext.isEmpty());
+        traceContext.push(null);
+        Assert.assertTrue(traceContext.isEmpty());
+
+        SofaTracerSpan span = (SofaTracerSpan) sofaTracer.buildSpan("op").start();
+        traceContext.push(span);
+        Assert.assertSame(span, traceContext.getCurrentSpan());
+        Assert.assertEquals(1, traceContext.getThreadLocalSpanSize());
+        Assert.assertSame(span, traceContext.pop());
+        Assert.assertNull(traceContext.pop());
+        Assert.assertEquals(0, traceContext.getThreadLocalSpanSize());
+
+        traceContext = new SofaTracerReactiveTraceContext(span);
+        Assert.assertSame(span, traceContext.getCurrentSpan());
+        traceContext.clear();
+        Assert.assertTrue(traceContext.isEmpty());
+    }
+
+    @Test
+    public void testNotBoundToThread() throws InterruptedException {
+        SofaTraceContextHolder.getSofaTraceContext().clear();
+        final SofaTracerReactiveTraceContext traceContext = new SofaTracerReactiveTraceContext();
+        final SofaTracerSpan span = (SofaTracerSpan) sofaTracer.buildSpan("op").start();
+        traceContext.push(span);
+        Assert.assertTrue(SofaTraceContextHolder.getSofaTraceContext().isEmpty());
+
+        // another thread, e.g. another event loop, sees the span of the request
+        final AtomicReference<SofaTracerSpan> seen = new AtomicReference<SofaTracerSpan>();
+        Thread thread = new Thread(() -> seen.set(traceContext.pop()));
+        thread.start();
+        thread.join();
+        Assert.assertSame(span, seen.get());
+        Assert.assertTrue(traceContext.isEmpty());
+    }
+}
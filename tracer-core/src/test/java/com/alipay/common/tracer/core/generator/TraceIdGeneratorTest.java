@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.generator;
+
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
+import com.alipay.common.tracer.core.utils.TracerUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * @since 3.1.10
+ */
+public class TraceIdGeneratorTest {
+
+    @After
+    public void after() {
+        SofaTracerConfiguration.removeProperty(SofaTracerConfiguration.TRACER_BINARY_TRACE_ID);
+    }
+
+    @Test
+    public void testRenderKeepsLayout() {
+        Assert.assertTrue(TraceIdGenerator.isBinarySupported());
+        long before = System.currentTimeMillis();
+        String binary = TraceIdGenerator.render(TraceIdGenerator.localTraceIdHigh(),
+            TraceIdGenerator.nextTraceIdLow());
+        String legacy = TraceIdGenerator.generate();
+
+        Assert.assertEquals(legacy.length(), binary.length());
+        // hex IP prefix and PID suffix are the same
+        Assert.assertEquals(legacy.substring(0, 8), binary.substring(0, 8));
+        Assert.assertTrue(binary.endsWith(TracerUtils.getPID()));
+        long millis = Long.parseLong(binary.substring(8, 21));
+        Assert.assertTrue(millis >= before && millis <= System.currentTimeMillis() + 1);
+        int sequence = Integer.parseInt(binary.substring(21, 25));
+        Assert.assertTrue(sequence >= 1000 && sequence <= 9999);
+    }
+
+    @Test
+    public void testRender() {
+        long high = 0x0a000001L << 32 | 4321;
+        long low = 1539767012345L << 14 | 1001;
+        Assert.assertEquals("0a000001153976701234510014321", TraceIdGenerator.render(high, low));
+        // unknown PID
+        Assert.assertEquals("0a00000115397670123451001",
+            TraceIdGenerator.render(0x0a000001L << 32 | 0xffffffffL, low));
+    }
+
+    @Test
+    public void testUniqueAcrossThreads() throws InterruptedException {
+        final int threads = 8;
+        final int perThread = 50000;
+        final Set<Long> ids = ConcurrentHashMap.newKeySet();
+        final CountDownLatch latch = new CountDownLatch(threads);
+        List<Thread> workers = new ArrayList<Thread>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < perThread; j++) {
+                        ids.add(TraceIdGenerator.nextTraceIdLow());
+                    }
+                    latch.countDown();
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        latch.await();
+        Assert.assertEquals(threads * perThread, ids.size());
+    }
+
+    @Test
+    public void testUniqueAcrossStringAndBinaryIds() throws InterruptedException {
+        Assert.assertTrue(TraceIdGenerator.isBinarySupported());
+        final int threads = 8;
+        final int perThread = 50000;
+        final Set<String> ids = ConcurrentHashMap.newKeySet();
+        final CountDownLatch latch = new CountDownLatch(threads);
+        List<Thread> workers = new ArrayList<Thread>();
+        for (int i = 0; i < threads; i++) {
+            final boolean binary = i % 2 == 0;
+            workers.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < perThread; j++) {
+                        ids.add(binary ? TraceIdGenerator.render(
+                            TraceIdGenerator.localTraceIdHigh(), TraceIdGenerator.nextTraceIdLow())
+                            : TraceIdGenerator.generate());
+                    }
+                    latch.countDown();
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        latch.await();
+        Assert.assertEquals(threads * perThread, ids.size());
+    }
+
+    @Test
+    public void testDriftIsBounded() {
+        for (int i = 0; i < 1000000; i++) {
+            long millis = TraceIdGenerator.nextTraceIdLow() >>> 14;
+            Assert.assertTrue(millis <= System.currentTimeMillis() + TraceIdGenerator.MAX_DRIFT_MS
+                                        + 1);
+        }
+    }
+
+    @Test
+    public void testBinaryContext() {
+        Assert.assertTrue(TraceIdGenerator.isBinarySupported());
+        Assert.assertFalse(SofaTracerSpanContext.rootStart().hasBinaryTraceId());
+
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_BINARY_TRACE_ID, "true");
+        SofaTracerSpanContext context = SofaTracerSpanContext.rootStart();
+        Assert.assertTrue(context.hasBinaryTraceId());
+        String traceId = context.getTraceId();
+        Assert.assertEquals(
+            TraceIdGenerator.render(context.getTraceIdHigh(), context.getTraceIdLow()), traceId);
+        Assert.assertSame(traceId, context.getTraceId());
+
+        SofaTracerSpanContext clone = context.cloneInstance();
+        Assert.assertTrue(clone.hasBinaryTraceId());
+        Assert.assertEquals(context, clone);
+
+        SofaTracerSpanContext deserialized = SofaTracerSpanContext
+            .deserializeFromString(context.serializeSpanContext());
+        Assert.assertEquals(traceId, deserialized.getTraceId());
+
+        context.setTraceId("abc");
+        Assert.assertFalse(context.hasBinaryTraceId());
+        Assert.assertEquals("abc", context.getTraceId());
+    }
+}
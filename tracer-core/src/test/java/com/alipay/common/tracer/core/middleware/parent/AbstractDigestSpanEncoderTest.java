@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.middleware.parent;
+
+import com.alipay.common.tracer.core.SofaTracer;
+import com.alipay.common.tracer.core.appender.builder.JsonStringBuilder;
+import com.alipay.common.tracer.core.appender.builder.XStringBuilder;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
+import com.alipay.common.tracer.core.span.CommonSpanTags;
+import com.alipay.common.tracer.core.span.MessageBatchSummary;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import com.alipay.common.tracer.core.utils.StringUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @since 3.1.10
+ */
+public class AbstractDigestSpanEncoderTest {
+
+    private final AbstractDigestSpanEncoder encoder = new ComponentEncoder();
+
+    @Before
+    public void before() {
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.JSON_FORMAT_OUTPUT, "false");
+    }
+
+    @After
+    public void after() {
+        SofaTracerConfiguration.removeProperty(SofaTracerConfiguration.JSON_FORMAT_OUTPUT);
+    }
+
+    @Test
+    public void testBatchColumnsFollowBaggage() throws Exception {
+        SofaTracer tracer = new SofaTracer.Builder("batchEncoderTest").build();
+        SofaTracerSpan span = (SofaTracerSpan) tracer.buildSpan("batch").start();
+        String plain = encoder.encode(span);
+
+        MessageBatchSummary summary = new MessageBatchSummary();
+        summary.add("topic-0", 1);
+        summary.add("topic-1", 1);
+        summary.link(new SofaTracerSpanContext("t1", "0.1", "", true));
+        summary.link(new SofaTracerSpanContext("t2", "0.2", "", true));
+        summary.applyTo(span);
+        String batch = encoder.encode(span);
+
+        String prefix = plain.substring(0, plain.length() - StringUtils.NEWLINE.length()) + ',';
+        Assert.assertTrue(batch.startsWith(prefix));
+        Assert.assertEquals("2,2,topic-0:1;topic-1:1,t1:0.1;t2:0.2" + StringUtils.NEWLINE,
+            batch.substring(prefix.length()));
+        Assert.assertEquals(columns(plain) + 4, columns(batch));
+    }
+
+    @Test
+    public void testSeparatorInBatchValuesIsEscaped() throws Exception {
+        SofaTracer tracer = new SofaTracer.Builder("batchEncoderTest").build();
+        SofaTracerSpan span = (SofaTracerSpan) tracer.buildSpan("batch").start();
+        String plain = encoder.encode(span);
+        span.setTag(CommonSpanTags.MSG_BATCH_COUNT, 1);
+        span.setTag(CommonSpanTags.MSG_BATCH_DISTRIBUTION, "a,b:1");
+        Assert.assertEquals(columns(plain) + 4, columns(encoder.encode(span)));
+    }
+
+    private int columns(String line) {
+        return line.split(",", -1).length;
+    }
+
+    private static class ComponentEncoder extends AbstractDigestSpanEncoder {
+        @Override
+        protected void appendComponentSlot(XStringBuilder xsb, JsonStringBuilder jsb,
+                                           SofaTracerSpan span) {
+            xsb.append("component");
+        }
+    }
+}
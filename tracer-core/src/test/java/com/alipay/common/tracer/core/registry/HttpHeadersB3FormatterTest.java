@@ -109,4 +109,44 @@ public class HttpHeadersB3FormatterTest {
         assertEquals(baggage.get("key1"), baggageInContext.get("key1"));
         assertEquals(baggage.get("key2"), baggageInContext.get("key2"));
     }
+
+    public class LookupCarrier4Test extends Carrier4Test implements LookupTextMap {
+
+        @Override
+        public Iterator<Map.Entry<String, String>> iterator() {
+            throw new UnsupportedOperationException("extraction must look keys up");
+        }
+
+        @Override
+        public Iterable<String> keys() {
+            return carr.keySet();
+        }
+    }
+
+    @Test
+    public void testExtractByLookup() throws Exception {
+        SofaTracerSpanContext spanContext = SofaTracerSpanContext.rootStart().nextChildContext();
+        spanContext.setSampled(false);
+        spanContext.setBizBaggageItem("biz", "a=b");
+        spanContext.setSysBaggageItem("sys", "c");
+
+        Carrier4Test carrier = new Carrier4Test();
+        this.registryExtractorInjector.inject(spanContext, carrier);
+        LookupCarrier4Test lookupCarrier = new LookupCarrier4Test();
+        lookupCarrier.carr.putAll(carrier.carr);
+        lookupCarrier.put("X-Forwarded-For", "10.0.0.1");
+
+        SofaTracerSpanContext expected = this.registryExtractorInjector.extract(carrier);
+        SofaTracerSpanContext extracted = this.registryExtractorInjector.extract(lookupCarrier);
+        assertEquals(expected, extracted);
+        assertFalse(extracted.isSampled());
+        assertEquals(expected.getBizBaggage(), extracted.getBizBaggage());
+        assertEquals(expected.getSysBaggage(), extracted.getSysBaggage());
+        assertEquals("a=b", extracted.getBizBaggageItem("biz"));
+        assertEquals("c", extracted.getSysBaggageItem("sys"));
+
+        lookupCarrier.remove(AbstractTextB3Formatter.TRACE_ID_KEY_HEAD);
+        assertNotEquals(spanContext.getTraceId(),
+            this.registryExtractorInjector.extract(lookupCarrier).getTraceId());
+    }
 }
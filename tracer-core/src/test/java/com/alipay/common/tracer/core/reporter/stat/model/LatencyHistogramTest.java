@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.reporter.stat.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @since 3.1.10
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketsCoverEveryValue() {
+        int previous = -1;
+        for (long value = 0; value < 1 << 20; value++) {
+            int index = LatencyHistogram.bucketIndex(value);
+            Assert.assertTrue(index == previous || index == previous + 1);
+            Assert.assertTrue(value <= LatencyHistogram.bucketUpperBound(index));
+            previous = index;
+        }
+        Assert.assertEquals(LatencyHistogram.BUCKET_COUNT - 1,
+            LatencyHistogram.bucketIndex(LatencyHistogram.MAX_TRACKABLE_VALUE));
+        Assert.assertEquals(352, LatencyHistogram.BUCKET_COUNT);
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i, 1);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        Assert.assertEquals(1000, snapshot.getTotalCount());
+        Assert.assertEquals(1000, snapshot.getMax());
+        assertWithinBucket(500, snapshot.getValueAtPercentile(50));
+        assertWithinBucket(900, snapshot.getValueAtPercentile(90));
+        assertWithinBucket(990, snapshot.getValueAtPercentile(99));
+        Assert.assertEquals(1000, snapshot.getValueAtPercentile(99.9));
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(3, 98);
+        histogram.record(20, 2);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        Assert.assertEquals(3, snapshot.getValueAtPercentile(50));
+        Assert.assertEquals(20, snapshot.getValueAtPercentile(99));
+        Assert.assertEquals(0, new LatencyHistogram().snapshot().getValueAtPercentile(99));
+    }
+
+    @Test
+    public void testHugeValueKeepsExactMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE, 1);
+        Assert.assertEquals(Long.MAX_VALUE, histogram.snapshot().getMax());
+        // clamped into the last bucket
+        Assert.assertEquals(LatencyHistogram.MAX_TRACKABLE_VALUE, histogram.snapshot()
+            .getValueAtPercentile(50));
+    }
+
+    @Test
+    public void testClearKeepsValuesRecordedWhilePrinting() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(10, 5);
+        LatencyHistogram.Snapshot printed = histogram.snapshot();
+        histogram.record(200, 1);
+        histogram.clear(printed);
+
+        LatencyHistogram.Snapshot next = histogram.snapshot();
+        Assert.assertEquals(1, next.getTotalCount());
+        Assert.assertEquals(200, next.getMax());
+
+        histogram.clear(next);
+        Assert.assertEquals(0, histogram.snapshot().getTotalCount());
+        Assert.assertEquals(0, histogram.snapshot().getMax());
+    }
+
+    private void assertWithinBucket(long expected, long actual) {
+        Assert.assertTrue(actual + " for " + expected, actual >= expected
+                                                       && actual <= expected + expected / 16);
+    }
+}
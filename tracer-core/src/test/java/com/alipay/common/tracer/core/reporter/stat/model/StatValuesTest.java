@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.reporter.stat.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @since 3.1.10
+ */
+public class StatValuesTest {
+
+    @Test
+    public void testConcurrentUpdate() throws InterruptedException {
+        final StatValues statValues = new StatValues(new long[] { 1, 10 });
+        final int threads = 8;
+        final int updates = 10000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch latch = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < updates; j++) {
+                    statValues.update(new long[] { 1, 10 });
+                }
+                latch.countDown();
+            });
+        }
+        Assert.assertTrue(latch.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        long count = 1 + threads * updates;
+        Assert.assertArrayEquals(new long[] { count, count * 10 }, statValues.getCurrentValue());
+    }
+
+    @Test
+    public void testClearPrinted() {
+        StatValues statValues = new StatValues(new long[] { 2, 20 });
+        long[] printed = statValues.getCurrentValue();
+        // updated while printing
+        statValues.update(new long[] { 1, 5 });
+        statValues.clear(printed);
+        Assert.assertArrayEquals(new long[] { 1, 5 }, statValues.getCurrentValue());
+        // the printed array is a snapshot
+        Assert.assertArrayEquals(new long[] { 2, 20 }, printed);
+    }
+}
@@ -17,6 +17,7 @@
 package com.alipay.common.tracer.core.samplers;
 
 import com.alipay.common.tracer.core.SofaTracer;
+import com.alipay.common.tracer.core.constants.SofaTracerConstant;
 import com.alipay.common.tracer.core.reporter.digest.DiskReporterImpl;
 import com.alipay.common.tracer.core.reporter.facade.Reporter;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
@@ -74,6 +75,40 @@ public class SofaTracerPercentageBasedSamplerTest {
         Assert.assertTrue(sampleStatusTrue.isSampled());
     }
 
+    @Test
+    public void sampleFractionalPercentage() {
+        samplerProperties.setPercentage(0.05f);
+        int sampled = 0;
+        for (int i = 0; i < SofaTracerPercentageBasedSampler.RATE_SCALE; i++) {
+            if (sofaTracerPercentageBasedSampler.sample(sofaTracerSpan).isSampled()) {
+                sampled++;
+            }
+        }
+        // exactly 0.05% of every cycle of a thread
+        Assert.assertEquals(500, sampled);
+    }
+
+    @Test
+    public void sampleReusesStatus() {
+        samplerProperties.setPercentage(50);
+        SamplingStatus first = null;
+        SamplingStatus second = null;
+        for (int i = 0; i < 100 && (first == null || second == null); i++) {
+            SamplingStatus status = sofaTracerPercentageBasedSampler.sample(sofaTracerSpan);
+            if (status.isSampled()) {
+                first = first == null ? status : first;
+                Assert.assertSame(first, status);
+            } else {
+                second = second == null ? status : second;
+                Assert.assertSame(second, status);
+            }
+        }
+        Assert.assertEquals(50f,
+            first.getTags().get(SofaTracerConstant.SAMPLER_PARAM_TAG_KEY));
+        Assert.assertEquals(SofaTracerPercentageBasedSampler.TYPE,
+            second.getTags().get(SofaTracerConstant.SAMPLER_TYPE_TAG_KEY));
+    }
+
     @Test
     public void getType() {
         Assert.assertTrue(sofaTracerPercentageBasedSampler.getType().equals(
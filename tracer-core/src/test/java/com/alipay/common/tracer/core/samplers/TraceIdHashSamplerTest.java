@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.samplers;
+
+import com.alipay.common.tracer.core.SofaTracer;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.constants.SofaTracerConstant;
+import com.alipay.common.tracer.core.generator.TraceIdGenerator;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @since 3.1.10
+ */
+public class TraceIdHashSamplerTest {
+
+    private SamplerProperties  samplerProperties;
+    private TraceIdHashSampler sampler;
+    private SofaTracerSpan     sofaTracerSpan;
+
+    @Before
+    public void setUp() {
+        samplerProperties = new SamplerProperties();
+        sampler = new TraceIdHashSampler(samplerProperties);
+        SofaTracer sofaTracer = new SofaTracer.Builder("TraceIdHashSamplerTest").build();
+        sofaTracerSpan = (SofaTracerSpan) sofaTracer.buildSpan("").start();
+    }
+
+    @After
+    public void close() {
+        sampler.close();
+        SofaTracerConfiguration.removeProperty(SofaTracerConfiguration.SAMPLER_STRATEGY_NAME_KEY);
+    }
+
+    @Test
+    public void sampleBounds() {
+        samplerProperties.setPercentage(0);
+        Assert.assertFalse(sample(TraceIdGenerator.generate()));
+        samplerProperties.setPercentage(100);
+        Assert.assertTrue(sample(TraceIdGenerator.generate()));
+    }
+
+    @Test
+    public void sameTraceIdSameDecision() {
+        samplerProperties.setPercentage(30);
+        TraceIdHashSampler other = new TraceIdHashSampler(samplerProperties);
+        for (int i = 0; i < 1000; i++) {
+            String traceId = TraceIdGenerator.generate();
+            sofaTracerSpan.getSofaTracerSpanContext().setTraceId(traceId);
+            Assert.assertEquals(sampler.sample(sofaTracerSpan).isSampled(),
+                other.sample(sofaTracerSpan).isSampled());
+        }
+    }
+
+    @Test
+    public void lowerPercentageIsSubset() {
+        SamplerProperties lowerProperties = new SamplerProperties();
+        lowerProperties.setPercentage(5);
+        TraceIdHashSampler lower = new TraceIdHashSampler(lowerProperties);
+        samplerProperties.setPercentage(20);
+        for (int i = 0; i < 1000; i++) {
+            sofaTracerSpan.getSofaTracerSpanContext().setTraceId(TraceIdGenerator.generate());
+            if (lower.sample(sofaTracerSpan).isSampled()) {
+                Assert.assertTrue(sampler.sample(sofaTracerSpan).isSampled());
+            }
+        }
+    }
+
+    @Test
+    public void sampleRate() {
+        samplerProperties.setPercentage(10);
+        int sampled = 0;
+        int total = 100000;
+        for (int i = 0; i < total; i++) {
+            if (sample(TraceIdGenerator.generate())) {
+                sampled++;
+            }
+        }
+        // sequential trace IDs still spread evenly over the buckets
+        Assert.assertTrue("sampled " + sampled, Math.abs(sampled - total / 10) < total / 100);
+    }
+
+    @Test
+    public void statusTags() {
+        samplerProperties.setPercentage(100);
+        sofaTracerSpan.getSofaTracerSpanContext().setTraceId(TraceIdGenerator.generate());
+        SamplingStatus status = sampler.sample(sofaTracerSpan);
+        Assert.assertSame(status, sampler.sample(sofaTracerSpan));
+        Assert.assertEquals(TraceIdHashSampler.TYPE,
+            status.getTags().get(SofaTracerConstant.SAMPLER_TYPE_TAG_KEY));
+        Assert.assertEquals(100f, status.getTags().get(SofaTracerConstant.SAMPLER_PARAM_TAG_KEY));
+    }
+
+    @Test
+    public void bucketOf() {
+        // pinned so that other languages can check their implementation against it
+        Assert.assertEquals(83717, TraceIdHashSampler.bucketOf("0a1b2c3d1539767012345100112345"));
+        Assert.assertEquals(TraceIdHashSampler.bucketOf(null), TraceIdHashSampler.bucketOf(""));
+        int bucket = TraceIdHashSampler.bucketOf(TraceIdGenerator.generate());
+        Assert.assertTrue(bucket >= 0 && bucket < TraceIdHashSampler.RATE_SCALE);
+    }
+
+    @Test
+    public void selectedByName() throws Exception {
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.SAMPLER_STRATEGY_NAME_KEY,
+            TraceIdHashSampler.TYPE);
+        Assert.assertTrue(SamplerFactory.getSampler() instanceof TraceIdHashSampler);
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.SAMPLER_STRATEGY_NAME_KEY,
+            SofaTracerPercentageBasedSampler.TYPE);
+        Assert.assertTrue(SamplerFactory.getSampler() instanceof SofaTracerPercentageBasedSampler);
+    }
+
+    private boolean sample(String traceId) {
+        sofaTracerSpan.getSofaTracerSpanContext().setTraceId(traceId);
+        return sampler.sample(sofaTracerSpan).isSampled();
+    }
+}
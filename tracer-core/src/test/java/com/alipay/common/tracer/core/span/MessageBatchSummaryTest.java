@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.span;
+
+import com.alipay.common.tracer.core.SofaTracer;
+import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Set;
+
+/**
+ * @since 3.1.10
+ */
+public class MessageBatchSummaryTest {
+
+    @Test
+    public void testAggregate() {
+        MessageBatchSummary summary = new MessageBatchSummary(2);
+        summary.add("topic-0", 10);
+        summary.add("topic-1", 5);
+        summary.add("topic-0", -1);
+        Assert.assertEquals(3, summary.getCount());
+        Assert.assertEquals(15, summary.getBytes());
+        Assert.assertEquals("topic-0:2;topic-1:1", summary.getDistribution());
+    }
+
+    @Test
+    public void testOnlySampledContextsAreLinked() {
+        MessageBatchSummary summary = new MessageBatchSummary(2);
+        summary.link(null);
+        summary.link(new SofaTracerSpanContext("t1", "0.1", "", false));
+        summary.link(new SofaTracerSpanContext("t2", "0.1", "", true));
+        Assert.assertTrue(summary.acceptsLinks());
+        summary.link(new SofaTracerSpanContext("t3", "0.1.1", "0.1", true));
+        Assert.assertFalse(summary.acceptsLinks());
+        summary.link(new SofaTracerSpanContext("t4", "0.1", "", true));
+        Assert.assertEquals(2, summary.getLinkCount());
+        Assert.assertEquals("t2:0.1;t3:0.1.1", summary.getLinks());
+    }
+
+    @Test
+    public void testExtractionAttemptsAreCapped() {
+        MessageBatchSummary summary = new MessageBatchSummary(2);
+        for (int i = 0; i < 2 * MessageBatchSummary.ATTEMPTS_PER_LINK - 1; i++) {
+            summary.link(new SofaTracerSpanContext("u" + i, "0.1", "", false));
+        }
+        Assert.assertTrue(summary.acceptsLinks());
+        summary.link(null);
+        Assert.assertFalse(summary.acceptsLinks());
+        summary.link(new SofaTracerSpanContext("t1", "0.1", "", true));
+        Assert.assertEquals(0, summary.getLinkCount());
+    }
+
+    @Test
+    public void testApplyTo() {
+        SofaTracer tracer = new SofaTracer.Builder("batchTest").build();
+        SofaTracerSpan span = (SofaTracerSpan) tracer.buildSpan("batch").start();
+        MessageBatchSummary summary = new MessageBatchSummary();
+        summary.add("q-1", 4);
+        summary.applyTo(span);
+        Assert.assertEquals(1, span.getTagsWithNumber().get(CommonSpanTags.MSG_BATCH_COUNT));
+        Assert.assertEquals(4L, span.getTagsWithNumber().get(CommonSpanTags.MSG_BATCH_BYTES));
+        Assert.assertEquals("q-1:1",
+            span.getTagsWithStr().get(CommonSpanTags.MSG_BATCH_DISTRIBUTION));
+        Assert.assertFalse(span.getTagsWithStr().containsKey(CommonSpanTags.MSG_BATCH_LINKS));
+    }
+
+    @Test
+    public void testBatchTopics() {
+        Set<String> topics = MessageBatchSummary.parseTopics(" a, b ,,");
+        Assert.assertTrue(MessageBatchSummary.isBatchTopic(topics, "a"));
+        Assert.assertTrue(MessageBatchSummary.isBatchTopic(topics, "b"));
+        Assert.assertFalse(MessageBatchSummary.isBatchTopic(topics, "c"));
+        Assert.assertFalse(MessageBatchSummary.isBatchTopic(
+            MessageBatchSummary.parseTopics(null), "a"));
+        Assert.assertTrue(MessageBatchSummary.isBatchTopic(
+            MessageBatchSummary.parseTopics("*"), "c"));
+    }
+}
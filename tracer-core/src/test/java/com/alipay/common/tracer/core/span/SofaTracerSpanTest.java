@@ -147,7 +147,7 @@ public class SofaTracerSpanTest extends AbstractTestBase {
 
         assertEquals("testConstructSpan", sofaTracerSpan.getOperationName());
         assertEquals(111, sofaTracerSpan.getStartTime());
-        assertEquals(222 - 111, sofaTracerSpan.getDurationMicroseconds());
+        assertEquals((222 - 111) * 1000, sofaTracerSpan.getDurationMicroseconds());
 
     }
 
@@ -215,7 +215,22 @@ public class SofaTracerSpanTest extends AbstractTestBase {
             .withStartTimestamp(111).start();
         span.finish(999);
         assertEquals(111, span.getStartTime());
-        assertEquals(999 - 111, span.getDurationMicroseconds());
+        assertEquals((999 - 111) * 1000, span.getDurationMicroseconds());
+    }
+
+    @Test
+    public void testDurationMeasuredWithNanoTime() throws InterruptedException {
+        SofaTracerSpan span = (SofaTracerSpan) this.sofaTracer.buildSpan("testNanoTime").start();
+        Thread.sleep(3);
+        span.finish();
+        long durationMicros = span.getDurationMicroseconds();
+        assertTrue("Duration : " + durationMicros, durationMicros >= 3000);
+        assertEquals(durationMicros / 1000, span.getEndTime() - span.getStartTime());
+        assertEquals(durationMicros, span.cloneInstance().getDurationMicroseconds());
+
+        // an explicit end time replaces the measured duration
+        span.setEndTime(span.getStartTime() + 10);
+        assertEquals(10000, span.getDurationMicroseconds());
     }
 
     /**
@@ -227,8 +242,10 @@ public class SofaTracerSpanTest extends AbstractTestBase {
             .withStartTimestamp(111).start();
         long endTime = System.currentTimeMillis();
         span.finish();
-        assertTrue("Endtime : " + endTime + ", Duration :" + span.getDurationMicroseconds(),
-            111 < span.getDurationMicroseconds() && span.getDurationMicroseconds() < endTime);
+        long duration = span.getEndTime() - span.getStartTime();
+        assertTrue("Endtime : " + endTime + ", Duration :" + duration,
+            111 < duration && duration < endTime);
+        assertEquals(duration * 1000, span.getDurationMicroseconds());
     }
 
     @Test
@@ -252,8 +269,10 @@ public class SofaTracerSpanTest extends AbstractTestBase {
         //close
         span.close();
         long endTime = System.currentTimeMillis();
-        assertTrue("Endtime : " + endTime + ", Duration :" + span.getDurationMicroseconds(),
-            111 < span.getDurationMicroseconds() && span.getDurationMicroseconds() < endTime);
+        long duration = span.getEndTime() - span.getStartTime();
+        assertTrue("Endtime : " + endTime + ", Duration :" + duration,
+            111 < duration && duration < endTime);
+        assertEquals(duration * 1000, span.getDurationMicroseconds());
     }
 
     /**
@@ -390,6 +409,17 @@ public class SofaTracerSpanTest extends AbstractTestBase {
         assertEquals(444, logDataList.get(2).getTime());
     }
 
+    /**
+     * Method: hasLogs()
+     */
+    @Test
+    public void testHasLogs() {
+        SofaTracerSpan span = (SofaTracerSpan) this.sofaTracer.buildSpan("testHasLogs").start();
+        assertFalse(span.hasLogs());
+        span.log(222, "eventName222", "value222");
+        assertTrue(span.hasLogs());
+    }
+
     /**
      * Method: getTagsWithStr()
      */
@@ -495,6 +525,25 @@ public class SofaTracerSpanTest extends AbstractTestBase {
         assertTrue(serverSpan.isServer());
     }
 
+    @Test
+    public void testSpanKindSetsLogType() {
+        SofaTracerSpan span = (SofaTracerSpan) this.sofaTracer.buildSpan("testSpanKind").start();
+        assertFalse(span.isClient() || span.isServer());
+        span.setTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_SERVER);
+        assertTrue(span.isServer());
+        assertEquals(serverLogType, span.getLogType());
+
+        span.setTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_CLIENT);
+        span.setTag("other", "value");
+        assertTrue(span.isClient());
+        assertFalse(span.isServer());
+        assertEquals(clientLogType, span.getLogType());
+        assertTrue(span.cloneInstance().isClient());
+
+        span.setTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_PRODUCER);
+        assertFalse(span.isClient() || span.isServer());
+    }
+
     /**
      * Method: toString()
      */
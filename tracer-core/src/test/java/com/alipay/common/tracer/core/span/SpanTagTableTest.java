@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.span;
+
+import com.alipay.common.tracer.core.SofaTracer;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import io.opentracing.tag.Tags;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * @since 3.1.10
+ */
+public class SpanTagTableTest {
+
+    @After
+    public void after() {
+        SofaTracerConfiguration.removeProperty(SofaTracerConfiguration.TRACER_SPAN_COMPACT_STORAGE);
+    }
+
+    @Test
+    public void testTypesKeepTheirNamespace() {
+        SpanTagTable table = new SpanTagTable();
+        table.putString("key", "value");
+        table.putBoolean("key", true);
+        table.putNumber("key", 1);
+        Assert.assertEquals("value", table.getString("key"));
+        Assert.assertEquals(Boolean.TRUE, table.get("key", SpanTagTable.GROUP_BOOL));
+        Assert.assertEquals(1, table.get("key", SpanTagTable.GROUP_NUMBER));
+        Assert.assertEquals(1, table.size(SpanTagTable.GROUP_STR));
+
+        Assert.assertEquals("value", table.remove("key", SpanTagTable.GROUP_STR));
+        Assert.assertNull(table.getString("key"));
+        Assert.assertEquals(Boolean.TRUE, table.get("key", SpanTagTable.GROUP_BOOL));
+    }
+
+    @Test
+    public void testNumbersKeepTheirType() {
+        SpanTagTable table = new SpanTagTable();
+        table.putNumber("int", 7);
+        table.putNumber("long", 7L);
+        table.putNumber("double", 0.1d);
+        table.putNumber("float", 0.1f);
+        table.putNumber("decimal", new BigDecimal("1.10"));
+        Assert.assertEquals(Integer.valueOf(7), table.get("int", SpanTagTable.GROUP_NUMBER));
+        Assert.assertEquals(Long.valueOf(7), table.get("long", SpanTagTable.GROUP_NUMBER));
+        Assert.assertEquals(Double.valueOf(0.1d), table.get("double", SpanTagTable.GROUP_NUMBER));
+        Assert.assertEquals(Float.valueOf(0.1f), table.get("float", SpanTagTable.GROUP_NUMBER));
+        Assert.assertEquals(new BigDecimal("1.10"), table.get("decimal",
+            SpanTagTable.GROUP_NUMBER));
+        // a replaced value changes its representation
+        table.putNumber("int", 8L);
+        Assert.assertEquals(Long.valueOf(8), table.get("int", SpanTagTable.GROUP_NUMBER));
+    }
+
+    @Test
+    public void testViewsMatchHashMap() {
+        Random random = new Random(42);
+        SpanTagTable table = new SpanTagTable();
+        Map<String, String> strView = table.view(SpanTagTable.GROUP_STR);
+        Map<String, Number> numberView = table.view(SpanTagTable.GROUP_NUMBER);
+        Map<String, String> strExpected = new HashMap<String, String>();
+        Map<String, Number> numberExpected = new HashMap<String, Number>();
+        for (int i = 0; i < 20000; i++) {
+            String key = "tag." + random.nextInt(64);
+            switch (random.nextInt(5)) {
+                case 0:
+                case 1:
+                    Assert.assertEquals(strExpected.put(key, key + i), strView.put(key, key + i));
+                    break;
+                case 2:
+                    Assert.assertEquals(numberExpected.put(key, (long) i),
+                        numberView.put(key, (long) i));
+                    break;
+                case 3:
+                    Assert.assertEquals(strExpected.remove(key), strView.remove(key));
+                    break;
+                default:
+                    // remove through the iterator while walking the view
+                    Iterator<Map.Entry<String, Number>> iterator = numberView.entrySet()
+                        .iterator();
+                    while (iterator.hasNext()) {
+                        Map.Entry<String, Number> entry = iterator.next();
+                        if (entry.getValue().longValue() % 3 == 0) {
+                            iterator.remove();
+                            numberExpected.remove(entry.getKey());
+                        }
+                    }
+            }
+            if (i % 1000 == 0) {
+                Assert.assertEquals(strExpected, new HashMap<String, String>(strView));
+                Assert.assertEquals(numberExpected, new HashMap<String, Number>(numberView));
+            }
+        }
+        Assert.assertEquals(strExpected, strView);
+        Assert.assertEquals(numberExpected, numberView);
+        strView.clear();
+        Assert.assertTrue(strView.isEmpty());
+        Assert.assertEquals(numberExpected, numberView);
+    }
+
+    @Test
+    public void testCompactSpan() {
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_SPAN_COMPACT_STORAGE,
+            "true");
+        SofaTracer sofaTracer = new SofaTracer.Builder("SpanTagTableTest").build();
+        SofaTracerSpan span = (SofaTracerSpan) sofaTracer.buildSpan("compact")
+            .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_SERVER).withTag("ok", true)
+            .withTag("size", 12).start();
+        span.setTag("local.app", "app");
+        Assert.assertTrue(span.isServer());
+        Assert.assertEquals("app", span.getTagsWithStr().get("local.app"));
+        Assert.assertEquals(Boolean.TRUE, span.getTagsWithBool().get("ok"));
+        Assert.assertEquals(12, span.getTagsWithNumber().get("size"));
+
+        span.log("event");
+        SofaTracerSpan clone = span.cloneInstance();
+        Assert.assertEquals(span.getTagsWithStr(), clone.getTagsWithStr());
+        Assert.assertEquals(span.getTagsWithNumber(), clone.getTagsWithNumber());
+        Assert.assertEquals(1, clone.getLogs().size());
+    }
+}
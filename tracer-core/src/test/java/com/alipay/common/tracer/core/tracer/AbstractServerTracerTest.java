@@ -18,6 +18,8 @@ package com.alipay.common.tracer.core.tracer;
 
 import com.alipay.common.tracer.core.appender.encoder.SpanEncoder;
 import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
+import com.alipay.common.tracer.core.context.trace.SofaTraceContext;
+import com.alipay.common.tracer.core.context.trace.SofaTracerReactiveTraceContext;
 import com.alipay.common.tracer.core.holder.SofaTraceContextHolder;
 import com.alipay.common.tracer.core.reporter.stat.AbstractSofaTracerStatisticReporter;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
@@ -90,6 +92,24 @@ public class AbstractServerTracerTest {
         Assert.assertTrue(sofaTracerSpan.getSofaTracerSpanContext().isSampled());
     }
 
+    /**
+     *  case 3 : explicit trace context, the thread local context is not touched
+     */
+    @Test
+    public void testServerReceive_traceContext() {
+        SofaTraceContext threadContext = SofaTraceContextHolder.getSofaTraceContext();
+        threadContext.clear();
+        SofaTracerReactiveTraceContext traceContext = new SofaTracerReactiveTraceContext();
+        SofaTracerSpan sofaTracerSpan = serverTracer.serverReceive(new SofaTracerSpanContext(
+            "123", "0"), traceContext);
+        Assert.assertSame(sofaTracerSpan, traceContext.getCurrentSpan());
+        Assert.assertTrue(threadContext.isEmpty());
+
+        serverTracer.serverSend("200", traceContext);
+        Assert.assertTrue(traceContext.isEmpty());
+        Assert.assertTrue(threadContext.isEmpty());
+    }
+
     @Test
     public void generateClientStatReporter() {
         //user super method
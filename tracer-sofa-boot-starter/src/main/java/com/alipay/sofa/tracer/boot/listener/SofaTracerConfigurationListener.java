@@ -106,6 +106,50 @@ public class SofaTracerConfigurationListener
 
         SofaTracerConfiguration.setProperty(SofaTracerConfiguration.JSON_FORMAT_OUTPUT,
             String.valueOf(tempTarget.isJsonOutput()));
+
+        //async appender disruptor config
+        setAsyncProperty(SofaTracerConfiguration.TRACER_DIGEST_ASYNC_PREFIX,
+            tempTarget.getDigestRingBufferSize(), tempTarget.getDigestConsumerNumber(),
+            tempTarget.getDigestWaitStrategy(), tempTarget.getDigestProducerType());
+        setAsyncProperty(SofaTracerConfiguration.TRACER_COMMON_ASYNC_PREFIX,
+            tempTarget.getCommonRingBufferSize(), tempTarget.getCommonConsumerNumber(),
+            tempTarget.getCommonWaitStrategy(), tempTarget.getCommonProducerType());
+
+        //log file output
+        if (StringUtils.isNotBlank(tempTarget.getLogFileOutputType())) {
+            SofaTracerConfiguration.setProperty(
+                SofaTracerConfiguration.TRACER_LOG_FILE_OUTPUT_TYPE,
+                tempTarget.getLogFileOutputType());
+        }
+        if (StringUtils.isNotBlank(tempTarget.getLogFileMmapRegionSize())) {
+            SofaTracerConfiguration.setProperty(
+                SofaTracerConfiguration.TRACER_LOG_FILE_MMAP_REGION_SIZE,
+                tempTarget.getLogFileMmapRegionSize());
+        }
+    }
+
+    private void setAsyncProperty(String keyPrefix, String ringBufferSize, String consumerNumber,
+                                  String waitStrategy, String producerType) {
+        if (StringUtils.isNotBlank(ringBufferSize)) {
+            SofaTracerConfiguration.setProperty(keyPrefix
+                                                + SofaTracerConfiguration.TRACER_ASYNC_RING_BUFFER_SIZE,
+                ringBufferSize);
+        }
+        if (StringUtils.isNotBlank(consumerNumber)) {
+            SofaTracerConfiguration.setProperty(keyPrefix
+                                                + SofaTracerConfiguration.TRACER_ASYNC_CONSUMER_NUMBER,
+                consumerNumber);
+        }
+        if (StringUtils.isNotBlank(waitStrategy)) {
+            SofaTracerConfiguration.setProperty(keyPrefix
+                                                + SofaTracerConfiguration.TRACER_ASYNC_WAIT_STRATEGY,
+                waitStrategy);
+        }
+        if (StringUtils.isNotBlank(producerType)) {
+            SofaTracerConfiguration.setProperty(keyPrefix
+                                                + SofaTracerConfiguration.TRACER_ASYNC_PRODUCER_TYPE,
+                producerType);
+        }
     }
 
     @Override
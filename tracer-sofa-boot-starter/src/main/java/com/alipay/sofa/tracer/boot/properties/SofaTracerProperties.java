@@ -88,6 +88,58 @@ public class SofaTracerProperties {
      */
     private boolean             jsonOutput                       = true;
 
+    /**
+     * com.alipay.sofa.tracer.digestRingBufferSize=1024
+     */
+    private String              digestRingBufferSize;
+
+    /**
+     * com.alipay.sofa.tracer.digestConsumerNumber=3
+     */
+    private String              digestConsumerNumber;
+
+    /**
+     * com.alipay.sofa.tracer.digestWaitStrategy=blocking
+     * blocking, lite_blocking, sleeping, yielding, phased_backoff or busy_spin
+     */
+    private String              digestWaitStrategy;
+
+    /**
+     * com.alipay.sofa.tracer.digestProducerType=MULTI
+     */
+    private String              digestProducerType;
+
+    /**
+     * com.alipay.sofa.tracer.commonRingBufferSize=1024
+     */
+    private String              commonRingBufferSize;
+
+    /**
+     * com.alipay.sofa.tracer.commonConsumerNumber=3
+     */
+    private String              commonConsumerNumber;
+
+    /**
+     * com.alipay.sofa.tracer.commonWaitStrategy=blocking
+     */
+    private String              commonWaitStrategy;
+
+    /**
+     * com.alipay.sofa.tracer.commonProducerType=MULTI
+     */
+    private String              commonProducerType;
+
+    /**
+     * com.alipay.sofa.tracer.logFileOutputType=stream
+     * stream, channel or mmap
+     */
+    private String              logFileOutputType;
+
+    /**
+     * com.alipay.sofa.tracer.logFileMmapRegionSize=16777216
+     */
+    private String              logFileMmapRegionSize;
+
     public String getDisableDigestLog() {
         return disableDigestLog;
     }
@@ -176,6 +228,86 @@ public class SofaTracerProperties {
         this.jsonOutput = jsonOutput;
     }
 
+    public String getDigestRingBufferSize() {
+        return digestRingBufferSize;
+    }
+
+    public void setDigestRingBufferSize(String digestRingBufferSize) {
+        this.digestRingBufferSize = digestRingBufferSize;
+    }
+
+    public String getDigestConsumerNumber() {
+        return digestConsumerNumber;
+    }
+
+    public void setDigestConsumerNumber(String digestConsumerNumber) {
+        this.digestConsumerNumber = digestConsumerNumber;
+    }
+
+    public String getDigestWaitStrategy() {
+        return digestWaitStrategy;
+    }
+
+    public void setDigestWaitStrategy(String digestWaitStrategy) {
+        this.digestWaitStrategy = digestWaitStrategy;
+    }
+
+    public String getDigestProducerType() {
+        return digestProducerType;
+    }
+
+    public void setDigestProducerType(String digestProducerType) {
+        this.digestProducerType = digestProducerType;
+    }
+
+    public String getCommonRingBufferSize() {
+        return commonRingBufferSize;
+    }
+
+    public void setCommonRingBufferSize(String commonRingBufferSize) {
+        this.commonRingBufferSize = commonRingBufferSize;
+    }
+
+    public String getCommonConsumerNumber() {
+        return commonConsumerNumber;
+    }
+
+    public void setCommonConsumerNumber(String commonConsumerNumber) {
+        this.commonConsumerNumber = commonConsumerNumber;
+    }
+
+    public String getCommonWaitStrategy() {
+        return commonWaitStrategy;
+    }
+
+    public void setCommonWaitStrategy(String commonWaitStrategy) {
+        this.commonWaitStrategy = commonWaitStrategy;
+    }
+
+    public String getCommonProducerType() {
+        return commonProducerType;
+    }
+
+    public void setCommonProducerType(String commonProducerType) {
+        this.commonProducerType = commonProducerType;
+    }
+
+    public String getLogFileOutputType() {
+        return logFileOutputType;
+    }
+
+    public void setLogFileOutputType(String logFileOutputType) {
+        this.logFileOutputType = logFileOutputType;
+    }
+
+    public String getLogFileMmapRegionSize() {
+        return logFileMmapRegionSize;
+    }
+
+    public void setLogFileMmapRegionSize(String logFileMmapRegionSize) {
+        this.logFileMmapRegionSize = logFileMmapRegionSize;
+    }
+
     /**
      * Getter method for property <tt>fillMinuteSwitch</tt>.
      *